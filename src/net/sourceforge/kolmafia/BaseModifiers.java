@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2005-2018, KoLmafia development team
+ * http://kolmafia.sourceforge.net/
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  [1] Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *  [2] Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in
+ *      the documentation and/or other materials provided with the
+ *      distribution.
+ *  [3] Neither the name "KoLmafia" nor the names of its contributors may
+ *      be used to endorse or promote products derived from this software
+ *      without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.sourceforge.kolmafia;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The modifiers which <code>KoLCharacter.recalculateAdjustments</code> takes
+ * from everything except equipment and familiar: location, sign, skills,
+ * effects, campground and so on. When the maximizer scores many combinations
+ * of equipment, each of these sections is recorded the first time it is
+ * calculated and then replayed, in the same order, into every later
+ * calculation. Modifiers with expressions or hard-coded variations are
+ * evaluated again each time they are replayed; everything else is added
+ * exactly as it was looked up.
+ */
+
+public class BaseModifiers
+{
+	public static final int AREA = 0;
+	public static final int EFFECTS = 1;
+	public static final int CAMPGROUND = 2;
+	public static final int CHARACTER = 3;
+	public static final int COMPANIONS = 4;
+
+	private static final int SECTIONS = 5;
+
+	private final List<List<Object>> sections = new ArrayList<List<Object>>();
+
+	private boolean keyed = false;
+	private int MCD;
+	private List<AdventureResult> effects;
+	private String custom;
+	private String horsery;
+
+	public BaseModifiers()
+	{
+		for ( int i = 0; i < BaseModifiers.SECTIONS; ++i )
+		{
+			this.sections.add( null );
+		}
+	}
+
+	/**
+	 * Returns whether a calculation with these inputs can use the recorded
+	 * sections. The first calculation to ask decides what they are.
+	 */
+
+	public boolean matches( final int MCD, final List<AdventureResult> effects, final String custom, final String horsery )
+	{
+		if ( !this.keyed )
+		{
+			this.keyed = true;
+			this.MCD = MCD;
+			this.effects = new ArrayList<AdventureResult>( effects );
+			this.custom = custom;
+			this.horsery = horsery;
+			return true;
+		}
+
+		return this.MCD == MCD &&
+			BaseModifiers.equals( this.custom, custom ) &&
+			BaseModifiers.equals( this.horsery, horsery ) &&
+			this.effects.equals( effects );
+	}
+
+	private static boolean equals( final String a, final String b )
+	{
+		return a == null ? b == null : a.equals( b );
+	}
+
+	/**
+	 * Adds a recorded section to <code>mods</code>, returning false if the
+	 * section has not been recorded yet.
+	 */
+
+	public boolean replay( final int section, final Modifiers mods )
+	{
+		List<Object> adjustments = this.sections.get( section );
+		if ( adjustments == null )
+		{
+			return false;
+		}
+
+		for ( int i = 0; i < adjustments.size(); ++i )
+		{
+			Object adjustment = adjustments.get( i );
+			if ( adjustment instanceof Modifiers )
+			{
+				Modifiers source = (Modifiers) adjustment;
+				source.refresh();
+				mods.add( source );
+			}
+			else
+			{
+				Adjustment single = (Adjustment) adjustment;
+				mods.add( single.index, single.mod, single.desc );
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns modifiers which pass everything added to them on to
+	 * <code>mods</code> while recording it as this section.
+	 */
+
+	public Modifiers record( final int section, final Modifiers mods )
+	{
+		List<Object> adjustments = new ArrayList<Object>();
+		this.sections.set( section, adjustments );
+		return new Recorder( mods, adjustments );
+	}
+
+	private static class Adjustment
+	{
+		private final int index;
+		private final double mod;
+		private final String desc;
+
+		public Adjustment( final int index, final double mod, final String desc )
+		{
+			this.index = index;
+			this.mod = mod;
+			this.desc = desc;
+		}
+	}
+
+	private static class Recorder
+		extends Modifiers
+	{
+		private final Modifiers target;
+		private final List<Object> adjustments;
+
+		public Recorder( final Modifiers target, final List<Object> adjustments )
+		{
+			this.target = target;
+			this.adjustments = adjustments;
+		}
+
+		@Override
+		public void add( final int index, final double mod, final String desc )
+		{
+			this.adjustments.add( new Adjustment( index, mod, desc ) );
+			this.target.add( index, mod, desc );
+		}
+
+		@Override
+		public void add( final Modifiers mods )
+		{
+			if ( mods == null )
+			{
+				return;
+			}
+
+			this.adjustments.add( mods );
+			this.target.add( mods );
+		}
+	}
+}
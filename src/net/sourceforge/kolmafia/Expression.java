@@ -63,11 +63,19 @@ public class Expression
 	private static final Pattern NUM_PATTERN = Pattern.compile( "([+-]?[\\d.]+)(.*)" );
 	private static final int STACK_SIZE = 128;
 
+	// Operations which read the state of the character or the game,
+	// without and with a literal argument
+	private static final String OPERATIONS =
+		"ABCDEFGHIJKLMNPRSTUWXY\u0080\u0081\u0082\u0083\u0084\u0085\u0086\u0087\u0088\u0089\u0090\u0091";
+	private static final String LITERAL_OPERATIONS = "pbdeghijlnvwz\u0092\u0093\u0094";
+
 	protected String name;
 	protected String text;
 
 	private char[] bytecode;	// Compiled expression
 	private ArrayList<Object> literals;	// Strings & floats needed by expression
+	private Node tree;	// Bytecode built into a tree, if it could be
+	private int inputs;	// What the expression reads, as Modifiers inputs
 	protected AdventureResult effect;
 
 	// If non-null, contains concatenated error strings from compiling bytecode
@@ -153,6 +161,12 @@ public class Expression
 			buf.append( this.text );
 		}
 		this.text = null;
+
+		this.tree = this.buildTree();
+		if ( this.tree == null )
+		{
+			this.inputs = Modifiers.UNTRACKED_INPUTS;
+		}
 	}
 
 	public static Expression getInstance( String text, String name )
@@ -192,6 +206,67 @@ public class Expression
 	}
 
 	public double evalInternal()
+	{
+		if ( this.tree != null )
+		{
+			return this.tree.eval();
+		}
+
+		return this.interpret();
+	}
+
+	/**
+	 * Returns true if the value of this expression does not depend on
+	 * the state of the character or the game.
+	 */
+
+	public boolean isConstant()
+	{
+		return this.tree != null && this.tree.isConstant();
+	}
+
+	/**
+	 * Returns the inputs this expression reads, as a mask of
+	 * <code>Modifiers</code> inputs, with UNTRACKED_INPUTS set if it
+	 * reads anything whose changes are not tracked.
+	 */
+
+	public int getInputs()
+	{
+		return this.inputs;
+	}
+
+	private static int inputOf( final char inst )
+	{
+		switch ( inst )
+		{
+		case 'L':
+			return 1 << Modifiers.INPUT_LEVEL;
+		case 'W':
+		case 'i':
+		case 'w':
+			return 1 << Modifiers.INPUT_FAMILIAR;
+		case 'H':
+		case 'K':
+		case 'h':
+			return 1 << Modifiers.INPUT_EQUIPMENT;
+		case 'j':
+		case 'l':
+		case 'z':
+			return 1 << Modifiers.INPUT_LOCATION;
+		case 'p':
+			return 1 << Modifiers.INPUT_PREFERENCES;
+		case 'd':
+			return 1 << Modifiers.INPUT_SKILLS;
+		case 'b':
+		case '\u0093':
+			return 1 << Modifiers.INPUT_MODIFIERS;
+		}
+
+		return Modifiers.UNTRACKED_INPUTS;
+	}
+
+	private double interpret()
 	{
 		double[] s = stackFactory( null );
 		int sp = 0;
@@ -241,317 +316,586 @@ public class Expression
 				v = s[ --sp ];
 				stackFactory( s );	// recycle this stack
 				return v;
-				
-			case '+':
-				v = s[ --sp ] + s[ --sp ];
-				break;
 
+			case '+':
 			case '-':
-				v = s[ --sp ] - s[ --sp ];
-				break;
-
 			case '*':
-				v = s[ --sp ] * s[ --sp ];
-				break;
-
 			case '/':
-				double numerator = s[ --sp ];
-				double denominator = s[ --sp ];
-				if ( denominator == 0.0 )
-				{
-					throw new ArithmeticException( "Can't divide by zero" );
-				}
-				v = numerator / denominator;
-				break;
-
 			case '^':
-				double base = s[ --sp ];
-				double expt = s[ --sp ];
-				v = (double) Math.pow( base, expt );
-				if ( Double.isNaN( v ) || Double.isInfinite( v ) )
-				{
-					throw new ArithmeticException( "Invalid exponentiation: cannot take " + base + " ** " + expt );
-				}
+			case 'm':
+			case 'x':
+				v = Expression.operate( inst, s[ --sp ], s[ --sp ] );
 				break;
 
 			case 'a':
-				v = Math.abs( s[ --sp ] );
-				break;
 			case 'c':
-				v = (double) Math.ceil( s[ --sp ] );
-				break;
 			case 'f':
-				v = (double) Math.floor( s[ --sp ] );
+			case 's':
+				v = Expression.operate( inst, s[ --sp ] );
 				break;
-			case 'm':
-				v = Math.min( s[ --sp ], s[ --sp ] );
+
+			case '#':
+				v = ((Double) this.literals.get( (int) s[ --sp ] )).doubleValue();
 				break;
-			case 'p':
-				String first = (String) this.literals.get( (int) s[ --sp ] );
-				String second = null;
-				int commaIndex = first.indexOf( "," );
-				if ( commaIndex > -1 )
+
+			default:
+				if ( inst > '\u00FF' )
 				{
-					second = first.substring( commaIndex + 1 );
-					first = first.substring( 0, commaIndex );
+					v = inst - 0x8000;
+					break;
 				}
-				String prefString = Preferences.getString( first );
-				if ( second != null )
+				if ( Expression.LITERAL_OPERATIONS.indexOf( inst ) != -1 )
 				{
-					v = prefString.contains( second ) ? 1 : 0;
+					v = this.valueOf( inst, this.literals.get( (int) s[ --sp ] ) );
+					break;
 				}
-				else
+				if ( Expression.OPERATIONS.indexOf( inst ) != -1 )
 				{
-					v =
-						prefString.contains( "true" ) ? 1 :
-						prefString.contains( "false" ) ? 0 :
-						StringUtilities.parseDouble( prefString );
+					v = this.valueOf( inst, null );
+					break;
 				}
+				throw new RuntimeException( "Evaluator bytecode invalid at " +
+							    (pc - 1) + ": " + String.valueOf( this.bytecode ) );
+			}
+			s[ sp++ ] = v;
+		}
+	}
+
+	/**
+	 * Builds the bytecode into a tree of operations, which can be
+	 * evaluated without a stack. Operations on constants are done now.
+	 * Returns null if the bytecode is not well formed, in which case
+	 * it is left to the interpreter to report the problem.
+	 */
+
+	private Node buildTree()
+	{
+		ArrayList<Node> stack = new ArrayList<Node>();
+
+		for ( int pc = 0; pc < this.bytecode.length; ++pc )
+		{
+			char inst = this.bytecode[ pc ];
+			Node node;
+
+			switch ( inst )
+			{
+			case 'r':
+				return stack.isEmpty() ? null : stack.get( stack.size() - 1 );
+
+			case '+':
+			case '-':
+			case '*':
+			case '/':
+			case '^':
+			case 'm':
+			case 'x':
+				if ( stack.size() < 2 )
+				{
+					return null;
+				}
+				Node x = stack.remove( stack.size() - 1 );
+				Node y = stack.remove( stack.size() - 1 );
+				node = Expression.fold( new Operation( inst, x, y ) );
 				break;
+
+			case 'a':
+			case 'c':
+			case 'f':
 			case 's':
-				v = (double) Math.sqrt( s[ --sp ] );
-				if ( Double.isNaN(v) )
+				if ( stack.isEmpty() )
 				{
-					throw new ArithmeticException( "Can't take square root of a negative value" );
+					return null;
 				}
-				break;
-			case 'x':
-				v = Math.max( s[ --sp ], s[ --sp ] );
+				node = Expression.fold( new Operation( inst, stack.remove( stack.size() - 1 ), null ) );
 				break;
 
 			case '#':
-				v = ((Double) this.literals.get( (int) s[ --sp ] )).doubleValue();
-				break;
-				
-			// Valid with ModifierExpression:
-			case 'b':
-				String elem = (String) this.literals.get( (int) s[ --sp ] );
-				int element =
-					elem.equalsIgnoreCase( "cold" ) ? Modifiers.COLD_RESISTANCE :
-					elem.equalsIgnoreCase( "hot" ) ? Modifiers.HOT_RESISTANCE :
-					elem.equalsIgnoreCase( "sleaze" ) ? Modifiers.SLEAZE_RESISTANCE :
-					elem.equalsIgnoreCase( "spooky" ) ? Modifiers.SPOOKY_RESISTANCE :
-					elem.equalsIgnoreCase( "stench" ) ? Modifiers.STENCH_RESISTANCE :
-					elem.equalsIgnoreCase( "slime" ) ? Modifiers.SLIME_RESISTANCE :
-					elem.equalsIgnoreCase( "supercold" ) ? Modifiers.SUPERCOLD_RESISTANCE :
-					-1;
-				v = KoLCharacter.currentNumericModifier( element );
-				break;
-			case 'd':
-				String skillName = (String) this.literals.get( (int) s[ --sp ] );
-				if ( StringUtilities.isNumeric( skillName ) )
+				Object number = this.popLiteral( stack );
+				if ( !( number instanceof Double ) )
 				{
-					int skillId = StringUtilities.parseInt( skillName );
-					skillName = SkillDatabase.getSkillName( skillId );
+					return null;
 				}
-				v = KoLCharacter.hasSkill( skillName ) ? 1 : 0;
+				node = new Constant( ((Double) number).doubleValue() );
 				break;
-			case 'e':
-				String effectName = (String) this.literals.get( (int) s[ --sp ] );
-				// If effect name is a number, convert to name
-				AdventureResult eff = null;
-				if ( StringUtilities.isNumeric( effectName ) )
+
+			default:
+				if ( inst > '\u00FF' )
 				{
-					int effectId = StringUtilities.parseInt( effectName );
-					eff = EffectPool.get( effectId );
+					node = new Constant( inst - 0x8000 );
 				}
-				else
+				else if ( Expression.LITERAL_OPERATIONS.indexOf( inst ) != -1 )
 				{
-					int effectId = EffectDatabase.getEffectId( effectName );
-					eff = EffectPool.get( effectId );
+					Object literal = this.popLiteral( stack );
+					if ( literal == null )
+					{
+						return null;
+					}
+					node = new Lookup( inst, literal );
+					this.inputs |= Expression.inputOf( inst );
 				}
-				v = eff == null ? 0.0 :
-					Math.max( 0, eff.getCount( KoLConstants.activeEffects ) );
-				break;
-			case 'g':
-				String itemName = (String) this.literals.get( (int) s[ --sp ] );
-				int itemId = ItemDatabase.getItemId( itemName );
-				AdventureResult item = ItemPool.get( itemId );
-				v = KoLCharacter.hasEquipped( item ) ? 1 : 0;
-				break;
-			case 'h':
-				v = Modifiers.mainhandClass.equalsIgnoreCase( (String) this.literals.get( (int) s[ --sp ] ) ) ? 1 : 0;
-				break;
-			case 'i':
-				v = FamiliarDatabase.hasAttribute( Modifiers.currentFamiliar, (String) this.literals.get( (int) s[ --sp ] ) ) ? 1 : 0;
-				break;
-			case 'j':
-				v = Modifiers.currentEnvironment.equalsIgnoreCase( (String) this.literals.get( (int) s[ --sp ] ) ) ? 1 : 0;
-				break;
-			case 'l':
-				v = Modifiers.currentLocation.equalsIgnoreCase( (String) this.literals.get( (int) s[ --sp ] ) ) ? 1 : 0;
-				break;
-			case 'n':
-				v = KoLCharacter.getClassName().equals( (String) this.literals.get( (int) s[ --sp ] ) ) ? 1 : 0;
-				break;
-			case 'w':
-				v = Modifiers.currentFamiliar.equalsIgnoreCase( (String) this.literals.get( (int) s[ --sp ] ) ) ? 1 : 0;
-				break;
-			case 'z':
-				v = Modifiers.currentZone.equalsIgnoreCase( (String) this.literals.get( (int) s[ --sp ] ) ) ? 1 : 0;
-				break;
-			case 'v':
-				Calendar date = Calendar.getInstance( TimeZone.getTimeZone( "GMT-0700" ) );
-				String event = (String) this.literals.get( (int) s[ --sp ] );
-				if ( event.equals( "Crimbo2015" ) )
+				else if ( Expression.OPERATIONS.indexOf( inst ) != -1 )
 				{
-					// Event ends just after rollover on 3rd January 2016
-					GregorianCalendar eventEnd = new GregorianCalendar( 2016, Calendar.JANUARY, 3, 20, 30 );
-					eventEnd.setTimeZone( TimeZone.getTimeZone( "GMT-0700" ) );
-					v = date.before( eventEnd ) ? 1 : 0;
+					node = new Lookup( inst, null );
+					this.inputs |= Expression.inputOf( inst );
 				}
-				else if ( event.equals( "December" ) )
+				else
 				{
-					int month = date.get( Calendar.MONTH );
-					v = ( month == Calendar.DECEMBER ) ? 1 : 0;
+					return null;
 				}
-				break;
-			case '\u0092':
-				v = KoLCharacter.getPath().equals( (String) this.literals.get( (int) s[ --sp ] ) ) ? 1 : 0;
-				break;
-			case '\u0093':
-				Modifiers mods = KoLCharacter.getCurrentModifiers();
-				String modName = (String) this.literals.get( (int) s[ --sp ] );
-				v = mods.getExtra( modName );
-				break;
-			case '\u0094':
-				v = KoLCharacter.canInteract() ? 1 : 0;
-				break;
+			}
 
-			case 'A':
-				v = KoLCharacter.getAscensions();
-				break;
-			case 'B':
-				v = HolidayDatabase.getBloodEffect();
-				break;
-			case 'C':
-				v = KoLCharacter.getMinstrelLevel();
-				break;
-			case 'D':
-				v = KoLCharacter.getInebriety();
-				break;
-			case 'E':
+			stack.add( node );
+		}
+
+		return null;
+	}
+
+	private Object popLiteral( final ArrayList<Node> stack )
+	{
+		if ( stack.isEmpty() || this.literals == null )
+		{
+			return null;
+		}
+
+		Node node = stack.remove( stack.size() - 1 );
+		if ( !( node instanceof Constant ) )
+		{
+			return null;
+		}
+
+		int index = (int) ((Constant) node).value;
+		if ( index < 0 || index >= this.literals.size() )
+		{
+			return null;
+		}
+
+		return this.literals.get( index );
+	}
+
+	private static Node fold( final Node node )
+	{
+		if ( !node.isConstant() )
+		{
+			return node;
+		}
+
+		try
+		{
+			return new Constant( node.eval() );
+		}
+		catch ( RuntimeException e )
+		{
+			// Leave the error to be reported when it is evaluated
+			return node;
+		}
+	}
+
+	private static abstract class Node
+	{
+		abstract double eval();
+
+		boolean isConstant()
+		{
+			return false;
+		}
+	}
+
+	private static class Constant
+		extends Node
+	{
+		private final double value;
+
+		public Constant( final double value )
+		{
+			this.value = value;
+		}
+
+		@Override
+		double eval()
+		{
+			return this.value;
+		}
+
+		@Override
+		boolean isConstant()
+		{
+			return true;
+		}
+	}
+
+	private static class Operation
+		extends Node
+	{
+		private final char inst;
+		private final Node x, y;
+
+		public Operation( final char inst, final Node x, final Node y )
+		{
+			this.inst = inst;
+			this.x = x;
+			this.y = y;
+		}
+
+		@Override
+		double eval()
+		{
+			if ( this.y == null )
 			{
-				int size = KoLConstants.activeEffects.size();
-				AdventureResult[] effectsArray = new AdventureResult[ size ];
-				KoLConstants.activeEffects.toArray( effectsArray );
+				return Expression.operate( this.inst, this.x.eval() );
+			}
+			return Expression.operate( this.inst, this.x.eval(), this.y.eval() );
+		}
 
-				v = 0;
-				for ( int i = 0; i < size; i++ )
-				{
-					AdventureResult effect = effectsArray[ i ];
-					int duration = effect.getCount();
-					if ( duration != Integer.MAX_VALUE )
-					{
-						v++;
-					}
-				}
-				break;
+		@Override
+		boolean isConstant()
+		{
+			return this.x.isConstant() && ( this.y == null || this.y.isConstant() );
+		}
+	}
+
+	private class Lookup
+		extends Node
+	{
+		private final char inst;
+		private final Object literal;
+
+		public Lookup( final char inst, final Object literal )
+		{
+			this.inst = inst;
+			this.literal = literal;
+		}
+
+		@Override
+		double eval()
+		{
+			return Expression.this.valueOf( this.inst, this.literal );
+		}
+	}
+
+	private static double operate( final char inst, final double x, final double y )
+	{
+		double v;
+
+		switch ( inst )
+		{
+		case '+':
+			return x + y;
+
+		case '-':
+			return x - y;
+
+		case '*':
+			return x * y;
+
+		case '/':
+			if ( y == 0.0 )
+			{
+				throw new ArithmeticException( "Can't divide by zero" );
 			}
-			case 'F':
-				v = KoLCharacter.getFullness();
-				break;
-			case 'G':
-				v = HolidayDatabase.getGrimaciteEffect() / 10.0;
-				break;
-			case 'H':
-				v = Modifiers.hoboPower;
-				break;
-			case 'I':
-				v = KoLCharacter.getDiscoMomentum();
-				break;
-			case 'J':
-				v = HolidayDatabase.getHoliday().contains( "Festival of Jarlsberg" ) ? 1.0 : 0.0;
-				break;
-			case 'K':
-				v = Modifiers.smithsness;
-				break;
-			case 'L':
-				v = KoLCharacter.getLevel();
-				break;
-			case 'M':
-				v = HolidayDatabase.getMoonlight();
-				break;
-			case 'N':
-				v = KoLCharacter.getAudience();
-				break;
-			case 'P':
-				v = KoLCharacter.currentPastaThrall.getLevel();
-				break;
-			case 'R':
-				v = KoLCharacter.getReagentPotionDuration();
-				break;
-			case 'S':
-				v = KoLCharacter.getSpleenUse();
-				break;
-			case 'T':
-				v = this.effect == null ? 0.0 :
-					Math.max( 1, this.effect.getCount( KoLConstants.activeEffects ) );
-				break;
-			case 'U':
-				v = KoLCharacter.getTelescopeUpgrades();
-				break;
-			case 'W':
-				v = Modifiers.currentWeight;
-				break;
-			case 'X':
-				v = KoLCharacter.getGender();
-				break;
-			case 'Y':
-				v = KoLCharacter.getFury();
-				break;
-			
-			// Valid with MonsterExpression:
-			case '\u0080':
-				v = KoLCharacter.getAdjustedMuscle();
-				break;
-			case '\u0081':
-				v = KoLCharacter.getAdjustedMysticality();
-				break;
-			case '\u0082':
-				v = KoLCharacter.getAdjustedMoxie();
-				break;
-			case '\u0083':
-				v = KoLCharacter.getMonsterLevelAdjustment();
-				break;
-			case '\u0084':
-				v = KoLCharacter.getMindControlLevel();
-				break;
-			case '\u0085':
-				v = KoLCharacter.getMaximumHP();
-				break;
-			case '\u0086':
-				v = BasementRequest.getBasementLevel();
-				break;
-			case '\u0087':
-				v = FightRequest.dreadKisses( "Woods" );
-				break;
-			case '\u0088':
-				v = FightRequest.dreadKisses( "Village" );
-				break;
-			case '\u0089':
-				v = FightRequest.dreadKisses( "Castle" );
-				break;
-			case '\u0090':
-				v = KoLCharacter.getAdjustedHighestStat();
-				break;
+			return x / y;
 
-			// Valid with RestoreExpression:
-			case '\u0091':
-				v = KoLCharacter.getMaximumMP();
-				break;
-					
-			default:
-				if ( inst > '\u00FF' )
+		case '^':
+			v = (double) Math.pow( x, y );
+			if ( Double.isNaN( v ) || Double.isInfinite( v ) )
+			{
+				throw new ArithmeticException( "Invalid exponentiation: cannot take " + x + " ** " + y );
+			}
+			return v;
+
+		case 'm':
+			return Math.min( x, y );
+
+		case 'x':
+			return Math.max( x, y );
+		}
+
+		throw new RuntimeException( "Evaluator operation invalid: " + inst );
+	}
+
+	private static double operate( final char inst, final double x )
+	{
+		double v;
+
+		switch ( inst )
+		{
+		case 'a':
+			return Math.abs( x );
+
+		case 'c':
+			return (double) Math.ceil( x );
+
+		case 'f':
+			return (double) Math.floor( x );
+
+		case 's':
+			v = (double) Math.sqrt( x );
+			if ( Double.isNaN( v ) )
+			{
+				throw new ArithmeticException( "Can't take square root of a negative value" );
+			}
+			return v;
+		}
+
+		throw new RuntimeException( "Evaluator operation invalid: " + inst );
+	}
+
+	/**
+	 * Returns the value of an operation which reads the state of the
+	 * character or the game, given the literal it takes, if any.
+	 */
+
+	private double valueOf( final char inst, final Object literal )
+	{
+		double v = 0.0;
+
+		switch ( inst )
+		{
+		case 'p':
+			String first = (String) literal;
+			String second = null;
+			int commaIndex = first.indexOf( "," );
+			if ( commaIndex > -1 )
+			{
+				second = first.substring( commaIndex + 1 );
+				first = first.substring( 0, commaIndex );
+			}
+			String prefString = Preferences.getString( first );
+			if ( second != null )
+			{
+				v = prefString.contains( second ) ? 1 : 0;
+			}
+			else
+			{
+				v =
+					prefString.contains( "true" ) ? 1 :
+					prefString.contains( "false" ) ? 0 :
+					StringUtilities.parseDouble( prefString );
+			}
+			break;
+
+		// Valid with ModifierExpression:
+		case 'b':
+			String elem = (String) literal;
+			int element =
+				elem.equalsIgnoreCase( "cold" ) ? Modifiers.COLD_RESISTANCE :
+				elem.equalsIgnoreCase( "hot" ) ? Modifiers.HOT_RESISTANCE :
+				elem.equalsIgnoreCase( "sleaze" ) ? Modifiers.SLEAZE_RESISTANCE :
+				elem.equalsIgnoreCase( "spooky" ) ? Modifiers.SPOOKY_RESISTANCE :
+				elem.equalsIgnoreCase( "stench" ) ? Modifiers.STENCH_RESISTANCE :
+				elem.equalsIgnoreCase( "slime" ) ? Modifiers.SLIME_RESISTANCE :
+				elem.equalsIgnoreCase( "supercold" ) ? Modifiers.SUPERCOLD_RESISTANCE :
+				-1;
+			v = KoLCharacter.currentNumericModifier( element );
+			break;
+		case 'd':
+			String skillName = (String) literal;
+			if ( StringUtilities.isNumeric( skillName ) )
+			{
+				int skillId = StringUtilities.parseInt( skillName );
+				skillName = SkillDatabase.getSkillName( skillId );
+			}
+			v = KoLCharacter.hasSkill( skillName ) ? 1 : 0;
+			break;
+		case 'e':
+			String effectName = (String) literal;
+			// If effect name is a number, convert to name
+			AdventureResult eff = null;
+			if ( StringUtilities.isNumeric( effectName ) )
+			{
+				int effectId = StringUtilities.parseInt( effectName );
+				eff = EffectPool.get( effectId );
+			}
+			else
+			{
+				int effectId = EffectDatabase.getEffectId( effectName );
+				eff = EffectPool.get( effectId );
+			}
+			v = eff == null ? 0.0 :
+				Math.max( 0, eff.getCount( KoLConstants.activeEffects ) );
+			break;
+		case 'g':
+			String itemName = (String) literal;
+			int itemId = ItemDatabase.getItemId( itemName );
+			AdventureResult item = ItemPool.get( itemId );
+			v = KoLCharacter.hasEquipped( item ) ? 1 : 0;
+			break;
+		case 'h':
+			v = Modifiers.getMainhandClass().equalsIgnoreCase( (String) literal ) ? 1 : 0;
+			break;
+		case 'i':
+			v = FamiliarDatabase.hasAttribute( Modifiers.getCurrentFamiliar(), (String) literal ) ? 1 : 0;
+			break;
+		case 'j':
+			v = Modifiers.currentEnvironment.equalsIgnoreCase( (String) literal ) ? 1 : 0;
+			break;
+		case 'l':
+			v = Modifiers.currentLocation.equalsIgnoreCase( (String) literal ) ? 1 : 0;
+			break;
+		case 'n':
+			v = KoLCharacter.getClassName().equals( (String) literal ) ? 1 : 0;
+			break;
+		case 'w':
+			v = Modifiers.getCurrentFamiliar().equalsIgnoreCase( (String) literal ) ? 1 : 0;
+			break;
+		case 'z':
+			v = Modifiers.currentZone.equalsIgnoreCase( (String) literal ) ? 1 : 0;
+			break;
+		case 'v':
+			Calendar date = Calendar.getInstance( TimeZone.getTimeZone( "GMT-0700" ) );
+			String event = (String) literal;
+			if ( event.equals( "Crimbo2015" ) )
+			{
+				// Event ends just after rollover on 3rd January 2016
+				GregorianCalendar eventEnd = new GregorianCalendar( 2016, Calendar.JANUARY, 3, 20, 30 );
+				eventEnd.setTimeZone( TimeZone.getTimeZone( "GMT-0700" ) );
+				v = date.before( eventEnd ) ? 1 : 0;
+			}
+			else if ( event.equals( "December" ) )
+			{
+				int month = date.get( Calendar.MONTH );
+				v = ( month == Calendar.DECEMBER ) ? 1 : 0;
+			}
+			break;
+		case '\u0092':
+			v = KoLCharacter.getPath().equals( (String) literal ) ? 1 : 0;
+			break;
+		case '\u0093':
+			Modifiers mods = KoLCharacter.getCurrentModifiers();
+			String modName = (String) literal;
+			v = mods.getExtra( modName );
+			break;
+		case '\u0094':
+			v = KoLCharacter.canInteract() ? 1 : 0;
+			break;
+
+		case 'A':
+			v = KoLCharacter.getAscensions();
+			break;
+		case 'B':
+			v = HolidayDatabase.getBloodEffect();
+			break;
+		case 'C':
+			v = KoLCharacter.getMinstrelLevel();
+			break;
+		case 'D':
+			v = KoLCharacter.getInebriety();
+			break;
+		case 'E':
+		{
+			int size = KoLConstants.activeEffects.size();
+			AdventureResult[] effectsArray = new AdventureResult[ size ];
+			KoLConstants.activeEffects.toArray( effectsArray );
+
+			v = 0;
+			for ( int i = 0; i < size; i++ )
+			{
+				AdventureResult effect = effectsArray[ i ];
+				int duration = effect.getCount();
+				if ( duration != Integer.MAX_VALUE )
 				{
-					v = inst - 0x8000;
-					break;
+					v++;
 				}
-				throw new RuntimeException( "Evaluator bytecode invalid at " +
-							    (pc - 1) + ": " + String.valueOf( this.bytecode ) );
 			}
-			s[ sp++ ] = v;
+			break;
 		}
+		case 'F':
+			v = KoLCharacter.getFullness();
+			break;
+		case 'G':
+			v = HolidayDatabase.getGrimaciteEffect() / 10.0;
+			break;
+		case 'H':
+			v = Modifiers.getHoboPower();
+			break;
+		case 'I':
+			v = KoLCharacter.getDiscoMomentum();
+			break;
+		case 'J':
+			v = HolidayDatabase.getHoliday().contains( "Festival of Jarlsberg" ) ? 1.0 : 0.0;
+			break;
+		case 'K':
+			v = Modifiers.getSmithsness();
+			break;
+		case 'L':
+			v = KoLCharacter.getLevel();
+			break;
+		case 'M':
+			v = HolidayDatabase.getMoonlight();
+			break;
+		case 'N':
+			v = KoLCharacter.getAudience();
+			break;
+		case 'P':
+			v = KoLCharacter.currentPastaThrall.getLevel();
+			break;
+		case 'R':
+			v = KoLCharacter.getReagentPotionDuration();
+			break;
+		case 'S':
+			v = KoLCharacter.getSpleenUse();
+			break;
+		case 'T':
+			v = this.effect == null ? 0.0 :
+				Math.max( 1, this.effect.getCount( KoLConstants.activeEffects ) );
+			break;
+		case 'U':
+			v = KoLCharacter.getTelescopeUpgrades();
+			break;
+		case 'W':
+			v = Modifiers.getCurrentWeight();
+			break;
+		case 'X':
+			v = KoLCharacter.getGender();
+			break;
+		case 'Y':
+			v = KoLCharacter.getFury();
+			break;
+		
+		// Valid with MonsterExpression:
+		case '\u0080':
+			v = KoLCharacter.getAdjustedMuscle();
+			break;
+		case '\u0081':
+			v = KoLCharacter.getAdjustedMysticality();
+			break;
+		case '\u0082':
+			v = KoLCharacter.getAdjustedMoxie();
+			break;
+		case '\u0083':
+			v = KoLCharacter.getMonsterLevelAdjustment();
+			break;
+		case '\u0084':
+			v = KoLCharacter.getMindControlLevel();
+			break;
+		case '\u0085':
+			v = KoLCharacter.getMaximumHP();
+			break;
+		case '\u0086':
+			v = BasementRequest.getBasementLevel();
+			break;
+		case '\u0087':
+			v = FightRequest.dreadKisses( "Woods" );
+			break;
+		case '\u0088':
+			v = FightRequest.dreadKisses( "Village" );
+			break;
+		case '\u0089':
+			v = FightRequest.dreadKisses( "Castle" );
+			break;
+		case '\u0090':
+			v = KoLCharacter.getAdjustedHighestStat();
+			break;
+
+		// Valid with RestoreExpression:
+		case '\u0091':
+			v = KoLCharacter.getMaximumMP();
+			break;
+
+		default:
+			throw new RuntimeException( "Evaluator bytecode invalid: " + String.valueOf( this.bytecode ) );
+		}
+
+		return v;
 	}
 
 	protected String validBytecodes()
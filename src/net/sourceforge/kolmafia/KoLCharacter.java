@@ -37,6 +37,7 @@ import apple.dts.samplecode.osxadapter.OSXAdapter;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -477,6 +478,35 @@ public abstract class KoLCharacter
 
 	private static final Modifiers currentModifiers = new Modifiers();
 
+	// Modifiers are totalled here before being copied into the above,
+	// so that refreshing them does not allocate a new set each time
+
+	private static final ThreadLocal<Modifiers> scratchModifiers = new ThreadLocal<Modifiers>()
+	{
+		@Override
+		protected Modifiers initialValue()
+		{
+			return new Modifiers();
+		}
+	};
+
+	// Recalculations requested while a thread defers them are made once,
+	// when it stops deferring or when the current modifiers are next read
+	// on that thread. Each thread holds its deferral depth and whether a
+	// recalculation is pending.
+
+	private static final ThreadLocal<int[]> recalculationState = new ThreadLocal<int[]>()
+	{
+		@Override
+		protected int[] initialValue()
+		{
+			return new int[ 2 ];
+		}
+	};
+
+	private static final AtomicLong recalculationsRequested = new AtomicLong();
+	private static final AtomicLong recalculationsPerformed = new AtomicLong();
+
 	public static final void reset( final String newUserName )
 	{
 		if ( newUserName.equals( KoLCharacter.username ) )
@@ -513,6 +543,7 @@ public abstract class KoLCharacter
 		KoLCharacter.resetTriggers();
 
 		KoLCharacter.currentModifiers.reset();
+		Modifiers.inputChanged( Modifiers.INPUT_MODIFIERS );
 
 		KoLConstants.inventory.clear();
 		KoLConstants.closet.clear();
@@ -632,6 +663,7 @@ public abstract class KoLCharacter
 		KoLConstants.walkSkills.clear();
 		KoLConstants.availableSkills.clear();
 		KoLConstants.availableSkillsMap.clear();
+		Modifiers.inputChanged( Modifiers.INPUT_SKILLS );
 		KoLConstants.availableCombatSkills.clear();
 		KoLConstants.availableCombatSkillsMap.clear();
 		KoLConstants.combatSkills.clear();
@@ -1118,6 +1150,7 @@ public abstract class KoLCharacter
 		// Can't tell?	Look at their vinyl boots!
 		String descId = ItemDatabase.getDescriptionId( ItemPool.VINYL_BOOTS );
 		GenericRequest req = new GenericRequest( "desc_item.php?whichitem=" + descId );
+		req.setCacheable( false );
 		RequestThread.postRequest( req );
 		if ( req.responseText != null )
 		{
@@ -2608,57 +2641,64 @@ public abstract class KoLCharacter
 
 	public static final Modifiers getCurrentModifiers()
 	{
+		int[] state = KoLCharacter.recalculationState.get();
+		if ( state[ 1 ] != 0 )
+		{
+			state[ 1 ] = 0;
+			KoLCharacter.recalculateAdjustments( false );
+		}
+
 		return KoLCharacter.currentModifiers;
 	}
 
 	public static final double currentNumericModifier( final String name )
 	{
-		return KoLCharacter.currentModifiers.get( name );
+		return KoLCharacter.getCurrentModifiers().get( name );
 	}
 
 	public static final double currentNumericModifier( final int index )
 	{
-		return KoLCharacter.currentModifiers.get( index );
+		return KoLCharacter.getCurrentModifiers().get( index );
 	}
 
 	public static final int currentRawBitmapModifier( final String name )
 	{
-		return KoLCharacter.currentModifiers.getRawBitmap( name );
+		return KoLCharacter.getCurrentModifiers().getRawBitmap( name );
 	}
 
 	public static final int currentRawBitmapModifier( final int index )
 	{
-		return KoLCharacter.currentModifiers.getRawBitmap( index );
+		return KoLCharacter.getCurrentModifiers().getRawBitmap( index );
 	}
 
 	public static final int currentBitmapModifier( final String name )
 	{
-		return KoLCharacter.currentModifiers.getBitmap( name );
+		return KoLCharacter.getCurrentModifiers().getBitmap( name );
 	}
 
 	public static final int currentBitmapModifier( final int index )
 	{
-		return KoLCharacter.currentModifiers.getBitmap( index );
+		return KoLCharacter.getCurrentModifiers().getBitmap( index );
 	}
 
 	public static final boolean currentBooleanModifier( final String name )
 	{
-		return KoLCharacter.currentModifiers.getBoolean( name );
+		return KoLCharacter.getCurrentModifiers().getBoolean( name );
 	}
 
 	public static final boolean currentBooleanModifier( final int index )
 	{
-		return KoLCharacter.currentModifiers.getBoolean( index );
+		return KoLCharacter.getCurrentModifiers().getBoolean( index );
 	}
 
 	public static final String currentStringModifier( final String name )
 	{
-		return KoLCharacter.currentModifiers.getString( name );
+		return KoLCharacter.getCurrentModifiers().getString( name );
 	}
 
 	public static final String currentStringModifier( final int index )
 	{
-		return KoLCharacter.currentModifiers.getString( index );
+		return KoLCharacter.getCurrentModifiers().getString( index );
 	}
 
 	/**
@@ -2672,7 +2712,7 @@ public abstract class KoLCharacter
 			return 0;
 		}
 
-		return (int) KoLCharacter.currentModifiers.get( Modifiers.MONSTER_LEVEL ) +
+		return (int) KoLCharacter.getCurrentModifiers().get( Modifiers.MONSTER_LEVEL ) +
 			KoLCharacter.getWaterLevel() * 10;
 	}
 
@@ -2682,7 +2722,7 @@ public abstract class KoLCharacter
 
 	public static final int getRandomMonsterModifiers()
 	{
-		return (int) KoLCharacter.currentModifiers.get( Modifiers.RANDOM_MONSTER_MODIFIERS );
+		return (int) KoLCharacter.getCurrentModifiers().get( Modifiers.RANDOM_MONSTER_MODIFIERS );
 	}
 
 	/**
@@ -2691,13 +2731,13 @@ public abstract class KoLCharacter
 
 	public static final int getFamiliarWeightAdjustment()
 	{
-		return (int) (KoLCharacter.currentModifiers.get( Modifiers.FAMILIAR_WEIGHT ) +
-			KoLCharacter.currentModifiers.get( Modifiers.HIDDEN_FAMILIAR_WEIGHT ));
+		return (int) (KoLCharacter.getCurrentModifiers().get( Modifiers.FAMILIAR_WEIGHT ) +
+			KoLCharacter.getCurrentModifiers().get( Modifiers.HIDDEN_FAMILIAR_WEIGHT ));
 	}
 
 	public static final int getFamiliarWeightPercentAdjustment()
 	{
-		return (int) KoLCharacter.currentModifiers.get( Modifiers.FAMILIAR_WEIGHT_PCT );
+		return (int) KoLCharacter.getCurrentModifiers().get( Modifiers.FAMILIAR_WEIGHT_PCT );
 	}
 
 	public static final int getManaCostAdjustment()
@@ -2707,9 +2747,9 @@ public abstract class KoLCharacter
 
 	public static final int getManaCostAdjustment( final boolean combat )
 	{
-		return (int) KoLCharacter.currentModifiers.get( Modifiers.MANA_COST ) +
-			(int) KoLCharacter.currentModifiers.get( Modifiers.STACKABLE_MANA_COST ) +
-			( combat ? (int) KoLCharacter.currentModifiers.get( Modifiers.COMBAT_MANA_COST ) : 0 )
+		return (int) KoLCharacter.getCurrentModifiers().get( Modifiers.MANA_COST ) +
+			(int) KoLCharacter.getCurrentModifiers().get( Modifiers.STACKABLE_MANA_COST ) +
+			( combat ? (int) KoLCharacter.getCurrentModifiers().get( Modifiers.COMBAT_MANA_COST ) : 0 )
 			- KoLCharacter.holidayManaCostReduction;
 	}
 
@@ -2719,10 +2759,10 @@ public abstract class KoLCharacter
 
 	public static final double getCombatRateAdjustment()
 	{
-		double rate = KoLCharacter.currentModifiers.get( Modifiers.COMBAT_RATE );
+		double rate = KoLCharacter.getCurrentModifiers().get( Modifiers.COMBAT_RATE );
 		if ( Modifiers.currentZone.contains( "The Sea" ) || Modifiers.currentLocation.equals( "The Sunken Party Yacht" ) )
 		{
-			rate += KoLCharacter.currentModifiers.get( Modifiers.UNDERWATER_COMBAT_RATE );
+			rate += KoLCharacter.getCurrentModifiers().get( Modifiers.UNDERWATER_COMBAT_RATE );
 		}
 		return rate;
 	}
@@ -2734,8 +2774,8 @@ public abstract class KoLCharacter
 	public static final double getInitiativeAdjustment()
 	{
 		// Penalty is constrained to be non-positive
-		return KoLCharacter.currentModifiers.get( Modifiers.INITIATIVE ) +
-			Math.min( KoLCharacter.currentModifiers.get( Modifiers.INITIATIVE_PENALTY ), 0.0f );
+		return KoLCharacter.getCurrentModifiers().get( Modifiers.INITIATIVE ) +
+			Math.min( KoLCharacter.getCurrentModifiers().get( Modifiers.INITIATIVE_PENALTY ), 0.0f );
 	}
 
 	/**
@@ -2744,7 +2784,7 @@ public abstract class KoLCharacter
 
 	public static final double getExperienceAdjustment()
 	{
-		return KoLCharacter.currentModifiers.get(
+		return KoLCharacter.getCurrentModifiers().get(
 			Modifiers.MUS_EXPERIENCE + KoLCharacter.getPrimeIndex() );
 	}
 
@@ -2757,8 +2797,8 @@ public abstract class KoLCharacter
 	public static final double getMeatDropPercentAdjustment()
 	{
 		// Penalty is constrained to be non-positive
-		return  KoLCharacter.currentModifiers.get( Modifiers.MEATDROP ) +
-			Math.min( KoLCharacter.currentModifiers.get( Modifiers.MEATDROP_PENALTY ), 0.0f );
+		return  KoLCharacter.getCurrentModifiers().get( Modifiers.MEATDROP ) +
+			Math.min( KoLCharacter.getCurrentModifiers().get( Modifiers.MEATDROP_PENALTY ), 0.0f );
 	}
 
 	/**
@@ -2769,7 +2809,7 @@ public abstract class KoLCharacter
 
 	public static final double getSprinkleDropPercentAdjustment()
 	{
-		return KoLCharacter.currentModifiers.get( Modifiers.SPRINKLES );
+		return KoLCharacter.getCurrentModifiers().get( Modifiers.SPRINKLES );
 	}
 
 	/**
@@ -2780,8 +2820,8 @@ public abstract class KoLCharacter
 
 	public static final double getItemDropPercentAdjustment()
 	{
-		return KoLCharacter.currentModifiers.get( Modifiers.ITEMDROP ) +
-			Math.min( KoLCharacter.currentModifiers.get( Modifiers.ITEMDROP_PENALTY ), 0.0f );
+		return KoLCharacter.getCurrentModifiers().get( Modifiers.ITEMDROP ) +
+			Math.min( KoLCharacter.getCurrentModifiers().get( Modifiers.ITEMDROP_PENALTY ), 0.0f );
 	}
 
 	/**
@@ -2792,7 +2832,7 @@ public abstract class KoLCharacter
 
 	public static final int getDamageAbsorption()
 	{
-		return (int) KoLCharacter.currentModifiers.get( Modifiers.DAMAGE_ABSORPTION );
+		return (int) KoLCharacter.getCurrentModifiers().get( Modifiers.DAMAGE_ABSORPTION );
 	}
 
 	/**
@@ -2803,7 +2843,7 @@ public abstract class KoLCharacter
 
 	public static final int getDamageReduction()
 	{
-		return (int) KoLCharacter.currentModifiers.get( Modifiers.DAMAGE_REDUCTION );
+		return (int) KoLCharacter.getCurrentModifiers().get( Modifiers.DAMAGE_REDUCTION );
 	}
 
 	/**
@@ -2814,7 +2854,7 @@ public abstract class KoLCharacter
 
 	public static final int getPoolSkill()
 	{
-		return (int) KoLCharacter.currentModifiers.get( Modifiers.POOL_SKILL );
+		return (int) KoLCharacter.getCurrentModifiers().get( Modifiers.POOL_SKILL );
 	}
 
 	/**
@@ -2825,7 +2865,7 @@ public abstract class KoLCharacter
 
 	public static final int getHoboPower()
 	{
-		return (int) KoLCharacter.currentModifiers.get( Modifiers.HOBO_POWER );
+		return (int) KoLCharacter.getCurrentModifiers().get( Modifiers.HOBO_POWER );
 	}
 
 	/**
@@ -2836,7 +2876,7 @@ public abstract class KoLCharacter
 
 	public static final int getSmithsness()
 	{
-		return (int) KoLCharacter.currentModifiers.get( Modifiers.SMITHSNESS );
+		return (int) KoLCharacter.getCurrentModifiers().get( Modifiers.SMITHSNESS );
 	}
 
 	/**
@@ -2847,7 +2887,7 @@ public abstract class KoLCharacter
 
 	public static final int getClownosity()
 	{
-		return KoLCharacter.currentModifiers.getBitmap( Modifiers.CLOWNOSITY );
+		return KoLCharacter.getCurrentModifiers().getBitmap( Modifiers.CLOWNOSITY );
 	}
 
 	/**
@@ -2896,24 +2936,24 @@ public abstract class KoLCharacter
 
 	public static final int getRestingHP()
 	{
-		int rv = (int) KoLCharacter.currentModifiers.get( Modifiers.BASE_RESTING_HP );
-		double factor = KoLCharacter.currentModifiers.get( Modifiers.RESTING_HP_PCT );
+		int rv = (int) KoLCharacter.getCurrentModifiers().get( Modifiers.BASE_RESTING_HP );
+		double factor = KoLCharacter.getCurrentModifiers().get( Modifiers.RESTING_HP_PCT );
 		if ( factor != 0 )
 		{
 			rv = (int) (rv * (factor + 100.0f) / 100.0f);
 		}
-		return rv + (int) KoLCharacter.currentModifiers.get( Modifiers.BONUS_RESTING_HP );
+		return rv + (int) KoLCharacter.getCurrentModifiers().get( Modifiers.BONUS_RESTING_HP );
 	}
 
 	public static final int getRestingMP()
 	{
-		int rv = (int) KoLCharacter.currentModifiers.get( Modifiers.BASE_RESTING_MP );
-		double factor = KoLCharacter.currentModifiers.get( Modifiers.RESTING_MP_PCT );
+		int rv = (int) KoLCharacter.getCurrentModifiers().get( Modifiers.BASE_RESTING_MP );
+		double factor = KoLCharacter.getCurrentModifiers().get( Modifiers.RESTING_MP_PCT );
 		if ( factor != 0 )
 		{
 			rv = (int) (rv * (factor + 100.0f) / 100.0f);
 		}
-		return rv + (int) KoLCharacter.currentModifiers.get( Modifiers.BONUS_RESTING_MP );
+		return rv + (int) KoLCharacter.getCurrentModifiers().get( Modifiers.BONUS_RESTING_MP );
 	}
 
 	/**
@@ -2927,19 +2967,19 @@ public abstract class KoLCharacter
 		switch ( element )
 		{
 		case COLD:
-			return (int) KoLCharacter.currentModifiers.get( Modifiers.COLD_RESISTANCE );
+			return (int) KoLCharacter.getCurrentModifiers().get( Modifiers.COLD_RESISTANCE );
 		case HOT:
-			return (int) KoLCharacter.currentModifiers.get( Modifiers.HOT_RESISTANCE );
+			return (int) KoLCharacter.getCurrentModifiers().get( Modifiers.HOT_RESISTANCE );
 		case SLEAZE:
-			return (int) KoLCharacter.currentModifiers.get( Modifiers.SLEAZE_RESISTANCE );
+			return (int) KoLCharacter.getCurrentModifiers().get( Modifiers.SLEAZE_RESISTANCE );
 		case SPOOKY:
-			return (int) KoLCharacter.currentModifiers.get( Modifiers.SPOOKY_RESISTANCE );
+			return (int) KoLCharacter.getCurrentModifiers().get( Modifiers.SPOOKY_RESISTANCE );
 		case STENCH:
-			return (int) KoLCharacter.currentModifiers.get( Modifiers.STENCH_RESISTANCE );
+			return (int) KoLCharacter.getCurrentModifiers().get( Modifiers.STENCH_RESISTANCE );
 		case SLIME:
-			return (int) KoLCharacter.currentModifiers.get( Modifiers.SLIME_RESISTANCE );
+			return (int) KoLCharacter.getCurrentModifiers().get( Modifiers.SLIME_RESISTANCE );
 		case SUPERCOLD:
-			return (int) KoLCharacter.currentModifiers.get( Modifiers.SUPERCOLD_RESISTANCE );
+			return (int) KoLCharacter.getCurrentModifiers().get( Modifiers.SUPERCOLD_RESISTANCE );
 		default:
 			return 0;
 		}
@@ -2999,8 +3039,8 @@ public abstract class KoLCharacter
 
 	public static final int currentBonusDamage()
 	{
-		int weaponDamage = (int)KoLCharacter.currentModifiers.get( Modifiers.WEAPON_DAMAGE );
-		int rangedDamage = (int)KoLCharacter.currentModifiers.get( Modifiers.RANGED_DAMAGE );
+		int weaponDamage = (int)KoLCharacter.getCurrentModifiers().get( Modifiers.WEAPON_DAMAGE );
+		int rangedDamage = (int)KoLCharacter.getCurrentModifiers().get( Modifiers.RANGED_DAMAGE );
 		return weaponDamage + ( EquipmentManager.getWeaponType() == WeaponType.RANGED ? rangedDamage: 0 );
 	}
 
@@ -3012,7 +3052,7 @@ public abstract class KoLCharacter
 
 	public static final int currentPrismaticDamage()
 	{
-		return (int)KoLCharacter.currentModifiers.get( Modifiers.PRISMATIC_DAMAGE );
+		return (int)KoLCharacter.getCurrentModifiers().get( Modifiers.PRISMATIC_DAMAGE );
 	}
 
 	public static final int getWaterLevel()
@@ -3033,7 +3073,7 @@ public abstract class KoLCharacter
 			}
 		}
 
-		WL += (int)KoLCharacter.currentModifiers.get( Modifiers.WATER_LEVEL );
+		WL += (int)KoLCharacter.getCurrentModifiers().get( Modifiers.WATER_LEVEL );
 		
 		return WL < 1 ? 1 : WL > 6 ? 6 : WL;
 	}
@@ -4493,6 +4533,7 @@ public abstract class KoLCharacter
 
 		KoLConstants.availableSkills.add( skill );
 		KoLConstants.availableSkillsMap.put( skill, null );
+		Modifiers.inputChanged( Modifiers.INPUT_SKILLS );
 		PreferenceListenerRegistry.firePreferenceChanged( "(skill)" );
 
 		switch ( SkillDatabase.getSkillType( skill.getSkillId() ) )
@@ -4658,6 +4699,7 @@ public abstract class KoLCharacter
 
 		KoLConstants.availableSkills.remove( skill );
 		KoLConstants.availableSkillsMap.remove( skill );
+		Modifiers.inputChanged( Modifiers.INPUT_SKILLS );
 		KoLConstants.usableSkills.remove( skill );
 		KoLConstants.summoningSkills.remove( skill );
 		KoLConstants.usableSkills.remove( skill );
@@ -4949,7 +4991,7 @@ public abstract class KoLCharacter
 
 	public static final int getMinstrelLevelAdjustment()
 	{
-		return (int) KoLCharacter.currentModifiers.get( Modifiers.MINSTREL_LEVEL );
+		return (int) KoLCharacter.getCurrentModifiers().get( Modifiers.MINSTREL_LEVEL );
 	}
 
 	public static final void setClancy( final int level, final AdventureResult instrument, final boolean attention )
@@ -5439,6 +5481,7 @@ public abstract class KoLCharacter
 			UseSkillRequest skill = UseSkillRequest.getUnmodifiedInstance( "Dismiss Pasta Thrall" );
 			KoLConstants.availableSkills.remove( skill );
 			KoLConstants.availableSkillsMap.remove( skill );
+			Modifiers.inputChanged( Modifiers.INPUT_SKILLS );
 			KoLConstants.usableSkills.remove( skill );
 			KoLConstants.summoningSkills.remove( skill );
 		}
@@ -5447,6 +5490,7 @@ public abstract class KoLCharacter
 			UseSkillRequest skill = UseSkillRequest.getUnmodifiedInstance( "Dismiss Pasta Thrall" );
 			KoLConstants.availableSkills.add( skill );
 			KoLConstants.availableSkillsMap.put( skill, null );
+			Modifiers.inputChanged( Modifiers.INPUT_SKILLS );
 			KoLConstants.usableSkills.add( skill );
 			LockableListFactory.sort( KoLConstants.usableSkills );
 			KoLConstants.summoningSkills.add( skill );
@@ -5694,14 +5738,73 @@ public abstract class KoLCharacter
 		return KoLCharacter.selectedLocation;
 	}
 
+	/**
+	 * Recalculates the current modifiers, or, if this thread is deferring
+	 * recalculation, notes that they must be recalculated and returns
+	 * true, since they may then have changed.
+	 */
+
 	public static final boolean recalculateAdjustments()
 	{
+		KoLCharacter.recalculationsRequested.incrementAndGet();
+
+		int[] state = KoLCharacter.recalculationState.get();
+		if ( state[ 0 ] > 0 )
+		{
+			state[ 1 ] = 1;
+			return true;
+		}
+
+		state[ 1 ] = 0;
 		return KoLCharacter.recalculateAdjustments( false );
 	}
 
+	/**
+	 * Starts or stops deferring recalculation on this thread, so that
+	 * the recalculations requested while, for example, one server
+	 * response is processed are made only once. Calls nest; when the
+	 * outermost stops, any pending recalculation is made.
+	 */
+
+	public static final void deferRecalculation( final boolean deferring )
+	{
+		int[] state = KoLCharacter.recalculationState.get();
+
+		if ( deferring )
+		{
+			state[ 0 ] += 1;
+			return;
+		}
+
+		if ( state[ 0 ] == 0 || --state[ 0 ] > 0 )
+		{
+			return;
+		}
+
+		if ( state[ 1 ] != 0 )
+		{
+			state[ 1 ] = 0;
+			KoLCharacter.recalculateAdjustments( false );
+		}
+	}
+
+	public static final String getRecalculationStatistics()
+	{
+		return "Modifier recalculations: " + KoLCharacter.recalculationsRequested.get() + " requested, " +
+			KoLCharacter.recalculationsPerformed.get() + " performed.";
+	}
+
+	public static final void resetRecalculationStatistics()
+	{
+		KoLCharacter.recalculationsRequested.set( 0 );
+		KoLCharacter.recalculationsPerformed.set( 0 );
+	}
+
 	public static final boolean recalculateAdjustments( boolean debug )
 	{
-		return KoLCharacter.currentModifiers.set(
+		KoLCharacter.recalculationsPerformed.incrementAndGet();
+
+		boolean changed = KoLCharacter.currentModifiers.set(
 			KoLCharacter.recalculateAdjustments(
 				debug,
 				KoLCharacter.getMindControlLevel(),
@@ -5714,7 +5817,17 @@ public abstract class KoLCharacter
 				Preferences.getString( "snowsuit" ),
 				null,
 				Preferences.getString( "_horsery" ),
-				false ) );
+				false,
+				null,
+				null,
+				debug ? null : KoLCharacter.scratchModifiers.get() ) );
+
+		if ( changed )
+		{
+			Modifiers.inputChanged( Modifiers.INPUT_MODIFIERS );
+		}
+
+		return changed;
 	}
 
 	public static final Modifiers recalculateAdjustments( boolean debug, int MCD,
@@ -5722,33 +5835,89 @@ public abstract class KoLCharacter
 							      FamiliarData familiar, FamiliarData enthroned, FamiliarData bjorned,
 							      String edPiece, String snowsuit, String custom, String horsery,
 								  boolean applyIntrinsics )
+	{
+		return KoLCharacter.recalculateAdjustments( debug, MCD, equipment, effects, familiar, enthroned, bjorned,
+			edPiece, snowsuit, custom, horsery, applyIntrinsics, null );
+	}
+
+	/**
+	 * Calculates modifiers as above. If <code>base</code> is given, the
+	 * parts which do not depend on equipment or familiar are recorded
+	 * the first time and replayed afterwards, rather than looked up again.
+	 */
+
+	public static final Modifiers recalculateAdjustments( boolean debug, int MCD,
+							      AdventureResult[] equipment, List<AdventureResult> effects,
+							      FamiliarData familiar, FamiliarData enthroned, FamiliarData bjorned,
+							      String edPiece, String snowsuit, String custom, String horsery,
+							      boolean applyIntrinsics, BaseModifiers base )
+	{
+		return KoLCharacter.recalculateAdjustments( debug, MCD, equipment, effects, familiar, enthroned, bjorned,
+			edPiece, snowsuit, custom, horsery, applyIntrinsics, base, null );
+	}
+
+	/**
+	 * Calculates modifiers as above, adding <code>extra</code> alongside
+	 * the equipment, as though it were worn as well. Modifiers which are
+	 * derived from the total, such as those of the familiar, then take it
+	 * into account.
+	 */
+
+	public static final Modifiers recalculateAdjustments( boolean debug, int MCD,
+							      AdventureResult[] equipment, List<AdventureResult> effects,
+							      FamiliarData familiar, FamiliarData enthroned, FamiliarData bjorned,
+							      String edPiece, String snowsuit, String custom, String horsery,
+							      boolean applyIntrinsics, BaseModifiers base, Modifiers extra )
+	{
+		return KoLCharacter.recalculateAdjustments( debug, MCD, equipment, effects, familiar, enthroned, bjorned,
+			edPiece, snowsuit, custom, horsery, applyIntrinsics, base, extra, null );
+	}
+
+	/**
+	 * Calculates modifiers as above. If <code>into</code> is given, it is
+	 * cleared and the modifiers are totalled there, rather than in a new
+	 * set of modifiers.
+	 */
+
+	public static final Modifiers recalculateAdjustments( boolean debug, int MCD,
+							      AdventureResult[] equipment, List<AdventureResult> effects,
+							      FamiliarData familiar, FamiliarData enthroned, FamiliarData bjorned,
+							      String edPiece, String snowsuit, String custom, String horsery,
+							      boolean applyIntrinsics, BaseModifiers base, Modifiers extra,
+							      Modifiers into )
 	{
 		int taoFactor = KoLCharacter.hasSkill( "Tao of the Terrapin" ) ? 2 : 1;
 
-		Modifiers newModifiers = debug ? new DebugModifiers() : new Modifiers();
+		Modifiers newModifiers;
+		if ( debug )
+		{
+			newModifiers = new DebugModifiers();
+		}
+		else if ( into != null )
+		{
+			newModifiers = into;
+			newModifiers.reset();
+		}
+		else
+		{
+			newModifiers = new Modifiers();
+		}
 		Modifiers.setFamiliar( familiar );
 		AdventureResult weapon = equipment[ EquipmentManager.WEAPON ];
-		Modifiers.mainhandClass = weapon == null ? ""
-			: EquipmentDatabase.getItemType( weapon.getItemId() );
+		Modifiers.setMainhandClass( weapon == null ? ""
+			: EquipmentDatabase.getItemType( weapon.getItemId() ) );
 		AdventureResult offhand = equipment[ EquipmentManager.OFFHAND ];
-		Modifiers.unarmed = (weapon == null || weapon == EquipmentRequest.UNEQUIP)
-			&& (offhand == null || offhand == EquipmentRequest.UNEQUIP);
-
-		// Area-specific adjustments
-		newModifiers.add( Modifiers.getModifiers( "Loc", Modifiers.currentLocation ) );
-		newModifiers.add( Modifiers.getModifiers( "Zone", Modifiers.currentZone ) );
+		Modifiers.setUnarmed( (weapon == null || weapon == EquipmentRequest.UNEQUIP)
+			&& (offhand == null || offhand == EquipmentRequest.UNEQUIP) );
 
-		// Look at sign-specific adjustments
-		newModifiers.add( Modifiers.MONSTER_LEVEL, MCD, "MCD:MCD" );
-		newModifiers.add( Modifiers.getModifiers( "Sign", KoLCharacter.ascensionSign ) );
-
-		// If we are out of ronin/hardcore, look at stat day adjustments
-		if ( KoLCharacter.canInteract() && !KoLmafia.statDay.equals( "None" ) )
+		// Area-specific and sign-specific adjustments
+		Modifiers baseModifiers = KoLCharacter.getBaseModifiers( base, BaseModifiers.AREA, newModifiers );
+		if ( baseModifiers != null )
 		{
-			newModifiers.add( Modifiers.getModifiers( "StatDay", KoLmafia.statDay ) );
+			KoLCharacter.addAreaAdjustments( baseModifiers, MCD );
 		}
 
-		Modifiers.smithsness = KoLCharacter.getSmithsnessModifier( equipment, effects );
+		Modifiers.setSmithsness( KoLCharacter.getSmithsnessModifier( equipment, effects ) );
 
 		// Certain outfits give benefits to the character
 		// Need to do this before the individual items, so that Hobo Power
@@ -5793,7 +5962,7 @@ public abstract class KoLCharacter
 						newModifiers.add( Modifiers.INITIATIVE, level * 20, "El Vibrato:SELF" );
 						break;
 					case 8:
-						if ( Modifiers.currentFamiliar.contains( "megadrone" ) )
+						if ( Modifiers.getCurrentFamiliar().contains( "megadrone" ) )
 						{
 							newModifiers.add( Modifiers.FAMILIAR_WEIGHT, level * 10, "El Vibrato:DRONE" );
 						}
@@ -5813,6 +5982,11 @@ public abstract class KoLCharacter
 			KoLCharacter.addItemAdjustment( newModifiers, slot, item, equipment, enthroned, bjorned, edPiece, snowsuit, applyIntrinsics, taoFactor );
 		}
 
+		if ( extra != null )
+		{
+			newModifiers.add( extra );
+		}
+
 		// Consider fake hands
 		int fakeHands = EquipmentManager.getFakeHands();
 		if ( fakeHands > 0 )
@@ -5842,67 +6016,20 @@ public abstract class KoLCharacter
 			newModifiers.add( Modifiers.ITEMDROP, cloathingLevel / 2, "Outfit:cloathing" );
 		}
 
-		// Add modifiers from Passive Skills
-		newModifiers.applyPassiveModifiers();
-
-		// Add modifiers from Florist Friar plants
-		newModifiers.applyFloristModifiers();
-
-		// Add modifiers from Current Path
-		newModifiers.add( Modifiers.getModifiers( "Path", KoLCharacter.ascensionPath ) );
-
-		// For the sake of easier maintenance, execute a lot of extra
-		// string comparisons when looking at status effects.
-
-		for ( int i = 0; i < effects.size(); ++i )
-		{
-			newModifiers.add( Modifiers.getEffectModifiers( effects.get( i ).getEffectId() ) );
-		}
-
-		Modifiers.hoboPower = newModifiers.get( Modifiers.HOBO_POWER );
-
-		// Add modifiers from campground equipment.
-		for ( int i = 0; i< KoLConstants.campground.size(); ++i )
-		{
-			AdventureResult item = (AdventureResult) KoLConstants.campground.get( i );
-			// Skip ginormous pumpkin growing in garden
-			if ( item.getItemId() == ItemPool.GINORMOUS_PUMPKIN )
-			{
-				continue;
-			}
-			for ( int count = item.getCount(); count > 0; --count )
-			{
-				newModifiers.add( Modifiers.getItemModifiers( item.getItemId() ) );
-			}
-		}
-
-		// Add modifiers from dwelling
-		AdventureResult dwelling = CampgroundRequest.getCurrentDwelling();
-		newModifiers.add( Modifiers.getItemModifiers( dwelling.getItemId() ) );
-
-		if ( KoLConstants.inventory.contains( ItemPool.get( ItemPool.COMFY_BLANKET, 1 ) ) )
-		{
-			newModifiers.add( Modifiers.getItemModifiers( ItemPool.COMFY_BLANKET ) );
-		}
-
-		if ( HolidayDatabase.getRonaldPhase() == 5 )
+		// Passive skills, florist plants, path and status effects
+		baseModifiers = KoLCharacter.getBaseModifiers( base, BaseModifiers.EFFECTS, newModifiers );
+		if ( baseModifiers != null )
 		{
-			newModifiers.add( Modifiers.RESTING_MP_PCT, 100, "Moons:Ronald full" );
+			KoLCharacter.addEffectAdjustments( baseModifiers, effects );
 		}
 
-		if ( HolidayDatabase.getGrimacePhase() == 5 )
-		{
-			newModifiers.add( Modifiers.RESTING_HP_PCT, 100, "Moons:Grimace full" );
-		}
+		Modifiers.setHoboPower( newModifiers.get( Modifiers.HOBO_POWER ) );
 
-		if ( ChateauRequest.ceiling != null )
+		// Campground, dwelling and other things at home
+		baseModifiers = KoLCharacter.getBaseModifiers( base, BaseModifiers.CAMPGROUND, newModifiers );
+		if ( baseModifiers != null )
 		{
-			newModifiers.add( Modifiers.getModifiers( "Item", ChateauRequest.ceiling ) );
-		}
-
-		for ( String equip : ClanManager.getClanRumpus() )
-		{
-			newModifiers.add( Modifiers.getModifiers( "Rumpus", equip ) );
+			KoLCharacter.addCampgroundAdjustments( baseModifiers );
 		}
 
 		// Add other oddball interactions
@@ -5912,81 +6039,11 @@ public abstract class KoLCharacter
 
 		newModifiers.applyFamiliarModifiers( familiar, equipment[ EquipmentManager.FAMILIAR ] );
 
-		// Add Pasta Thrall effects
-
-		if ( KoLCharacter.classtype == KoLCharacter.PASTAMANCER )
-		{
-			PastaThrallData thrall = KoLCharacter.currentPastaThrall;
-			if ( thrall != PastaThrallData.NO_THRALL )
-			{
-				newModifiers.add( Modifiers.getModifiers( "Thrall", thrall.getType() ) );
-			}
-		}
-
-		// If Sneaky Pete, add Motorbike effects
-
-		if ( KoLCharacter.isSneakyPete() )
-		{
-			newModifiers.add( Modifiers.getModifiers( "Motorbike", Preferences.getString( "peteMotorbikeTires" ) ) );
-			newModifiers.add( Modifiers.getModifiers( "Motorbike", Preferences.getString( "peteMotorbikeGasTank" ) ) );
-			newModifiers.add( Modifiers.getModifiers( "Motorbike", Preferences.getString( "peteMotorbikeHeadlight" ) ) );
-			newModifiers.add( Modifiers.getModifiers( "Motorbike", Preferences.getString( "peteMotorbikeCowling" ) ) );
-			newModifiers.add( Modifiers.getModifiers( "Motorbike", Preferences.getString( "peteMotorbikeMuffler" ) ) );
-			newModifiers.add( Modifiers.getModifiers( "Motorbike", Preferences.getString( "peteMotorbikeSeat" ) ) );
-		}
-
-		// If in Nuclear Autumn, add Radiation Sickness
-
-		if ( KoLCharacter.inNuclearAutumn() && KoLCharacter.getRadSickness() > 0 )
-		{
-			newModifiers.add( Modifiers.MUS, -KoLCharacter.getRadSickness(), "Path:Rads" );
-			newModifiers.add( Modifiers.MYS, -KoLCharacter.getRadSickness(), "Path:Rads" );
-			newModifiers.add( Modifiers.MOX, -KoLCharacter.getRadSickness(), "Path:Rads" );
-		}
-
-		// Add in strung-up quartet.
-
-		if ( KoLCharacter.getAscensions() == Preferences.getInteger( "lastQuartetAscension" ) )
-		{
-			switch ( Preferences.getInteger( "lastQuartetRequest" ) )
-			{
-			case 1:
-				newModifiers.add( Modifiers.MONSTER_LEVEL, 5, "Ballroom:quartet" );
-				break;
-			case 2:
-				newModifiers.add( Modifiers.COMBAT_RATE, -5, "Ballroom:quartet" );
-				break;
-			case 3:
-				newModifiers.add( Modifiers.ITEMDROP, 5, "Ballroom:quartet" );
-				break;
-			}
-		}
-
-		// Horsery
-		newModifiers.add( Modifiers.getModifiers( "Horsery", horsery ) );
-
-		// Mummery
-		newModifiers.add( Modifiers.parseModifiers( "Mummery", Modifiers.evaluateModifiers( "Mummery", Preferences.getString( "_mummeryMods" ) ) ) );
-
-		// Add modifiers from inventory
-		if ( InventoryManager.hasItem( ItemPool.FISHING_POLE ) )
-		{
-			newModifiers.add( Modifiers.FISHING_SKILL, 20, "Inventory Item:fishin' pole" );
-		}
-		if ( InventoryManager.hasItem( ItemPool.ANTIQUE_TACKLE_BOX ) )
-		{
-			newModifiers.add( Modifiers.FISHING_SKILL, 5, "Inventory Item:antique tacklebox" );
-		}
-
-		// Miscellaneous
-
-		newModifiers.add( Modifiers.getModifiers( "Generated", "_userMods" ) );
-		newModifiers.add( Modifiers.getModifiers( "Generated", "fightMods" ) );
-
-		// Temporary custom modifier
-		if ( custom != null )
+		// Thralls, vehicles, quests and other character state
+		baseModifiers = KoLCharacter.getBaseModifiers( base, BaseModifiers.CHARACTER, newModifiers );
+		if ( baseModifiers != null )
 		{
-			newModifiers.add( Modifiers.parseModifiers( "Generated:custom", custom ) );
+			KoLCharacter.addCharacterAdjustments( baseModifiers, custom, horsery );
 		}
 
 		if ( Modifiers.currentLocation.equals( "The Slime Tube" ) )
@@ -5999,29 +6056,11 @@ public abstract class KoLCharacter
 			}
 		}
 
-		if ( KoLCharacter.inAxecore() && KoLCharacter.currentInstrument != null )
-		{
-			newModifiers.applyMinstrelModifiers( KoLCharacter.minstrelLevel, KoLCharacter.currentInstrument );
-		}
-
-		if ( KoLCharacter.isJarlsberg() && KoLCharacter.companion != null )
-		{
-			newModifiers.applyCompanionModifiers( KoLCharacter.companion );
-		}
-
-		if ( KoLCharacter.isEd() && EdServantData.currentServant() != null )
-		{
-			newModifiers.applyServantModifiers( EdServantData.currentServant() );
-		}
-
-		if ( KoLCharacter.inNoobcore() )
-		{
-			newModifiers.add( Modifiers.getModifiers( "Generated", "Enchantments Absorbed" ) );
-		}
-
-		if ( VYKEACompanionData.currentCompanion() != VYKEACompanionData.NO_COMPANION )
+		// Path-specific companions
+		baseModifiers = KoLCharacter.getBaseModifiers( base, BaseModifiers.COMPANIONS, newModifiers );
+		if ( baseModifiers != null )
 		{
-			newModifiers.applyCompanionModifiers( VYKEACompanionData.currentCompanion() );
+			KoLCharacter.addCompanionAdjustments( baseModifiers );
 		}
 
 		// Lastly, experience adjustment also implicitly depends on
@@ -6052,7 +6091,7 @@ public abstract class KoLCharacter
 			}
 			if ( WL > 0 )
 			{
-				WL += (int)KoLCharacter.currentModifiers.get( Modifiers.WATER_LEVEL );
+				WL += (int)KoLCharacter.getCurrentModifiers().get( Modifiers.WATER_LEVEL );
 				WL = WL < 1 ? 1 : WL > 6 ? 6 : WL;
 				newModifiers.add( Modifiers.EXPERIENCE, (double) WL * 10 / 3.0f, "Water Level:Water Level*10/3" );
 			}
@@ -6158,6 +6197,228 @@ public abstract class KoLCharacter
 		return newModifiers;
 	}
 
+	private static final Modifiers getBaseModifiers( final BaseModifiers base, final int section, final Modifiers newModifiers )
+	{
+		if ( base == null )
+		{
+			return newModifiers;
+		}
+
+		if ( base.replay( section, newModifiers ) )
+		{
+			return null;
+		}
+
+		return base.record( section, newModifiers );
+	}
+
+	private static final void addAreaAdjustments( final Modifiers mods, final int MCD )
+	{
+		// Area-specific adjustments
+		mods.add( Modifiers.getModifiers( "Loc", Modifiers.currentLocation ) );
+		mods.add( Modifiers.getModifiers( "Zone", Modifiers.currentZone ) );
+
+		// Look at sign-specific adjustments
+		mods.add( Modifiers.MONSTER_LEVEL, MCD, "MCD:MCD" );
+		mods.add( Modifiers.getModifiers( "Sign", KoLCharacter.ascensionSign ) );
+
+		// If we are out of ronin/hardcore, look at stat day adjustments
+		if ( KoLCharacter.canInteract() && !KoLmafia.statDay.equals( "None" ) )
+		{
+			mods.add( Modifiers.getModifiers( "StatDay", KoLmafia.statDay ) );
+		}
+	}
+
+	private static final void addEffectAdjustments( final Modifiers mods, final List<AdventureResult> effects )
+	{
+		// Add modifiers from Passive Skills
+		mods.applyPassiveModifiers();
+
+		// Add modifiers from Florist Friar plants
+		mods.applyFloristModifiers();
+
+		// Add modifiers from Current Path
+		mods.add( Modifiers.getModifiers( "Path", KoLCharacter.ascensionPath ) );
+
+		// For the sake of easier maintenance, execute a lot of extra
+		// string comparisons when looking at status effects.
+
+		for ( int i = 0; i < effects.size(); ++i )
+		{
+			mods.add( Modifiers.getEffectModifiers( effects.get( i ).getEffectId() ) );
+		}
+	}
+
+	private static final void addCampgroundAdjustments( final Modifiers mods )
+	{
+		// Add modifiers from campground equipment.
+		for ( int i = 0; i< KoLConstants.campground.size(); ++i )
+		{
+			AdventureResult item = (AdventureResult) KoLConstants.campground.get( i );
+			// Skip ginormous pumpkin growing in garden
+			if ( item.getItemId() == ItemPool.GINORMOUS_PUMPKIN )
+			{
+				continue;
+			}
+			for ( int count = item.getCount(); count > 0; --count )
+			{
+				mods.add( Modifiers.getItemModifiers( item.getItemId() ) );
+			}
+		}
+
+		// Add modifiers from dwelling
+		AdventureResult dwelling = CampgroundRequest.getCurrentDwelling();
+		mods.add( Modifiers.getItemModifiers( dwelling.getItemId() ) );
+
+		if ( KoLConstants.inventory.contains( ItemPool.get( ItemPool.COMFY_BLANKET, 1 ) ) )
+		{
+			mods.add( Modifiers.getItemModifiers( ItemPool.COMFY_BLANKET ) );
+		}
+
+		if ( HolidayDatabase.getRonaldPhase() == 5 )
+		{
+			mods.add( Modifiers.RESTING_MP_PCT, 100, "Moons:Ronald full" );
+		}
+
+		if ( HolidayDatabase.getGrimacePhase() == 5 )
+		{
+			mods.add( Modifiers.RESTING_HP_PCT, 100, "Moons:Grimace full" );
+		}
+
+		if ( ChateauRequest.ceiling != null )
+		{
+			mods.add( Modifiers.getModifiers( "Item", ChateauRequest.ceiling ) );
+		}
+
+		for ( String equip : ClanManager.getClanRumpus() )
+		{
+			mods.add( Modifiers.getModifiers( "Rumpus", equip ) );
+		}
+	}
+
+	private static final void addCharacterAdjustments( final Modifiers mods, final String custom, final String horsery )
+	{
+		// Add Pasta Thrall effects
+
+		if ( KoLCharacter.classtype == KoLCharacter.PASTAMANCER )
+		{
+			PastaThrallData thrall = KoLCharacter.currentPastaThrall;
+			if ( thrall != PastaThrallData.NO_THRALL )
+			{
+				mods.add( Modifiers.getModifiers( "Thrall", thrall.getType() ) );
+			}
+		}
+
+		// If Sneaky Pete, add Motorbike effects
+
+		if ( KoLCharacter.isSneakyPete() )
+		{
+			mods.add( Modifiers.getModifiers( "Motorbike", Preferences.getString( "peteMotorbikeTires" ) ) );
+			mods.add( Modifiers.getModifiers( "Motorbike", Preferences.getString( "peteMotorbikeGasTank" ) ) );
+			mods.add( Modifiers.getModifiers( "Motorbike", Preferences.getString( "peteMotorbikeHeadlight" ) ) );
+			mods.add( Modifiers.getModifiers( "Motorbike", Preferences.getString( "peteMotorbikeCowling" ) ) );
+			mods.add( Modifiers.getModifiers( "Motorbike", Preferences.getString( "peteMotorbikeMuffler" ) ) );
+			mods.add( Modifiers.getModifiers( "Motorbike", Preferences.getString( "peteMotorbikeSeat" ) ) );
+		}
+
+		// If in Nuclear Autumn, add Radiation Sickness
+
+		if ( KoLCharacter.inNuclearAutumn() && KoLCharacter.getRadSickness() > 0 )
+		{
+			mods.add( Modifiers.MUS, -KoLCharacter.getRadSickness(), "Path:Rads" );
+			mods.add( Modifiers.MYS, -KoLCharacter.getRadSickness(), "Path:Rads" );
+			mods.add( Modifiers.MOX, -KoLCharacter.getRadSickness(), "Path:Rads" );
+		}
+
+		// Add in strung-up quartet.
+
+		if ( KoLCharacter.getAscensions() == Preferences.getInteger( "lastQuartetAscension" ) )
+		{
+			switch ( Preferences.getInteger( "lastQuartetRequest" ) )
+			{
+			case 1:
+				mods.add( Modifiers.MONSTER_LEVEL, 5, "Ballroom:quartet" );
+				break;
+			case 2:
+				mods.add( Modifiers.COMBAT_RATE, -5, "Ballroom:quartet" );
+				break;
+			case 3:
+				mods.add( Modifiers.ITEMDROP, 5, "Ballroom:quartet" );
+				break;
+			}
+		}
+
+		// Horsery
+		mods.add( Modifiers.getModifiers( "Horsery", horsery ) );
+
+		// Mummery
+		mods.add( Modifiers.parseModifiers( "Mummery", Modifiers.evaluateModifiers( "Mummery", Preferences.getString( "_mummeryMods" ) ) ) );
+
+		// Add modifiers from inventory
+		if ( InventoryManager.hasItem( ItemPool.FISHING_POLE ) )
+		{
+			mods.add( Modifiers.FISHING_SKILL, 20, "Inventory Item:fishin' pole" );
+		}
+		if ( InventoryManager.hasItem( ItemPool.ANTIQUE_TACKLE_BOX ) )
+		{
+			mods.add( Modifiers.FISHING_SKILL, 5, "Inventory Item:antique tacklebox" );
+		}
+
+		// Miscellaneous
+
+		mods.add( Modifiers.getModifiers( "Generated", "_userMods" ) );
+		mods.add( Modifiers.getModifiers( "Generated", "fightMods" ) );
+
+		// Temporary custom modifier
+		if ( custom != null )
+		{
+			mods.add( Modifiers.parseModifiers( "Generated:custom", custom ) );
+		}
+	}
+
+	private static final void addCompanionAdjustments( final Modifiers mods )
+	{
+		if ( KoLCharacter.inAxecore() && KoLCharacter.currentInstrument != null )
+		{
+			mods.applyMinstrelModifiers( KoLCharacter.minstrelLevel, KoLCharacter.currentInstrument );
+		}
+
+		if ( KoLCharacter.isJarlsberg() && KoLCharacter.companion != null )
+		{
+			mods.applyCompanionModifiers( KoLCharacter.companion );
+		}
+
+		if ( KoLCharacter.isEd() && EdServantData.currentServant() != null )
+		{
+			mods.applyServantModifiers( EdServantData.currentServant() );
+		}
+
+		if ( KoLCharacter.inNoobcore() )
+		{
+			mods.add( Modifiers.getModifiers( "Generated", "Enchantments Absorbed" ) );
+		}
+
+		if ( VYKEACompanionData.currentCompanion() != VYKEACompanionData.NO_COMPANION )
+		{
+			mods.applyCompanionModifiers( VYKEACompanionData.currentCompanion() );
+		}
+	}
+
+	/**
+	 * Returns the modifiers a single item contributes when worn in the
+	 * given slot, including those of whatever it holds.
+	 */
+
+	public static final Modifiers getItemAdjustment( int slot, AdventureResult item,
+							 AdventureResult[] equipment, FamiliarData enthroned, FamiliarData bjorned,
+							 String edPiece, String snowsuit )
+	{
+		int taoFactor = KoLCharacter.hasSkill( "Tao of the Terrapin" ) ? 2 : 1;
+		Modifiers mods = new Modifiers();
+		KoLCharacter.addItemAdjustment( mods, slot, item, equipment, enthroned, bjorned, edPiece, snowsuit, true, taoFactor );
+		return mods;
+	}
+
 	private static final void addItemAdjustment( Modifiers newModifiers, int slot, AdventureResult item,
 						     AdventureResult[] equipment, FamiliarData enthroned, FamiliarData bjorned,
 							 String edPiece, String snowsuit, boolean applyIntrinsics, int taoFactor )
@@ -289,6 +289,7 @@ public interface KoLConstants
 	public static final List<AdventureResult> profitableList = LockableListFactory.getSortedInstance( AdventureResult.class );
 
 	public static final String BUFFBOT_DIRECTORY = "buffs/";
+	public static final String CACHE_DIRECTORY = "cache/";
 	public static final String CCS_DIRECTORY = "ccs/";
 	public static final String CHATLOG_DIRECTORY = "chats/";
 	public static final String PLOTS_DIRECTORY = "planting/";
@@ -299,6 +300,7 @@ public interface KoLConstants
 
 	public static final File BUFFBOT_LOCATION =
 		new File( KoLConstants.ROOT_LOCATION, KoLConstants.BUFFBOT_DIRECTORY );
+	public static final File CACHE_LOCATION = new File( KoLConstants.ROOT_LOCATION, KoLConstants.CACHE_DIRECTORY );
 	public static final File CCS_LOCATION = new File( KoLConstants.ROOT_LOCATION, KoLConstants.CCS_DIRECTORY );
 	public static final File CHATLOG_LOCATION =
 		new File( KoLConstants.ROOT_LOCATION, KoLConstants.CHATLOG_DIRECTORY );
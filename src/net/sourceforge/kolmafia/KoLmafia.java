@@ -577,6 +577,12 @@ public abstract class KoLmafia
 
 		RequestLogger.printLine( state, message );
 
+		if ( state == MafiaState.ABORT )
+		{
+			// Make sure the logs show everything leading up to it
+			RequestLogger.flushLogs();
+		}
+
 		if ( KoLmafia.allowDisplayUpdate )
 		{
 			SystemTrayFrame.updateToolTip( message );
@@ -2111,6 +2117,7 @@ public abstract class KoLmafia
 
 			RequestLogger.closeSessionLog();
 			RequestLogger.closeDebugLog();
+			RequestLogger.closeTraceStream();
 			RequestLogger.closeMirror();
 
 			SystemTrayFrame.removeTrayIcon();
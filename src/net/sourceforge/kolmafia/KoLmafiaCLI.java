@@ -729,6 +729,7 @@ public class KoLmafiaCLI
 			register( "sven" ).
 			register( "tavern" );
 		new ConcertCommand().register( "concert" );
+		new ConnectionsCommand().register( "connections" );
 		new ConditionsCommand().registerPrefix( "goal" ).registerPrefix( "condition" ).registerPrefix( "objective" );
 		new CondRefCommand().register( "condref" );
 		new CouncilCommand().register( "council" );
@@ -842,6 +843,7 @@ public class KoLmafiaCLI
 		new RegisterAdventureCommand().register( "location" );
 		new RelayBrowserCommand().register( "relay" );
 		new RepeatLineCommand().register( "repeat" );
+		new RequestStatsCommand().register( "requeststats" );
 		new RestaurantCommand().register( "restaurant" ).registerSubstring( "brewery" );
 		new RestoresCommand().register( "restores" );
 		new SaveAsMoodCommand().register( "save as mood" );
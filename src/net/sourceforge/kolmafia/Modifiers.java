@@ -48,6 +48,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TimeZone;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -99,6 +100,30 @@ public class Modifiers
 	public static double currentWeight = 0.0;
 	public static boolean unarmed = false;
 
+	// A thread which scores speculative equipment alongside other threads
+	// keeps its own copy of the state which depends on that equipment, and
+	// of the variable modifiers it evaluates. Other threads have no state
+	// of their own and use the static fields and shared modifiers.
+	private static final ThreadLocal<ThreadState> threadState = new ThreadLocal<ThreadState>();
+
+	// Inputs which the expressions of variable modifiers can read, and
+	// whose changes are tracked. A variable modifier whose inputs have
+	// not changed since it was last evaluated keeps its values.
+
+	public static final int INPUT_LEVEL = 0;
+	public static final int INPUT_FAMILIAR = 1;
+	public static final int INPUT_EQUIPMENT = 2;
+	public static final int INPUT_LOCATION = 3;
+	public static final int INPUT_PREFERENCES = 4;
+	public static final int INPUT_SKILLS = 5;
+	public static final int INPUT_MODIFIERS = 6;
+	public static final int INPUTS = 7;
+
+	// Set in the inputs of anything which reads what is not tracked
+	public static final int UNTRACKED_INPUTS = 1 << 31;
+
+	private static final AtomicIntegerArray inputVersions = new AtomicIntegerArray( Modifiers.INPUTS );
+
 	private static final Pattern FAMILIAR_EFFECT_PATTERN =
 		Pattern.compile( "Familiar Effect: \"(.*?)\"" );
 	private static final Pattern FAMILIAR_EFFECT_TRANSLATE_PATTERN =
@@ -1276,6 +1301,8 @@ public class Modifiers
 
 	public static final void overrideModifier( String lookup, Object value )
 	{
+		Modifiers.forgetModifiersById( lookup );
+
 		if ( value != null )
 		{
 			Modifiers.modifiersByName.put( lookup, value );
@@ -1478,6 +1505,13 @@ public class Modifiers
 	private ModifierExpression[] expressions;
 	// These are used for Steely-Eyed Squint and so on
 	private final double[] extras;
+	// The indexes of the nonzero doubles, or null if they have changed
+	// since they were last listed
+	private volatile int[] nonZero;
+	// The inputs which the expressions read, and their versions when
+	// the expressions were last evaluated
+	private int inputs;
+	private int[] inputVersionsSeen;
 
 	public Modifiers()
 	{
@@ -1505,7 +1539,9 @@ public class Modifiers
 		Arrays.fill( this.doubles, 0.0 );
 		Arrays.fill( this.bitmaps, 0 );
 		Arrays.fill( this.strings, "" );
+		Arrays.fill( this.extras, 0.0 );
 		this.expressions = null;
+		this.nonZero = null;
 	};
 
 	private double derivePrismaticDamage()
@@ -1515,7 +1551,11 @@ public class Modifiers
 		damage = Math.min( damage, this.doubles[ Modifiers.SLEAZE_DAMAGE ] );
 		damage = Math.min( damage, this.doubles[ Modifiers.SPOOKY_DAMAGE ] );
 		damage = Math.min( damage, this.doubles[ Modifiers.STENCH_DAMAGE ] );
-		this.doubles[ Modifiers.PRISMATIC_DAMAGE ] = damage;
+		if ( this.doubles[ Modifiers.PRISMATIC_DAMAGE ] != damage )
+		{
+			this.doubles[ Modifiers.PRISMATIC_DAMAGE ] = damage;
+			this.nonZero = null;
+		}
 		return damage;
 	};
 
@@ -1680,6 +1720,7 @@ public class Modifiers
 		if ( this.doubles[ index ] != mod )
 		{
 			this.doubles[ index ] = mod;
+			this.nonZero = null;
 			return true;
 		}
 		return false;
@@ -1753,6 +1794,7 @@ public class Modifiers
 			if ( this.doubles[ index ] != copyDoubles[ index ] )
 			{
 				this.doubles[ index ] = copyDoubles[ index ];
+				this.nonZero = null;
 				changed = true;
 			}
 		}
@@ -1782,6 +1824,8 @@ public class Modifiers
 
 	public void add( final int index, final double mod, final String desc )
 	{
+		this.nonZero = null;
+
 		switch ( index )
 		{
 		case COMBAT_RATE:
@@ -1831,21 +1875,19 @@ public class Modifiers
 			}
 			break;
 		case ITEMDROP:
-			String type = Modifiers.getTypeFromLookup( desc );
-			if ( type.equals( "Bjorn" )
-			   || type.equals( "Effect" )
-			   || type.equals( "Item" )
-			   || type.equals( "Outfit" )
-			   || type.equals( "Sign" )
-			   || type.equals( "Skill" )
-			   || type.equals( "Synergy" )
-			   || type.equals( "Throne" )
-			   || type.equals( "Path" )
+			if ( Modifiers.lookupTypeIs( desc, "Bjorn" )
+			   || Modifiers.lookupTypeIs( desc, "Effect" )
+			   || Modifiers.lookupTypeIs( desc, "Item" )
+			   || Modifiers.lookupTypeIs( desc, "Outfit" )
+			   || Modifiers.lookupTypeIs( desc, "Sign" )
+			   || Modifiers.lookupTypeIs( desc, "Skill" )
+			   || Modifiers.lookupTypeIs( desc, "Synergy" )
+			   || Modifiers.lookupTypeIs( desc, "Throne" )
+			   || Modifiers.lookupTypeIs( desc, "Path" )
 			   )
 			{
-				String name = Modifiers.getNameFromLookup( desc );
-				if ( !name.equals( "Steely-Eyed Squint" ) && 
-				     !name.equals( "broken champagne bottle" ) )
+				if ( !Modifiers.lookupNameIs( desc, "Steely-Eyed Squint" ) &&
+				     !Modifiers.lookupNameIs( desc, "broken champagne bottle" ) )
 				{
 					this.extras[ index ] += mod;
 				}
@@ -1863,8 +1905,8 @@ public class Modifiers
 		case STENCH_SPELL_DAMAGE:
 		case SPOOKY_SPELL_DAMAGE:
 		case SLEAZE_SPELL_DAMAGE:
-			String name = Modifiers.getNameFromLookup( desc );
-			if ( !name.equals( "Bendin' Hell" ) && !name.equals( "Bow-Legged Swagger" ) )
+			if ( !Modifiers.lookupNameIs( desc, "Bendin' Hell" ) &&
+			     !Modifiers.lookupNameIs( desc, "Bow-Legged Swagger" ) )
 			{
 				this.extras[ index ] += mod;
 			}
@@ -1874,8 +1916,7 @@ public class Modifiers
 		case MUS_EXPERIENCE:
 		case MYS_EXPERIENCE:
 		case MOX_EXPERIENCE:
-			name = Modifiers.getNameFromLookup( desc );
-			if ( !name.equals( "makeshift garbage shirt" ) )
+			if ( !Modifiers.lookupNameIs( desc, "makeshift garbage shirt" ) )
 			{
 				this.extras[ index ] += mod;
 			}
@@ -1903,29 +1944,29 @@ public class Modifiers
 
 		// Unarmed modifiers apply only if the character has no weapon or offhand
 		boolean unarmed = mods.getBoolean( Modifiers.UNARMED );
-		if ( unarmed && !Modifiers.unarmed )
+		if ( unarmed && !Modifiers.isUnarmed() )
 		{
 			return;
 		}
 
 		String name = mods.name;
 
-		// Add in the double modifiers
+		// Add in the double modifiers. Only the nonzero ones need be
+		// visited, and they are listed once for each set of modifiers.
 
 		double[] addition = mods.doubles;
+		int[] indexes = mods.getNonZero();
 
-		for ( int i = 0; i < this.doubles.length; ++i )
+		for ( int n = 0; n < indexes.length; ++n )
 		{
-			if ( addition[ i ] != 0.0 )
+			int i = indexes[ n ];
+			if ( i == Modifiers.ADVENTURES &&
+				(mods.bitmaps[ 0 ] & this.bitmaps[ 0 ] &
+					(1 << Modifiers.NONSTACKABLE_WATCH)) != 0 )
 			{
-				if ( i == Modifiers.ADVENTURES &&
-					(mods.bitmaps[ 0 ] & this.bitmaps[ 0 ] &
-						(1 << Modifiers.NONSTACKABLE_WATCH)) != 0 )
-				{
-					continue;
-				}
-				this.add( i, addition[ i ], name );
+				continue;
 			}
+			this.add( i, addition[ i ], name );
 		}
 
 		// Add in string modifiers as appropriate.
@@ -1979,14 +2020,61 @@ public class Modifiers
 		}
 	}
 
+	private int[] getNonZero()
+	{
+		int[] indexes = this.nonZero;
+		if ( indexes != null )
+		{
+			return indexes;
+		}
+
+		double[] values = this.doubles;
+		int count = 0;
+		for ( int i = 0; i < values.length; ++i )
+		{
+			if ( values[ i ] != 0.0 )
+			{
+				++count;
+			}
+		}
+
+		indexes = new int[ count ];
+		count = 0;
+		for ( int i = 0; i < values.length; ++i )
+		{
+			if ( values[ i ] != 0.0 )
+			{
+				indexes[ count++ ] = i;
+			}
+		}
+
+		this.nonZero = indexes;
+		return indexes;
+	}
+
+	// Parsed modifiers of items, effects and skills, indexed by id, so
+	// that looking them up by id builds no lookup name. An entry is null
+	// until it is first looked up, and NO_MODIFIERS if there are none.
+
+	private static final Modifiers NO_MODIFIERS = new Modifiers();
+	private static final ModifiersById itemModifiersById = new ModifiersById();
+	private static final ModifiersById effectModifiersById = new ModifiersById();
+	private static final ModifiersById skillModifiersById = new ModifiersById();
+
 	public static final Modifiers getItemModifiers( final int id )
 	{
 		if ( id <= 0 )
 		{
 			return null;
 		}
-		String name = "[" + id + "]";
-		return Modifiers.getModifiers( "Item", name );
+
+		Modifiers mods = Modifiers.itemModifiersById.get( id );
+		if ( mods == null )
+		{
+			mods = Modifiers.getParsedModifiers( "Item", "Item:[" + id + "]" );
+			Modifiers.itemModifiersById.put( id, mods );
+		}
+		return Modifiers.resolveModifiers( mods );
 	}
 
 	public static final Modifiers getEffectModifiers( final int id )
@@ -1995,8 +2083,81 @@ public class Modifiers
 		{
 			return null;
 		}
-		String name = "[" + id + "]";
-		return Modifiers.getModifiers( "Effect", name );
+
+		Modifiers mods = Modifiers.effectModifiersById.get( id );
+		if ( mods == null )
+		{
+			mods = Modifiers.getParsedModifiers( "Effect", "Effect:[" + id + "]" );
+			Modifiers.effectModifiersById.put( id, mods );
+		}
+		return Modifiers.resolveModifiers( mods );
+	}
+
+	public static final Modifiers getSkillModifiers( final int id )
+	{
+		if ( id < 0 )
+		{
+			return null;
+		}
+
+		Modifiers mods = Modifiers.skillModifiersById.get( id );
+		if ( mods == null )
+		{
+			String name = SkillDatabase.getSkillName( id );
+			mods = name == null ? Modifiers.NO_MODIFIERS : Modifiers.getParsedModifiers( "Skill", "Skill:" + name );
+			Modifiers.skillModifiersById.put( id, mods );
+		}
+		return Modifiers.resolveModifiers( mods );
+	}
+
+	private static Modifiers getParsedModifiers( final String type, final String lookup )
+	{
+		Object modifier = Modifiers.modifiersByName.get( lookup );
+
+		if ( modifier instanceof Modifiers )
+		{
+			return (Modifiers) modifier;
+		}
+
+		if ( modifier instanceof String )
+		{
+			return Modifiers.parseStoredModifiers( lookup, type, (String) modifier );
+		}
+
+		return Modifiers.NO_MODIFIERS;
+	}
+
+	private static Modifiers resolveModifiers( Modifiers mods )
+	{
+		if ( mods == Modifiers.NO_MODIFIERS )
+		{
+			return null;
+		}
+
+		if ( mods.variable )
+		{
+			// Parsed modifiers are named by their lookup
+			String lookup = mods.name;
+			mods = Modifiers.getThreadModifiers( lookup, mods );
+			mods.override( lookup );
+		}
+		return mods;
+	}
+
+	private static void forgetModifiersById( final String lookup )
+	{
+		if ( Modifiers.lookupTypeIs( lookup, "Item" ) )
+		{
+			Modifiers.itemModifiersById.clear();
+		}
+		else if ( Modifiers.lookupTypeIs( lookup, "Effect" ) )
+		{
+			Modifiers.effectModifiersById.clear();
+		}
+		else if ( Modifiers.lookupTypeIs( lookup, "Skill" ) )
+		{
+			Modifiers.skillModifiersById.clear();
+		}
 	}
 
 	public static final Modifiers getModifiers( String type, final String name )
@@ -2026,6 +2187,7 @@ public class Modifiers
 			Modifiers mods = (Modifiers) modifier;
 			if ( mods.variable )
 			{
+				mods = Modifiers.getThreadModifiers( lookup, mods );
 				mods.override( lookup );
 				if ( changeType != null )
 				{
@@ -2040,13 +2202,20 @@ public class Modifiers
 			return null;
 		}
 
-		Modifiers newMods = Modifiers.parseModifiers( lookup, (String) modifier );
+		Modifiers newMods = Modifiers.parseStoredModifiers( lookup, type, (String) modifier );
 
 		if ( changeType != null )
 		{
 			newMods.name = changeType + ":" + name;
 		}
 
+		return newMods;
+	}
+
+	private static Modifiers parseStoredModifiers( final String lookup, final String type, final String string )
+	{
+		Modifiers newMods = Modifiers.parseModifiers( lookup, string );
+
 		newMods.variable = newMods.override( lookup ) || type.equals( "Loc" ) || type.equals( "Zone" );
 
 		Modifiers.modifiersByName.put( lookup, newMods );
@@ -2054,131 +2223,268 @@ public class Modifiers
 		return newMods;
 	}
 
-	public final static Modifiers parseModifiers( final String lookup, final String string )
+	// The tables which modifiers are parsed from, in the order in which
+	// candidates for a modifier name are numbered
+
+	private static final Object[][][] parsedTables =
 	{
-		Modifiers newMods = new Modifiers();
-		double[] newDoubles = newMods.doubles;
-		int[] newBitmaps = newMods.bitmaps;
-		String[] newStrings = newMods.strings;
+		Modifiers.doubleModifiers,
+		Modifiers.bitmapModifiers,
+		Modifiers.booleanModifiers,
+		Modifiers.stringModifiers,
+	};
 
-		newMods.name = lookup;
-		String name = Modifiers.getNameFromLookup( lookup );
+	private static final int PARSED_DOUBLE = 0;
+	private static final int PARSED_BITMAP = 1;
+	private static final int PARSED_BOOLEAN = 2;
+	private static final int PARSED_STRING = 3;
+
+	// Each candidate is numbered as its table times this plus its index
+	private static final int PARSED_TABLE_SIZE = 256;
+
+	// For each modifier, a pattern matching the names it is written
+	// with: its tag pattern, up to the colon which follows the name
 
-		for ( int i = 0; i < newDoubles.length; ++i )
+	private static final Pattern[][] namePatterns = new Pattern[ Modifiers.parsedTables.length ][];
+
+	static
+	{
+		for ( int table = 0; table < Modifiers.parsedTables.length; ++table )
 		{
-			Pattern pattern = Modifiers.modifierTagPattern( Modifiers.doubleModifiers, i );
-			if ( pattern == null )
+			Object[][] modifiers = Modifiers.parsedTables[ table ];
+			Pattern[] patterns = new Pattern[ modifiers.length ];
+			for ( int i = 0; i < modifiers.length; ++i )
 			{
-				continue;
-			}
+				Pattern pattern = Modifiers.modifierTagPattern( modifiers, i );
+				if ( pattern == null )
+				{
+					continue;
+				}
 
-			Matcher matcher = pattern.matcher( string );
-			if ( !matcher.find() )
-			{
-				continue;
+				String source = pattern.pattern();
+				if ( source.startsWith( "(?:^|, )" ) )
+				{
+					source = source.substring( 8 );
+				}
+				int colon = source.indexOf( ": " );
+				if ( colon != -1 )
+				{
+					source = source.substring( 0, colon );
+				}
+				patterns[ i ] = Pattern.compile( source );
 			}
+			Modifiers.namePatterns[ table ] = patterns;
+		}
+	}
+
+	// The modifiers which might be written with each name seen so far
+	private static final HashMap<String, int[]> modifiersByTag = new HashMap<String, int[]>();
 
-			if ( matcher.group( 1 ) != null )
+	private static final int[] getTagCandidates( final String tag )
+	{
+		synchronized ( Modifiers.modifiersByTag )
+		{
+			int[] candidates = Modifiers.modifiersByTag.get( tag );
+			if ( candidates != null )
 			{
-				newDoubles[ i ] = Double.parseDouble( matcher.group( 1 ) );
+				return candidates;
 			}
-			else
+
+			ArrayList<Integer> found = new ArrayList<Integer>();
+			for ( int table = 0; table < Modifiers.namePatterns.length; ++table )
 			{
-				if ( newMods.expressions == null )
+				Pattern[] patterns = Modifiers.namePatterns[ table ];
+				for ( int i = 0; i < patterns.length; ++i )
 				{
-					newMods.expressions = new ModifierExpression[ Modifiers.DOUBLE_MODIFIERS ];
+					if ( patterns[ i ] != null && patterns[ i ].matcher( tag ).matches() )
+					{
+						found.add( IntegerPool.get( table * Modifiers.PARSED_TABLE_SIZE + i ) );
+					}
 				}
-				newMods.expressions[ i ] = ModifierExpression.getInstance( matcher.group( 2 ), lookup );
 			}
+
+			candidates = new int[ found.size() ];
+			for ( int i = 0; i < candidates.length; ++i )
+			{
+				candidates[ i ] = found.get( i ).intValue();
+			}
+
+			Modifiers.modifiersByTag.put( tag, candidates );
+			return candidates;
 		}
+	}
+
+	/**
+	 * Splits a modifier string into its comma separated modifiers,
+	 * leaving quoted strings and bracketed expressions whole.
+	 */
+
+	private static final ArrayList<String> splitTags( final String string )
+	{
+		ArrayList<String> tags = new ArrayList<String>();
+		int length = string.length();
+		int start = 0;
+		int depth = 0;
+		boolean quoted = false;
 
-		for ( int i = 0; i < newBitmaps.length; ++i )
+		for ( int i = 0; i < length; ++i )
 		{
-			Pattern pattern = Modifiers.modifierTagPattern( Modifiers.bitmapModifiers, i );
-			if ( pattern == null )
+			char ch = string.charAt( i );
+			if ( ch == '"' && depth == 0 )
 			{
-				continue;
+				quoted = !quoted;
 			}
-
-			Matcher matcher = pattern.matcher( string );
-			if ( !matcher.find() )
+			else if ( quoted )
 			{
 				continue;
 			}
-			int bitcount = 1;
-			if ( matcher.groupCount() > 0 )
+			else if ( ch == '[' )
 			{
-				bitcount = StringUtilities.parseInt( matcher.group( 1 ) );
+				++depth;
 			}
-			int mask = Modifiers.bitmapMasks[ i ];
-			switch ( bitcount )
+			else if ( ch == ']' && depth > 0 )
 			{
-			case 1:
-				Modifiers.bitmapMasks[ i ] <<= 1;
-				break;
-			case 2:
-				mask |= mask << 1;
-				Modifiers.bitmapMasks[ i ] <<= 2;
-				break;
-			default:
-				KoLmafia.updateDisplay( "ERROR: invalid count for bitmap modifier in " + lookup );
-				continue;
+				--depth;
 			}
-			if ( Modifiers.bitmapMasks[ i ] == 0 )
+			else if ( ch == ',' && depth == 0 )
 			{
-				KoLmafia.updateDisplay( "ERROR: too many sources for bitmap modifier " + Modifiers.modifierName( Modifiers.bitmapModifiers, i ) + ", consider using longs." );
+				tags.add( string.substring( start, i ).trim() );
+				start = i + 1;
 			}
-
-			newBitmaps[ i ] |= mask;
 		}
 
-		for ( int i = 0; i < Modifiers.BOOLEAN_MODIFIERS; ++i )
-		{
-			Pattern pattern = Modifiers.modifierTagPattern( Modifiers.booleanModifiers, i );
-			if ( pattern == null )
-			{
-				continue;
-			}
+		tags.add( string.substring( start ).trim() );
+		return tags;
+	}
 
-			Matcher matcher = pattern.matcher( string );
-			if ( !matcher.find() )
-			{
-				continue;
-			}
+	public final static Modifiers parseModifiers( final String lookup, final String string )
+	{
+		Modifiers newMods = new Modifiers();
+		double[] newDoubles = newMods.doubles;
+		int[] newBitmaps = newMods.bitmaps;
+		String[] newStrings = newMods.strings;
 
-			newBitmaps[ 0 ] |= 1 << i;
-		}
+		newMods.name = lookup;
+
+		// Each modifier is parsed from the first of its tags to match,
+		// as though its pattern had been searched for in the whole string
+		boolean[][] parsed = new boolean[ Modifiers.parsedTables.length ][];
 
-		for ( int i = 0; i < newStrings.length; ++i )
+		for ( String tag : Modifiers.splitTags( string ) )
 		{
-			Pattern pattern = Modifiers.modifierTagPattern( Modifiers.stringModifiers, i );
-			if ( pattern == null )
-			{
-				continue;
-			}
+			int colon = tag.indexOf( ": " );
+			int[] candidates = Modifiers.getTagCandidates( colon == -1 ? tag : tag.substring( 0, colon ) );
 
-			Matcher matcher = pattern.matcher( string );
-			if ( !matcher.find() )
+			for ( int candidate : candidates )
 			{
-				continue;
-			}
+				int table = candidate / Modifiers.PARSED_TABLE_SIZE;
+				int i = candidate % Modifiers.PARSED_TABLE_SIZE;
 
-			String key = Modifiers.modifierName( Modifiers.stringModifiers, i );
-			String value = matcher.group( 1 );
+				if ( parsed[ table ] == null )
+				{
+					parsed[ table ] = new boolean[ Modifiers.parsedTables[ table ].length ];
+				}
+				else if ( parsed[ table ][ i ] )
+				{
+					continue;
+				}
 
-			if ( key.equals( "Class" ) )
-			{
-				value = Modifiers.depluralizeClassName( value );
-			}
+				Matcher matcher = Modifiers.modifierTagPattern( Modifiers.parsedTables[ table ], i ).matcher( tag );
+				if ( !matcher.find() )
+				{
+					continue;
+				}
+
+				parsed[ table ][ i ] = true;
+
+				switch ( table )
+				{
+				case PARSED_DOUBLE:
+					if ( matcher.group( 1 ) != null )
+					{
+						newDoubles[ i ] = Double.parseDouble( matcher.group( 1 ) );
+						break;
+					}
+
+					ModifierExpression expr = ModifierExpression.getInstance( matcher.group( 2 ), lookup );
+					if ( expr.isConstant() )
+					{
+						// Nothing it refers to can change
+						newDoubles[ i ] = expr.eval();
+						break;
+					}
+
+					if ( newMods.expressions == null )
+					{
+						newMods.expressions = new ModifierExpression[ Modifiers.DOUBLE_MODIFIERS ];
+					}
+					newMods.expressions[ i ] = expr;
+					newMods.inputs |= expr.getInputs();
+					break;
+
+				case PARSED_BITMAP:
+					Modifiers.parseBitmap( lookup, newBitmaps, i, matcher );
+					break;
+
+				case PARSED_BOOLEAN:
+					newBitmaps[ 0 ] |= 1 << i;
+					break;
 
-			newStrings[ i ] = value;
+				case PARSED_STRING:
+					String key = Modifiers.modifierName( Modifiers.stringModifiers, i );
+					String value = matcher.group( 1 );
+
+					if ( key.equals( "Class" ) )
+					{
+						value = Modifiers.depluralizeClassName( value );
+					}
+
+					newStrings[ i ] = value;
+					break;
+				}
+			}
 		}
 
 		newStrings[ Modifiers.MODIFIERS ] = string;
 
+		if ( ( newBitmaps[ 0 ] & ( 1 << Modifiers.VARIABLE ) ) != 0 )
+		{
+			// Hard-coded modifiers can read anything
+			newMods.inputs |= Modifiers.UNTRACKED_INPUTS;
+		}
+
 		return newMods;
 	}
 
+	private static final void parseBitmap( final String lookup, final int[] newBitmaps, final int i, final Matcher matcher )
+	{
+		int bitcount = 1;
+		if ( matcher.groupCount() > 0 )
+		{
+			bitcount = StringUtilities.parseInt( matcher.group( 1 ) );
+		}
+		int mask = Modifiers.bitmapMasks[ i ];
+		switch ( bitcount )
+		{
+		case 1:
+			Modifiers.bitmapMasks[ i ] <<= 1;
+			break;
+		case 2:
+			mask |= mask << 1;
+			Modifiers.bitmapMasks[ i ] <<= 2;
+			break;
+		default:
+			KoLmafia.updateDisplay( "ERROR: invalid count for bitmap modifier in " + lookup );
+			return;
+		}
+		if ( Modifiers.bitmapMasks[ i ] == 0 )
+		{
+			KoLmafia.updateDisplay( "ERROR: too many sources for bitmap modifier " + Modifiers.modifierName( Modifiers.bitmapModifiers, i ) + ", consider using longs." );
+		}
+
+		newBitmaps[ i ] |= mask;
+	}
+
 	private static final String[][] classStrings =
 	{
 		{
@@ -2521,18 +2827,38 @@ public class Modifiers
 		return list.toString();
 	}
 
+	/**
+	 * Recomputes the values of a variable set of modifiers from the
+	 * current state of the character, as looking them up again would.
+	 */
+
+	public void refresh()
+	{
+		if ( this.variable )
+		{
+			this.override( this.name );
+		}
+	}
+
 	private boolean override( final String lookup )
 	{
-		if ( this.expressions != null )
+		if ( this.expressions != null && this.inputsChanged() )
 		{
+			// Note the versions first, so that a change made while
+			// evaluating is not missed
+			int[] versions = this.getInputVersions();
+
 			for ( int i = 0; i < this.expressions.length; ++i )
 			{
 				ModifierExpression expr = this.expressions[ i ];
 				if ( expr != null )
 				{
 					this.doubles[ i ] = expr.eval();
+					this.nonZero = null;
 				}
 			}
+
+			this.inputVersionsSeen = versions;
 		}
 
 		// If the object does not require hard-coding, we're done
@@ -2860,8 +3186,7 @@ public class Modifiers
 			UseSkillRequest skill = Modifiers.passiveSkills.get( i );
 			if ( KoLCharacter.hasSkill( skill ) )
 			{
-				String name = skill.getSkillName();
-				this.add( Modifiers.getModifiers( "Skill", name ) );
+				this.add( Modifiers.getSkillModifiers( skill.getSkillId() ) );
 			}
 		}
 
@@ -2947,7 +3272,7 @@ public class Modifiers
 	{
 		int familiarId = familiar.getId();
 		weight = Math.max( 1, weight );
-		Modifiers.currentWeight = weight;
+		Modifiers.setCurrentWeight( weight );
 
 		String race = familiar.getRace();
 
@@ -3708,6 +4033,8 @@ public class Modifiers
 
 	public static void setLocation( KoLAdventure location )
 	{
+		Modifiers.inputChanged( Modifiers.INPUT_LOCATION );
+
 		if ( location == null )
 		{
 			Modifiers.currentLocation = "";
@@ -3730,7 +4057,331 @@ public class Modifiers
 
 	public static void setFamiliar( FamiliarData fam )
 	{
-		Modifiers.currentFamiliar = fam == null ? "" : fam.getRace();
+		String race = fam == null ? "" : fam.getRace();
+		ThreadState state = Modifiers.threadState.get();
+		if ( state != null )
+		{
+			if ( !race.equals( state.currentFamiliar ) )
+			{
+				state.currentFamiliar = race;
+				Modifiers.inputChanged( state, Modifiers.INPUT_FAMILIAR );
+			}
+			return;
+		}
+		if ( !race.equals( Modifiers.currentFamiliar ) )
+		{
+			Modifiers.currentFamiliar = race;
+			Modifiers.inputChanged( state, Modifiers.INPUT_FAMILIAR );
+		}
+	}
+
+	public static String getCurrentFamiliar()
+	{
+		ThreadState state = Modifiers.threadState.get();
+		return state != null ? state.currentFamiliar : Modifiers.currentFamiliar;
+	}
+
+	public static String getMainhandClass()
+	{
+		ThreadState state = Modifiers.threadState.get();
+		return state != null ? state.mainhandClass : Modifiers.mainhandClass;
+	}
+
+	public static void setMainhandClass( final String mainhandClass )
+	{
+		ThreadState state = Modifiers.threadState.get();
+		if ( state != null )
+		{
+			if ( !mainhandClass.equals( state.mainhandClass ) )
+			{
+				state.mainhandClass = mainhandClass;
+				Modifiers.inputChanged( state, Modifiers.INPUT_EQUIPMENT );
+			}
+			return;
+		}
+		if ( !mainhandClass.equals( Modifiers.mainhandClass ) )
+		{
+			Modifiers.mainhandClass = mainhandClass;
+			Modifiers.inputChanged( state, Modifiers.INPUT_EQUIPMENT );
+		}
+	}
+
+	public static double getHoboPower()
+	{
+		ThreadState state = Modifiers.threadState.get();
+		return state != null ? state.hoboPower : Modifiers.hoboPower;
+	}
+
+	public static void setHoboPower( final double hoboPower )
+	{
+		ThreadState state = Modifiers.threadState.get();
+		if ( state != null )
+		{
+			if ( state.hoboPower != hoboPower )
+			{
+				state.hoboPower = hoboPower;
+				Modifiers.inputChanged( state, Modifiers.INPUT_EQUIPMENT );
+			}
+			return;
+		}
+		if ( Modifiers.hoboPower != hoboPower )
+		{
+			Modifiers.hoboPower = hoboPower;
+			Modifiers.inputChanged( state, Modifiers.INPUT_EQUIPMENT );
+		}
+	}
+
+	public static double getSmithsness()
+	{
+		ThreadState state = Modifiers.threadState.get();
+		return state != null ? state.smithsness : Modifiers.smithsness;
+	}
+
+	public static void setSmithsness( final double smithsness )
+	{
+		ThreadState state = Modifiers.threadState.get();
+		if ( state != null )
+		{
+			if ( state.smithsness != smithsness )
+			{
+				state.smithsness = smithsness;
+				Modifiers.inputChanged( state, Modifiers.INPUT_EQUIPMENT );
+			}
+			return;
+		}
+		if ( Modifiers.smithsness != smithsness )
+		{
+			Modifiers.smithsness = smithsness;
+			Modifiers.inputChanged( state, Modifiers.INPUT_EQUIPMENT );
+		}
+	}
+
+	public static double getCurrentWeight()
+	{
+		ThreadState state = Modifiers.threadState.get();
+		return state != null ? state.currentWeight : Modifiers.currentWeight;
+	}
+
+	private static void setCurrentWeight( final double weight )
+	{
+		ThreadState state = Modifiers.threadState.get();
+		if ( state != null )
+		{
+			if ( state.currentWeight != weight )
+			{
+				state.currentWeight = weight;
+				Modifiers.inputChanged( state, Modifiers.INPUT_FAMILIAR );
+			}
+			return;
+		}
+		if ( Modifiers.currentWeight != weight )
+		{
+			Modifiers.currentWeight = weight;
+			Modifiers.inputChanged( state, Modifiers.INPUT_FAMILIAR );
+		}
+	}
+
+	public static boolean isUnarmed()
+	{
+		ThreadState state = Modifiers.threadState.get();
+		return state != null ? state.unarmed : Modifiers.unarmed;
+	}
+
+	public static void setUnarmed( final boolean unarmed )
+	{
+		ThreadState state = Modifiers.threadState.get();
+		if ( state != null )
+		{
+			state.unarmed = unarmed;
+			return;
+		}
+		Modifiers.unarmed = unarmed;
+	}
+
+	/**
+	 * Gives the current thread its own copy of the equipment-dependent
+	 * state, starting from the shared values, so that it can calculate
+	 * modifiers while other threads do the same. Every modifier the
+	 * thread might look up must already have been parsed; see
+	 * <code>parseAllModifiers</code>.
+	 */
+
+	public static void beginThreadState()
+	{
+		Modifiers.threadState.set( new ThreadState() );
+	}
+
+	public static void endThreadState()
+	{
+		Modifiers.threadState.remove();
+	}
+
+	/**
+	 * Parses every modifier which is still stored as a string, so that
+	 * later lookups never change the shared table.
+	 */
+
+	public static void parseAllModifiers()
+	{
+		Object[] keys = Modifiers.modifiersByName.keySet().toArray();
+		for ( int i = 0; i < keys.length; ++i )
+		{
+			String lookup = (String) keys[ i ];
+			Object modifier = Modifiers.modifiersByName.get( lookup );
+			if ( modifier instanceof String )
+			{
+				Modifiers.parseStoredModifiers( lookup, Modifiers.getTypeFromLookup( lookup ), (String) modifier );
+			}
+		}
+	}
+
+	private static Modifiers getThreadModifiers( final String lookup, final Modifiers mods )
+	{
+		ThreadState state = Modifiers.threadState.get();
+		if ( state == null )
+		{
+			return mods;
+		}
+
+		Modifiers copy = state.variableModifiers.get( lookup );
+		if ( copy == null )
+		{
+			copy = new Modifiers( mods );
+			copy.variable = true;
+			copy.expressions = mods.expressions;
+			copy.inputs = mods.inputs;
+			state.variableModifiers.put( lookup, copy );
+		}
+		return copy;
+	}
+
+	/**
+	 * Notes that an input which variable modifiers can depend on has
+	 * changed, so that those which depend on it are evaluated again.
+	 */
+
+	public static void inputChanged( final int input )
+	{
+		Modifiers.inputVersions.incrementAndGet( input );
+	}
+
+	private static void inputChanged( final ThreadState state, final int input )
+	{
+		if ( state != null )
+		{
+			++state.inputVersions[ input ];
+			return;
+		}
+		Modifiers.inputVersions.incrementAndGet( input );
+	}
+
+	private static int getInputVersion( final int input )
+	{
+		switch ( input )
+		{
+		case INPUT_LEVEL:
+			// The level is only recalculated when asked for
+			return KoLCharacter.getLevel();
+
+		case INPUT_FAMILIAR:
+		case INPUT_EQUIPMENT:
+			ThreadState state = Modifiers.threadState.get();
+			if ( state != null )
+			{
+				return state.inputVersions[ input ];
+			}
+			break;
+		}
+
+		return Modifiers.inputVersions.get( input );
+	}
+
+	/**
+	 * Returns true if this set of modifiers has never been evaluated,
+	 * or if any of the inputs its expressions read has changed since.
+	 */
+
+	private boolean inputsChanged()
+	{
+		int[] versions = this.inputVersionsSeen;
+		if ( versions == null || ( this.inputs & Modifiers.UNTRACKED_INPUTS ) != 0 )
+		{
+			return true;
+		}
+
+		for ( int input = 0; input < Modifiers.INPUTS; ++input )
+		{
+			if ( ( this.inputs & ( 1 << input ) ) != 0 &&
+			     versions[ input ] != Modifiers.getInputVersion( input ) )
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private int[] getInputVersions()
+	{
+		if ( ( this.inputs & Modifiers.UNTRACKED_INPUTS ) != 0 )
+		{
+			return null;
+		}
+
+		int[] versions = new int[ Modifiers.INPUTS ];
+		for ( int input = 0; input < Modifiers.INPUTS; ++input )
+		{
+			if ( ( this.inputs & ( 1 << input ) ) != 0 )
+			{
+				versions[ input ] = Modifiers.getInputVersion( input );
+			}
+		}
+		return versions;
+	}
+
+	/**
+	 * A table of parsed modifiers indexed by id, which grows as ids are
+	 * added. Lookups do not lock; a lookup which races with an addition
+	 * at most misses it and parses again.
+	 */
+
+	private static class ModifiersById
+	{
+		private volatile Modifiers[] modifiers = new Modifiers[ 0 ];
+
+		public Modifiers get( final int id )
+		{
+			Modifiers[] modifiers = this.modifiers;
+			return id < modifiers.length ? modifiers[ id ] : null;
+		}
+
+		public synchronized void put( final int id, final Modifiers mods )
+		{
+			Modifiers[] modifiers = this.modifiers;
+			if ( id >= modifiers.length )
+			{
+				modifiers = Arrays.copyOf( modifiers, Math.max( id + 1, modifiers.length * 2 ) );
+			}
+			modifiers[ id ] = mods;
+			this.modifiers = modifiers;
+		}
+
+		public synchronized void clear()
+		{
+			this.modifiers = new Modifiers[ 0 ];
+		}
+	}
+
+	private static class ThreadState
+	{
+		public String currentFamiliar = Modifiers.currentFamiliar;
+		public String mainhandClass = Modifiers.mainhandClass;
+		public double hoboPower = Modifiers.hoboPower;
+		public double smithsness = Modifiers.smithsness;
+		public double currentWeight = Modifiers.currentWeight;
+		public boolean unarmed = Modifiers.unarmed;
+		public final HashMap<String, Modifiers> variableModifiers = new HashMap<String, Modifiers>();
+		public final int[] inputVersions = new int[ Modifiers.INPUTS ];
 	}
 
 	public static String getLookupName( final String type, final String name )
@@ -3774,6 +4425,20 @@ public class Modifiers
 		return lookup;
 	}
 
+	// These compare the parts of a lookup without making substrings of it
+
+	private static boolean lookupTypeIs( final String lookup, final String type )
+	{
+		return lookup.length() > type.length() && lookup.charAt( type.length() ) == ':' &&
+			lookup.startsWith( type );
+	}
+
+	private static boolean lookupNameIs( final String lookup, final String name )
+	{
+		int index = lookup.indexOf( ':' );
+		return lookup.length() - index - 1 == name.length() && lookup.startsWith( name, index + 1 );
+	}
+
 	static
 	{
 		BufferedReader reader = FileUtilities.getVersionedReader( "modifiers.txt", KoLConstants.MODIFIERS_VERSION );
@@ -4310,6 +4975,7 @@ public class Modifiers
 			if ( !Modifiers.modifiersByName.containsKey( lookup ) )
 			{
 				Modifiers.modifiersByName.put( lookup, known );
+				Modifiers.forgetModifiersById( lookup );
 			}
 		}
 	}
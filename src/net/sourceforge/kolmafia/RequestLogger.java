@@ -41,6 +41,8 @@ import net.sourceforge.kolmafia.KoLConstants.MafiaState;
 
 import net.sourceforge.kolmafia.persistence.SkillDatabase;
 
+import net.sourceforge.kolmafia.preferences.Preferences;
+
 import net.sourceforge.kolmafia.request.AWOLQuartermasterRequest;
 import net.sourceforge.kolmafia.request.AfterLifeRequest;
 import net.sourceforge.kolmafia.request.AirportRequest;
@@ -212,9 +214,11 @@ import net.sourceforge.kolmafia.session.ChoiceManager;
 import net.sourceforge.kolmafia.session.DvorakManager;
 import net.sourceforge.kolmafia.session.SorceressLairManager;
 
+import net.sourceforge.kolmafia.utilities.AsyncLogStream;
 import net.sourceforge.kolmafia.utilities.LogStream;
 import net.sourceforge.kolmafia.utilities.NullStream;
 import net.sourceforge.kolmafia.utilities.StringUtilities;
+import net.sourceforge.kolmafia.utilities.URLDispatcher;
 
 import net.sourceforge.kolmafia.webui.RelayServer;
 
@@ -446,6 +450,33 @@ public class RequestLogger
 		return LogStream.openStream( filename, false );
 	}
 
+	/**
+	 * Opens a log whose writes are handed off to a background thread, so
+	 * that logging does not slow down the request which is being logged.
+	 */
+
+	private static final PrintStream openAsyncStream( final String filename, final PrintStream originalStream, final String name )
+	{
+		PrintStream stream = RequestLogger.openStream( filename, originalStream, true );
+
+		if ( !( stream instanceof LogStream ) )
+		{
+			return stream;
+		}
+
+		return new AsyncLogStream( stream, name );
+	}
+
+	/**
+	 * Writes everything queued for the debug and trace logs to disk.
+	 */
+
+	public static final void flushLogs()
+	{
+		RequestLogger.debugStream.flush();
+		RequestLogger.traceStream.flush();
+	}
+
 	public static final void closeStream( final PrintStream stream )
 	{
 		try
@@ -522,8 +553,8 @@ public class RequestLogger
 	public static final void openDebugLog()
 	{
 		RequestLogger.debugStream =
-			RequestLogger.openStream(
-				"DEBUG_" + KoLConstants.DAILY_FORMAT.format( new Date() ) + ".txt", RequestLogger.debugStream, true );
+			RequestLogger.openAsyncStream(
+				"DEBUG_" + KoLConstants.DAILY_FORMAT.format( new Date() ) + ".txt", RequestLogger.debugStream, "Debug log writer" );
 	}
 
 	public static final void closeDebugLog()
@@ -548,6 +579,36 @@ public class RequestLogger
 		RequestLogger.debugStream.println( line );
 	}
 
+	/**
+	 * Logs a page from the server, with its line breaks removed unless the
+	 * user wants readable HTML. Removing them is left to the log's writer.
+	 */
+
+	public static final void updateDebugLogPage( final String text )
+	{
+		if ( Preferences.getBoolean( "logReadableHTML" ) )
+		{
+			RequestLogger.updateDebugLog( text );
+			return;
+		}
+
+		if ( StaticEntity.backtraceTrigger != null &&
+		     text.contains( StaticEntity.backtraceTrigger ) )
+		{
+			StaticEntity.printStackTrace( "Backtrace triggered by debug log message" );
+		}
+
+		PrintStream stream = RequestLogger.debugStream;
+		if ( stream instanceof AsyncLogStream )
+		{
+			( (AsyncLogStream) stream ).printlnStripped( text, KoLConstants.LINE_BREAK_PATTERN );
+		}
+		else
+		{
+			stream.println( KoLConstants.LINE_BREAK_PATTERN.matcher( text ).replaceAll( "" ) );
+		}
+	}
+
 	public static final void updateDebugLog( final Throwable t )
 	{
 		t.printStackTrace( RequestLogger.debugStream );
@@ -571,8 +632,8 @@ public class RequestLogger
 	public static final void openTraceStream()
 	{
 		RequestLogger.traceStream =
-			RequestLogger.openStream(
-				"TRACE_" + KoLConstants.DAILY_FORMAT.format( new Date() ) + ".txt", RequestLogger.traceStream, true );
+			RequestLogger.openAsyncStream(
+				"TRACE_" + KoLConstants.DAILY_FORMAT.format( new Date() ) + ".txt", RequestLogger.traceStream, "Trace log writer" );
 	}
 
 	public static final void closeTraceStream()
@@ -606,1098 +667,1624 @@ public class RequestLogger
 		}
 	}
 
-	private static final void doRegister( final GenericRequest request, final String urlString )
-	{
-		RequestLogger.lastURLString = urlString;
+	// Handlers are offered URLs in the order in which they are registered.
+	// Each is indexed by the pages (and, for shared pages, the whichshop or
+	// whichchoice field) it can claim, so that a URL is only offered to the
+	// handlers which might recognize it. Handlers still make their own checks.
 
-		if ( urlString.startsWith( "api" ) ||
-		     urlString.startsWith( "charpane" ) ||
-		     urlString.startsWith( "account" ) ||
-		     urlString.startsWith( "login" ) ||
-		     urlString.startsWith( "logout" ) )
-		{
-			return;
-		}
+	private static final URLDispatcher<RequestRegistrar> VISIT_REGISTRARS = new URLDispatcher<RequestRegistrar>();
+	private static final URLDispatcher<RequestRegistrar> CAMPGROUND_REGISTRARS = new URLDispatcher<RequestRegistrar>();
+	private static final URLDispatcher<RequestRegistrar> FORM_REGISTRARS = new URLDispatcher<RequestRegistrar>();
 
+	static
+	{
 		// We want to do special things when we visit locations within
 		// the Sorceress' Lair. Those locations which are "adventures"
 		// but are not claimed here will be picked up by KoLAdventure
-
-		if ( SorceressLairManager.registerRequest( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( "place.php", new RequestRegistrar()
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return SorceressLairManager.registerRequest( urlString );
+			}
+		} );
 
 		// Some adventures do not post any form fields,
 		// so handle them first.
-
-		if ( KoLAdventure.recordToSession( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( new RequestRegistrar()
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
-
-		// Anything past this is not an "adventure" per se
-
-		boolean isExternal = request.getClass() == GenericRequest.class || request instanceof RelayRequest || request instanceof PlaceRequest;
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return KoLAdventure.recordToSession( urlString );
+			}
+		} );
 
-		if ( ( request instanceof FightRequest || isExternal ) && FightRequest.registerRequest( isExternal, urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( new String[] { "fight.php", "fambattle.php" }, new RequestRegistrar( FightRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return FightRequest.registerRequest( isExternal, urlString );
+			}
+		} );
 
 		// We want to register simple visits to the Altar of Literacy
-		if ( ( request instanceof AltarOfLiteracyRequest || isExternal ) && AltarOfLiteracyRequest.registerRequest( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( "town_altar.php", new RequestRegistrar( AltarOfLiteracyRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return AltarOfLiteracyRequest.registerRequest( urlString );
+			}
+		} );
 
 		// We want to register simple visits to the Bounty Hunter Hunter
-		if ( ( request instanceof BountyHunterHunterRequest || isExternal ) && BountyHunterHunterRequest.registerRequest( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( "bounty.php", new RequestRegistrar( BountyHunterHunterRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return BountyHunterHunterRequest.registerRequest( urlString );
+			}
+		} );
 
 		// We want to register visits to the You're the Fudge Wizard Now, Dog choice adventure before ChoiceManager.
-		if ( ( request instanceof FudgeWandRequest || isExternal ) && FudgeWandRequest.registerRequest( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( new String[] { "inv_use.php", "choice.php" }, new RequestRegistrar( FudgeWandRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return FudgeWandRequest.registerRequest( urlString );
+			}
+		} );
 
 		// We want to register visits to the Summoning Chamber choice adventure before ChoiceManager.
-		if ( ( request instanceof SummoningChamberRequest || isExternal ) && SummoningChamberRequest.registerRequest( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( "choice.php", "whichchoice", "922", new RequestRegistrar( SummoningChamberRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return SummoningChamberRequest.registerRequest( urlString );
+			}
+		} );
 
 		// We want to register simple visits to HeyDeze
-		if ( ( request instanceof HeyDezeRequest || isExternal ) && HeyDezeRequest.registerRequest( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( "heydeze.php", new RequestRegistrar( HeyDezeRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return HeyDezeRequest.registerRequest( urlString );
+			}
+		} );
 
 		// We want to register simple visits to Mr. Store
-		if ( ( request instanceof MrStoreRequest || isExternal ) && MrStoreRequest.registerRequest( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( "mrstore.php", new RequestRegistrar( MrStoreRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return MrStoreRequest.registerRequest( urlString );
+			}
+		} );
 
 		// We want to register simple visits to Spaaace
-		if ( ( request instanceof SpaaaceRequest || isExternal ) && SpaaaceRequest.registerRequest( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( "spaaace.php", new RequestRegistrar( SpaaaceRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return SpaaaceRequest.registerRequest( urlString );
+			}
+		} );
 
 		// We want to register simple visits to the Volcano Maze
-		if ( ( request instanceof VolcanoMazeRequest || isExternal ) && VolcanoMazeRequest.registerRequest( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( "volcanomaze.php", new RequestRegistrar( VolcanoMazeRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return VolcanoMazeRequest.registerRequest( urlString );
+			}
+		} );
 
 		// Burning Newspaper creation is an instance of choice.php
-		if ( ( request instanceof BurningNewspaperRequest || isExternal ) && BurningNewspaperRequest.registerRequest( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( "choice.php", "whichchoice", "1277", new RequestRegistrar( BurningNewspaperRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return BurningNewspaperRequest.registerRequest( urlString );
+			}
+		} );
 
 		// The Clan Lounge Swimming Pool is an instance of choice.php
-		if ( ( request instanceof ClanLoungeSwimmingPoolRequest || isExternal ) && ClanLoungeSwimmingPoolRequest.registerRequest( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( "choice.php", "whichchoice", "585", new RequestRegistrar( ClanLoungeSwimmingPoolRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ClanLoungeSwimmingPoolRequest.registerRequest( urlString );
+			}
+		} );
 
 		// The Deck of Every Card is an instance of choice.php
-		if ( ( request instanceof DeckOfEveryCardRequest || isExternal ) && DeckOfEveryCardRequest.registerRequest( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( "choice.php", new RequestRegistrar( DeckOfEveryCardRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return DeckOfEveryCardRequest.registerRequest( urlString );
+			}
+		} );
 
 		// Sweet Synthesis is an instance of choice.php
-		if ( ( request instanceof SweetSynthesisRequest || isExternal ) && SweetSynthesisRequest.registerRequest( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( "choice.php", new RequestRegistrar( SweetSynthesisRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return SweetSynthesisRequest.registerRequest( urlString );
+			}
+		} );
 
 		// The Florist is an instance of choice.php
-		if ( ( request instanceof FloristRequest || isExternal ) && FloristRequest.registerRequest( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( "choice.php", "whichchoice", "720", new RequestRegistrar( FloristRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return FloristRequest.registerRequest( urlString );
+			}
+		} );
 
 		// Numberology is an instance of choice.php
-		if ( ( request instanceof NumberologyRequest || isExternal ) && NumberologyRequest.registerRequest( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( "choice.php", new RequestRegistrar( NumberologyRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return NumberologyRequest.registerRequest( urlString );
+			}
+		} );
 
 		// The Potted Tea Tree is an instance of choice.php
-		if ( ( request instanceof PottedTeaTreeRequest || isExternal ) && PottedTeaTreeRequest.registerRequest( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( "choice.php", new RequestRegistrar( PottedTeaTreeRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return PottedTeaTreeRequest.registerRequest( urlString );
+			}
+		} );
 
 		// The Source Terminal is an instance of choice.php
-		if ( ( request instanceof TerminalRequest || isExternal ) && TerminalRequest.registerRequest( urlString ) )
+		RequestLogger.VISIT_REGISTRARS.register( "choice.php", new RequestRegistrar( TerminalRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return TerminalRequest.registerRequest( urlString );
+			}
+		} );
 
 		// Wax Glob creation is an instance of choice.php
-		if ( ( request instanceof WaxGlobRequest || isExternal ) && WaxGlobRequest.registerRequest( urlString ) )
-		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
-
-		// Some general URLs which never need to be registered
-		// because they don't do anything.
-
-		if ( urlString.startsWith( "choice" ) )
-		{
-			ChoiceManager.registerRequest( urlString );
-			return;
-		}
-
-		// We want to register a simple visit to tiles.php
-		if ( DvorakManager.registerRequest( urlString ) )
-		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
-
-		// Anything else that doesn't submit an actual form
-		// should not be registered.
-
-		if ( !urlString.contains( "?" ) )
+		RequestLogger.VISIT_REGISTRARS.register( "choice.php", "whichchoice", "1218", new RequestRegistrar( WaxGlobRequest.class )
 		{
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return WaxGlobRequest.registerRequest( urlString );
+			}
+		} );
 
 		// We want to register some visits to the Campground
-		if ( ( request instanceof CampgroundRequest || isExternal ) && CampgroundRequest.registerRequest( urlString ) )
+		RequestLogger.CAMPGROUND_REGISTRARS.register( "campground.php", new RequestRegistrar( CampgroundRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return CampgroundRequest.registerRequest( urlString );
+			}
+		} );
 
 		// This is a campground request and so must go here.
-		if ( ( request instanceof PortalRequest || isExternal ) && PortalRequest.registerRequest( urlString ) )
+		RequestLogger.CAMPGROUND_REGISTRARS.register( "campground.php", new RequestRegistrar( PortalRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
- 
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return PortalRequest.registerRequest( urlString );
+			}
+		} );
+
 		// This is a campground request and so must go here.
-		if ( ( request instanceof TelescopeRequest || isExternal ) && TelescopeRequest.registerRequest( urlString ) )
+		RequestLogger.CAMPGROUND_REGISTRARS.register( new RequestRegistrar( TelescopeRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return TelescopeRequest.registerRequest( urlString );
+			}
+		} );
 
 		// This might be a campground request and so must go here.
-		if ( ( request instanceof UseSkillRequest || isExternal ) && UseSkillRequest.registerRequest( urlString ) )
+		RequestLogger.CAMPGROUND_REGISTRARS.register( new String[] { "skillz.php", "campground.php", "runskillz.php" }, new RequestRegistrar( UseSkillRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return UseSkillRequest.registerRequest( urlString );
+			}
+		} );
 
 		// This might be on inventory.php
-
-		if ( ( request instanceof EquipmentRequest || isExternal ) && EquipmentRequest.registerRequest( urlString ) )
-		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
-
-		if ( urlString.startsWith( "campground" ) ||
-		     urlString.startsWith( "doc.php" ) ||
-		     urlString.startsWith( "inventory.php?ajax" ) ||
-		     urlString.startsWith( "inventory.php?which=" ) ||
-		     urlString.startsWith( "inventory.php?action=message" ) ||
-		     urlString.startsWith( "mining" ) )
+		RequestLogger.CAMPGROUND_REGISTRARS.register( new String[] { "bedazzle.php", "inv_use.php", "inventory.php", "inv_equip.php" }, new RequestRegistrar( EquipmentRequest.class )
 		{
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return EquipmentRequest.registerRequest( urlString );
+			}
+		} );
 
 		// Check individual cafes
-		if ( ( request instanceof MicroBreweryRequest || isExternal ) && MicroBreweryRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( new RequestRegistrar( MicroBreweryRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return MicroBreweryRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof ChezSnooteeRequest || isExternal ) && ChezSnooteeRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( new RequestRegistrar( ChezSnooteeRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ChezSnooteeRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof CrimboCafeRequest || isExternal ) && CrimboCafeRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( new RequestRegistrar( CrimboCafeRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return CrimboCafeRequest.registerRequest( urlString );
+			}
+		} );
 
 		// Check UseItemRequest early, so that lastItemUsed gets
 		// cleared when processing anything else.  Otherwise, any
 		// non-item-use that redirects to inventory.php?action=message
 		// (such as outfit changes) will cause the last item to be
 		// processed again.
-		
 		// However, we have to check CreateItemRequest earlier, so that
 		// it can handle single-/multi-use concoctions.
-		if ( CreateItemRequest.registerRequest( isExternal, urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( new RequestRegistrar()
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return CreateItemRequest.registerRequest( isExternal, urlString );
+			}
+		} );
 
 		// Are we finally ready to call UseItemRequest?
-		if ( ( request instanceof UseItemRequest || isExternal ) && UseItemRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( new RequestRegistrar( UseItemRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return UseItemRequest.registerRequest( urlString );
+			}
+		} );
 
 		// The following is in place.php
-		if ( ( request instanceof FalloutShelterRequest || isExternal ) && FalloutShelterRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "place.php", new RequestRegistrar( FalloutShelterRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return FalloutShelterRequest.registerRequest( urlString );
+			}
+		} );
 
 		// Let the "placeholder" for place.php take every otherwise
 		// unclaimed call to that URL.
-
-		if ( PlaceRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "place.php", new RequestRegistrar()
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return PlaceRequest.registerRequest( urlString );
+			}
+		} );
 
 		// The following lists all the remaining requests in
 		// alphabetical order.
+		RequestLogger.FORM_REGISTRARS.register( "afterlife.php", new RequestRegistrar( AfterLifeRequest.class )
+		{
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return AfterLifeRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof AfterLifeRequest || isExternal ) && AfterLifeRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "airport", new RequestRegistrar( AirportRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return AirportRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof AirportRequest || isExternal ) && AirportRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "bone_altar.php", new RequestRegistrar( AltarOfBonesRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return AltarOfBonesRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof AltarOfBonesRequest || isExternal ) && AltarOfBonesRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "si_shop3", new RequestRegistrar( ArmoryRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ArmoryRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof ArmoryRequest || isExternal ) && ArmoryRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "armory", new RequestRegistrar( ArmoryAndLeggeryRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ArmoryAndLeggeryRequest.registerRequest( urlString, false );
+			}
+		} );
 
-		if ( ( request instanceof ArmoryAndLeggeryRequest || isExternal ) && ArmoryAndLeggeryRequest.registerRequest( urlString, false ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "applestore", new RequestRegistrar( AppleStoreRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return AppleStoreRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof AppleStoreRequest || isExternal ) && AppleStoreRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( new RequestRegistrar( ArcadeRequest.class, TicketCounterRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ArcadeRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof ArcadeRequest || request instanceof TicketCounterRequest || isExternal ) && ArcadeRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "place.php", new RequestRegistrar( ArtistRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ArtistRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof ArtistRequest || isExternal ) && ArtistRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "managestore.php", new RequestRegistrar( AutoMallRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return AutoMallRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof AutoMallRequest || isExternal ) && AutoMallRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( new String[] { "sellstuff.php", "sellstuff_ugly.php" }, new RequestRegistrar( AutoSellRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return AutoSellRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof AutoSellRequest || isExternal ) && AutoSellRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "inv_use.php", new RequestRegistrar( AWOLQuartermasterRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return AWOLQuartermasterRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof AWOLQuartermasterRequest || isExternal ) && AWOLQuartermasterRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "batman_cave", new RequestRegistrar( BatFabricatorRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return BatFabricatorRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof BatFabricatorRequest || isExternal ) && BatFabricatorRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "beergarden", new RequestRegistrar( BeerGardenRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return BeerGardenRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof BeerGardenRequest || isExternal ) && BeerGardenRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "beerpong.php", new RequestRegistrar( BeerPongRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return BeerPongRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof BeerPongRequest || isExternal ) && BeerPongRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "monkeycastle.php", new RequestRegistrar( BigBrotherRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return BigBrotherRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof BigBrotherRequest || isExternal ) && BigBrotherRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "blackmarket", new RequestRegistrar( BlackMarketRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return BlackMarketRequest.registerRequest( urlString, false );
+			}
+		} );
 
-		if ( ( request instanceof BlackMarketRequest || isExternal ) && BlackMarketRequest.registerRequest( urlString, false ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "cindy", new RequestRegistrar( BoutiqueRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return BoutiqueRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof BoutiqueRequest || isExternal ) && BoutiqueRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "sbb_brogurt", new RequestRegistrar( BrogurtRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return BrogurtRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof BrogurtRequest || isExternal ) && BrogurtRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "sbb_jimmy", new RequestRegistrar( BuffJimmyRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return BuffJimmyRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof BuffJimmyRequest || isExternal ) && BuffJimmyRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "inv_use.php", new RequestRegistrar( BURTRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return BURTRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof BURTRequest || isExternal ) && BURTRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( new RequestRegistrar( CafeRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return CafeRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof CafeRequest || isExternal ) && CafeRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "arena.php", new RequestRegistrar( CakeArenaRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return CakeArenaRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof CakeArenaRequest || isExternal ) && CakeArenaRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "si_shop2", new RequestRegistrar( CanteenRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return CanteenRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof CanteenRequest || isExternal ) && CanteenRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "place.php", new RequestRegistrar( ChateauRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ChateauRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof ChateauRequest || isExternal ) && ChateauRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "batman_chemicorp", new RequestRegistrar( ChemiCorpRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ChemiCorpRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof ChemiCorpRequest || isExternal ) && ChemiCorpRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "clan_viplounge.php", new RequestRegistrar( ClanLoungeRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ClanLoungeRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof ClanLoungeRequest || isExternal ) && ClanLoungeRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( new RequestRegistrar( ClanRumpusRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ClanRumpusRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof ClanRumpusRequest || isExternal ) && ClanRumpusRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "clan_stash.php", new RequestRegistrar( ClanStashRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ClanStashRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof ClanStashRequest || isExternal ) && ClanStashRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( new String[] { "closet.php", "fillcloset.php", "inventory.php" }, new RequestRegistrar( ClosetRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ClosetRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof ClosetRequest || isExternal ) && ClosetRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "crimbo10.php", new RequestRegistrar( CRIMBCOGiftShopRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return CRIMBCOGiftShopRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof CRIMBCOGiftShopRequest || isExternal ) && CRIMBCOGiftShopRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( new RequestRegistrar( Crimbo07Request.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return Crimbo07Request.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof Crimbo07Request || isExternal ) && Crimbo07Request.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "crimbo09.php", new RequestRegistrar( Crimbo09Request.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return Crimbo09Request.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof Crimbo09Request || isExternal ) && Crimbo09Request.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "crimbo10.php", new RequestRegistrar( Crimbo10Request.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return Crimbo10Request.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof Crimbo10Request || isExternal ) && Crimbo10Request.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "crimbo11.php", new RequestRegistrar( Crimbo11Request.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return Crimbo11Request.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof Crimbo11Request || isExternal ) && Crimbo11Request.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( new RequestRegistrar( Crimbo12Request.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return Crimbo12Request.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof Crimbo12Request || isExternal ) && Crimbo12Request.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "crimbo14", new RequestRegistrar( Crimbo14Request.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return Crimbo14Request.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof Crimbo14Request || isExternal ) && Crimbo14Request.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "crimbo16", new RequestRegistrar( Crimbo16Request.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return Crimbo16Request.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof Crimbo16Request || isExternal ) && Crimbo16Request.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "crimbo17", new RequestRegistrar( Crimbo17Request.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return Crimbo17Request.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof Crimbo17Request || isExternal ) && Crimbo17Request.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "crimbo09.php", new RequestRegistrar( CrimboCartelRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return CrimboCartelRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof CrimboCartelRequest || isExternal ) && CrimboCartelRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "curse.php", new RequestRegistrar( CurseRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return CurseRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof CurseRequest || isExternal ) && CurseRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "dig.php", new RequestRegistrar( DigRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return DigRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof DigRequest || isExternal ) && DigRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "bigisland.php", new RequestRegistrar( DimemasterRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return DimemasterRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof DimemasterRequest || isExternal ) && DimemasterRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "landfillstore", new RequestRegistrar( DinseyCompanyStoreRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return DinseyCompanyStoreRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof DinseyCompanyStoreRequest || isExternal ) && DinseyCompanyStoreRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "infernodisco", new RequestRegistrar( DiscoGiftCoRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return DiscoGiftCoRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof DiscoGiftCoRequest || isExternal ) && DiscoGiftCoRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "managecollection.php", new RequestRegistrar( DisplayCaseRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return DisplayCaseRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof DisplayCaseRequest || isExternal ) && DisplayCaseRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "elvishp2", new RequestRegistrar( DollHawkerRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return DollHawkerRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof DollHawkerRequest || isExternal ) && DollHawkerRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "clan_dreadsylvania.php", new RequestRegistrar( DreadsylvaniaRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return DreadsylvaniaRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof DreadsylvaniaRequest || isExternal ) && DreadsylvaniaRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "dwarfcontraption.php", new RequestRegistrar( DwarfContraptionRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return DwarfContraptionRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof DwarfContraptionRequest || isExternal ) && DwarfContraptionRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "dwarffactory.php", new RequestRegistrar( DwarfFactoryRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return DwarfFactoryRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof DwarfFactoryRequest || isExternal ) && DwarfFactoryRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "place.php", new RequestRegistrar( EdBaseRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return EdBaseRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof EdBaseRequest || isExternal ) && EdBaseRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "edunder_shopshop", new RequestRegistrar( EdShopRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return EdShopRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof EdShopRequest || isExternal ) && EdShopRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "familiar.php", new RequestRegistrar( FamiliarRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return FamiliarRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof FamiliarRequest || isExternal ) && FamiliarRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( new String[] { "inv_use.php", "shop.php" }, new RequestRegistrar( FDKOLRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return FDKOLRequest.registerRequest( urlString, false );
+			}
+		} );
 
-		if ( ( request instanceof FDKOLRequest || isExternal ) && FDKOLRequest.registerRequest( urlString, false ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "fishbones", new RequestRegistrar( FishboneryRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return FishboneryRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof FishboneryRequest || isExternal ) && FishboneryRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "5dprinter", new RequestRegistrar( FiveDPrinterRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return FiveDPrinterRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof FiveDPrinterRequest || isExternal ) && FiveDPrinterRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "gamestore.php", new RequestRegistrar( FreeSnackRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return FreeSnackRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof FreeSnackRequest || isExternal ) && FreeSnackRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "friars.php", new RequestRegistrar( FriarRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return FriarRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof FriarRequest || isExternal ) && FriarRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "gamestore.php", new RequestRegistrar( GameShoppeRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return GameShoppeRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof GameShoppeRequest || isExternal ) && GameShoppeRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "town_right.php", new RequestRegistrar( GourdRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return GourdRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof GourdRequest || isExternal ) && GourdRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "batman_orphanage", new RequestRegistrar( GotporkOrphanageRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return GotporkOrphanageRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof GotporkOrphanageRequest || isExternal ) && GotporkOrphanageRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "batman_pd", new RequestRegistrar( GotporkPDRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return GotporkPDRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof GotporkPDRequest || isExternal ) && GotporkPDRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "grandma", new RequestRegistrar( GrandmaRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return GrandmaRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof GrandmaRequest || isExternal ) && GrandmaRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "monkeycastle.php", new RequestRegistrar( GrandpaRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return GrandpaRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof GrandpaRequest || isExternal ) && GrandpaRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "guild.php", new RequestRegistrar( GuildRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return GuildRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof GuildRequest || isExternal ) && GuildRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "hermit.php", new RequestRegistrar( HermitRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return HermitRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof HermitRequest || isExternal ) && HermitRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( new String[] { "bigisland.php", "postwarisland.php" }, new RequestRegistrar( IslandRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return IslandRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof IslandRequest || isExternal ) && IslandRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "elvishp1", new RequestRegistrar( IsotopeSmitheryRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return IsotopeSmitheryRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof IsotopeSmitheryRequest || isExternal ) && IsotopeSmitheryRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "jarl", new RequestRegistrar( JarlsbergRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return JarlsbergRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof JarlsbergRequest || isExternal ) && JarlsbergRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "junkmagazine", new RequestRegistrar( JunkMagazineRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return JunkMagazineRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof JunkMagazineRequest || isExternal ) && JunkMagazineRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "place.php", new RequestRegistrar( KnollRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return KnollRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof KnollRequest || isExternal ) && KnollRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "kolhs_", new RequestRegistrar( KOLHSRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return KOLHSRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof KOLHSRequest || isExternal ) && KOLHSRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "leaflet.php", new RequestRegistrar( LeafletRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return LeafletRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof LeafletRequest || isExternal ) && LeafletRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "ltt", new RequestRegistrar( LTTRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return LTTRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof LTTRequest || isExternal ) && LTTRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "elvishp3", new RequestRegistrar( LunarLunchRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return LunarLunchRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof LunarLunchRequest || isExternal ) && LunarLunchRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "backoffice.php", new RequestRegistrar( ManageStoreRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ManageStoreRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof ManageStoreRequest || isExternal ) && ManageStoreRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "bacon", new RequestRegistrar( MemeShopRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return MemeShopRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof MemeShopRequest || isExternal ) && MemeShopRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "conmerch", new RequestRegistrar( MerchTableRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return MerchTableRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof MerchTableRequest || isExternal ) && MerchTableRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( new RequestRegistrar( MindControlRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return MindControlRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof MindControlRequest || isExternal ) && MindControlRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "monkeycastle.php", new RequestRegistrar( MomRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return MomRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof MomRequest || isExternal ) && MomRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "bet.php", new RequestRegistrar( MoneyMakingGameRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return MoneyMakingGameRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof MoneyMakingGameRequest || isExternal ) && MoneyMakingGameRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "questlog.php", new RequestRegistrar( MonsterManuelRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return MonsterManuelRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof MonsterManuelRequest || isExternal ) && MonsterManuelRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "knoll_mushrooms.php", new RequestRegistrar( MushroomRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return MushroomRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof MushroomRequest || isExternal ) && MushroomRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "caveshop", new RequestRegistrar( NeandermallRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return NeandermallRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof NeandermallRequest || isExternal ) && NeandermallRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "cave.php", new RequestRegistrar( NemesisRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return NemesisRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof NemesisRequest || isExternal ) && NemesisRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "nina", new RequestRegistrar( NinjaStoreRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return NinjaStoreRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof NinjaStoreRequest || isExternal ) && NinjaStoreRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "topiary", new RequestRegistrar( NuggletCraftingRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return NuggletCraftingRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof NuggletCraftingRequest || isExternal ) && NuggletCraftingRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "pandamonium.php", new RequestRegistrar( PandamoniumRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return PandamoniumRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof PandamoniumRequest || isExternal ) && PandamoniumRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "peevpee.php", new RequestRegistrar( PeeVPeeRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return PeeVPeeRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof PeeVPeeRequest || isExternal ) && PeeVPeeRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "mystic", new RequestRegistrar( PixelRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return PixelRequest.registerRequest( urlString );
+			}
+		} );
+
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "pokefam", new RequestRegistrar( PokemporiumRequest.class )
+		{
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return PokemporiumRequest.registerRequest( urlString );
+			}
+		} );
+
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "detective", new RequestRegistrar( PrecinctRequest.class )
+		{
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return PrecinctRequest.registerRequest( urlString );
+			}
+		} );
+
+		RequestLogger.FORM_REGISTRARS.register( "showplayer.php", new RequestRegistrar( ProfileRequest.class )
+		{
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ProfileRequest.registerRequest( urlString );
+			}
+		} );
+
+		RequestLogger.FORM_REGISTRARS.register( "craft.php", new RequestRegistrar( PulverizeRequest.class )
+		{
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return PulverizeRequest.registerRequest( urlString );
+			}
+		} );
+
+		RequestLogger.FORM_REGISTRARS.register( "bigisland.php", new RequestRegistrar( QuartersmasterRequest.class )
+		{
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return QuartersmasterRequest.registerRequest( urlString );
+			}
+		} );
+
+		RequestLogger.FORM_REGISTRARS.register( "raffle.php", new RequestRegistrar( RaffleRequest.class )
+		{
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return RaffleRequest.registerRequest( urlString );
+			}
+		} );
+
+		RequestLogger.FORM_REGISTRARS.register( "clan_hobopolis.php", new RequestRegistrar( RichardRequest.class )
+		{
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return RichardRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof PixelRequest || isExternal ) && PixelRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "rumple", new RequestRegistrar( RumpleRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return RumpleRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof PokemporiumRequest || isExternal ) && PokemporiumRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "sea_merkin.php", new RequestRegistrar( SeaMerkinRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return SeaMerkinRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof PrecinctRequest || isExternal ) && PrecinctRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "town_sendgift.php", new RequestRegistrar( SendGiftRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return SendGiftRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof ProfileRequest || isExternal ) && ProfileRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "sendmessage.php", new RequestRegistrar( SendMailRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return SendMailRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof PulverizeRequest || isExternal ) && PulverizeRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "shoeshop", new RequestRegistrar( ShoeRepairRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ShoeRepairRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof QuartersmasterRequest || isExternal ) && QuartersmasterRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "si_shop1", new RequestRegistrar( SHAWARMARequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return SHAWARMARequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof RaffleRequest || isExternal ) && RaffleRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "shore", new RequestRegistrar( ShoreGiftShopRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ShoreGiftShopRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof RichardRequest || isExternal ) && RichardRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "da.php", new RequestRegistrar( ShrineRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ShrineRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof RumpleRequest || isExternal ) && RumpleRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "sea_skatepark.php", new RequestRegistrar( SkateParkRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return SkateParkRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof SeaMerkinRequest || isExternal ) && SeaMerkinRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "spacegate", new RequestRegistrar( SpacegateFabricationRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return SpacegateFabricationRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof SendGiftRequest || isExternal ) && SendGiftRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "spant", new RequestRegistrar( SpantRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return SpantRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof SendMailRequest || isExternal ) && SendMailRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "starchart", new RequestRegistrar( StarChartRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return StarChartRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof ShoeRepairRequest || isExternal ) && ShoeRepairRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "standard.php", new RequestRegistrar( StandardRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return StandardRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof SHAWARMARequest || isExternal ) && SHAWARMARequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "still", new RequestRegistrar( StillRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return StillRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof ShoreGiftShopRequest || isExternal ) && ShoreGiftShopRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "storage.php", new RequestRegistrar( StorageRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return StorageRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof ShrineRequest || isExternal ) && ShrineRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "suburbandis.php", new RequestRegistrar( SuburbanDisRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return SuburbanDisRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof SkateParkRequest || isExternal ) && SkateParkRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "starchart", new RequestRegistrar( SugarSheetRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return StarChartRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof SpacegateFabricationRequest || isExternal ) && SpacegateFabricationRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "peevpee.php", new RequestRegistrar( SwaggerShopRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return SwaggerShopRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof SpantRequest || isExternal ) && SpantRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "sbb_taco", new RequestRegistrar( TacoDanRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return TacoDanRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof StarChartRequest || isExternal ) && StarChartRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "tavern.php", new RequestRegistrar( TavernRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return TavernRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof StandardRequest || isExternal ) && StandardRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "dv", new RequestRegistrar( TerrifiedEagleInnRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return TerrifiedEagleInnRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof StillRequest || isExternal ) && StillRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "thankshop", new RequestRegistrar( ThankShopRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ThankShopRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof StorageRequest || isExternal ) && StorageRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( (String) null, "whichshop", "arcade", new RequestRegistrar( TicketCounterRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return TicketCounterRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof SuburbanDisRequest || isExternal ) && SuburbanDisRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "toxic", new RequestRegistrar( ToxicChemistryRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ToxicChemistryRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof SugarSheetRequest || isExternal ) && StarChartRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "trapper", new RequestRegistrar( TrapperRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return TrapperRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof SwaggerShopRequest || isExternal ) && SwaggerShopRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "traveler.php", new RequestRegistrar( TravelingTraderRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return TravelingTraderRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof TacoDanRequest || isExternal ) && TacoDanRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "trophy.php", new RequestRegistrar( TrophyHutRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return TrophyHutRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof TavernRequest || isExternal ) && TavernRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( new String[] { "uneffect.php", "charsheet.php" }, new RequestRegistrar( UneffectRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return UneffectRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof TerrifiedEagleInnRequest || isExternal ) && TerrifiedEagleInnRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "place.php", new RequestRegistrar( UntinkerRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return UntinkerRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof ThankShopRequest || isExternal ) && ThankShopRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "damachine", new RequestRegistrar( VendingMachineRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return VendingMachineRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof TicketCounterRequest || isExternal ) && TicketCounterRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "volcanoisland.php", new RequestRegistrar( VolcanoIslandRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return VolcanoIslandRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof ToxicChemistryRequest || isExternal ) && ToxicChemistryRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "glaciest", new RequestRegistrar( WalMartRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return WalMartRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof TrapperRequest || isExternal ) && TrapperRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "warbear", new RequestRegistrar( WarbearBoxRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return WarbearBoxRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof TravelingTraderRequest || isExternal ) && TravelingTraderRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "snowgarden", new RequestRegistrar( WinterGardenRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return WinterGardenRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof TrophyHutRequest || isExternal ) && TrophyHutRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "xo", new RequestRegistrar( XOShopRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return XOShopRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof UneffectRequest || isExternal ) && UneffectRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "shop.php", "whichshop", "shakeshop", new RequestRegistrar( YeNeweSouvenirShoppeRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return YeNeweSouvenirShoppeRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof UntinkerRequest || isExternal ) && UntinkerRequest.registerRequest( urlString ) )
+		RequestLogger.FORM_REGISTRARS.register( "wand.php", new RequestRegistrar( ZapRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return ZapRequest.registerRequest( urlString );
+			}
+		} );
 
-		if ( ( request instanceof VendingMachineRequest || isExternal ) && VendingMachineRequest.registerRequest( urlString ) )
+		// Do PurchaseRequest after all Coinmaster shops so they can
+		// register simple visits, if they so choose.
+		RequestLogger.FORM_REGISTRARS.register( new String[] { "mallstore.php", "town_giftshop.php", "shop.php" }, new RequestRegistrar( PurchaseRequest.class )
 		{
-			RequestLogger.wasLastRequestSimple = false;
-			return;
-		}
+			@Override
+			public boolean register( final boolean isExternal, final String urlString )
+			{
+				return PurchaseRequest.registerRequest( urlString );
+			}
+		} );
+	}
+
+	private static final void doRegister( final GenericRequest request, final String urlString )
+	{
+		RequestLogger.lastURLString = urlString;
 
-		if ( ( request instanceof VolcanoIslandRequest || isExternal ) && VolcanoIslandRequest.registerRequest( urlString ) )
+		if ( urlString.startsWith( "api" ) ||
+		     urlString.startsWith( "charpane" ) ||
+		     urlString.startsWith( "account" ) ||
+		     urlString.startsWith( "login" ) ||
+		     urlString.startsWith( "logout" ) )
 		{
-			RequestLogger.wasLastRequestSimple = false;
 			return;
 		}
 
-		if ( ( request instanceof WalMartRequest || isExternal ) && WalMartRequest.registerRequest( urlString ) )
+		boolean isExternal = request.getClass() == GenericRequest.class || request instanceof RelayRequest || request instanceof PlaceRequest;
+
+		// Adventures and simple visits which we want to log,
+		// some of which do not post any form fields.
+
+		if ( RequestLogger.dispatch( RequestLogger.VISIT_REGISTRARS, request, isExternal, urlString ) )
 		{
 			RequestLogger.wasLastRequestSimple = false;
 			return;
 		}
 
-		if ( ( request instanceof WarbearBoxRequest || isExternal ) && WarbearBoxRequest.registerRequest( urlString ) )
+		// Some general URLs which never need to be registered
+		// because they don't do anything.
+
+		if ( urlString.startsWith( "choice" ) )
 		{
-			RequestLogger.wasLastRequestSimple = false;
+			ChoiceManager.registerRequest( urlString );
 			return;
 		}
 
-		if ( ( request instanceof WinterGardenRequest || isExternal ) && WinterGardenRequest.registerRequest( urlString ) )
+		// We want to register a simple visit to tiles.php
+		if ( DvorakManager.registerRequest( urlString ) )
 		{
 			RequestLogger.wasLastRequestSimple = false;
 			return;
 		}
 
-		if ( ( request instanceof XOShopRequest || isExternal ) && XOShopRequest.registerRequest( urlString ) )
+		// Anything else that doesn't submit an actual form
+		// should not be registered.
+
+		if ( !urlString.contains( "?" ) )
 		{
-			RequestLogger.wasLastRequestSimple = false;
 			return;
 		}
 
-		if ( ( request instanceof YeNeweSouvenirShoppeRequest || isExternal ) && YeNeweSouvenirShoppeRequest.registerRequest( urlString ) )
+		if ( RequestLogger.dispatch( RequestLogger.CAMPGROUND_REGISTRARS, request, isExternal, urlString ) )
 		{
 			RequestLogger.wasLastRequestSimple = false;
 			return;
 		}
 
-		if ( ( request instanceof ZapRequest || isExternal ) && ZapRequest.registerRequest( urlString ) )
+		if ( urlString.startsWith( "campground" ) ||
+		     urlString.startsWith( "doc.php" ) ||
+		     urlString.startsWith( "inventory.php?ajax" ) ||
+		     urlString.startsWith( "inventory.php?which=" ) ||
+		     urlString.startsWith( "inventory.php?action=message" ) ||
+		     urlString.startsWith( "mining" ) )
 		{
-			RequestLogger.wasLastRequestSimple = false;
 			return;
 		}
 
-		// Do PurchaseRequest after all Coinmaster shops so they can
-		// register simple visits, if they so choose.
+		// Shops, item and skill usage, and everything else which
+		// submits a form. PurchaseRequest comes after all Coinmaster
+		// shops so they can register simple visits, if they so choose.
 
-		if ( ( request instanceof PurchaseRequest || isExternal ) && PurchaseRequest.registerRequest( urlString ) )
+		if ( RequestLogger.dispatch( RequestLogger.FORM_REGISTRARS, request, isExternal, urlString ) )
 		{
 			RequestLogger.wasLastRequestSimple = false;
 			return;
@@ -1724,6 +2311,22 @@ public class RequestLogger
 		RequestLogger.updateSessionLog( urlString );
 	}
 
+	private static final boolean dispatch( final URLDispatcher<RequestRegistrar> registrars, final GenericRequest request, final boolean isExternal, final String urlString )
+	{
+		List<RequestRegistrar> handlers = registrars.getHandlers( urlString );
+
+		for ( int i = 0; i < handlers.size(); ++i )
+		{
+			RequestRegistrar registrar = handlers.get( i );
+			if ( registrar.claims( request, isExternal ) && registrar.register( isExternal, urlString ) )
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
 	public static final void registerLocation( final String location )
 	{
 		String message = "[" + KoLAdventure.getAdventureCount() + "] " + location;
@@ -1739,4 +2342,40 @@ public class RequestLogger
 	{
 		RequestLogger.registerLocation( KoLAdventure.lastLocationName );
 	}
+
+	/**
+	 * Logs a request for one kind of URL. A registrar which names request
+	 * classes is only consulted for requests of those classes, or for
+	 * requests which originated outside of KoLmafia.
+	 */
+
+	private static abstract class RequestRegistrar
+	{
+		private final Class<?>[] requestClasses;
+
+		public RequestRegistrar( final Class<?>... requestClasses )
+		{
+			this.requestClasses = requestClasses;
+		}
+
+		public boolean claims( final GenericRequest request, final boolean isExternal )
+		{
+			if ( isExternal || this.requestClasses.length == 0 )
+			{
+				return true;
+			}
+
+			for ( int i = 0; i < this.requestClasses.length; ++i )
+			{
+				if ( this.requestClasses[ i ].isInstance( request ) )
+				{
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		public abstract boolean register( final boolean isExternal, final String urlString );
+	}
 }
@@ -34,11 +34,15 @@
 package net.sourceforge.kolmafia;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.SwingUtilities;
@@ -59,6 +63,11 @@ public abstract class RequestThread
 	private static final Map<Integer,Thread> threadMap = new HashMap<Integer,Thread>();
 	private static final ExecutorService EXECUTOR;
 
+	// Batched requests overlap their network I/O on a small pool of their
+	// own, so that a large batch cannot starve other parallel tasks.
+	private static final int BATCH_POOL_SIZE = 4;
+	private static final ExecutorService BATCH_EXECUTOR = Executors.newFixedThreadPool( BATCH_POOL_SIZE );
+
 	static
 	{
 		int fixedPoolSize = Preferences.getInteger( "fixedThreadPoolSize" );
@@ -295,6 +304,160 @@ public abstract class RequestThread
 		}
 	}
 
+	/**
+	 * Posts a list of independent requests as one request sequence. Requests
+	 * which can be batched fetch their pages concurrently; every response is
+	 * then processed on the calling thread in submission order, so game state
+	 * is updated exactly as if the requests had been posted one at a time.
+	 */
+
+	public static final void postBatch( final List<? extends GenericRequest> requests )
+	{
+		if ( requests == null || requests.isEmpty() )
+		{
+			return;
+		}
+
+		Integer requestId = RequestThread.openRequestSequence();
+
+		try
+		{
+			List<Future<?>> fetches = new ArrayList<Future<?>>( requests.size() );
+
+			for ( GenericRequest request : requests )
+			{
+				// Make sure there is a URL string in the request
+				request.reconstructFields();
+
+				fetches.add( request.canBatch() ? BATCH_EXECUTOR.submit( new DeferredFetchRunnable( request ) ) : null );
+			}
+
+			for ( int i = 0; i < requests.size(); ++i )
+			{
+				GenericRequest request = requests.get( i );
+				Future<?> fetch = fetches.get( i );
+
+				if ( KoLmafia.refusesContinue() )
+				{
+					RequestThread.cancelFetches( fetches, i );
+					break;
+				}
+
+				try
+				{
+					if ( fetch == null )
+					{
+						request.run();
+						continue;
+					}
+
+					RequestThread.waitForFetch( fetch );
+					request.processDeferredResponse();
+				}
+				catch ( Exception e )
+				{
+					StaticEntity.printStackTrace( e );
+				}
+			}
+		}
+		finally
+		{
+			RequestThread.closeRequestSequence( requestId );
+		}
+	}
+
+	/**
+	 * Runs a list of independent tasks, such as searches, on the batch
+	 * pool as one request sequence, and waits for all of them to finish.
+	 * Tasks which have not yet started are dropped if the user aborts.
+	 */
+
+	public static final void runBatch( final List<? extends Runnable> tasks )
+	{
+		if ( tasks == null || tasks.isEmpty() )
+		{
+			return;
+		}
+
+		if ( tasks.size() == 1 )
+		{
+			RequestThread.postRequest( tasks.get( 0 ) );
+			return;
+		}
+
+		Integer requestId = RequestThread.openRequestSequence();
+
+		try
+		{
+			List<Future<?>> runs = new ArrayList<Future<?>>( tasks.size() );
+
+			for ( Runnable task : tasks )
+			{
+				runs.add( BATCH_EXECUTOR.submit( task ) );
+			}
+
+			for ( int i = 0; i < runs.size(); ++i )
+			{
+				if ( KoLmafia.refusesContinue() )
+				{
+					RequestThread.cancelFetches( runs, i );
+					break;
+				}
+
+				RequestThread.waitForFetch( runs.get( i ) );
+			}
+		}
+		finally
+		{
+			RequestThread.closeRequestSequence( requestId );
+		}
+	}
+
+	private static final void waitForFetch( final Future<?> fetch )
+	{
+		try
+		{
+			fetch.get();
+		}
+		catch ( InterruptedException e )
+		{
+			Thread.currentThread().interrupt();
+		}
+		catch ( ExecutionException e )
+		{
+			// The request will be run again when it is processed
+			StaticEntity.printStackTrace( e.getCause() );
+		}
+	}
+
+	private static final void cancelFetches( final List<Future<?>> fetches, final int start )
+	{
+		for ( int i = start; i < fetches.size(); ++i )
+		{
+			Future<?> fetch = fetches.get( i );
+			if ( fetch != null )
+			{
+				fetch.cancel( false );
+			}
+		}
+	}
+
+	private static class DeferredFetchRunnable
+		implements Runnable
+	{
+		private final GenericRequest request;
+
+		public DeferredFetchRunnable( final GenericRequest request )
+		{
+			this.request = request;
+		}
+
+		public void run()
+		{
+			this.request.fetchDeferredResponse();
+		}
+	}
+
 	public static synchronized final void checkOpenRequestSequences( final boolean flush )
 	{
 		int openSequences = 0;
@@ -201,6 +201,41 @@ public class Speculation
 	
 	public Modifiers calculate()
 	{
+		return this.calculate( null );
+	}
+
+	/**
+	 * Calculates the modifiers, reusing whatever <code>base</code> has
+	 * recorded if it was recorded for the same effects and settings.
+	 */
+
+	protected Modifiers calculate( BaseModifiers base )
+	{
+		return this.calculate( base, null );
+	}
+
+	/**
+	 * Calculates the modifiers as above, as though <code>extra</code>
+	 * were also worn.
+	 */
+
+	protected Modifiers calculate( BaseModifiers base, Modifiers extra )
+	{
+		return this.calculate( base, extra, null );
+	}
+
+	/**
+	 * Calculates the modifiers as above, totalling them in
+	 * <code>into</code> if it is given.
+	 */
+
+	protected Modifiers calculate( BaseModifiers base, Modifiers extra, Modifiers into )
+	{
+		if ( base != null && !base.matches( this.MCD, this.effects, this.custom, this.horsery ) )
+		{
+			base = null;
+		}
+
 		this.mods = KoLCharacter.recalculateAdjustments(
 			false,
 			this.MCD,
@@ -213,7 +248,10 @@ public class Speculation
 			this.snowsuit,
 			this.custom,
 			this.horsery,
-			true );
+			true,
+			base,
+			extra,
+			into );
 		this.calculated = true;
 		return this.mods;
 	}
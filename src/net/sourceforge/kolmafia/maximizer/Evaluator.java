@@ -59,6 +59,7 @@ import net.sourceforge.kolmafia.textui.command.SnowsuitCommand;
 import net.sourceforge.kolmafia.objectpool.EffectPool;
 import net.sourceforge.kolmafia.objectpool.FamiliarPool;
 import net.sourceforge.kolmafia.objectpool.ItemPool;
+import net.sourceforge.kolmafia.objectpool.OutfitPool;
 import net.sourceforge.kolmafia.persistence.EquipmentDatabase;
 import net.sourceforge.kolmafia.persistence.FamiliarDatabase;
 import net.sourceforge.kolmafia.persistence.ItemDatabase;
@@ -72,6 +73,7 @@ import net.sourceforge.kolmafia.utilities.BooleanArray;
 import net.sourceforge.kolmafia.utilities.StringUtilities;
 
 public class Evaluator
+	implements Cloneable
 {
 	public boolean failed;
 	boolean exceeded;
@@ -106,6 +108,87 @@ public class Evaluator
 	private HashSet<String> posOutfits, negOutfits;
 	private TreeSet<AdventureResult> posEquip, negEquip;
 
+	// The best that could still be worn in each slot enumerated below the
+	// accessories, taken modifier by modifier, or null where no such bound
+	// is known. Used to prune combinations which cannot beat the best yet.
+	private Modifiers[] bounds = null;
+	private boolean[] outfitSlots = null;
+	private Modifiers outfitBound = null;
+	private Modifiers emptyBound = null;
+
+	private static final int[] BOUNDED_SLOTS =
+	{
+		EquipmentManager.HAT,
+		EquipmentManager.SHIRT,
+		EquipmentManager.PANTS,
+		EquipmentManager.HOLSTER,
+		EquipmentManager.WEAPON,
+		EquipmentManager.OFFHAND,
+	};
+
+	// Modifiers which count towards the score through another one, and so
+	// are bounded in whichever directions that one is as well as their own.
+	private static final int[][] BOUND_THROUGH =
+	{
+		{ Modifiers.MUS, Modifiers.HP },
+		{ Modifiers.MYS, Modifiers.MP },
+		{ Modifiers.MUS_PCT, Modifiers.MUS },
+		{ Modifiers.MYS_PCT, Modifiers.MYS },
+		{ Modifiers.MOX_PCT, Modifiers.MOX },
+		{ Modifiers.HP_PCT, Modifiers.HP },
+		{ Modifiers.MP_PCT, Modifiers.MP },
+		{ Modifiers.HIDDEN_FAMILIAR_WEIGHT, Modifiers.FAMILIAR_WEIGHT },
+		{ Modifiers.FAMILIAR_WEIGHT_PCT, Modifiers.FAMILIAR_WEIGHT },
+		{ Modifiers.STACKABLE_MANA_COST, Modifiers.MANA_COST },
+		{ Modifiers.INITIATIVE_PENALTY, Modifiers.INITIATIVE },
+		{ Modifiers.MEATDROP_PENALTY, Modifiers.MEATDROP },
+		{ Modifiers.SPORADIC_MEATDROP, Modifiers.MEATDROP },
+		{ Modifiers.MEAT_BONUS, Modifiers.MEATDROP },
+		{ Modifiers.ITEMDROP_PENALTY, Modifiers.ITEMDROP },
+		{ Modifiers.SPORADIC_ITEMDROP, Modifiers.ITEMDROP },
+		{ Modifiers.WEAPON_DAMAGE_PCT, Modifiers.WEAPON_DAMAGE },
+		{ Modifiers.RANGED_DAMAGE_PCT, Modifiers.RANGED_DAMAGE },
+		{ Modifiers.SPELL_DAMAGE_PCT, Modifiers.SPELL_DAMAGE },
+		{ Modifiers.MUS_EXPERIENCE, Modifiers.EXPERIENCE },
+		{ Modifiers.MYS_EXPERIENCE, Modifiers.EXPERIENCE },
+		{ Modifiers.MOX_EXPERIENCE, Modifiers.EXPERIENCE },
+		{ Modifiers.EXPERIENCE, Modifiers.MUS_EXPERIENCE },
+		{ Modifiers.EXPERIENCE, Modifiers.MYS_EXPERIENCE },
+		{ Modifiers.EXPERIENCE, Modifiers.MOX_EXPERIENCE },
+		{ Modifiers.MONSTER_LEVEL, Modifiers.EXPERIENCE },
+	};
+
+	// Modifiers which scale another one that may be negative, and so
+	// cannot be bounded in either direction if that one counts at all.
+	private static final int[][] BOUND_EITHER_WAY =
+	{
+		{ Modifiers.MUS_EXPERIENCE_PCT, Modifiers.MUS_EXPERIENCE },
+		{ Modifiers.MYS_EXPERIENCE_PCT, Modifiers.MYS_EXPERIENCE },
+		{ Modifiers.MOX_EXPERIENCE_PCT, Modifiers.MOX_EXPERIENCE },
+		{ Modifiers.FAMILIAR_WEIGHT_CAP, Modifiers.FAMILIAR_WEIGHT },
+	};
+
+	// Modifiers which change what the familiar adds, which might be
+	// anything that counts towards the score.
+	private static final int[] BOUND_THROUGH_FAMILIAR =
+	{
+		Modifiers.FAMILIAR_WEIGHT,
+		Modifiers.HIDDEN_FAMILIAR_WEIGHT,
+		Modifiers.FAMILIAR_WEIGHT_PCT,
+		Modifiers.VOLLEYBALL_WEIGHT,
+		Modifiers.SOMBRERO_WEIGHT,
+		Modifiers.LEPRECHAUN_WEIGHT,
+		Modifiers.FAIRY_WEIGHT,
+		Modifiers.VOLLEYBALL_EFFECTIVENESS,
+		Modifiers.SOMBRERO_EFFECTIVENESS,
+		Modifiers.LEPRECHAUN_EFFECTIVENESS,
+		Modifiers.FAIRY_EFFECTIVENESS,
+		Modifiers.SOMBRERO_BONUS,
+	};
+
+	private static final int BOUND_UP = 1;
+	private static final int BOUND_DOWN = 2;
+
 	private static final String TIEBREAKER = "1 familiar weight, 1 familiar experience, 1 initiative, 5 exp, 1 item, 1 meat, 0.1 DA 1000 max, 1 DR, 0.5 all res, -10 mana cost, 1.0 mus, 0.5 mys, 1.0 mox, 1.5 mainstat, 1 HP, 1 MP, 1 weapon damage, 1 ranged damage, 1 spell damage, 1 cold damage, 1 hot damage, 1 sleaze damage, 1 spooky damage, 1 stench damage, 1 cold spell damage, 1 hot spell damage, 1 sleaze spell damage, 1 spooky spell damage, 1 stench spell damage, -1 fumble, 1 HP regen max, 3 MP regen max, 1 critical hit percent, 0.1 food drop, 0.1 booze drop, 0.1 hat drop, 0.1 weapon drop, 0.1 offhand drop, 0.1 shirt drop, 0.1 pants drop, 0.1 accessory drop, 1 DB combat damage, 0.1 sixgun damage";
 	private static final Pattern KEYWORD_PATTERN = Pattern.compile( "\\G\\s*(\\+|-|)([\\d.]*)\\s*(\"[^\"]+\"|(?:[^-+,0-9]|(?<! )[-+0-9])+),?\\s*" );
 	// Groups: 1=sign 2=weight 3=keyword
@@ -212,6 +295,28 @@ public class Evaluator
 		this.parse( expr );
 	}
 
+	/**
+	 * Returns an evaluator which scores exactly as this one does, but
+	 * which can score on another thread while this one is also in use.
+	 */
+
+	Evaluator copy()
+	{
+		try
+		{
+			Evaluator copy = (Evaluator) super.clone();
+			if ( this.tiebreaker != null )
+			{
+				copy.tiebreaker = this.tiebreaker.copy();
+			}
+			return copy;
+		}
+		catch ( CloneNotSupportedException e )
+		{
+			return null;
+		}
+	}
+
 	private void parse( String expr )
 	{
 		expr = expr.trim().toLowerCase();
@@ -1283,7 +1388,7 @@ public class Evaluator
 					}
 					if ( hoboPowerUseful && name.startsWith( "Hodgman's" ) )
 					{
-						Modifiers.hoboPower = 100.0;
+						Modifiers.setHoboPower( 100.0 );
 						item.automaticFlag = true;
 					}
 					break;
@@ -2417,6 +2522,399 @@ public class Evaluator
 			spec.setSnowsuit( bestSnowsuit );
 		}
 
-		spec.tryAll( this.familiars, this.carriedFamiliars, usefulOutfits, outfitPieces, automatic, useCard, useCrownFamiliar, useBjornFamiliar );
+		this.computeBounds( spec, automatic, useCard, useCrownFamiliar );
+
+		ParallelSearch search = ParallelSearch.start( this );
+		if ( search == null )
+		{
+			spec.tryAll( this.familiars, this.carriedFamiliars, usefulOutfits, outfitPieces, automatic, useCard, useCrownFamiliar, useBjornFamiliar );
+			return;
+		}
+
+		try
+		{
+			spec.setSearch( search );
+			spec.tryAll( this.familiars, this.carriedFamiliars, usefulOutfits, outfitPieces, automatic, useCard, useCrownFamiliar, useBjornFamiliar );
+			search.finish();
+		}
+		finally
+		{
+			search.stop();
+		}
+	}
+
+	/**
+	 * Works out, for each slot enumerated below the accessories, the best
+	 * that any of its candidates could contribute to each modifier. This
+	 * is optimistic: each modifier is taken at whichever extreme helps
+	 * everything it counts towards, and slots are left unbounded where a
+	 * candidate changes a modifier that might have to go either way.
+	 */
+
+	private void computeBounds( MaximizerSpeculation spec, ArrayList<?>[] possibles, AdventureResult bestCard,
+		FamiliarData useCrownFamiliar )
+	{
+		this.bounds = null;
+		this.outfitSlots = null;
+		this.outfitBound = null;
+
+		if ( !Preferences.getBoolean( "maximizerPruning" ) )
+		{
+			return;
+		}
+
+		// The partial credit for -osity is not a bound on anything
+		if ( this.clownosity > 0 || this.raveosity > 0 )
+		{
+			return;
+		}
+
+		double[] direction = this.getBoundDirections();
+
+		AdventureResult[] equipment = spec.equipment.clone();
+		equipment[ EquipmentManager.CARDSLEEVE ] = bestCard;
+
+		ArrayList<FamiliarData> enthroned = this.carriedFamiliars;
+		if ( useCrownFamiliar != FamiliarData.NO_FAMILIAR )
+		{
+			enthroned = new ArrayList<FamiliarData>();
+			enthroned.add( useCrownFamiliar );
+		}
+
+		this.emptyBound = Modifiers.parseModifiers( "Item:best possible", "" );
+		Modifiers[] bounds = new Modifiers[ EquipmentManager.ALL_SLOTS ];
+		boolean[] outfitSlots = new boolean[ EquipmentManager.ALL_SLOTS ];
+		BooleanArray outfits = new BooleanArray();
+
+		// Unarmed-only modifiers might still apply, if no weapon
+		// ends up being worn.
+		boolean unarmed = Modifiers.isUnarmed();
+		Modifiers.setUnarmed( true );
+
+		try
+		{
+			for ( int i = 0; i < Evaluator.BOUNDED_SLOTS.length; ++i )
+			{
+				int slot = Evaluator.BOUNDED_SLOTS[ i ];
+				List<AdventureResult> candidates = new ArrayList<AdventureResult>();
+				Evaluator.addCandidates( candidates, possibles[ slot ] );
+				if ( slot == EquipmentManager.OFFHAND )
+				{
+					Evaluator.addCandidates( candidates, possibles[ Evaluator.OFFHAND_MELEE ] );
+					Evaluator.addCandidates( candidates, possibles[ Evaluator.OFFHAND_RANGED ] );
+				}
+
+				Modifiers bound = new Modifiers( this.emptyBound );
+				for ( int pos = 0; pos < candidates.size() && bound != null; ++pos )
+				{
+					AdventureResult item = candidates.get( pos );
+					int id = item.getItemId();
+					Modifiers imod = Modifiers.getItemModifiers( id );
+					if ( imod != null && imod.variable )
+					{
+						bound = null;
+						break;
+					}
+
+					int outfit = EquipmentDatabase.getOutfitWithItem( id );
+					if ( outfit >= 0 )
+					{
+						outfits.set( outfit, true );
+						outfitSlots[ slot ] = true;
+					}
+
+					if ( id == ItemPool.HATSEAT )
+					{
+						for ( FamiliarData f : enthroned )
+						{
+							Modifiers mods = KoLCharacter.getItemAdjustment( slot, item, equipment, f, null,
+								spec.getEdPiece(), spec.getSnowsuit() );
+							bound = Evaluator.raiseBound( bound, mods, direction );
+						}
+					}
+					else
+					{
+						Modifiers mods = KoLCharacter.getItemAdjustment( slot, item, equipment, null, null,
+							spec.getEdPiece(), spec.getSnowsuit() );
+						bound = Evaluator.raiseBound( bound, mods, direction );
+					}
+				}
+
+				bounds[ slot ] = this.finishBound( bound );
+			}
+
+			// Only one outfit can be completed at a time, but any of
+			// them might be.
+			Modifiers outfitBound = new Modifiers( this.emptyBound );
+			for ( int outfit = 0; outfit < outfits.size() && outfitBound != null; ++outfit )
+			{
+				if ( !outfits.get( outfit ) )
+				{
+					continue;
+				}
+				SpecialOutfit special = EquipmentDatabase.getOutfit( outfit );
+				if ( special == null || outfit == OutfitPool.VIBRATO_RELICS )
+				{
+					outfitBound = null;
+					break;
+				}
+				Modifiers mods = Modifiers.getModifiers( "Outfit", special.getName() );
+				if ( mods != null && mods.variable )
+				{
+					outfitBound = null;
+					break;
+				}
+				if ( mods != null )
+				{
+					outfitBound = Evaluator.raiseBound( outfitBound, mods, direction );
+				}
+			}
+			this.outfitBound = this.finishBound( outfitBound );
+		}
+		finally
+		{
+			Modifiers.setUnarmed( unarmed );
+		}
+
+		this.bounds = bounds;
+		this.outfitSlots = outfitSlots;
+	}
+
+	/**
+	 * Works out which way each modifier must go to raise the score: 1.0
+	 * for up, -1.0 for down and NaN if it might have to go either way,
+	 * counting everything else that it feeds into.
+	 */
+
+	private double[] getBoundDirections()
+	{
+		int[] ways = new int[ Modifiers.DOUBLE_MODIFIERS ];
+		for ( int i = 0; i < Modifiers.DOUBLE_MODIFIERS; ++i )
+		{
+			if ( this.weight[ i ] > 0.0 || this.min[ i ] != Double.NEGATIVE_INFINITY )
+			{
+				ways[ i ] |= Evaluator.BOUND_UP;
+			}
+			if ( this.weight[ i ] < 0.0 )
+			{
+				ways[ i ] |= Evaluator.BOUND_DOWN;
+			}
+		}
+
+		boolean changed = true;
+		while ( changed )
+		{
+			changed = false;
+			int all = 0;
+			for ( int i = 0; i < Modifiers.DOUBLE_MODIFIERS; ++i )
+			{
+				all |= ways[ i ];
+			}
+			for ( int i = 0; i < Evaluator.BOUND_THROUGH_FAMILIAR.length; ++i )
+			{
+				changed |= Evaluator.addBoundWays( ways, Evaluator.BOUND_THROUGH_FAMILIAR[ i ], all );
+			}
+			for ( int i = 0; i < Evaluator.BOUND_THROUGH.length; ++i )
+			{
+				int index = Evaluator.BOUND_THROUGH[ i ][ 0 ];
+				changed |= Evaluator.addBoundWays( ways, index, ways[ Evaluator.BOUND_THROUGH[ i ][ 1 ] ] );
+			}
+			for ( int i = 0; i < Evaluator.BOUND_EITHER_WAY.length; ++i )
+			{
+				if ( ways[ Evaluator.BOUND_EITHER_WAY[ i ][ 1 ] ] != 0 )
+				{
+					int index = Evaluator.BOUND_EITHER_WAY[ i ][ 0 ];
+					changed |= Evaluator.addBoundWays( ways, index, Evaluator.BOUND_UP | Evaluator.BOUND_DOWN );
+				}
+			}
+		}
+
+		double[] direction = new double[ Modifiers.DOUBLE_MODIFIERS ];
+		for ( int i = 0; i < Modifiers.DOUBLE_MODIFIERS; ++i )
+		{
+			switch ( ways[ i ] )
+			{
+			case Evaluator.BOUND_DOWN:
+				direction[ i ] = -1.0;
+				break;
+			case Evaluator.BOUND_UP | Evaluator.BOUND_DOWN:
+				direction[ i ] = Double.NaN;
+				break;
+			default:
+				direction[ i ] = 1.0;
+				break;
+			}
+		}
+		return direction;
+	}
+
+	private static boolean addBoundWays( int[] ways, int index, int add )
+	{
+		if ( ( ways[ index ] | add ) == ways[ index ] )
+		{
+			return false;
+		}
+		ways[ index ] |= add;
+		return true;
+	}
+
+	private static void addCandidates( List<AdventureResult> candidates, List<?> possible )
+	{
+		for ( Object item : possible )
+		{
+			candidates.add( (AdventureResult) item );
+		}
+	}
+
+	private static Modifiers raiseBound( Modifiers bound, Modifiers mods, double[] direction )
+	{
+		if ( bound == null )
+		{
+			return null;
+		}
+
+		// These change how stats are derived rather than adding to
+		// them, so there is no telling which way they go.
+		if ( mods.getString( Modifiers.EQUALIZE ).length() > 0 ||
+		     mods.getString( Modifiers.EQUALIZE_MUSCLE ).length() > 0 ||
+		     mods.getString( Modifiers.EQUALIZE_MYST ).length() > 0 ||
+		     mods.getString( Modifiers.EQUALIZE_MOXIE ).length() > 0 ||
+		     mods.getString( Modifiers.STAT_TUNING ).length() > 0 ||
+		     mods.getBoolean( Modifiers.MOXIE_CONTROLS_MP ) ||
+		     mods.getBoolean( Modifiers.MOXIE_MAY_CONTROL_MP ) )
+		{
+			return null;
+		}
+
+		for ( int i = 0; i < Modifiers.DOUBLE_MODIFIERS; ++i )
+		{
+			double val = mods.get( i );
+			if ( Double.isNaN( direction[ i ] ) )
+			{
+				// Nothing worn could bound this, unless nothing
+				// changes it
+				if ( val != 0.0 )
+				{
+					return null;
+				}
+			}
+			else if ( direction[ i ] < 0.0 ? val < bound.get( i ) : val > bound.get( i ) )
+			{
+				bound.set( i, val );
+			}
+		}
+		for ( int i = 0; i < Modifiers.BITMAP_MODIFIERS; ++i )
+		{
+			bound.set( i, bound.getRawBitmap( i ) | mods.getRawBitmap( i ) );
+		}
+		if ( mods.getString( Modifiers.ROLLOVER_EFFECT ).length() > 0 )
+		{
+			bound.set( Modifiers.ROLLOVER_EFFECT, mods.getString( Modifiers.ROLLOVER_EFFECT ) );
+		}
+		return bound;
+	}
+
+	private Modifiers finishBound( Modifiers bound )
+	{
+		if ( bound == null )
+		{
+			return null;
+		}
+
+		// Leave out whatever could only make things worse
+		bound.set( Modifiers.VARIABLE, false );
+		bound.set( Modifiers.UNARMED, false );
+		bound.set( Modifiers.NONSTACKABLE_WATCH, false );
+		for ( int i = 0; i < 5; ++i )
+		{
+			bound.set( Modifiers.COLD_VULNERABILITY + i, false );
+			if ( this.weight[ Modifiers.COLD_RESISTANCE + i ] < 0.0 )
+			{
+				bound.set( Modifiers.COLD_IMMUNITY + i, false );
+			}
+		}
+		bound.set( Modifiers.MUS_LIMIT, 0.0 );
+		bound.set( Modifiers.MYS_LIMIT, 0.0 );
+		bound.set( Modifiers.MOX_LIMIT, 0.0 );
+		return bound;
+	}
+
+	/**
+	 * Returns the best that could be added to the given equipment by
+	 * filling its empty slots, or null if nothing is known about that.
+	 */
+
+	Modifiers getBound( AdventureResult[] equipment )
+	{
+		if ( this.bounds == null )
+		{
+			return null;
+		}
+
+		// Anything already worn which depends on the rest of the
+		// equipment might not reflect what the bound adds.
+		for ( int slot = 0; slot < EquipmentManager.ALL_SLOTS; ++slot )
+		{
+			AdventureResult item = equipment[ slot ];
+			if ( item == null || item == EquipmentRequest.UNEQUIP )
+			{
+				continue;
+			}
+			Modifiers mods = Modifiers.getItemModifiers( item.getItemId() );
+			if ( mods != null && mods.variable )
+			{
+				return null;
+			}
+		}
+
+		Modifiers bound = null;
+		boolean outfit = false;
+		for ( int i = 0; i < Evaluator.BOUNDED_SLOTS.length; ++i )
+		{
+			int slot = Evaluator.BOUNDED_SLOTS[ i ];
+			if ( equipment[ slot ] != null )
+			{
+				continue;
+			}
+			if ( this.bounds[ slot ] == null )
+			{
+				return null;
+			}
+			if ( bound == null )
+			{
+				bound = new Modifiers( this.emptyBound );
+			}
+			Evaluator.addBound( bound, this.bounds[ slot ] );
+			outfit |= this.outfitSlots[ slot ];
+		}
+
+		if ( outfit )
+		{
+			if ( this.outfitBound == null )
+			{
+				return null;
+			}
+			Evaluator.addBound( bound, this.outfitBound );
+		}
+
+		return bound;
+	}
+
+	private static void addBound( Modifiers bound, Modifiers mods )
+	{
+		// Add the raw values, since Modifiers.add would apply
+		// diminishing returns twice.
+		for ( int i = 0; i < Modifiers.DOUBLE_MODIFIERS; ++i )
+		{
+			bound.set( i, bound.get( i ) + mods.get( i ) );
+		}
+		for ( int i = 0; i < Modifiers.BITMAP_MODIFIERS; ++i )
+		{
+			bound.set( i, bound.getRawBitmap( i ) | mods.getRawBitmap( i ) );
+		}
+		if ( mods.getString( Modifiers.ROLLOVER_EFFECT ).length() > 0 )
+		{
+			bound.set( Modifiers.ROLLOVER_EFFECT, mods.getString( Modifiers.ROLLOVER_EFFECT ) );
+		}
 	}
 }
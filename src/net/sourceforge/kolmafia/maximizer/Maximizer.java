@@ -33,8 +33,10 @@
 
 package net.sourceforge.kolmafia.maximizer;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 
 import net.java.dev.spellcast.utilities.LockableListModel;
 
@@ -110,6 +112,7 @@ public class Maximizer
 
 	static MaximizerSpeculation best;
 	static int bestChecked;
+	static int bestPruned;
 	static long bestUpdate;
 
 	public static boolean maximize( String maximizerString, int maxPrice, int priceLevel, boolean isSpeculationOnly )
@@ -163,12 +166,14 @@ public class Maximizer
 		Maximizer.boosts.clear();
 		if ( equipLevel != 0 && filterLevel < 2 )
 		{
+			MaximizerSpeculation.startScoring();
 			Maximizer.best = new MaximizerSpeculation();
 			Maximizer.best.getScore();
 			// In case the current outfit scores better than any tried combination,
 			// due to some newly-added constraint (such as +melee):
 			Maximizer.best.failed = true;
 			Maximizer.bestChecked = 0;
+			Maximizer.bestPruned = 0;
 			Maximizer.bestUpdate = System.currentTimeMillis() + 5000;
 			try
 			{
@@ -187,6 +192,10 @@ public class Maximizer
 				KoLmafia.forceContinue();
 				Maximizer.boosts.add( new Boost( "", "<font color=red>(interrupted, optimality not guaranteed)</font>", -1, null, 0.0 ) );
 			}
+			finally
+			{
+				MaximizerSpeculation.finishScoring();
+			}
 			MaximizerSpeculation.showProgress();
 
 			boolean[] alreadyDone = new boolean[ EquipmentManager.ALL_SLOTS ];
@@ -219,6 +228,7 @@ public class Maximizer
 			return;
 		}
 
+		ArrayList<EffectSources> effectSources = new ArrayList<EffectSources>();
 		Iterator<String> i = Modifiers.getAllModifiers();
 		while ( i.hasNext() )
 		{
@@ -546,7 +556,6 @@ public class Maximizer
 				continue;
 			}
 
-			int price = 0;
 			double delta;
 			boolean isSpecial = false;
 			MaximizerSpeculation spec = new MaximizerSpeculation();
@@ -554,21 +563,7 @@ public class Maximizer
 			name = effect.getName();
 			boolean hasEffect = KoLConstants.activeEffects.contains( effect );
 			Iterator<String> sources;
-			String cmd, text;
-			int advCost = 0;
-			int mpCost = 0;
-			int fullCost = 0;
-			int drunkCost = 0;
-			int spleenCost = 0;
-			int soulsauceCost = 0;
-			int thunderCost = 0;
-			int rainCost = 0;
-			int lightningCost = 0;
-			int fuelCost = 0;
-			int duration = 0;
-			int usesRemaining = 0;
-			int itemsRemaining = 0;
-			int itemsCreatable = 0;
+			String cmd;
 			if ( !hasEffect )
 			{
 				spec.addEffect( effect );
@@ -634,6 +629,39 @@ public class Maximizer
 				sources = Collections.singletonList( cmd ).iterator();
 			}
 
+			effectSources.add( new EffectSources( effect, hasEffect, delta, isSpecial, sources ) );
+		}
+
+		// Look up the prices of whatever might be bought all at once,
+		// rather than one at a time as each suggestion is listed.
+		Maximizer.prefetchMallPrices( effectSources, equipLevel, maxPrice, priceLevel, filterLevel );
+
+		for ( EffectSources source : effectSources )
+		{
+			AdventureResult effect = source.effect;
+			String name = effect.getName();
+			int effectId = effect.getEffectId();
+			boolean hasEffect = source.hasEffect;
+			double delta = source.delta;
+			boolean isSpecial = source.isSpecial;
+			Iterator<String> sources = source.sources.iterator();
+			String cmd, text;
+			int price = 0;
+			int advCost = 0;
+			int mpCost = 0;
+			int fullCost = 0;
+			int drunkCost = 0;
+			int spleenCost = 0;
+			int soulsauceCost = 0;
+			int thunderCost = 0;
+			int rainCost = 0;
+			int lightningCost = 0;
+			int fuelCost = 0;
+			int duration = 0;
+			int usesRemaining = 0;
+			int itemsRemaining = 0;
+			int itemsCreatable = 0;
+
 			boolean haveVipKey = InventoryManager.getCount( ItemPool.VIP_LOUNGE_KEY ) > 0;
 			boolean orFlag = false;
 			while ( sources.hasNext() )
@@ -646,40 +674,9 @@ public class Maximizer
 				AdventureResult item = null;
 
 				// Check filters
-				if	( filterLevel != 0 )
+				if ( Maximizer.isFiltered( cmd, filterLevel ) )
 				{
-					if ( cmd.startsWith( "chew " ) )
-					{
-						if ( filterLevel != 5 )
-						{
-							continue;
-						}
-					}
-					else if ( cmd.startsWith( "drink " ) )
-					{
-						if ( filterLevel != 3 )
-						{
-							continue;
-						}
-					}
-					else if ( cmd.startsWith( "eat " ) )
-					{
-						if ( filterLevel != 4 )
-						{
-							continue;
-						}
-					}
-					else if ( cmd.startsWith( "use " ) )
-					{
-						if ( filterLevel != 2 )
-						{
-							continue;
-						}
-					}
-					else if ( filterLevel != 6 )
-					{
-						continue;
-					}
+					continue;
 				}
 
 				if ( cmd.startsWith( "#" ) )	// usage note, no command
@@ -726,22 +723,7 @@ public class Maximizer
 					}
 
 					String iName = cmd.substring( cmd.indexOf( " " ) + 3 ).trim();
-					if ( cmd.startsWith( "use " ) )
-					{
-						item = ItemFinder.getFirstMatchingItem( iName, false );
-					}
-					else if ( cmd.startsWith( "chew " ) )
-					{
-						item = ItemFinder.getFirstMatchingItem( iName, false, Match.SPLEEN );
-					}
-					else if ( cmd.startsWith( "drink " ) )
-					{
-						item = ItemFinder.getFirstMatchingItem( iName, false, Match.BOOZE );
-					}
-					else if ( cmd.startsWith( "eat " ) )
-					{
-						item = ItemFinder.getFirstMatchingItem( iName, false, Match.FOOD );
-					}
+					item = Maximizer.getSourceItem( cmd );
 
 					if ( item != null )
 					{
@@ -1902,6 +1884,121 @@ public class Maximizer
 		Maximizer.boosts.sort();
 	}
 
+	private static boolean isFiltered( String cmd, int filterLevel )
+	{
+		if ( filterLevel == 0 )
+		{
+			return false;
+		}
+		if ( cmd.startsWith( "chew " ) )
+		{
+			return filterLevel != 5;
+		}
+		if ( cmd.startsWith( "drink " ) )
+		{
+			return filterLevel != 3;
+		}
+		if ( cmd.startsWith( "eat " ) )
+		{
+			return filterLevel != 4;
+		}
+		if ( cmd.startsWith( "use " ) )
+		{
+			return filterLevel != 2;
+		}
+		return filterLevel != 6;
+	}
+
+	// Returns the item that a "use", "chew", "drink" or "eat" command
+	// for an effect would consume, or null for any other command.
+	private static AdventureResult getSourceItem( String cmd )
+	{
+		String iName = cmd.substring( cmd.indexOf( " " ) + 3 ).trim();
+		if ( cmd.startsWith( "use " ) )
+		{
+			return ItemFinder.getFirstMatchingItem( iName, false );
+		}
+		if ( cmd.startsWith( "chew " ) )
+		{
+			return ItemFinder.getFirstMatchingItem( iName, false, Match.SPLEEN );
+		}
+		if ( cmd.startsWith( "drink " ) )
+		{
+			return ItemFinder.getFirstMatchingItem( iName, false, Match.BOOZE );
+		}
+		if ( cmd.startsWith( "eat " ) )
+		{
+			return ItemFinder.getFirstMatchingItem( iName, false, Match.FOOD );
+		}
+		return null;
+	}
+
+	/**
+	 * Looks up the mall prices which listing the sources of these effects
+	 * would need, several at a time, so that the listing itself finds them
+	 * already known. Items which will not be priced, or whose historical
+	 * price will do, are left alone.
+	 */
+
+	private static void prefetchMallPrices( List<EffectSources> effectSources, int equipLevel, int maxPrice, int priceLevel,
+		int filterLevel )
+	{
+		if ( priceLevel <= 0 )
+		{
+			return;
+		}
+
+		boolean currentPrices = Preferences.getBoolean( "maximizerCurrentMallPrices" );
+		int showLevel = KoLCharacter.canInteract() ? 3 : equipLevel;
+
+		ArrayList<AdventureResult> items = new ArrayList<AdventureResult>();
+		for ( EffectSources source : effectSources )
+		{
+			for ( String cmd : source.sources )
+			{
+				if ( Maximizer.isFiltered( cmd, filterLevel ) )
+				{
+					continue;
+				}
+
+				AdventureResult item = Maximizer.getSourceItem( cmd );
+				if ( item == null )
+				{
+					continue;
+				}
+				if ( item.getItemId() == -1 )
+				{
+					item = item.resolveBangPotion();
+				}
+
+				int itemId = item.getItemId();
+				if ( itemId == -1 || !ItemDatabase.isTradeable( itemId ) )
+				{
+					continue;
+				}
+
+				int historical = MallPriceDatabase.getPrice( itemId );
+				if ( historical > maxPrice * 2 )
+				{
+					continue;
+				}
+				if ( !currentPrices && historical > 0 && MallPriceDatabase.getAge( itemId ) <= 7.0f )
+				{
+					continue;
+				}
+
+				CheckedItem checkedItem = new CheckedItem( itemId, showLevel, maxPrice, priceLevel );
+				if ( checkedItem.mallBuyable > 0 || checkedItem.pullBuyable > 0 ||
+				     ( priceLevel == 2 && checkedItem.getCount() > 0 ) )
+				{
+					items.add( item );
+				}
+			}
+		}
+
+		StoreManager.prefetchMallPrices( items );
+	}
+
 	private static int emitSlot( int slot, int equipLevel, int maxPrice, int priceLevel, double current )
 	{
 		if ( slot == EquipmentManager.FAMILIAR )
@@ -2189,4 +2286,27 @@ public class Maximizer
 		}
 		return equipLevel;
 	}
+
+	// An effect worth suggesting, and the ways it might be gained or lost
+	private static class EffectSources
+	{
+		public final AdventureResult effect;
+		public final boolean hasEffect;
+		public final double delta;
+		public final boolean isSpecial;
+		public final ArrayList<String> sources = new ArrayList<String>();
+
+		public EffectSources( AdventureResult effect, boolean hasEffect, double delta, boolean isSpecial,
+			Iterator<String> sources )
+		{
+			this.effect = effect;
+			this.hasEffect = hasEffect;
+			this.delta = delta;
+			this.isSpecial = isSpecial;
+			while ( sources.hasNext() )
+			{
+				this.sources.add( sources.next() );
+			}
+		}
+	}
 }
@@ -37,6 +37,7 @@ import java.util.ArrayList;
 import java.util.TreeMap;
 
 import net.sourceforge.kolmafia.AdventureResult;
+import net.sourceforge.kolmafia.BaseModifiers;
 import net.sourceforge.kolmafia.FamiliarData;
 import net.sourceforge.kolmafia.KoLCharacter;
 import net.sourceforge.kolmafia.KoLConstants;
@@ -67,6 +68,72 @@ implements Comparable<MaximizerSpeculation>, Cloneable
 	public CheckedItem attachment;
 	private boolean foldables = false;
 
+	// The evaluator to score with, if not the one being maximized
+	private Evaluator evaluator = null;
+
+	// Set while the search is split between threads: the search which
+	// branches are handed to, or the branch which is being searched
+	private ParallelSearch search = null;
+	private ParallelSearch.Branch branch = null;
+
+	// The modifiers of this speculation are also referred to by a copy
+	private boolean modsShared = false;
+	// Reused by every probe made while pruning
+	private Modifiers probeMods = null;
+
+	// Shared by every speculation a thread scores while equipment is
+	// being enumerated
+	private static final ThreadLocal<BaseModifiers> base = new ThreadLocal<BaseModifiers>();
+
+	public static void startScoring()
+	{
+		MaximizerSpeculation.base.set(
+			Preferences.getBoolean( "maximizerIncrementalScoring" ) ? new BaseModifiers() : null );
+	}
+
+	public static void finishScoring()
+	{
+		MaximizerSpeculation.base.remove();
+	}
+
+	@Override
+	public Modifiers calculate()
+	{
+		return this.calculate( MaximizerSpeculation.base.get() );
+	}
+
+	@Override
+	protected Modifiers calculate( final BaseModifiers base, final Modifiers extra )
+	{
+		// Each combination is totalled in the same modifiers as the
+		// last, unless a copy of this speculation might still refer
+		// to them.
+		Modifiers into = this.modsShared ? null : this.mods;
+		this.modsShared = false;
+		return this.calculate( base, extra, into );
+	}
+
+	void useEvaluator( final Evaluator evaluator )
+	{
+		this.evaluator = evaluator;
+	}
+
+	private Evaluator getEvaluator()
+	{
+		return this.evaluator != null ? this.evaluator : Maximizer.eval;
+	}
+
+	void setSearch( final ParallelSearch search )
+	{
+		this.search = search;
+	}
+
+	void setBranch( final ParallelSearch.Branch branch )
+	{
+		this.search = null;
+		this.branch = branch;
+	}
+
 	@Override
 	public Object clone()
 	{
@@ -74,6 +141,9 @@ implements Comparable<MaximizerSpeculation>, Cloneable
 		{
 			MaximizerSpeculation copy = (MaximizerSpeculation) super.clone();
 			copy.equipment = (AdventureResult[]) this.equipment.clone();
+			this.modsShared = true;
+			copy.modsShared = true;
+			copy.probeMods = null;
 			return copy;
 		}
 		catch ( CloneNotSupportedException e )
@@ -102,21 +172,22 @@ implements Comparable<MaximizerSpeculation>, Cloneable
 	{
 		if ( this.scored ) return this.score;
 		if ( !this.calculated ) this.calculate();
-		this.score = Maximizer.eval.getScore( this.mods );
+		Evaluator eval = this.getEvaluator();
+		this.score = eval.getScore( this.mods );
 		if ( KoLCharacter.inBeecore() )
 		{
 			this.beeosity = KoLCharacter.getBeeosity( this.equipment );
 		}
-		Maximizer.eval.checkEquipment( this.mods, this.equipment,
+		eval.checkEquipment( this.mods, this.equipment,
 			this.beeosity );
-		this.failed = Maximizer.eval.failed;
+		this.failed = eval.failed;
 		if ( (this.mods.getRawBitmap( Modifiers.MUTEX_VIOLATIONS )
 			& ~KoLCharacter.currentRawBitmapModifier( Modifiers.MUTEX_VIOLATIONS )) != 0 )
 		{	// We're speculating about something that would create a
 			// mutex problem that the player didn't already have.
 			this.failed = true;
 		}
-		this.exceeded = Maximizer.eval.exceeded;
+		this.exceeded = eval.exceeded;
 		this.scored = true;
 		return this.score;
 	}
@@ -125,7 +196,7 @@ implements Comparable<MaximizerSpeculation>, Cloneable
 	{
 		if ( this.tiebreakered ) return this.tiebreaker;
 		if ( !this.calculated ) this.calculate();
-		this.tiebreaker = Maximizer.eval.getTiebreaker( this.mods );
+		this.tiebreaker = this.getEvaluator().getTiebreaker( this.mods );
 		this.tiebreakered = true;
 		this.simplicity = 0;
 		for ( int slot = 0; slot < EquipmentManager.ALL_SLOTS; ++slot )
@@ -570,7 +641,14 @@ implements Comparable<MaximizerSpeculation>, Cloneable
 		this.trySwap( EquipmentManager.ACCESSORY2, EquipmentManager.ACCESSORY3 );
 		this.trySwap( EquipmentManager.ACCESSORY3, EquipmentManager.ACCESSORY1 );
 
-		this.tryHats( enthronedFamiliars, possibles, bestCard, useCrownFamiliar );
+		if ( this.search != null )
+		{
+			this.search.submit( this, enthronedFamiliars, possibles, bestCard, useCrownFamiliar );
+		}
+		else
+		{
+			this.tryHats( enthronedFamiliars, possibles, bestCard, useCrownFamiliar );
+		}
 		this.restore( mark );
 	}
 
@@ -578,6 +656,10 @@ implements Comparable<MaximizerSpeculation>, Cloneable
 			FamiliarData useCrownFamiliar )
 		throws MaximizerInterruptedException
 	{
+		if ( this.prune() )
+		{
+			return;
+		}
 		Object mark = this.mark();
 		if ( this.equipment[ EquipmentManager.HAT ] == null )
 		{
@@ -652,6 +734,10 @@ implements Comparable<MaximizerSpeculation>, Cloneable
 	public void tryShirts( ArrayList[] possibles, AdventureResult bestCard )
 		throws MaximizerInterruptedException
 	{
+		if ( this.prune() )
+		{
+			return;
+		}
 		Object mark = this.mark();
 		if ( this.equipment[ EquipmentManager.SHIRT ] == null )
 		{
@@ -702,6 +788,10 @@ implements Comparable<MaximizerSpeculation>, Cloneable
 	public void tryPants( ArrayList[] possibles, AdventureResult bestCard )
 		throws MaximizerInterruptedException
 	{
+		if ( this.prune() )
+		{
+			return;
+		}
 		Object mark = this.mark();
 		if ( this.equipment[ EquipmentManager.PANTS ] == null )
 		{
@@ -749,6 +839,10 @@ implements Comparable<MaximizerSpeculation>, Cloneable
 	public void trySixguns( ArrayList[] possibles, AdventureResult bestCard )
 		throws MaximizerInterruptedException
 	{
+		if ( this.prune() )
+		{
+			return;
+		}
 		Object mark = this.mark();
 		if ( this.equipment[ EquipmentManager.HOLSTER ] == null )
 		{
@@ -776,6 +870,10 @@ implements Comparable<MaximizerSpeculation>, Cloneable
 	public void tryWeapons( ArrayList[] possibles, AdventureResult bestCard )
 		throws MaximizerInterruptedException
 	{
+		if ( this.prune() )
+		{
+			return;
+		}
 		Object mark = this.mark();
 		boolean chefstaffable = KoLCharacter.hasSkill( "Spirit of Rigatoni" ) || KoLCharacter.isJarlsberg();
 		if ( !chefstaffable && KoLCharacter.getClassType().equals( KoLCharacter.SAUCEROR ) )
@@ -830,7 +928,7 @@ implements Comparable<MaximizerSpeculation>, Cloneable
 			}
 
 			// if ( any && <no unarmed items in shortlists> ) return;
-			if ( Maximizer.eval.melee < -1 || Maximizer.eval.melee > 1 )
+			if ( this.getEvaluator().melee < -1 || this.getEvaluator().melee > 1 )
 			{
 				return;
 			}
@@ -924,6 +1022,13 @@ implements Comparable<MaximizerSpeculation>, Cloneable
 		this.calculated = false;
 		this.scored = false;
 		this.tiebreakered = false;
+		if ( this.branch != null )
+		{
+			this.branch.record( this );
+			this.restore( mark );
+			this.branch.checkStop( this.exceeded );
+			return;
+		}
 		if ( this.compareTo( Maximizer.best ) > 0 )
 		{
 			Maximizer.best = (MaximizerSpeculation) this.clone();
@@ -944,6 +1049,8 @@ implements Comparable<MaximizerSpeculation>, Cloneable
 		{
 			throw new MaximizerExceededException();
 		}
+		// Only combinations actually scored count towards the limit, so
+		// pruning lets the search get further before it gives up.
 		long comboLimit = Preferences.getLong( "maximizerCombinationLimit" );
 		if ( comboLimit != 0 && Maximizer.bestChecked >= comboLimit )
 		{
@@ -951,6 +1058,72 @@ implements Comparable<MaximizerSpeculation>, Cloneable
 		}
 	}
 
+	/**
+	 * Returns true if no way of filling the slots still to be chosen could
+	 * beat the best combination found so far, so that they need not be
+	 * tried. The bound is calculated by wearing the best each of those
+	 * slots could possibly contribute, all at once.
+	 */
+
+	private boolean prune()
+	{
+		double best = this.branch != null ? this.branch.getBestScore() :
+			MaximizerSpeculation.getBestScore( Maximizer.best );
+		if ( best == Double.NEGATIVE_INFINITY )
+		{
+			return false;
+		}
+
+		Evaluator eval = this.getEvaluator();
+		Modifiers bound = eval.getBound( this.equipment );
+		if ( bound == null )
+		{
+			return false;
+		}
+
+		// The probe is discarded, so this need not keep its modifiers
+		// apart from it
+		boolean shared = this.modsShared;
+		MaximizerSpeculation probe = (MaximizerSpeculation) this.clone();
+		this.modsShared = shared;
+		probe.mods = this.probeMods;
+		probe.modsShared = false;
+		for ( int slot = 0; slot < EquipmentManager.ALL_SLOTS; ++slot )
+		{
+			if ( probe.equipment[ slot ] == null )
+			{
+				probe.equipment[ slot ] = EquipmentRequest.UNEQUIP;
+			}
+		}
+
+		Modifiers mods = probe.calculate( MaximizerSpeculation.base.get(), bound );
+		this.probeMods = mods;
+		if ( eval.getScore( mods ) >= best )
+		{
+			return false;
+		}
+
+		if ( this.branch != null )
+		{
+			this.branch.recordPruned();
+		}
+		else
+		{
+			Maximizer.bestPruned++;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the score which a combination must at least match to be
+	 * worth searching for, given the best one found so far.
+	 */
+
+	static double getBestScore( MaximizerSpeculation best )
+	{
+		return best == null || best.failed ? Double.NEGATIVE_INFINITY : best.getScore();
+	}
+
 	private static int getMutex( AdventureResult item )
 	{
 		Modifiers mods = Modifiers.getItemModifiers( item.getItemId() );
@@ -1005,6 +1178,12 @@ implements Comparable<MaximizerSpeculation>, Cloneable
 		{
 			msg.append( " (FAIL)" );
 		}
+		if ( Maximizer.bestPruned > 0 )
+		{
+			msg.append( ", " );
+			msg.append( Maximizer.bestPruned );
+			msg.append( " branches pruned" );
+		}
 		//if ( MaximizerFrame.best.tiebreakered )
 		//{
 		//	msg = msg + " / " + MaximizerFrame.best.getTiebreaker() + " / " +
@@ -0,0 +1,433 @@
+/**
+ * Copyright (c) 2005-2018, KoLmafia development team
+ * http://kolmafia.sourceforge.net/
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  [1] Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *  [2] Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in
+ *      the documentation and/or other materials provided with the
+ *      distribution.
+ *  [3] Neither the name "KoLmafia" nor the names of its contributors may
+ *      be used to endorse or promote products derived from this software
+ *      without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.sourceforge.kolmafia.maximizer;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import net.sourceforge.kolmafia.AdventureResult;
+import net.sourceforge.kolmafia.FamiliarData;
+import net.sourceforge.kolmafia.KoLmafia;
+import net.sourceforge.kolmafia.Modifiers;
+
+import net.sourceforge.kolmafia.objectpool.IntegerPool;
+
+import net.sourceforge.kolmafia.preferences.Preferences;
+
+/**
+ * Scores the equipment combinations below each choice of familiar, outfit,
+ * familiar item, container and accessories on a pool of worker threads.
+ * The branches are merged back in the order in which the serial search
+ * would have visited them, so the best combination, the number of
+ * combinations checked and the reason for stopping early are all the same
+ * as they would have been on a single thread. The exception is pruning:
+ * a branch only knows the best combination merged before it started and
+ * its own, so it may prune less than the serial search would have, and
+ * reach a combination limit sooner.
+ */
+
+class ParallelSearch
+{
+	// How far ahead of the merge the search may run, per thread
+	private static final int PENDING_BRANCHES_PER_THREAD = 4;
+
+	// Each worker thread scores with its own copy of the evaluator
+	private static final ThreadLocal<Evaluator> evaluator = new ThreadLocal<Evaluator>();
+
+	private final ExecutorService executor;
+	private final LinkedList<Future<Branch>> pending = new LinkedList<Future<Branch>>();
+	private final int maxPending;
+	private final long comboLimit;
+	private volatile boolean stopped = false;
+
+	/**
+	 * Returns a search using the number of threads the user asked for,
+	 * or null if equipment should be enumerated on this thread alone.
+	 */
+
+	static ParallelSearch start( final Evaluator eval )
+	{
+		int threads = Preferences.getInteger( "maximizerThreads" );
+		if ( threads <= 0 )
+		{
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		if ( threads <= 1 )
+		{
+			return null;
+		}
+
+		// Parsing a modifier changes the shared table, so make sure
+		// that no worker will need to.
+		Modifiers.parseAllModifiers();
+
+		return new ParallelSearch( eval, threads );
+	}
+
+	private ParallelSearch( final Evaluator eval, final int threads )
+	{
+		this.comboLimit = Preferences.getLong( "maximizerCombinationLimit" );
+		this.maxPending = threads * ParallelSearch.PENDING_BRANCHES_PER_THREAD;
+		this.executor = Executors.newFixedThreadPool( threads, new WorkerFactory( eval ) );
+	}
+
+	void submit( final MaximizerSpeculation spec, final ArrayList<FamiliarData> enthronedFamiliars, final ArrayList<?>[] possibles,
+		final AdventureResult bestCard, final FamiliarData useCrownFamiliar )
+		throws MaximizerInterruptedException
+	{
+		Branch branch = new Branch( spec, enthronedFamiliars, possibles, bestCard, useCrownFamiliar );
+		this.pending.addLast( this.executor.submit( branch ) );
+
+		while ( this.pending.size() > this.maxPending )
+		{
+			this.mergeNext();
+		}
+	}
+
+	void finish()
+		throws MaximizerInterruptedException
+	{
+		while ( !this.pending.isEmpty() )
+		{
+			this.mergeNext();
+		}
+	}
+
+	void stop()
+	{
+		this.stopped = true;
+
+		Iterator<Future<Branch>> it = this.pending.iterator();
+		while ( it.hasNext() )
+		{
+			it.next().cancel( false );
+		}
+		this.pending.clear();
+
+		this.executor.shutdown();
+	}
+
+	private void mergeNext()
+		throws MaximizerInterruptedException
+	{
+		Branch branch = this.waitFor( this.pending.removeFirst() );
+
+		// Work out where the serial search would have stopped within
+		// this branch, and why.
+
+		int count = branch.checked;
+		MaximizerInterruptedException reason = null;
+		if ( branch.interrupted )
+		{
+			reason = new MaximizerInterruptedException();
+		}
+		else if ( branch.exceeded )
+		{
+			reason = new MaximizerExceededException();
+		}
+
+		if ( this.comboLimit != 0 )
+		{
+			long remaining = this.comboLimit - Maximizer.bestChecked;
+			if ( count > remaining || ( count == remaining && reason == null ) )
+			{
+				count = (int) remaining;
+				reason = new MaximizerLimitException();
+			}
+		}
+
+		MaximizerSpeculation candidate = branch.getBest( count );
+		if ( candidate != null )
+		{
+			candidate.useEvaluator( null );
+			if ( candidate.compareTo( Maximizer.best ) > 0 )
+			{
+				Maximizer.best = candidate;
+			}
+		}
+
+		Maximizer.bestChecked += count;
+		Maximizer.bestPruned += branch.getPruned( count );
+		ParallelSearch.updateProgress();
+
+		if ( reason != null )
+		{
+			this.stop();
+			throw reason;
+		}
+	}
+
+	private Branch waitFor( final Future<Branch> future )
+		throws MaximizerInterruptedException
+	{
+		while ( true )
+		{
+			try
+			{
+				return future.get( 1, TimeUnit.SECONDS );
+			}
+			catch ( TimeoutException e )
+			{
+				ParallelSearch.updateProgress();
+			}
+			catch ( InterruptedException e )
+			{
+				throw new MaximizerInterruptedException();
+			}
+			catch ( ExecutionException e )
+			{
+				Throwable cause = e.getCause();
+				if ( cause instanceof RuntimeException )
+				{
+					throw (RuntimeException) cause;
+				}
+				if ( cause instanceof Error )
+				{
+					throw (Error) cause;
+				}
+				throw new RuntimeException( cause );
+			}
+		}
+	}
+
+	private static void updateProgress()
+	{
+		long t = System.currentTimeMillis();
+		if ( t > Maximizer.bestUpdate )
+		{
+			MaximizerSpeculation.showProgress();
+			Maximizer.bestUpdate = t + 5000;
+		}
+	}
+
+	/**
+	 * The combinations below one prefix of the search. A branch keeps its
+	 * own best combination, and remembers each time that best improved so
+	 * that the merge can cut the branch short wherever the serial search
+	 * would have stopped.
+	 */
+
+	class Branch
+		implements Callable<Branch>
+	{
+		private final MaximizerSpeculation spec;
+		private final ArrayList<FamiliarData> enthronedFamiliars;
+		private final ArrayList<?>[] possibles;
+		private final AdventureResult bestCard;
+		private final FamiliarData useCrownFamiliar;
+
+		private final ArrayList<Improvement> improvements = new ArrayList<Improvement>();
+		private final ArrayList<Integer> pruned = new ArrayList<Integer>();
+		private final double mergedScore;
+		private MaximizerSpeculation best = null;
+		private int checked = 0;
+		private boolean exceeded = false;
+		private boolean interrupted = false;
+
+		private Branch( final MaximizerSpeculation spec, final ArrayList<FamiliarData> enthronedFamiliars, final ArrayList<?>[] possibles,
+			final AdventureResult bestCard, final FamiliarData useCrownFamiliar )
+		{
+			this.spec = (MaximizerSpeculation) spec.clone();
+			this.spec.setBranch( this );
+			this.enthronedFamiliars = enthronedFamiliars;
+			this.possibles = possibles.clone();
+			this.bestCard = bestCard;
+			this.useCrownFamiliar = useCrownFamiliar;
+			this.mergedScore = MaximizerSpeculation.getBestScore( Maximizer.best );
+		}
+
+		public Branch call()
+		{
+			this.spec.useEvaluator( ParallelSearch.evaluator.get() );
+
+			try
+			{
+				this.spec.tryHats( this.enthronedFamiliars, this.possibles, this.bestCard, this.useCrownFamiliar );
+			}
+			catch ( MaximizerInterruptedException e )
+			{
+				// The reason for stopping has already been recorded
+			}
+
+			return this;
+		}
+
+		void record( final MaximizerSpeculation spec )
+		{
+			// Score it even if there is nothing to compare it with,
+			// so that we know whether it exceeded the maximum.
+			spec.getScore();
+
+			if ( this.best == null || spec.compareTo( this.best ) > 0 )
+			{
+				this.best = (MaximizerSpeculation) spec.clone();
+				this.best.setBranch( null );
+				this.improvements.add( new Improvement( this.checked, this.best ) );
+			}
+
+			++this.checked;
+		}
+
+		void recordPruned()
+		{
+			this.pruned.add( IntegerPool.get( this.checked ) );
+		}
+
+		double getBestScore()
+		{
+			return Math.max( this.mergedScore, MaximizerSpeculation.getBestScore( this.best ) );
+		}
+
+		void checkStop( final boolean exceeded )
+			throws MaximizerInterruptedException
+		{
+			if ( ParallelSearch.this.stopped || !KoLmafia.permitsContinue() )
+			{
+				this.interrupted = true;
+				throw new MaximizerInterruptedException();
+			}
+			if ( exceeded )
+			{
+				this.exceeded = true;
+				throw new MaximizerExceededException();
+			}
+
+			// No branch is merged past the limit, so there is no
+			// point in searching further.
+			long comboLimit = ParallelSearch.this.comboLimit;
+			if ( comboLimit != 0 && this.checked >= comboLimit )
+			{
+				throw new MaximizerLimitException();
+			}
+		}
+
+		/**
+		 * Returns the best of the first <code>count</code> combinations
+		 * in this branch, preferring the earliest of equals.
+		 */
+
+		private MaximizerSpeculation getBest( final int count )
+		{
+			MaximizerSpeculation best = null;
+			for ( int i = 0; i < this.improvements.size(); ++i )
+			{
+				Improvement improvement = this.improvements.get( i );
+				if ( improvement.index >= count )
+				{
+					break;
+				}
+				best = improvement.spec;
+			}
+			return best;
+		}
+
+		/**
+		 * Returns how many times this branch was pruned before its
+		 * combination numbered <code>count</code>.
+		 */
+
+		private int getPruned( final int count )
+		{
+			int pruned = 0;
+			while ( pruned < this.pruned.size() && this.pruned.get( pruned ).intValue() < count )
+			{
+				++pruned;
+			}
+			return count < this.checked ? pruned : this.pruned.size();
+		}
+	}
+
+	private static class Improvement
+	{
+		public final int index;
+		public final MaximizerSpeculation spec;
+
+		public Improvement( final int index, final MaximizerSpeculation spec )
+		{
+			this.index = index;
+			this.spec = spec;
+		}
+	}
+
+	private static class WorkerFactory
+		implements ThreadFactory
+	{
+		private final Evaluator eval;
+		private int count = 0;
+
+		public WorkerFactory( final Evaluator eval )
+		{
+			this.eval = eval;
+		}
+
+		public Thread newThread( final Runnable task )
+		{
+			final Evaluator copy = this.eval.copy();
+
+			Thread thread = new Thread( new Runnable()
+			{
+				public void run()
+				{
+					Modifiers.beginThreadState();
+					MaximizerSpeculation.startScoring();
+					ParallelSearch.evaluator.set( copy );
+
+					try
+					{
+						task.run();
+					}
+					finally
+					{
+						ParallelSearch.evaluator.remove();
+						MaximizerSpeculation.finishScoring();
+						Modifiers.endThreadState();
+					}
+				}
+			}, "Maximizer-" + ++this.count );
+
+			thread.setDaemon( true );
+			return thread;
+		}
+	}
+}
@@ -47,6 +47,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -121,8 +122,7 @@ public class DebugDatabase
 				return "";
 			}
 			
-			byte[] bytes = ByteBufferUtilities.read( istream );
-			return StringUtilities.getEncodedString( bytes, "UTF-8" );
+			return ByteBufferUtilities.readString( istream, "UTF-8" );
 		}
 		catch ( IOException e )
 		{
@@ -316,6 +316,8 @@ public class DebugDatabase
 		Set<Integer> keys = ItemDatabase.descriptionIdKeySet();
 		int lastId = 0;
 
+		DebugDatabase.prefetchItemDescriptions( keys );
+
 		for ( Integer id : keys )
 		{
 			if ( id < 1 )
@@ -428,6 +430,58 @@ public class DebugDatabase
 
 	private static final GenericRequest DESC_ITEM_REQUEST = new GenericRequest( "desc_item.php" );
 
+	private static final int PREFETCH_BATCH_SIZE = 20;
+
+	private static final void prefetchItemDescriptions( final Collection<Integer> itemIds )
+	{
+		List<GenericRequest> requests = new ArrayList<GenericRequest>();
+		List<Integer> ids = new ArrayList<Integer>();
+
+		for ( Integer id : itemIds )
+		{
+			if ( id < 1 || !KoLmafia.permitsContinue() )
+			{
+				continue;
+			}
+
+			String previous = DebugDatabase.rawItems.get( id );
+			String descId = ItemDatabase.getDescriptionId( id );
+			if ( ( previous != null && !previous.equals( "" ) ) || descId == null )
+			{
+				continue;
+			}
+
+			GenericRequest request = new GenericRequest( "desc_item.php" );
+			request.addFormField( "whichitem", descId );
+			requests.add( request );
+			ids.add( id );
+
+			if ( requests.size() == DebugDatabase.PREFETCH_BATCH_SIZE )
+			{
+				DebugDatabase.saveItemDescriptions( requests, ids );
+			}
+		}
+
+		DebugDatabase.saveItemDescriptions( requests, ids );
+	}
+
+	private static final void saveItemDescriptions( final List<GenericRequest> requests, final List<Integer> ids )
+	{
+		RequestThread.postBatch( requests );
+
+		for ( int i = 0; i < requests.size(); ++i )
+		{
+			String responseText = requests.get( i ).responseText;
+			if ( responseText != null && !responseText.equals( "" ) )
+			{
+				DebugDatabase.rawItems.set( ids.get( i ), responseText );
+			}
+		}
+
+		requests.clear();
+		ids.clear();
+	}
+
 	public static final String itemDescriptionText( final int itemId, boolean forceReload )
 	{
 		return DebugDatabase.itemDescriptionText( DebugDatabase.rawItemDescriptionText( ItemDatabase.getDescriptionId( itemId ), forceReload ) );
@@ -455,8 +509,12 @@ public class DebugDatabase
 			return previous;
 		}
 
+		// A forced reload is how callers ask for an item's current
+		// state, so it must not come from the response cache.
+
 		DebugDatabase.DESC_ITEM_REQUEST.clearDataFields();
 		DebugDatabase.DESC_ITEM_REQUEST.addFormField( "whichitem", descId );
+		DebugDatabase.DESC_ITEM_REQUEST.setCacheable( !forceReload );
 		RequestThread.postRequest( DebugDatabase.DESC_ITEM_REQUEST );
 		if ( itemId == -1 )
 		{
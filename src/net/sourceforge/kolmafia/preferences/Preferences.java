@@ -57,6 +57,7 @@ import net.java.dev.spellcast.utilities.DataUtilities;
 
 import net.sourceforge.kolmafia.KoLConstants;
 import net.sourceforge.kolmafia.KoLCharacter;
+import net.sourceforge.kolmafia.Modifiers;
 import net.sourceforge.kolmafia.RequestLogger;
 
 import net.sourceforge.kolmafia.combat.CombatActionManager;
@@ -189,12 +190,15 @@ public class Preferences
 					Preferences.userValues.clear();
 				}
 
+				Modifiers.inputChanged( Modifiers.INPUT_PREFERENCES );
 				return;
 			}
 
 			Preferences.loadUserPreferences( username );
 		}
 
+		Modifiers.inputChanged( Modifiers.INPUT_PREFERENCES );
+
 		AdventureFrame.updateFromPreferences();
 		CharPaneDecorator.updateFromPreferences();
 		CombatActionManager.updateFromPreferences();
@@ -436,6 +440,7 @@ public class Preferences
 				// globalValues is a synchronized map.
 
 				Preferences.globalValues.remove( name );
+				Modifiers.inputChanged( Modifiers.INPUT_PREFERENCES );
 				if ( Preferences.getBoolean( "saveSettingsOnSet" ) )
 				{
 					Preferences.saveToFile( Preferences.globalPropertiesFile, Preferences.globalValues );
@@ -450,6 +455,7 @@ public class Preferences
 				// userValues is a synchronized map.
 
 				Preferences.userValues.remove( name );
+				Modifiers.inputChanged( Modifiers.INPUT_PREFERENCES );
 				if ( Preferences.getBoolean( "saveSettingsOnSet" ) )
 				{
 					Preferences.saveToFile( Preferences.userPropertiesFile, Preferences.userValues );
@@ -798,6 +804,7 @@ public class Preferences
 			}
 		}
 
+		Modifiers.inputChanged( Modifiers.INPUT_PREFERENCES );
 		PreferenceListenerRegistry.firePreferenceChanged( name );
 
 		if ( name.startsWith( "choiceAdventure" ) )
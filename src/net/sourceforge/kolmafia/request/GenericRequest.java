@@ -49,6 +49,7 @@ import java.net.URLEncoder;
 import java.net.UnknownHostException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -103,6 +104,7 @@ import net.sourceforge.kolmafia.session.InventoryManager;
 import net.sourceforge.kolmafia.session.LightsOutManager;
 import net.sourceforge.kolmafia.session.OceanManager;
 import net.sourceforge.kolmafia.session.QuestManager;
+import net.sourceforge.kolmafia.session.ResponseCache;
 import net.sourceforge.kolmafia.session.ResponseTextParser;
 import net.sourceforge.kolmafia.session.ResultProcessor;
 import net.sourceforge.kolmafia.session.TurnCounter;
@@ -115,10 +117,12 @@ import net.sourceforge.kolmafia.textui.Interpreter;
 import net.sourceforge.kolmafia.textui.parsetree.Value;
 
 import net.sourceforge.kolmafia.utilities.ByteBufferUtilities;
+import net.sourceforge.kolmafia.utilities.ConnectionEngine;
 import net.sourceforge.kolmafia.utilities.FileUtilities;
 import net.sourceforge.kolmafia.utilities.InputFieldUtilities;
 import net.sourceforge.kolmafia.utilities.NaiveSecureSocketLayer;
 import net.sourceforge.kolmafia.utilities.PauseObject;
+import net.sourceforge.kolmafia.utilities.RequestStatistics;
 import net.sourceforge.kolmafia.utilities.StringUtilities;
 
 import net.sourceforge.kolmafia.webui.BarrelDecorator;
@@ -146,6 +150,11 @@ public class GenericRequest
 
 	private Boolean allowRedirect = null;
 
+	private boolean deferProcessing = false;
+	private boolean deferredResponse = false;
+
+	private boolean cacheable = true;
+
 	public static final Pattern REDIRECT_PATTERN = Pattern.compile( "([^\\/]*)\\/(login\\.php.*)", Pattern.DOTALL );
 	public static final Pattern JS_REDIRECT_PATTERN =
 		Pattern.compile( ">\\s*top.mainpane.document.location\\s*=\\s*\"(.*?)\";" );
@@ -187,6 +196,11 @@ public class GenericRequest
 	public String responseMessage;
 	public String responseText;
 	public HttpURLConnection formConnection;
+	private boolean connectionReleased = false;
+
+	// Time spent in each phase of this request, in nanoseconds
+	private final long[] phaseNanos = new long[ RequestStatistics.PHASES ];
+	private long startNanos = 0;
 	public String redirectLocation;
 	public String redirectMethod;
 
@@ -213,6 +227,7 @@ public class GenericRequest
 		GenericRequest.sessionId = null;
 		GenericRequest.passwordHash = "";
 		GenericRequest.passwordHashValue = "";
+		ResponseCache.stateChanged();
 	}
 
 	public static void setPasswordHash( final String hash )
@@ -250,6 +265,8 @@ public class GenericRequest
 			systemProperties.remove( "sun.net.client.defaultReadTimeout" );
 		}
 
+		ConnectionEngine.applySettings();
+
 		if ( Preferences.getBoolean( "useNaiveSecureLogin" ) || Preferences.getBoolean( "connectViaAddress" ) )
 		{
 			NaiveSecureSocketLayer.install();
@@ -1305,11 +1322,18 @@ public class GenericRequest
 			return;
 		}
 
+		if ( this.hasResult )
+		{
+			ResponseCache.stateChanged();
+		}
+
 		if ( this.shouldUpdateDebugLog() )
 		{
 			RequestLogger.updateDebugLog( this.getClass() );
 		}
 
+		this.startTiming();
+
 		if ( this.isExternalRequest )
 		{
 			this.externalExecute();
@@ -1323,13 +1347,114 @@ public class GenericRequest
 			this.execute();
 		}
 
+		this.finishRequest();
+		this.recordTiming();
+	}
+
+	private void startTiming()
+	{
+		Arrays.fill( this.phaseNanos, 0L );
+		this.startNanos = System.nanoTime();
+	}
+
+	private void recordTiming()
+	{
+		this.phaseNanos[ RequestStatistics.TOTAL ] = System.nanoTime() - this.startNanos;
+		RequestStatistics.record( this.getBasePath(), this.phaseNanos );
+	}
+
+	/**
+	 * Whether this request can fetch its page concurrently with other
+	 * requests in <code>RequestThread.postBatch</code>. Only plain requests
+	 * whose pages have no results qualify; subclasses which do their own
+	 * work around <code>run()</code> are always run serially.
+	 */
+
+	public boolean canBatch()
+	{
+		return this.getClass() == GenericRequest.class &&
+			!this.isChatRequest &&
+			!this.hasResult();
+	}
+
+	/**
+	 * Performs only the network exchange for this request. The response
+	 * is kept, unprocessed, until <code>processDeferredResponse()</code> is
+	 * called, which allows several pages to be fetched at once while their
+	 * game state updates still happen one at a time.
+	 */
+
+	public void fetchDeferredResponse()
+	{
+		this.deferredResponse = false;
+
+		if ( GenericRequest.sessionId == null && !this.isExternalRequest )
+		{
+			return;
+		}
+
+		this.timeoutCount = 0;
+		this.redirectHandled = false;
+		this.redirectCount = 0;
+		this.allowRedirect = null;
+		this.hasResult = false;
+
+		this.startTiming();
+		this.deferProcessing = true;
+
+		try
+		{
+			this.externalExecute();
+		}
+		finally
+		{
+			this.deferProcessing = false;
+		}
+	}
+
+	/**
+	 * Processes a response retrieved by <code>fetchDeferredResponse()</code>.
+	 * Anything that could not be fetched in isolation, such as a redirect,
+	 * is simply run again the usual way.
+	 */
+
+	public void processDeferredResponse()
+	{
+		if ( !this.deferredResponse )
+		{
+			this.run();
+			return;
+		}
+
+		this.deferredResponse = false;
+
+		if ( this.shouldUpdateDebugLog() )
+		{
+			RequestLogger.updateDebugLog( this.getClass() );
+		}
+
+		this.processResponseText();
+
+		if ( !LoginRequest.isInstanceRunning() )
+		{
+			ConcoctionDatabase.refreshConcoctions( false );
+		}
+
+		this.finishRequest();
+		this.recordTiming();
+	}
+
+	private void finishRequest()
+	{
 		if ( ( this.responseCode == 200 && this.responseText != null ) ||
 		     ( this.responseCode == 302 && this.redirectLocation != null ) )
 		{
 			// Call central dispatch method for locations that require
 			// special handling
 
+			long start = System.nanoTime();
 			QuestManager.handleQuestChange( this );
+			this.phaseNanos[ RequestStatistics.QUEST ] += System.nanoTime() - start;
 		}
 
 		// Normal response?
@@ -1343,7 +1468,9 @@ public class GenericRequest
 			}
 			else
 			{
+				long start = System.nanoTime();
 				this.formatResponse();
+				this.phaseNanos[ RequestStatistics.DECORATE ] += System.nanoTime() - start;
 			}
 			return;
 		}
@@ -1609,8 +1736,80 @@ public class GenericRequest
 		}
 	}
 
+	/**
+	 * Sets whether this request may be answered from, and stored in, the
+	 * <code>ResponseCache</code>. Requests for pages which would normally be
+	 * cached, but which the caller knows to have changed, should turn this
+	 * off.
+	 */
+
+	public void setCacheable( final boolean cacheable )
+	{
+		this.cacheable = cacheable;
+	}
+
+	private boolean canCache()
+	{
+		return this.cacheable && !this.hasResult && !this.isExternalRequest && !( this instanceof RelayRequest );
+	}
+
+	/**
+	 * Answers this request from the <code>ResponseCache</code>, if the page
+	 * is there, processing the remembered response as if it had just been
+	 * received from the server.
+	 */
+
+	private boolean useCachedResponse()
+	{
+		if ( !this.canCache() )
+		{
+			if ( !this.cacheable )
+			{
+				ResponseCache.forget( this.getURLString() );
+			}
+
+			return false;
+		}
+
+		String cachedText = ResponseCache.get( this.getURLString() );
+		if ( cachedText == null )
+		{
+			return false;
+		}
+
+		RequestLogger.trace( "Cached: " + this.getURLString() );
+
+		this.releaseConnection();
+		this.formConnection = null;
+		this.responseCode = 200;
+		this.responseMessage = "OK";
+		this.redirectLocation = null;
+		this.redirectMethod = null;
+		this.responseText = cachedText;
+
+		if ( this.deferProcessing )
+		{
+			this.deferredResponse = true;
+			return true;
+		}
+
+		this.processResponseText();
+		return true;
+	}
+
 	public void externalExecute()
 	{
+		if ( this.useCachedResponse() )
+		{
+			return;
+		}
+
+		// Whatever part of the exchange is not spent reading the body
+		// or processing it was spent waiting on the network.
+
+		long start = System.nanoTime();
+		long elsewhere = this.phaseNanos[ RequestStatistics.DECODE ] + this.phaseNanos[ RequestStatistics.PROCESS ];
+
 		do
 		{
 			if ( !this.prepareConnection() )
@@ -1619,6 +1818,28 @@ public class GenericRequest
 			}
 		}
 		while ( !this.postClientData() && !this.retrieveServerReply() && this.timeoutCount < GenericRequest.TIMEOUT_LIMIT && this.redirectCount < GenericRequest.REDIRECT_LIMIT );
+
+		// Hand the socket back to the connection engine. The headers
+		// remain available to processResponse and the debug log.
+
+		this.releaseConnection();
+
+		if ( this.canCache() && this.responseCode == 200 && this.redirectLocation == null )
+		{
+			ResponseCache.put( this.getURLString(), this.responseText );
+		}
+
+		elsewhere = this.phaseNanos[ RequestStatistics.DECODE ] + this.phaseNanos[ RequestStatistics.PROCESS ] - elsewhere;
+		this.phaseNanos[ RequestStatistics.NETWORK ] += System.nanoTime() - start - elsewhere;
+	}
+
+	private void releaseConnection()
+	{
+		if ( this.formConnection != null && !this.connectionReleased )
+		{
+			this.connectionReleased = true;
+			ConnectionEngine.release( this.formConnection );
+		}
 	}
 
 	public static final boolean shouldIgnore( final GenericRequest request )
@@ -1655,12 +1876,17 @@ public class GenericRequest
 		this.responseText = null;
 		this.redirectLocation = null;
 		this.redirectMethod = null;
+
+		// Release the connection from a previous attempt before retrying
+
+		this.releaseConnection();
 		this.formConnection = null;
 
 		try
 		{
 			this.formURL = this.buildURL();
-			this.formConnection = (HttpURLConnection) this.formURL.openConnection();
+			this.formConnection = ConnectionEngine.open( this.formURL );
+			this.connectionReleased = false;
 		}
 		catch ( IOException e )
 		{
@@ -2070,7 +2296,11 @@ public class GenericRequest
 				// the input stream.
 
 				istream.close();
-				shouldStop = ( this.redirectLocation != null ) ? this.handleServerRedirect() : true;
+
+				// A deferred fetch leaves redirects to be
+				// followed when the request is processed.
+
+				shouldStop = ( this.redirectLocation != null && !this.deferProcessing ) ? this.handleServerRedirect() : true;
 			}
 		}
 		catch ( IOException e )
@@ -2438,7 +2668,9 @@ public class GenericRequest
 			RequestLogger.updateDebugLog( "Retrieving server reply" );
 		}
 
-		this.responseText = new String( ByteBufferUtilities.read( istream ), "UTF-8" );
+		long start = System.nanoTime();
+		this.responseText = ByteBufferUtilities.readString( istream, "UTF-8" );
+		this.phaseNanos[ RequestStatistics.DECODE ] += System.nanoTime() - start;
 
 		if ( this.responseCode == 200 && RequestLogger.isTracing() )
 		{
@@ -2472,6 +2704,10 @@ public class GenericRequest
 			{
 				// Do NOT call processResults for a redirection
 				// But do log the redirection
+				if ( this.deferProcessing )
+				{
+					return true;
+				}
 				if ( this.shouldUpdateDebugLog() )
 				{
 					RequestLogger.updateDebugLog( this.responseText );
@@ -2482,9 +2718,25 @@ public class GenericRequest
 			}
 		}
 
+		if ( this.deferProcessing )
+		{
+			this.deferredResponse = true;
+			return true;
+		}
+
+		this.processResponseText();
+
+		return true;
+	}
+
+	private void processResponseText()
+	{
+		long start = System.nanoTime();
+
 		try
 		{
 			PreferenceListenerRegistry.deferPreferenceListeners( true );
+			KoLCharacter.deferRecalculation( true );
 			this.processResponse();
 		}
 		catch ( Exception e )
@@ -2493,10 +2745,10 @@ public class GenericRequest
 		}
 		finally
 		{
+			KoLCharacter.deferRecalculation( false );
 			PreferenceListenerRegistry.deferPreferenceListeners( false );
+			this.phaseNanos[ RequestStatistics.PROCESS ] += System.nanoTime() - start;
 		}
-
-		return true;
 	}
 
 	/**
@@ -2513,12 +2765,7 @@ public class GenericRequest
 
 		if ( this.shouldUpdateDebugLog() )
 		{
-			String text = this.responseText;
-			if ( !Preferences.getBoolean( "logReadableHTML" ) )
-			{
-				text = KoLConstants.LINE_BREAK_PATTERN.matcher( text ).replaceAll( "" );
-			}
-			RequestLogger.updateDebugLog( text );
+			RequestLogger.updateDebugLogPage( this.responseText );
 		}
 
 		if ( this.isChatRequest )
@@ -2577,7 +2824,9 @@ public class GenericRequest
 		if ( this.hasResult )
 		{
 			int initialHP = KoLCharacter.getCurrentHP();
+			long start = System.nanoTime();
 			this.parseResults();
+			this.phaseNanos[ RequestStatistics.RESULTS ] += System.nanoTime() - start;
 
 			if ( initialHP != 0 && KoLCharacter.getCurrentHP() == 0 )
 			{
@@ -33,7 +33,6 @@
 
 package net.sourceforge.kolmafia.request;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
@@ -52,8 +51,6 @@ import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import net.java.dev.spellcast.utilities.DataUtilities;
-
 import net.sourceforge.kolmafia.AdventureResult;
 import net.sourceforge.kolmafia.AreaCombatData;
 import net.sourceforge.kolmafia.CoinmasterData;
@@ -111,12 +108,13 @@ import net.sourceforge.kolmafia.session.TurnCounter;
 import net.sourceforge.kolmafia.swingui.AdventureFrame;
 import net.sourceforge.kolmafia.swingui.CommandDisplayFrame;
 
-import net.sourceforge.kolmafia.utilities.ByteBufferUtilities;
 import net.sourceforge.kolmafia.utilities.FileUtilities;
 import net.sourceforge.kolmafia.utilities.PauseObject;
 import net.sourceforge.kolmafia.utilities.StringUtilities;
 import net.sourceforge.kolmafia.utilities.WikiUtilities;
 
+import net.sourceforge.kolmafia.webui.RelayFileCache;
+import net.sourceforge.kolmafia.webui.RelayFileCache.CachedFile;
 import net.sourceforge.kolmafia.webui.RelayServer;
 import net.sourceforge.kolmafia.webui.StationaryButtonDecorator;
 
@@ -142,6 +140,7 @@ public class RelayRequest
 	public Set<ServerCookie> serverCookies = null;
 	public String cookies = null;
 	public byte[] rawByteBuffer = null;
+	public byte[] gzippedByteBuffer = null;
 	public String contentType = null;
 	public long lastModified = 0;
 	public String statusLine = "HTTP/1.1 302 Found";
@@ -214,6 +213,7 @@ public class RelayRequest
 		super.constructURLString( newURLString, usePostMethod, encoded );
 
 		this.rawByteBuffer = null;
+		this.gzippedByteBuffer = null;
 		this.headers.clear();
 
 		String path = this.getBasePath();
@@ -460,6 +460,13 @@ public class RelayRequest
 			{
 				ostream.println( header );
 			}
+
+			if ( this.rawByteBuffer != null )
+			{
+				ostream.print( "Content-Length: " );
+				ostream.print( this.rawByteBuffer.length );
+				ostream.println();
+			}
 			return;
 		}
 
@@ -533,9 +540,26 @@ public class RelayRequest
 				ostream.println( "Cache-Control: no-cache, must-revalidate" );
 				ostream.println( "Pragma: no-cache" );
 			}
+			else if ( this.rawByteBuffer != null )
+			{
+				// Redirects and other bodiless responses still need
+				// a length for the browser to reuse the connection.
+				ostream.print( "Content-Length: " );
+				ostream.print( this.rawByteBuffer.length );
+				ostream.println();
+			}
 		}
 	}
 
+	/**
+	 * Returns whether printHeaders sends the length of the response body.
+	 */
+
+	public boolean sendsContentLength()
+	{
+		return this.rawByteBuffer != null && ( !this.headers.isEmpty() || this.formConnection != null );
+	}
+
 	public String getRedirectLocation()
 	{
 		if ( this.responseCode != 302 )
@@ -622,34 +646,6 @@ public class RelayRequest
 		{
 			this.responseText = " ";
 		}
-
-		this.headers.add( "Connection: close" );
-	}
-
-	private StringBuffer readContents( final BufferedReader reader )
-	{
-		StringBuffer contentBuffer = new StringBuffer();
-		if ( reader == null )
-		{
-			return contentBuffer;
-		}
-
-		try
-		{
-			String line;
-			while ( ( line = reader.readLine() ) != null )
-			{
-				contentBuffer.append( line );
-				contentBuffer.append( KoLConstants.LINE_BREAK );
-			}
-
-			reader.close();
-		}
-		catch ( IOException e )
-		{
-		}
-
-		return contentBuffer;
 	}
 
 	private static final String [] IMAGES = new String[]
@@ -721,6 +717,7 @@ public class RelayRequest
 	public static void clearImageCache()
 	{
 		RelayRequest.clearImageDirectory( KoLConstants.IMAGE_LOCATION, RELAYIMAGES_FILTER );
+		RelayFileCache.clear();
 		Preferences.setLong( "lastImageCacheClear", (new Date()).getTime() );
 	}
 
@@ -748,8 +745,16 @@ public class RelayRequest
 			return;
 		}
 
+		CachedFile cached = RelayFileCache.getBinary( imageFile );
+		if ( cached == null )
+		{
+			this.sendNotFound();
+			return;
+		}
+
 		this.lastModified = imageFile.lastModified();
-		this.rawByteBuffer = ByteBufferUtilities.read( imageFile );
+		this.rawByteBuffer = cached.bytes;
+		this.headers.add( "ETag: " + cached.etag );
 		this.pseudoResponse( "HTTP/1.1 200 OK", "" );
 	}
 
@@ -795,25 +800,44 @@ public class RelayRequest
 			return;
 		}
 
-		// Read the file
-		StringBuffer replyBuffer = this.readContents( DataUtilities.getReader( override ) );
+		// Read the file, from memory if it has not changed
+		CachedFile cached = RelayFileCache.getText( override );
+		if ( cached == null )
+		{
+			this.sendNotFound();
+			return;
+		}
+
+		boolean builtin = RelayRequest.builtinRelayFile( filename );
+		boolean personalized = builtin && cached.text.contains( "MAFIAHIT" );
 
 		// If it is a KoLmafia built-in file, as opposed to the
 		// user-supplied relay script, do special things
-		if ( RelayRequest.builtinRelayFile( filename ) )
+		if ( builtin && !personalized && !filename.endsWith( ".html" ) )
 		{
-			if ( replyBuffer.indexOf( "MAFIAHIT" ) != -1 )
-			{
-				StringUtilities.globalStringReplace( replyBuffer, "MAFIAHIT", "pwd=" + GenericRequest.passwordHash );
-			}
-			else if ( !filename.endsWith( ".html" ) )
-			{
-				long lastModified = override.lastModified();
-				long now = (new Date()).getTime();
-				long expires = now + ( 1000L * 60 * 60 * 24 * 30 );
-				this.headers.add( "Last-Modified: " + StringUtilities.formatDate( lastModified ) );
-				this.headers.add( "Expires: " + StringUtilities.formatDate( expires ) );
-			}
+			long now = (new Date()).getTime();
+			long expires = now + ( 1000L * 60 * 60 * 24 * 30 );
+			this.headers.add( "Last-Modified: " + cached.lastModifiedDate );
+			this.headers.add( "Expires: " + StringUtilities.formatDate( expires ) );
+		}
+
+		// Files which are sent exactly as they are on disk can be
+		// sent straight from the cache, already encoded.
+		if ( !personalized && !this.isChatRequest && !filename.endsWith( "chat.html" ) )
+		{
+			this.rawByteBuffer = cached.bytes;
+			this.gzippedByteBuffer = cached.gzipped;
+			this.headers.add( "ETag: " + cached.etag );
+			this.pseudoResponse( "HTTP/1.1 200 OK", "" );
+			this.responseText = cached.text;
+			return;
+		}
+
+		StringBuffer replyBuffer = new StringBuffer( cached.text );
+
+		if ( personalized )
+		{
+			StringUtilities.globalStringReplace( replyBuffer, "MAFIAHIT", "pwd=" + GenericRequest.passwordHash );
 		}
 
 		if ( this.isChatRequest )
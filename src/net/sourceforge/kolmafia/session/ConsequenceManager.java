@@ -203,6 +203,11 @@ public abstract class ConsequenceManager
 		}
 	}
 
+	public static boolean isDescriptionConsequence( final String urlString )
+	{
+		return ConsequenceManager.descriptions.contains( urlString );
+	}
+
 	public static void updateOneDesc()
 	{
 		int size = ConsequenceManager.descriptions.size();
@@ -1990,6 +1990,7 @@ public abstract class InventoryManager
 		// See which familiar is riding in it.
 		String descId = ItemDatabase.getDescriptionId( ItemPool.HATSEAT );
 		GenericRequest req = new GenericRequest( "desc_item.php?whichitem=" + descId );
+		req.setCacheable( false );
 		RequestThread.postRequest( req );
 
 		Matcher matcher = InventoryManager.COT_PATTERN.matcher( req.responseText );
@@ -2028,6 +2029,7 @@ public abstract class InventoryManager
 		// See which familiar is riding in it.
 		String descId = ItemDatabase.getDescriptionId( ItemPool.BUDDY_BJORN );
 		GenericRequest req = new GenericRequest( "desc_item.php?whichitem=" + descId );
+		req.setCacheable( false );
 		RequestThread.postRequest( req );
 
 		// COT_PATTERN works for this
@@ -0,0 +1,347 @@
+/**
+ * Copyright (c) 2005-2018, KoLmafia development team
+ * http://kolmafia.sourceforge.net/
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  [1] Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *  [2] Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in
+ *      the documentation and/or other materials provided with the
+ *      distribution.
+ *  [3] Neither the name "KoLmafia" nor the names of its contributors may
+ *      be used to endorse or promote products derived from this software
+ *      without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION ) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE ) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.sourceforge.kolmafia.session;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import net.java.dev.spellcast.utilities.DataUtilities;
+
+import net.sourceforge.kolmafia.KoLConstants;
+
+import net.sourceforge.kolmafia.preferences.Preferences;
+
+import net.sourceforge.kolmafia.utilities.ByteBufferUtilities;
+
+/**
+ * Remembers the responses to requests for pages which can be fetched again
+ * without changing anything, so that <code>GenericRequest</code> can skip
+ * the server when the same page is asked for again. Each page has a policy:
+ * descriptions of items, effects and skills never change and are also kept on
+ * disk for later sessions, while pages about characters expire after a while
+ * and are forgotten whenever a request which might change the game state is
+ * made.
+ */
+
+public class ResponseCache
+{
+	private static final int MAX_ENTRIES = 512;
+
+	private static final long FOREVER = Long.MAX_VALUE;
+	private static final long ONE_MINUTE = 60 * 1000L;
+
+	private static final Map<String, CachePolicy> policies = new HashMap<String, CachePolicy>();
+
+	static
+	{
+		ResponseCache.addPolicy( "desc_item.php", ResponseCache.FOREVER, true );
+		ResponseCache.addPolicy( "desc_effect.php", ResponseCache.FOREVER, true );
+		ResponseCache.addPolicy( "desc_skill.php", ResponseCache.FOREVER, true );
+		ResponseCache.addPolicy( "desc_outfit.php", ResponseCache.FOREVER, true );
+		ResponseCache.addPolicy( "showplayer.php", 5 * ResponseCache.ONE_MINUTE, false );
+		ResponseCache.addPolicy( "questlog.php", ResponseCache.ONE_MINUTE, false );
+	}
+
+	// Your own skills' descriptions show your own numbers
+	private static final CachePolicy SELF_SKILL_POLICY = new CachePolicy( 10 * ResponseCache.ONE_MINUTE, false );
+
+	private static final LinkedHashMap<String, CachedResponse> cache =
+		new LinkedHashMap<String, CachedResponse>( 64, 0.75f, true );
+
+	private static int hits = 0;
+	private static int misses = 0;
+
+	private static void addPolicy( final String page, final long lifetime, final boolean persistent )
+	{
+		ResponseCache.policies.put( page, new CachePolicy( lifetime, persistent ) );
+	}
+
+	/**
+	 * Returns the policy for the page at this URL, or null if requests
+	 * for it should always go to the server.
+	 */
+
+	private static CachePolicy getPolicy( final String urlString )
+	{
+		if ( !Preferences.getBoolean( "useResponseCache" ) )
+		{
+			return null;
+		}
+
+		int index = urlString.indexOf( "?" );
+		CachePolicy policy = ResponseCache.policies.get( index == -1 ? urlString : urlString.substring( 0, index ) );
+
+		if ( policy == null )
+		{
+			return null;
+		}
+
+		// Descriptions of other players' items show their state, and
+		// descriptions which ConsequenceManager watches are ones
+		// which show our own.
+
+		if ( urlString.contains( "otherplayer=" ) || ConsequenceManager.isDescriptionConsequence( urlString ) )
+		{
+			return null;
+		}
+
+		if ( urlString.startsWith( "desc_skill.php" ) && urlString.contains( "self=true" ) )
+		{
+			return ResponseCache.SELF_SKILL_POLICY;
+		}
+
+		return policy;
+	}
+
+	/**
+	 * Returns the remembered response to this URL, or null if it must be
+	 * fetched from the server.
+	 */
+
+	public static final synchronized String get( final String urlString )
+	{
+		CachePolicy policy = ResponseCache.getPolicy( urlString );
+		if ( policy == null )
+		{
+			return null;
+		}
+
+		CachedResponse cached = ResponseCache.cache.get( urlString );
+
+		if ( cached == null && policy.persistent )
+		{
+			cached = ResponseCache.load( urlString );
+		}
+
+		if ( cached == null || cached.expires < System.currentTimeMillis() )
+		{
+			if ( cached != null )
+			{
+				ResponseCache.cache.remove( urlString );
+			}
+
+			++ResponseCache.misses;
+			return null;
+		}
+
+		++ResponseCache.hits;
+		return cached.responseText;
+	}
+
+	public static final synchronized void put( final String urlString, final String responseText )
+	{
+		CachePolicy policy = ResponseCache.getPolicy( urlString );
+		if ( policy == null || responseText == null || responseText.length() == 0 )
+		{
+			return;
+		}
+
+		long expires = policy.lifetime == ResponseCache.FOREVER ? ResponseCache.FOREVER : System.currentTimeMillis() + policy.lifetime;
+		ResponseCache.remember( urlString, new CachedResponse( responseText, expires, policy.persistent ) );
+
+		if ( policy.persistent )
+		{
+			ResponseCache.save( urlString, responseText );
+		}
+	}
+
+	/**
+	 * Forgets this page, which a caller needed to fetch from the server
+	 * because what it shows has changed.
+	 */
+
+	public static final synchronized void forget( final String urlString )
+	{
+		ResponseCache.cache.remove( urlString );
+		ResponseCache.getFile( urlString ).delete();
+	}
+
+	/**
+	 * Forgets every page which might no longer be current. Called after
+	 * any request which may have changed the state of the game.
+	 */
+
+	public static final synchronized void stateChanged()
+	{
+		Iterator<CachedResponse> it = ResponseCache.cache.values().iterator();
+		while ( it.hasNext() )
+		{
+			if ( !it.next().persistent )
+			{
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Forgets everything, including the pages saved on disk.
+	 */
+
+	public static final synchronized void clear()
+	{
+		ResponseCache.cache.clear();
+		ResponseCache.hits = 0;
+		ResponseCache.misses = 0;
+
+		File[] files = ResponseCache.getDirectory().listFiles();
+		if ( files == null )
+		{
+			return;
+		}
+
+		for ( int i = 0; i < files.length; ++i )
+		{
+			files[ i ].delete();
+		}
+	}
+
+	public static final synchronized String getStatistics()
+	{
+		return ResponseCache.cache.size() + " server pages cached in memory, " +
+			ResponseCache.hits + " hits, " + ResponseCache.misses + " misses";
+	}
+
+	private static void remember( final String urlString, final CachedResponse cached )
+	{
+		ResponseCache.cache.put( urlString, cached );
+
+		Iterator<Entry<String, CachedResponse>> it = ResponseCache.cache.entrySet().iterator();
+		while ( ResponseCache.cache.size() > ResponseCache.MAX_ENTRIES && it.hasNext() )
+		{
+			it.next();
+			it.remove();
+		}
+	}
+
+	private static File getDirectory()
+	{
+		return new File( KoLConstants.CACHE_LOCATION, "pages" );
+	}
+
+	private static File getFile( final String urlString )
+	{
+		StringBuilder name = new StringBuilder( urlString.length() + 5 );
+
+		for ( int i = 0; i < urlString.length(); ++i )
+		{
+			char ch = urlString.charAt( i );
+			name.append( Character.isLetterOrDigit( ch ) || ch == '.' || ch == '-' ? ch : '_' );
+		}
+
+		name.append( ".html" );
+		return new File( ResponseCache.getDirectory(), name.toString() );
+	}
+
+	private static CachedResponse load( final String urlString )
+	{
+		File file = ResponseCache.getFile( urlString );
+		if ( !file.isFile() )
+		{
+			return null;
+		}
+
+		byte[] bytes = ByteBufferUtilities.read( file );
+		if ( bytes.length == 0 )
+		{
+			return null;
+		}
+
+		try
+		{
+			CachedResponse cached = new CachedResponse( new String( bytes, "UTF-8" ), ResponseCache.FOREVER, true );
+			ResponseCache.remember( urlString, cached );
+			return cached;
+		}
+		catch ( IOException e )
+		{
+			return null;
+		}
+	}
+
+	private static void save( final String urlString, final String responseText )
+	{
+		OutputStream ostream = DataUtilities.getOutputStream( ResponseCache.getFile( urlString ) );
+
+		try
+		{
+			ostream.write( responseText.getBytes( "UTF-8" ) );
+		}
+		catch ( IOException e )
+		{
+		}
+		finally
+		{
+			try
+			{
+				ostream.close();
+			}
+			catch ( IOException e )
+			{
+			}
+		}
+	}
+
+	private static class CachePolicy
+	{
+		private final long lifetime;
+		private final boolean persistent;
+
+		public CachePolicy( final long lifetime, final boolean persistent )
+		{
+			this.lifetime = lifetime;
+			this.persistent = persistent;
+		}
+	}
+
+	private static class CachedResponse
+	{
+		private final String responseText;
+		private final long expires;
+		private final boolean persistent;
+
+		public CachedResponse( final String responseText, final long expires, final boolean persistent )
+		{
+			this.responseText = responseText;
+			this.expires = expires;
+			this.persistent = persistent;
+		}
+	}
+}
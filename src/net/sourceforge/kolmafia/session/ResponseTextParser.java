@@ -33,6 +33,8 @@
 
 package net.sourceforge.kolmafia.session;
 
+import java.util.List;
+
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -145,6 +147,7 @@ import net.sourceforge.kolmafia.request.ZapRequest;
 
 import net.sourceforge.kolmafia.utilities.LockableListFactory;
 import net.sourceforge.kolmafia.utilities.StringUtilities;
+import net.sourceforge.kolmafia.utilities.URLDispatcher;
 
 import net.sourceforge.kolmafia.webui.DiscoCombatHelper;
 import net.sourceforge.kolmafia.webui.MineDecorator;
@@ -259,633 +262,1158 @@ public class ResponseTextParser
 		return true;
 	}
 
-	public static final void externalUpdate( final GenericRequest request )
-	{
-		ResponseTextParser.externalUpdate( request.getURLString(), request.responseText );
-	}
+	// Parsers are offered a page in the order in which they are registered,
+	// but only if they are registered for that page. The first one which
+	// claims the page is the only one to see it.
 
-	public static final void externalUpdate( final String location, final String responseText )
+	private static final URLDispatcher<ResponseParser> PARSERS = new URLDispatcher<ResponseParser>();
+
+	static
 	{
-		if ( responseText == null || responseText.length() == 0 )
+		ResponseTextParser.PARSERS.register( "account.php", new ResponseParser()
 		{
-			return;
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				AccountRequest.parseAccountData( location, responseText );
+				return true;
+			}
+		} );
 
-		if ( location.startsWith( "account.php" ) )
+		ResponseTextParser.PARSERS.register( "account_contactlist.php", new ResponseParser()
 		{
-			AccountRequest.parseAccountData( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				ContactListRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "account_contactlist.php" ) )
+		ResponseTextParser.PARSERS.register( "account_manageoutfits.php", new ResponseParser()
 		{
-			ContactListRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				CustomOutfitRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "account_manageoutfits.php" ) )
+		ResponseTextParser.PARSERS.register( "adventure.php", new ResponseParser()
 		{
-			CustomOutfitRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				SeaMerkinRequest.parseColosseumResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "adventure.php" ) )
+		ResponseTextParser.PARSERS.register( "api.php", new ResponseParser()
 		{
-			SeaMerkinRequest.parseColosseumResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				ApiRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "api.php" ) )
+		ResponseTextParser.PARSERS.register( "ascensionhistory.php", new ResponseParser()
 		{
-			ApiRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				AscensionHistoryRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "ascensionhistory.php" ) )
+		ResponseTextParser.PARSERS.register( "arena.php", new ResponseParser()
 		{
-			AscensionHistoryRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				CakeArenaRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "arena.php" ) )
+		ResponseTextParser.PARSERS.register( "backoffice.php", new ResponseParser()
 		{
-			CakeArenaRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				ManageStoreRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "backoffice.php" ) )
+		ResponseTextParser.PARSERS.register( "basement.php", new ResponseParser()
 		{
-			ManageStoreRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				BasementRequest.checkBasement( responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "basement.php" ) )
+		ResponseTextParser.PARSERS.register( "bedazzle.php", new ResponseParser()
 		{
-			BasementRequest.checkBasement( responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				EquipmentRequest.parseBedazzlements( responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "bedazzle.php" ) )
+		ResponseTextParser.PARSERS.register( "beerpong.php", new ResponseParser()
 		{
-			EquipmentRequest.parseBedazzlements( responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				BeerPongRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "beerpong.php" ) )
+		ResponseTextParser.PARSERS.register( "bet.php", new ResponseParser()
 		{
-			BeerPongRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				MoneyMakingGameRequest.parseResponse( location, responseText, false );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "bet.php" ) )
+		ResponseTextParser.PARSERS.register( new String[] { "bigisland.php", "postwarisland.php" }, new ResponseParser()
 		{
-			MoneyMakingGameRequest.parseResponse( location, responseText, false );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				IslandRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "bigisland.php" ) || location.startsWith( "postwarisland.php" ) )
+		ResponseTextParser.PARSERS.register( "bone_altar.php", new ResponseParser()
 		{
-			IslandRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				AltarOfBonesRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "bone_altar.php" ) )
+		ResponseTextParser.PARSERS.register( "bounty.php", new ResponseParser()
 		{
-			AltarOfBonesRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				BountyHunterHunterRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "bounty.php" ) )
+		ResponseTextParser.PARSERS.register( "campground.php", new ResponseParser()
 		{
-			BountyHunterHunterRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				CampgroundRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "campground.php" ) )
+		ResponseTextParser.PARSERS.register( "cafe.php", new ResponseParser()
 		{
-			CampgroundRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				ChezSnooteeRequest.parseResponse( location, responseText );
+				MicroBreweryRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "cafe.php" ) )
+		ResponseTextParser.PARSERS.register( "cave.php", new ResponseParser()
 		{
-			ChezSnooteeRequest.parseResponse( location, responseText );
-			MicroBreweryRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				NemesisRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "cave.php" ) )
+		ResponseTextParser.PARSERS.register( "charsheet.php", new ResponseParser()
 		{
-			NemesisRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				if ( location.contains( "ajax=1" ) )
+				{
+					return false;
+				}
 
-		else if ( location.startsWith( "charsheet.php" ) && !location.contains( "ajax=1" ) )
-		{
-			CharSheetRequest.parseStatus( responseText );
-		}
+				CharSheetRequest.parseStatus( responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "choice.php" ) )
+		ResponseTextParser.PARSERS.register( "choice.php", "whichchoice", "562", new ResponseParser()
 		{
-			if ( location.contains( "whichchoice=562" ) )
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
 				FudgeWandRequest.parseResponse( location, responseText );
+				return true;
 			}
-			else if ( location.contains( "whichchoice=585" ) )
+		} );
+
+		ResponseTextParser.PARSERS.register( "choice.php", "whichchoice", "585", new ResponseParser()
+		{
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
 				ClanLoungeSwimmingPoolRequest.parseResponse( location, responseText );
+				return true;
 			}
-			else if ( location.contains( "whichchoice=922" ) )
+		} );
+
+		ResponseTextParser.PARSERS.register( "choice.php", "whichchoice", "922", new ResponseParser()
+		{
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
 				SummoningChamberRequest.parseResponse( location, responseText );
+				return true;
 			}
-			else if ( location.contains( "whichchoice=1218" ) )
+		} );
+
+		ResponseTextParser.PARSERS.register( "choice.php", "whichchoice", "1218", new ResponseParser()
+		{
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
 				WaxGlobRequest.parseResponse( location, responseText );
+				return true;
 			}
-			else if ( location.contains( "whichchoice=1277" ) )
+		} );
+
+		ResponseTextParser.PARSERS.register( "choice.php", "whichchoice", "1277", new ResponseParser()
+		{
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
 				BurningNewspaperRequest.parseResponse( location, responseText );
+				return true;
 			}
-		}
-
-		else if ( location.startsWith( "clan_hall.php" ) )
-		{
-			ClanHallRequest.parseResponse( location, responseText );
-		}
+		} );
 
-		else if ( location.startsWith( "clan_rumpus.php" ) )
+		ResponseTextParser.PARSERS.register( "clan_hall.php", new ResponseParser()
 		{
-			ClanRumpusRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				ClanHallRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "clan_stash.php" ) )
+		ResponseTextParser.PARSERS.register( "clan_rumpus.php", new ResponseParser()
 		{
-			ClanStashRequest.parseTransfer( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				ClanRumpusRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "clan_dreadsylvania.php" ) )
+		ResponseTextParser.PARSERS.register( "clan_stash.php", new ResponseParser()
 		{
-			DreadsylvaniaRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				ClanStashRequest.parseTransfer( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "clan_viplounge.php" ) )
+		ResponseTextParser.PARSERS.register( "clan_dreadsylvania.php", new ResponseParser()
 		{
-			ClanLoungeRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				DreadsylvaniaRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "closet.php" ) || location.startsWith( "fillcloset.php" ) )
+		ResponseTextParser.PARSERS.register( "clan_viplounge.php", new ResponseParser()
 		{
-			ClosetRequest.parseTransfer( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				ClanLoungeRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "craft.php" ) )
+		ResponseTextParser.PARSERS.register( new String[] { "closet.php", "fillcloset.php" }, new ResponseParser()
 		{
-			CreateItemRequest.parseCrafting( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				ClosetRequest.parseTransfer( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "crimbo09.php" ) )
+		ResponseTextParser.PARSERS.register( "craft.php", new ResponseParser()
 		{
-			Crimbo09Request.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				CreateItemRequest.parseCrafting( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "crimbo10.php" ) )
+		ResponseTextParser.PARSERS.register( "crimbo09.php", new ResponseParser()
 		{
-			Crimbo10Request.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				Crimbo09Request.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "crimbo11.php" ) )
+		ResponseTextParser.PARSERS.register( "crimbo10.php", new ResponseParser()
 		{
-			Crimbo11Request.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				Crimbo10Request.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "curse.php" ) )
+		ResponseTextParser.PARSERS.register( "crimbo11.php", new ResponseParser()
 		{
-			CurseRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				Crimbo11Request.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "da.php" ) )
+		ResponseTextParser.PARSERS.register( "curse.php", new ResponseParser()
 		{
-			ShrineRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				CurseRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "desc_skill.php" ) && location.contains( "self=true" ) )
+		ResponseTextParser.PARSERS.register( "da.php", new ResponseParser()
 		{
-			Matcher m = ResponseTextParser.NEWSKILL2_PATTERN.matcher( location );
-			if ( m.find() )
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
-				int skill = StringUtilities.parseInt( m.group( 1 ) );
-				ConsequenceManager.parseSkillDesc( skill, responseText );
+				ShrineRequest.parseResponse( location, responseText );
+				return true;
 			}
-		}
+		} );
 
-		else if ( location.startsWith( "desc_item.php" ) && !location.contains( "otherplayer=" ) )
+		ResponseTextParser.PARSERS.register( "desc_skill.php", new ResponseParser()
 		{
-			Matcher m = ResponseTextParser.DESCITEM_PATTERN.matcher( location );
-			if ( m.find() )
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
-				String descid = m.group( 1 );
-				ConsequenceManager.parseItemDesc( descid, responseText );
-				int itemId = ItemDatabase.getItemIdFromDescription( descid );
-				if ( itemId == ItemPool.YEARBOOK_CAMERA )
+				if ( !location.contains( "self=true" ) )
+				{
+					return false;
+				}
+
+				Matcher m = ResponseTextParser.NEWSKILL2_PATTERN.matcher( location );
+				if ( m.find() )
 				{
-					ItemDatabase.parseYearbookCamera( responseText );
+					int skill = StringUtilities.parseInt( m.group( 1 ) );
+					ConsequenceManager.parseSkillDesc( skill, responseText );
 				}
+				return true;
 			}
-		}
+		} );
 
-		else if ( location.startsWith( "desc_effect.php" ) )
+		ResponseTextParser.PARSERS.register( "desc_item.php", new ResponseParser()
 		{
-			Matcher m = ResponseTextParser.DESCEFFECT_PATTERN.matcher( location );
-			if ( m.find() )
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
-				ConsequenceManager.parseEffectDesc( m.group( 1 ), responseText );
+				if ( location.contains( "otherplayer=" ) )
+				{
+					return false;
+				}
+
+				Matcher m = ResponseTextParser.DESCITEM_PATTERN.matcher( location );
+				if ( m.find() )
+				{
+					String descid = m.group( 1 );
+					ConsequenceManager.parseItemDesc( descid, responseText );
+					int itemId = ItemDatabase.getItemIdFromDescription( descid );
+					if ( itemId == ItemPool.YEARBOOK_CAMERA )
+					{
+						ItemDatabase.parseYearbookCamera( responseText );
+					}
+				}
+				return true;
 			}
-		}
+		} );
 
-		else if ( location.startsWith( "diary.php" ) )
+		ResponseTextParser.PARSERS.register( "desc_effect.php", new ResponseParser()
 		{
-			UseItemRequest.handleDiary( responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				Matcher m = ResponseTextParser.DESCEFFECT_PATTERN.matcher( location );
+				if ( m.find() )
+				{
+					ConsequenceManager.parseEffectDesc( m.group( 1 ), responseText );
+				}
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "dig.php" ) )
+		ResponseTextParser.PARSERS.register( "diary.php", new ResponseParser()
 		{
-			DigRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				UseItemRequest.handleDiary( responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "dwarfcontraption.php" ) )
+		ResponseTextParser.PARSERS.register( "dig.php", new ResponseParser()
 		{
-			DwarfContraptionRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				DigRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "dwarffactory.php" ) )
+		ResponseTextParser.PARSERS.register( "dwarfcontraption.php", new ResponseParser()
 		{
-			DwarfFactoryRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				DwarfContraptionRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "familiar.php" ) )
+		ResponseTextParser.PARSERS.register( "dwarffactory.php", new ResponseParser()
 		{
-			FamiliarRequest.parseResponse( location, responseText );
-			if ( !location.contains( "ajax=1" ) )
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
-				FamiliarData.registerFamiliarData( responseText );
+				DwarfFactoryRequest.parseResponse( location, responseText );
+				return true;
 			}
-		}
+		} );
 
-		else if ( location.startsWith( "famteam.php" ) )
+		ResponseTextParser.PARSERS.register( "familiar.php", new ResponseParser()
 		{
-			FamTeamRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				FamiliarRequest.parseResponse( location, responseText );
+				if ( !location.contains( "ajax=1" ) )
+				{
+					FamiliarData.registerFamiliarData( responseText );
+				}
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "familiarbinger.php" ) )
+		ResponseTextParser.PARSERS.register( "famteam.php", new ResponseParser()
 		{
-			UseItemRequest.parseBinge( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				FamTeamRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "gamestore.php" ) )
+		ResponseTextParser.PARSERS.register( "familiarbinger.php", new ResponseParser()
 		{
-			GameShoppeRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				UseItemRequest.parseBinge( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "guild.php" ) )
+		ResponseTextParser.PARSERS.register( "gamestore.php", new ResponseParser()
 		{
-			GuildRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				GameShoppeRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "hermit.php" ) )
+		ResponseTextParser.PARSERS.register( "guild.php", new ResponseParser()
 		{
-			HermitRequest.parseHermitTrade( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				GuildRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "heydeze.php" ) )
+		ResponseTextParser.PARSERS.register( "hermit.php", new ResponseParser()
 		{
-			HeyDezeRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				HermitRequest.parseHermitTrade( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "friars.php" ) )
+		ResponseTextParser.PARSERS.register( "heydeze.php", new ResponseParser()
 		{
-			FriarRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				HeyDezeRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "gamestore" ) )
+		ResponseTextParser.PARSERS.register( "friars.php", new ResponseParser()
 		{
-			GameShoppeRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				FriarRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "gnomes.php" ) )
+		ResponseTextParser.PARSERS.register( "gnomes.php", new ResponseParser()
 		{
-			GnomeTinkerRequest.parseCreation( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				GnomeTinkerRequest.parseCreation( location, responseText );
+				return true;
+			}
+		} );
 
 		// Keep your current equipment and familiars updated, if you
 		// visit the appropriate pages.
-
-		else if ( location.startsWith( "inventory.php" ) )
+		ResponseTextParser.PARSERS.register( "inventory.php", new ResponseParser()
 		{
-			// If KoL is showing us our current equipment, parse it.
-			if ( location.contains( "which=2" ) || location.contains( "curequip=1" ) )
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
-				EquipmentRequest.parseEquipment( location, responseText );
+				// If KoL is showing us our current equipment, parse it.
+				if ( location.contains( "which=2" ) || location.contains( "curequip=1" ) )
+				{
+					EquipmentRequest.parseEquipment( location, responseText );
+
+					// Slimeling binge requests come here, too
+					if ( location.contains( "action=slime" ) )
+					{
+						UseItemRequest.parseBinge( location, responseText );
+					}
+					// Certain requests, like inserting cards into
+					// an El Vibrato helmet, have a usage message,
+					// not an equipment page. Check for that, too.
+					else
+					{
+						UseItemRequest.parseConsumption( responseText, false );
+					}
+				}
+
+				// If there is a consumption message, parse it
+				else if ( location.contains( "action=message" ) )
+				{
+					UseItemRequest.parseConsumption( responseText, false );
+					AWOLQuartermasterRequest.parseResponse( location, responseText );
+					BURTRequest.parseResponse( location, responseText );
+				}
+
+				// If there is a bricko message, parse it
+				else if ( location.contains( "action=breakbricko" ) )
+				{
+					UseItemRequest.parseBricko( responseText );
+				}
 
-				// Slimeling binge requests come here, too
-				if ( location.contains( "action=slime" ) )
+				// If there is a binge message, parse it
+				else if ( location.contains( "action=ghost" ) || location.contains( "action=hobo" ) || 
+					  location.contains( "action=slime" ) || location.contains( "action=candy" ) )
 				{
 					UseItemRequest.parseBinge( location, responseText );
 				}
-				// Certain requests, like inserting cards into
-				// an El Vibrato helmet, have a usage message,
-				// not an equipment page. Check for that, too.
-				else
+
+				// Robortender consumption
+				else if ( location.contains( "action=robooze" ) )
 				{
-					UseItemRequest.parseConsumption( responseText, false );
+					UseItemRequest.parseRobortenderBinge( location, responseText );
 				}
-			}
 
-			// If there is a consumption message, parse it
-			else if ( location.contains( "action=message" ) )
-			{
-				UseItemRequest.parseConsumption( responseText, false );
-				AWOLQuartermasterRequest.parseResponse( location, responseText );
-				BURTRequest.parseResponse( location, responseText );
-			}
+				// If there is an absorb message, parse it
+				else if ( location.contains( "absorb=" ) )
+				{
+					UseItemRequest.parseAbsorb( location, responseText );
+				}
 
-			// If there is a bricko message, parse it
-			else if ( location.contains( "action=breakbricko" ) )
-			{
-				UseItemRequest.parseBricko( responseText );
+					// Closet transfers can come via inventory.php
+				else if ( location.contains( "action=closetpush" ) || location.contains( "action=closetpull" ) )
+				{
+					ClosetRequest.parseTransfer( location, responseText );
+				}
+
+				// Emptying storage can come via inventory.php
+				else if ( location.contains( "action=pullall" ) )
+				{
+					StorageRequest.parseTransfer( location, responseText );
+				}
+				return true;
 			}
+		} );
 
-			// If there is a binge message, parse it
-			else if ( location.contains( "action=ghost" ) || location.contains( "action=hobo" ) || 
-				  location.contains( "action=slime" ) || location.contains( "action=candy" ) )
+		ResponseTextParser.PARSERS.register( "inv_equip.php", new ResponseParser()
+		{
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
-				UseItemRequest.parseBinge( location, responseText );
+				if ( !location.contains( "ajax=1" ) )
+				{
+					return false;
+				}
+
+				// If we are changing equipment via a chat command,
+				// try to deduce what changed.
+				EquipmentRequest.parseEquipmentChange( location, responseText );
+				return true;
 			}
+		} );
 
-			// Robortender consumption
-			else if ( location.contains( "action=robooze" ) )
+		ResponseTextParser.PARSERS.register( new String[] { "inv_eat.php", "inv_booze.php", "inv_spleen.php", "inv_use.php", "inv_familiar.php" }, new ResponseParser()
+		{
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
-				UseItemRequest.parseRobortenderBinge( location, responseText );
+				if ( !location.contains( "whichitem" ) )
+				{
+					return false;
+				}
+
+				UseItemRequest.parseConsumption( responseText, false );
+				return true;
 			}
+		} );
 
-			// If there is an absorb message, parse it
-			else if ( location.contains( "absorb=" ) )
+		ResponseTextParser.PARSERS.register( "knoll_mushrooms.php", new ResponseParser()
+		{
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
-				UseItemRequest.parseAbsorb( location, responseText );
+				MushroomRequest.parseResponse( location, responseText );
+				return true;
 			}
+		} );
 
-				// Closet transfers can come via inventory.php
-			else if ( location.contains( "action=closetpush" ) || location.contains( "action=closetpull" ) )
+		ResponseTextParser.PARSERS.register( "leaflet.php", new ResponseParser()
+		{
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
-				ClosetRequest.parseTransfer( location, responseText );
+				LeafletRequest.parseResponse( location, responseText );
+				return true;
 			}
+		} );
 
-			// Emptying storage can come via inventory.php
-			else if ( location.contains( "action=pullall" ) )
+		ResponseTextParser.PARSERS.register( "mallstore.php", new ResponseParser()
+		{
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
-				StorageRequest.parseTransfer( location, responseText );
+				MallPurchaseRequest.parseResponse( location, responseText );
+				return true;
 			}
-		}
+		} );
 
-		else if ( location.startsWith( "inv_equip.php" ) && location.contains( "ajax=1" ) )
+		ResponseTextParser.PARSERS.register( "managecollection.php", new ResponseParser()
 		{
-			// If we are changing equipment via a chat command,
-			// try to deduce what changed.
-			EquipmentRequest.parseEquipmentChange( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				DisplayCaseRequest.parseDisplayTransfer( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( ( location.startsWith( "inv_eat.php" ) ||
-			    location.startsWith( "inv_booze.php" ) ||
-		            location.startsWith( "inv_spleen.php" ) || 
-		            location.startsWith( "inv_use.php" ) ||
-			    location.startsWith( "inv_familiar.php" ) )
-		          && location.contains( "whichitem" ) )
+		ResponseTextParser.PARSERS.register( "managecollectionshelves.php", new ResponseParser()
 		{
-			UseItemRequest.parseConsumption( responseText, false );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				DisplayCaseRequest.parseDisplayArrangement( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "knoll_mushrooms.php" ) )
+		ResponseTextParser.PARSERS.register( "managestore.php", new ResponseParser()
 		{
-			MushroomRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				AutoMallRequest.parseTransfer( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "leaflet.php" ) )
+		ResponseTextParser.PARSERS.register( "mining.php", new ResponseParser()
 		{
-			LeafletRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				MineDecorator.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "mallstore.php" ) )
+		ResponseTextParser.PARSERS.register( "monkeycastle.php", new ResponseParser()
 		{
-			MallPurchaseRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				if ( location.contains( "who=2" ) || location.contains( "action=buyitem" ) )
+				{
+					BigBrotherRequest.parseResponse( location, responseText );
+				}
+				else if ( location.contains( "who=4" ) )
+				{
+					MomRequest.parseResponse( location, responseText );
+				}
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "managecollection.php" ) )
+		ResponseTextParser.PARSERS.register( "mrstore.php", new ResponseParser()
 		{
-			DisplayCaseRequest.parseDisplayTransfer( location, responseText );
-		}
-		else if ( location.startsWith( "managecollectionshelves.php" ) )
-		{
-			DisplayCaseRequest.parseDisplayArrangement( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				MrStoreRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "managestore.php" ) )
+		ResponseTextParser.PARSERS.register( new String[] { "multiuse.php", "skills.php" }, new ResponseParser()
 		{
-			AutoMallRequest.parseTransfer( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				if ( !location.contains( "useitem" ) )
+				{
+					return false;
+				}
 
-		else if ( location.startsWith( "mining.php" ) )
-		{
-			MineDecorator.parseResponse( location, responseText );
-		}
+				UseItemRequest.parseConsumption( responseText, false );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "monkeycastle.php" ) )
+		ResponseTextParser.PARSERS.register( "pandamonium.php", new ResponseParser()
 		{
-			if ( location.contains( "who=2" ) || location.contains( "action=buyitem" ) )
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
-				BigBrotherRequest.parseResponse( location, responseText );
+				PandamoniumRequest.parseResponse( location, responseText );
+				return true;
 			}
-			else if ( location.contains( "who=4" ) )
+		} );
+
+		ResponseTextParser.PARSERS.register( "peevpee.php", new ResponseParser()
+		{
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
-				MomRequest.parseResponse( location, responseText );
+				PeeVPeeRequest.parseResponse( location, responseText );
+				return true;
 			}
-		}
+		} );
 
-		else if ( location.startsWith( "mrstore.php" ) )
+		ResponseTextParser.PARSERS.register( "place.php", new ResponseParser()
 		{
-			MrStoreRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				PlaceRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( ( location.startsWith( "multiuse.php" ) || location.startsWith( "skills.php" ) ) && location.contains( "useitem" ) )
+		ResponseTextParser.PARSERS.register( "questlog.php", new ResponseParser()
 		{
-			UseItemRequest.parseConsumption( responseText, false );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				MonsterManuelRequest.parseResponse( location, responseText );
+				QuestLogRequest.registerQuests( true, location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "pandamonium.php" ) )
+		ResponseTextParser.PARSERS.register( "raffle.php", new ResponseParser()
 		{
-			PandamoniumRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				RaffleRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "peevpee.php" ) )
+		ResponseTextParser.PARSERS.register( new String[] { "runskillz.php", "skillz.php" }, new ResponseParser()
 		{
-			PeeVPeeRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				UseSkillRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "place.php" ) )
+		ResponseTextParser.PARSERS.register( "sea_merkin.php", new ResponseParser()
 		{
-			PlaceRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				SeaMerkinRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "questlog.php" ) )
+		ResponseTextParser.PARSERS.register( "sea_skatepark.php", new ResponseParser()
 		{
-			MonsterManuelRequest.parseResponse( location, responseText );
-			QuestLogRequest.registerQuests( true, location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				SkateParkRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "raffle.php" ) )
+		ResponseTextParser.PARSERS.register( "sellstuff.php", new ResponseParser()
 		{
-			RaffleRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				AutoSellRequest.parseCompactAutoSell( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "runskillz.php" ) || location.startsWith( "skillz.php" ) )
+		ResponseTextParser.PARSERS.register( "sellstuff_ugly.php", new ResponseParser()
 		{
-			UseSkillRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				AutoSellRequest.parseDetailedAutoSell( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "sea_merkin.php" ) )
+		ResponseTextParser.PARSERS.register( "sendmessage.php", new ResponseParser()
 		{
-			SeaMerkinRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				SendMailRequest.parseTransfer( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "sea_skatepark.php" ) )
+		ResponseTextParser.PARSERS.register( "shop.php", new ResponseParser()
 		{
-			SkateParkRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				NPCPurchaseRequest.parseShopResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "sellstuff.php" ) )
+		ResponseTextParser.PARSERS.register( "showclan.php", new ResponseParser()
 		{
-			AutoSellRequest.parseCompactAutoSell( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				ShowClanRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "sellstuff_ugly.php" ) )
+		ResponseTextParser.PARSERS.register( "skills.php", new ResponseParser()
 		{
-			AutoSellRequest.parseDetailedAutoSell( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				if ( location.contains( "action=useditem" ) )
+				{
+					UseItemRequest.parseConsumption( responseText, false );
+				}
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "sendmessage.php" ) )
+		ResponseTextParser.PARSERS.register( "spaaace.php", new ResponseParser()
 		{
-			SendMailRequest.parseTransfer( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				SpaaaceRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "shop.php" ) )
+		ResponseTextParser.PARSERS.register( "storage.php", new ResponseParser()
 		{
-			NPCPurchaseRequest.parseShopResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				StorageRequest.parseTransfer( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "showclan.php" ) )
+		ResponseTextParser.PARSERS.register( "suburbandis.php", new ResponseParser()
 		{
-			ShowClanRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				SuburbanDisRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "skills.php" ) )
+		ResponseTextParser.PARSERS.register( "sushi.php", new ResponseParser()
 		{
-			if ( location.contains( "action=useditem" ) )
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
-				UseItemRequest.parseConsumption( responseText, false );
+				SushiRequest.parseConsumption( location, responseText, true );
+				return true;
 			}
-		}
+		} );
 
-		else if ( location.startsWith( "spaaace.php" ) )
+		ResponseTextParser.PARSERS.register( "tavern.php", new ResponseParser()
 		{
-			SpaaaceRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				TavernRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "storage.php" ) )
+		ResponseTextParser.PARSERS.register( "tiles.php", new ResponseParser()
 		{
-			StorageRequest.parseTransfer( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				DvorakManager.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "suburbandis.php" ) )
+		ResponseTextParser.PARSERS.register( "topmenu.php", new ResponseParser()
 		{
-			SuburbanDisRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				if ( KoLCharacter.getLimitmode() == Limitmode.BATMAN )
+				{
+					BatManager.parseTopMenu( responseText );
+				}
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "sushi.php" ) )
+		ResponseTextParser.PARSERS.register( "town_altar.php", new ResponseParser()
 		{
-			SushiRequest.parseConsumption( location, responseText, true );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				AltarOfLiteracyRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "tavern.php" ) )
+		ResponseTextParser.PARSERS.register( "town_right.php", new ResponseParser()
 		{
-			TavernRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				GourdRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		if ( location.startsWith( "tiles.php" ) )
+		ResponseTextParser.PARSERS.register( "town_sendgift.php", new ResponseParser()
 		{
-			DvorakManager.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				SendGiftRequest.parseTransfer( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "topmenu.php" ) )
+		ResponseTextParser.PARSERS.register( "traveler.php", new ResponseParser()
 		{
-			if ( KoLCharacter.getLimitmode() == Limitmode.BATMAN )
+			@Override
+			public boolean parse( final String location, final String responseText )
 			{
-				BatManager.parseTopMenu( responseText );
+				TravelingTraderRequest.parseResponse( location, responseText );
+				return true;
 			}
-		}
+		} );
 
-		else if ( location.startsWith( "town_altar.php" ) )
+		ResponseTextParser.PARSERS.register( "trophy.php", new ResponseParser()
 		{
-			AltarOfLiteracyRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				TrophyHutRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "town_right.php" ) )
+		ResponseTextParser.PARSERS.register( "typeii.php", new ResponseParser()
 		{
-			GourdRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				TrendyRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "town_sendgift.php" ) )
+		ResponseTextParser.PARSERS.register( "volcanoisland.php", new ResponseParser()
 		{
-			SendGiftRequest.parseTransfer( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				PhineasRequest.parseResponse( location, responseText );
+				VolcanoIslandRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "traveler.php" ) )
+		ResponseTextParser.PARSERS.register( "volcanomaze.php", new ResponseParser()
 		{
-			TravelingTraderRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				VolcanoMazeRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "trophy.php" ) )
+		ResponseTextParser.PARSERS.register( "wand.php", new ResponseParser()
 		{
-			TrophyHutRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				ZapRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "typeii.php" ) )
+		ResponseTextParser.PARSERS.register( "witchess.php", new ResponseParser()
 		{
-			TrendyRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				WitchessRequest.parseResponse( location, responseText );
+				return true;
+			}
+		} );
 
-		else if ( location.startsWith( "volcanoisland.php" ) )
+		ResponseTextParser.PARSERS.register( "crypt.php", new ResponseParser()
 		{
-			PhineasRequest.parseResponse( location, responseText );
-			VolcanoIslandRequest.parseResponse( location, responseText );
-		}
+			@Override
+			public boolean parse( final String location, final String responseText )
+			{
+				// Check if crypt areas have unexpectedly vanished and correct if so
+				if ( !responseText.contains( "The Defiled Alcove" ) && Preferences.getInteger( "cyrptAlcoveEvilness" ) > 0 ||
+				     !responseText.contains( "The Defiled Cranny" ) && Preferences.getInteger( "cyrptCrannyEvilness" ) > 0 ||
+				     !responseText.contains( "The Defiled Niche" ) && Preferences.getInteger( "cyrptNicheEvilness" ) > 0 ||
+				     !responseText.contains( "The Defiled Nook" ) && Preferences.getInteger( "cyrptNookEvilness" ) > 0 )
+				{
+					if ( InventoryManager.hasItem( ItemPool.EVILOMETER ) )
+					{
+						RequestThread.postRequest( UseItemRequest.getInstance( ItemPool.EVILOMETER ) );
+					}
+					else
+					{
+						// Must have completed quest and already used and lost Evilometer
+						Preferences.setInteger( "cyrptAlcoveEvilness", 0 );
+						Preferences.setInteger( "cyrptCrannyEvilness", 0 );
+						Preferences.setInteger( "cyrptNicheEvilness", 0 );
+						Preferences.setInteger( "cyrptNookEvilness", 0 );
+						Preferences.setInteger( "cyrptTotalEvilness", 0 );
+					}
+				}
+				return true;
+			}
+		} );
+	}
 
-		else if ( location.startsWith( "volcanomaze.php" ) )
-		{
-			VolcanoMazeRequest.parseResponse( location, responseText );
-		}
+	public static final void externalUpdate( final GenericRequest request )
+	{
+		ResponseTextParser.externalUpdate( request.getURLString(), request.responseText );
+	}
 
-		else if ( location.startsWith( "wand.php" ) )
+	public static final void externalUpdate( final String location, final String responseText )
+	{
+		if ( responseText == null || responseText.length() == 0 )
 		{
-			ZapRequest.parseResponse( location, responseText );
+			return;
 		}
 
-		else if ( location.startsWith( "witchess.php" ) )
-		{
-			WitchessRequest.parseResponse( location, responseText );
-		}
+		List<ResponseParser> parsers = ResponseTextParser.PARSERS.getHandlers( location );
 
-		else if ( location.startsWith( "crypt.php" ) )
+		for ( int i = 0; i < parsers.size(); ++i )
 		{
-			// Check if crypt areas have unexpectedly vanished and correct if so
-			if ( !responseText.contains( "The Defiled Alcove" ) && Preferences.getInteger( "cyrptAlcoveEvilness" ) > 0 ||
-			     !responseText.contains( "The Defiled Cranny" ) && Preferences.getInteger( "cyrptCrannyEvilness" ) > 0 ||
-			     !responseText.contains( "The Defiled Niche" ) && Preferences.getInteger( "cyrptNicheEvilness" ) > 0 ||
-			     !responseText.contains( "The Defiled Nook" ) && Preferences.getInteger( "cyrptNookEvilness" ) > 0 )
+			if ( parsers.get( i ).parse( location, responseText ) )
 			{
-				if ( InventoryManager.hasItem( ItemPool.EVILOMETER ) )
-				{
-					RequestThread.postRequest( UseItemRequest.getInstance( ItemPool.EVILOMETER ) );
-				}
-				else
-				{
-					// Must have completed quest and already used and lost Evilometer
-					Preferences.setInteger( "cyrptAlcoveEvilness", 0 );
-					Preferences.setInteger( "cyrptCrannyEvilness", 0 );
-					Preferences.setInteger( "cyrptNicheEvilness", 0 );
-					Preferences.setInteger( "cyrptNookEvilness", 0 );
-					Preferences.setInteger( "cyrptTotalEvilness", 0 );
-				}
+				break;
 			}
 		}
 
@@ -1201,4 +1729,14 @@ public class ResponseTextParser
 			}
 		}
 	}
+
+	/**
+	 * Updates session state from one kind of page. Returns false if the
+	 * page was not one this parser handles, so that others may see it.
+	 */
+
+	private static abstract class ResponseParser
+	{
+		public abstract boolean parse( final String location, final String responseText );
+	}
 }
@@ -2584,7 +2584,7 @@ public class ResultProcessor
 
 		case ItemPool.YEARBOOK_CAMERA:
 		{
-			String desc = DebugDatabase.rawItemDescriptionText( ItemPool.YEARBOOK_CAMERA );
+			String desc = DebugDatabase.rawItemDescriptionText( ItemDatabase.getDescriptionId( ItemPool.YEARBOOK_CAMERA ), true );
 			int upgrades = ItemDatabase.parseYearbookCamera( desc );
 			Preferences.setInteger( "yearbookCameraAscensions", upgrades );
 			break;
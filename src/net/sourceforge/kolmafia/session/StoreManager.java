@@ -34,7 +34,9 @@
 package net.sourceforge.kolmafia.session;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -459,7 +461,7 @@ public abstract class StoreManager
 		}
 	}
 
-	public static final void flushCache( final int itemId, final int shopId )
+	public static final synchronized void flushCache( final int itemId, final int shopId )
 	{
 		Iterator<ArrayList<PurchaseRequest>> i1 = StoreManager.mallSearches.values().iterator();
 		while ( i1.hasNext() )
@@ -497,7 +499,7 @@ public abstract class StoreManager
 		}
 	}
 
-	public static final void flushCache( final int itemId )
+	public static final synchronized void flushCache( final int itemId )
 	{
 		Iterator<ArrayList<PurchaseRequest>> i = StoreManager.mallSearches.values().iterator();
 		while ( i.hasNext() )
@@ -520,7 +522,7 @@ public abstract class StoreManager
 		}
 	}
 
-	public static final void flushCache()
+	public static final synchronized void flushCache()
 	{
 		long t0, t1;
 		t1 = System.currentTimeMillis();
@@ -626,7 +628,11 @@ public abstract class StoreManager
 		Integer id = IntegerPool.get( itemId );
 		String name = ItemDatabase.getItemDataName( id );
 
-		ArrayList<PurchaseRequest> results = StoreManager.getSavedSearch( id, needed );
+		ArrayList<PurchaseRequest> results;
+		synchronized ( StoreManager.class )
+		{
+			results = StoreManager.getSavedSearch( id, needed );
+		}
 		if ( results != null )
 		{
 			KoLmafia.updateDisplay( "Using cached search results for " + name + "..." );
@@ -647,7 +653,10 @@ public abstract class StoreManager
 
 		if ( KoLmafia.permitsContinue() )
 		{
-			StoreManager.mallSearches.put( id, results );
+			synchronized ( StoreManager.class )
+			{
+				StoreManager.mallSearches.put( id, results );
+			}
 		}
 
 		return results;
@@ -764,7 +773,7 @@ public abstract class StoreManager
 		}
 	}
 
-	public static final void maybeUpdateMallPrice( final AdventureResult item, final ArrayList<PurchaseRequest> results )
+	public static final synchronized void maybeUpdateMallPrice( final AdventureResult item, final ArrayList<PurchaseRequest> results )
 	{
 		if ( StoreManager.mallPrices.get( item.getItemId() ) == 0 )
 		{
@@ -772,7 +781,7 @@ public abstract class StoreManager
 		}
 	}
 
-	public static final void updateMallPrice( final AdventureResult item, final ArrayList<PurchaseRequest> results )
+	public static final synchronized void updateMallPrice( final AdventureResult item, final ArrayList<PurchaseRequest> results )
 	{
 		if ( item.getItemId() < 1 )
 		{
@@ -800,23 +809,81 @@ public abstract class StoreManager
 		}
 	}
 
-	public static final synchronized int getMallPrice( final AdventureResult item )
+	public static final int getMallPrice( final AdventureResult item )
 	{
-		StoreManager.flushCache();
 		int itemId = item.getItemId();
-		if ( itemId < 1 ||
-		     ( !ItemDatabase.isTradeable( itemId ) && !NPCStoreDatabase.contains( itemId, true ) ) )
+		if ( !StoreManager.canHaveMallPrice( itemId ) )
 		{
 			return 0;
 		}
-		if ( StoreManager.mallPrices.get( itemId ) == 0 )
+		if ( StoreManager.getKnownMallPrice( itemId ) == 0 )
 		{
+			// Search without holding the lock, so that prices can be
+			// looked up for several items at once.
 			ArrayList<PurchaseRequest> results = StoreManager.searchMall( item.getInstance( 5 ) );
 			StoreManager.updateMallPrice( item, results );
 		}
+		return StoreManager.getKnownMallPrice( itemId );
+	}
+
+	private static boolean canHaveMallPrice( final int itemId )
+	{
+		return itemId >= 1 &&
+			( ItemDatabase.isTradeable( itemId ) || NPCStoreDatabase.contains( itemId, true ) );
+	}
+
+	private static synchronized int getKnownMallPrice( final int itemId )
+	{
+		StoreManager.flushCache();
 		return StoreManager.mallPrices.get( itemId );
 	}
 
+	/**
+	 * Looks up the mall price of each of the given items which does not
+	 * have one yet, on the batch request pool, so that later calls to
+	 * <code>getMallPrice</code> find them already known. The searches are
+	 * kept like any other, for the usual fifteen seconds.
+	 */
+
+	public static final void prefetchMallPrices( final Collection<AdventureResult> items )
+	{
+		ArrayList<Runnable> lookups = new ArrayList<Runnable>();
+		HashSet<Integer> itemIds = new HashSet<Integer>();
+
+		for ( AdventureResult item : items )
+		{
+			int itemId = item.getItemId();
+			if ( StoreManager.canHaveMallPrice( itemId ) && StoreManager.getKnownMallPrice( itemId ) == 0 &&
+			     itemIds.add( IntegerPool.get( itemId ) ) )
+			{
+				lookups.add( new MallPriceLookup( item ) );
+			}
+		}
+
+		if ( lookups.size() > 1 )
+		{
+			KoLmafia.updateDisplay( "Looking up " + lookups.size() + " mall prices..." );
+		}
+
+		RequestThread.runBatch( lookups );
+	}
+
+	private static class MallPriceLookup
+		implements Runnable
+	{
+		private final AdventureResult item;
+
+		public MallPriceLookup( final AdventureResult item )
+		{
+			this.item = item;
+		}
+
+		public void run()
+		{
+			StoreManager.getMallPrice( this.item );
+		}
+	}
+
 	public static int getMallPrice( AdventureResult item, float maxAge )
 	{
 		int id = item.getItemId();
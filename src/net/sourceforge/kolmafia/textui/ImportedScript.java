@@ -0,0 +1,295 @@
+/**
+ * Copyright (c) 2005-2018, KoLmafia development team
+ * http://kolmafia.sourceforge.net/
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  [1] Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *  [2] Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in
+ *      the documentation and/or other materials provided with the
+ *      distribution.
+ *  [3] Neither the name "KoLmafia" nor the names of its contributors may
+ *      be used to endorse or promote products derived from this software
+ *      without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION ) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE ) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.sourceforge.kolmafia.textui;
+
+import java.io.File;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import net.sourceforge.kolmafia.textui.parsetree.BasicScope;
+import net.sourceforge.kolmafia.textui.parsetree.Function;
+import net.sourceforge.kolmafia.textui.parsetree.ParseTreeNode;
+import net.sourceforge.kolmafia.textui.parsetree.Scope;
+import net.sourceforge.kolmafia.textui.parsetree.StaticScope;
+import net.sourceforge.kolmafia.textui.parsetree.Type;
+import net.sourceforge.kolmafia.textui.parsetree.UserDefinedFunction;
+import net.sourceforge.kolmafia.textui.parsetree.Variable;
+
+/**
+ * An imported script parsed on its own, so that every script which
+ * imports it can use the same parse tree for as long as neither it nor
+ * anything it imports changes. Holds the types, variables, functions and
+ * top-level commands the script itself declares, along with the imported
+ * scripts those refer to, which are added to an importing scope before
+ * them.
+ */
+
+public class ImportedScript
+{
+	private static final Map<File, ImportedScript> SCRIPTS = new TreeMap<File, ImportedScript>();
+
+	private final File file;
+	private final long modified;
+
+	// Every file read while parsing, with its modification time then
+	private final TreeMap<File, Long> files;
+
+	// Null if the script cannot be shared, because it failed to parse
+	// on its own or its meaning depends on the scope importing it
+	private final List<ImportedScript> imports;
+
+	private final List<Type> types = new ArrayList<Type>();
+	private final List<Variable> variables = new ArrayList<Variable>();
+	private final List<Function> functions = new ArrayList<Function>();
+	private final List<ParseTreeNode> commands = new ArrayList<ParseTreeNode>();
+
+	private ImportedScript( final File file, final long modified, final TreeMap<File, Long> files, final List<ImportedScript> imports )
+	{
+		this.file = file;
+		this.modified = modified;
+		this.files = files;
+		this.imports = imports;
+	}
+
+	public File getFile()
+	{
+		return this.file;
+	}
+
+	public long getModified()
+	{
+		return this.modified;
+	}
+
+	public List<ImportedScript> getImports()
+	{
+		return this.imports;
+	}
+
+	/**
+	 * Returns the shared parse of the given script, parsing it if it has
+	 * not been parsed since it or anything it imports last changed, or
+	 * null if it cannot be shared.
+	 */
+
+	public static ImportedScript find( final File file )
+	{
+		ImportedScript script;
+
+		synchronized ( ImportedScript.SCRIPTS )
+		{
+			script = ImportedScript.SCRIPTS.get( file );
+		}
+
+		if ( script == null || !script.isCurrent() )
+		{
+			script = Parser.parseImportedScript( file );
+
+			synchronized ( ImportedScript.SCRIPTS )
+			{
+				ImportedScript.SCRIPTS.put( file, script );
+			}
+		}
+
+		return script.imports != null ? script : null;
+	}
+
+	private boolean isCurrent()
+	{
+		for ( Map.Entry<File, Long> entry : this.files.entrySet() )
+		{
+			if ( entry.getKey().lastModified() != entry.getValue().longValue() )
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	static ImportedScript unshared( final File file, final long modified, final TreeMap<File, Long> files )
+	{
+		return new ImportedScript( file, modified, files, null );
+	}
+
+	/**
+	 * Makes a shared script of what the given parser declared in the
+	 * scope, apart from what came from the shared scripts it imported.
+	 */
+
+	static ImportedScript shared( final File file, final long modified, final TreeMap<File, Long> files,
+		final List<ImportedScript> imports, final Collection<ImportedScript> inherited, final Scope scope )
+	{
+		ImportedScript script = new ImportedScript( file, modified, files, imports );
+
+		Set<Object> seen = Collections.newSetFromMap( new IdentityHashMap<Object, Boolean>() );
+		for ( ImportedScript current : inherited )
+		{
+			seen.addAll( current.types );
+			seen.addAll( current.variables );
+			seen.addAll( current.functions );
+			seen.addAll( current.commands );
+		}
+
+		for ( Type type : scope.getTypes() )
+		{
+			if ( !seen.contains( type ) )
+			{
+				script.types.add( type );
+			}
+		}
+
+		for ( Variable variable : scope.getVariables() )
+		{
+			if ( !seen.contains( variable ) )
+			{
+				script.variables.add( variable );
+			}
+		}
+
+		for ( Function function : scope.getFunctions() )
+		{
+			if ( seen.contains( function ) )
+			{
+				continue;
+			}
+
+			// A forward reference could be completed by the
+			// importing script
+			if ( function instanceof UserDefinedFunction && ( (UserDefinedFunction) function ).getScope() == null )
+			{
+				return null;
+			}
+
+			script.functions.add( function );
+		}
+
+		for ( ParseTreeNode command : scope.getCommandList() )
+		{
+			if ( !seen.contains( command ) )
+			{
+				script.commands.add( command );
+			}
+		}
+
+		// Locals of user-defined functions are kept in each
+		// interpreter's frames. Give every other variable, and every
+		// static scope, its own state in each interpreter as well.
+		// Other nodes keep nothing while they run, so interpreters on
+		// different threads can run the same tree at once.
+
+		for ( BasicScope nested : scope.getScopes() )
+		{
+			for ( Variable variable : nested.getVariables() )
+			{
+				if ( variable.getSlot() < 0 )
+				{
+					variable.markShared();
+				}
+			}
+
+			if ( nested instanceof StaticScope )
+			{
+				( (StaticScope) nested ).markShared();
+			}
+		}
+
+		return script;
+	}
+
+	/**
+	 * Checks that the names this script declares are not yet declared in
+	 * the scope, where they would clash or change which definitions the
+	 * script's own code refers to.
+	 */
+
+	public boolean fitsInto( final Scope scope )
+	{
+		for ( Type type : this.types )
+		{
+			if ( scope.findType( type.getName() ) != null )
+			{
+				return false;
+			}
+		}
+
+		for ( Variable variable : this.variables )
+		{
+			if ( scope.findVariable( variable.getName() ) != null )
+			{
+				return false;
+			}
+		}
+
+		for ( Function function : this.functions )
+		{
+			if ( scope.getFunctions().findFunctions( function.getName() ).length != 0 )
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	public void addTo( final Scope scope, final Parser parser )
+	{
+		for ( Type type : this.types )
+		{
+			scope.addType( type );
+		}
+
+		for ( Variable variable : this.variables )
+		{
+			scope.addVariable( variable );
+		}
+
+		for ( Function function : this.functions )
+		{
+			scope.addFunction( function );
+		}
+
+		for ( ParseTreeNode command : this.commands )
+		{
+			scope.addCommand( command, parser );
+		}
+	}
+}
@@ -38,9 +38,12 @@ import java.io.InputStream;
 import java.io.PrintStream;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.Stack;
 import java.util.TreeMap;
 
@@ -59,8 +62,10 @@ import net.sourceforge.kolmafia.request.SendMailRequest;
 import net.sourceforge.kolmafia.textui.parsetree.Function;
 import net.sourceforge.kolmafia.textui.parsetree.FunctionList;
 import net.sourceforge.kolmafia.textui.parsetree.Scope;
+import net.sourceforge.kolmafia.textui.parsetree.StaticScope;
 import net.sourceforge.kolmafia.textui.parsetree.Type;
 import net.sourceforge.kolmafia.textui.parsetree.Value;
+import net.sourceforge.kolmafia.textui.parsetree.Variable;
 import net.sourceforge.kolmafia.textui.parsetree.VariableList;
 import net.sourceforge.kolmafia.textui.parsetree.VariableReference;
 
@@ -89,6 +94,14 @@ public class Interpreter
 	// key, then aggregate, then iterator for every active foreach loop
 	public ArrayList iterators = new ArrayList();
 
+	// The locals of the innermost user-defined function being executed
+	private Value[] frame = null;
+
+	// The variables and static scopes of imported scripts whose parse
+	// trees are shared with other interpreters
+	private final IdentityHashMap<Variable, Value> sharedValues = new IdentityHashMap<Variable, Value>();
+	private final Set<StaticScope> executedScopes = Collections.newSetFromMap( new IdentityHashMap<StaticScope, Boolean>() );
+
 	// For use in runtime error messages
 	private String fileName;
 	private int lineNumber;
@@ -189,6 +202,42 @@ public class Interpreter
 		return this.parser;
 	}
 
+	public Value[] getFrame()
+	{
+		return this.frame;
+	}
+
+	/**
+	 * Makes the given frame current and returns the one it replaces.
+	 */
+
+	public Value[] setFrame( final Value[] frame )
+	{
+		Value[] previous = this.frame;
+		this.frame = frame;
+		return previous;
+	}
+
+	public Value getSharedValue( final Variable variable )
+	{
+		return this.sharedValues.get( variable );
+	}
+
+	public void setSharedValue( final Variable variable, final Value value )
+	{
+		this.sharedValues.put( variable, value );
+	}
+
+	/**
+	 * Records that this interpreter has executed the given shared static
+	 * scope, returning false if it already had.
+	 */
+
+	public boolean markExecuted( final StaticScope scope )
+	{
+		return this.executedScopes.add( scope );
+	}
+
 	public String getFileName()
 	{
 		return this.parser.getFileName();
@@ -0,0 +1,697 @@
+/**
+ * Copyright (c) 2005-2018, KoLmafia development team
+ * http://kolmafia.sourceforge.net/
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  [1] Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *  [2] Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in
+ *      the documentation and/or other materials provided with the
+ *      distribution.
+ *  [3] Neither the name "KoLmafia" nor the names of its contributors may
+ *      be used to endorse or promote products derived from this software
+ *      without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION ) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE ) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package net.sourceforge.kolmafia.textui;
+
+import java.util.HashMap;
+
+import net.sourceforge.kolmafia.textui.parsetree.LibraryBinding;
+import net.sourceforge.kolmafia.textui.parsetree.Value;
+
+/**
+ * Direct bindings for the library functions which scripts call most often.
+ * A <code>LibraryFunction</code> uses the binding registered for its name
+ * and number of arguments, if any, and otherwise calls its
+ * <code>RuntimeLibrary</code> method through reflection. Since every
+ * overload of a library function with the same number of arguments calls
+ * the same method, one binding serves them all.
+ */
+
+public class LibraryBindings
+{
+	private static final HashMap<String, LibraryBinding> bindings = new HashMap<String, LibraryBinding>();
+
+	public static LibraryBinding find( final String name, final int arity )
+	{
+		return LibraryBindings.bindings.get( LibraryBindings.key( name, arity ) );
+	}
+
+	private static String key( final String name, final int arity )
+	{
+		return name.toLowerCase() + "/" + arity;
+	}
+
+	private static void bind( final String name, final LibraryBinding binding )
+	{
+		LibraryBindings.bindings.put( LibraryBindings.key( name, binding.getArity() ), binding );
+	}
+
+	static
+	{
+		LibraryBindings.bind( "my_level", new LibraryBinding( 0 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter )
+			{
+				return RuntimeLibrary.my_level( interpreter );
+			}
+		} );
+		LibraryBindings.bind( "my_hp", new LibraryBinding( 0 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter )
+			{
+				return RuntimeLibrary.my_hp( interpreter );
+			}
+		} );
+		LibraryBindings.bind( "my_maxhp", new LibraryBinding( 0 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter )
+			{
+				return RuntimeLibrary.my_maxhp( interpreter );
+			}
+		} );
+		LibraryBindings.bind( "my_mp", new LibraryBinding( 0 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter )
+			{
+				return RuntimeLibrary.my_mp( interpreter );
+			}
+		} );
+		LibraryBindings.bind( "my_maxmp", new LibraryBinding( 0 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter )
+			{
+				return RuntimeLibrary.my_maxmp( interpreter );
+			}
+		} );
+		LibraryBindings.bind( "my_meat", new LibraryBinding( 0 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter )
+			{
+				return RuntimeLibrary.my_meat( interpreter );
+			}
+		} );
+		LibraryBindings.bind( "my_adventures", new LibraryBinding( 0 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter )
+			{
+				return RuntimeLibrary.my_adventures( interpreter );
+			}
+		} );
+		LibraryBindings.bind( "my_turncount", new LibraryBinding( 0 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter )
+			{
+				return RuntimeLibrary.my_turncount( interpreter );
+			}
+		} );
+		LibraryBindings.bind( "my_daycount", new LibraryBinding( 0 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter )
+			{
+				return RuntimeLibrary.my_daycount( interpreter );
+			}
+		} );
+		LibraryBindings.bind( "my_class", new LibraryBinding( 0 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter )
+			{
+				return RuntimeLibrary.my_class( interpreter );
+			}
+		} );
+		LibraryBindings.bind( "my_path", new LibraryBinding( 0 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter )
+			{
+				return RuntimeLibrary.my_path( interpreter );
+			}
+		} );
+		LibraryBindings.bind( "my_familiar", new LibraryBinding( 0 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter )
+			{
+				return RuntimeLibrary.my_familiar( interpreter );
+			}
+		} );
+		LibraryBindings.bind( "my_location", new LibraryBinding( 0 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter )
+			{
+				return RuntimeLibrary.my_location( interpreter );
+			}
+		} );
+		LibraryBindings.bind( "in_hardcore", new LibraryBinding( 0 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter )
+			{
+				return RuntimeLibrary.in_hardcore( interpreter );
+			}
+		} );
+		LibraryBindings.bind( "can_interact", new LibraryBinding( 0 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter )
+			{
+				return RuntimeLibrary.can_interact( interpreter );
+			}
+		} );
+		LibraryBindings.bind( "item_amount", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.item_amount( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "available_amount", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.available_amount( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "equipped_amount", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.equipped_amount( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "closet_amount", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.closet_amount( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "storage_amount", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.storage_amount( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "creatable_amount", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.creatable_amount( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "have_effect", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.have_effect( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "have_skill", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.have_skill( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "have_equipped", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.have_equipped( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "have_familiar", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.have_familiar( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "equipped_item", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.equipped_item( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "is_tradeable", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.is_tradeable( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "is_unrestricted", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.is_unrestricted( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "mall_price", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.mall_price( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "historical_price", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.historical_price( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "my_basestat", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.my_basestat( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "my_buffedstat", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.my_buffedstat( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "get_property", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.get_property( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "get_property", new LibraryBinding( 2 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+			{
+				return RuntimeLibrary.get_property( interpreter, arg1, arg2 );
+			}
+		} );
+		LibraryBindings.bind( "set_property", new LibraryBinding( 2 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+			{
+				return RuntimeLibrary.set_property( interpreter, arg1, arg2 );
+			}
+		} );
+		LibraryBindings.bind( "numeric_modifier", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.numeric_modifier( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "numeric_modifier", new LibraryBinding( 2 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+			{
+				return RuntimeLibrary.numeric_modifier( interpreter, arg1, arg2 );
+			}
+		} );
+		LibraryBindings.bind( "boolean_modifier", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.boolean_modifier( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "boolean_modifier", new LibraryBinding( 2 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+			{
+				return RuntimeLibrary.boolean_modifier( interpreter, arg1, arg2 );
+			}
+		} );
+		LibraryBindings.bind( "string_modifier", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.string_modifier( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "string_modifier", new LibraryBinding( 2 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+			{
+				return RuntimeLibrary.string_modifier( interpreter, arg1, arg2 );
+			}
+		} );
+		LibraryBindings.bind( "to_int", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.to_int( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "to_float", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.to_float( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "to_string", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.to_string( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "to_string", new LibraryBinding( 2 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+			{
+				return RuntimeLibrary.to_string( interpreter, arg1, arg2 );
+			}
+		} );
+		LibraryBindings.bind( "to_boolean", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.to_boolean( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "to_item", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.to_item( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "to_item", new LibraryBinding( 2 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+			{
+				return RuntimeLibrary.to_item( interpreter, arg1, arg2 );
+			}
+		} );
+		LibraryBindings.bind( "to_effect", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.to_effect( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "to_skill", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.to_skill( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "to_familiar", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.to_familiar( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "to_location", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.to_location( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "to_class", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.to_class( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "to_slot", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.to_slot( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "to_monster", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.to_monster( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "round", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.round( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "floor", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.floor( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "ceil", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.ceil( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "truncate", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.truncate( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "min", new LibraryBinding( 2 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+			{
+				return RuntimeLibrary.min( interpreter, arg1, arg2 );
+			}
+		} );
+		LibraryBindings.bind( "max", new LibraryBinding( 2 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+			{
+				return RuntimeLibrary.max( interpreter, arg1, arg2 );
+			}
+		} );
+		LibraryBindings.bind( "length", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.length( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "count", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.count( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "contains_text", new LibraryBinding( 2 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+			{
+				return RuntimeLibrary.contains_text( interpreter, arg1, arg2 );
+			}
+		} );
+		LibraryBindings.bind( "starts_with", new LibraryBinding( 2 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+			{
+				return RuntimeLibrary.starts_with( interpreter, arg1, arg2 );
+			}
+		} );
+		LibraryBindings.bind( "ends_with", new LibraryBinding( 2 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+			{
+				return RuntimeLibrary.ends_with( interpreter, arg1, arg2 );
+			}
+		} );
+		LibraryBindings.bind( "char_at", new LibraryBinding( 2 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+			{
+				return RuntimeLibrary.char_at( interpreter, arg1, arg2 );
+			}
+		} );
+		LibraryBindings.bind( "index_of", new LibraryBinding( 2 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+			{
+				return RuntimeLibrary.index_of( interpreter, arg1, arg2 );
+			}
+		} );
+		LibraryBindings.bind( "index_of", new LibraryBinding( 3 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2, final Value arg3 )
+			{
+				return RuntimeLibrary.index_of( interpreter, arg1, arg2, arg3 );
+			}
+		} );
+		LibraryBindings.bind( "substring", new LibraryBinding( 2 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+			{
+				return RuntimeLibrary.substring( interpreter, arg1, arg2 );
+			}
+		} );
+		LibraryBindings.bind( "substring", new LibraryBinding( 3 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2, final Value arg3 )
+			{
+				return RuntimeLibrary.substring( interpreter, arg1, arg2, arg3 );
+			}
+		} );
+		LibraryBindings.bind( "replace_string", new LibraryBinding( 3 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2, final Value arg3 )
+			{
+				return RuntimeLibrary.replace_string( interpreter, arg1, arg2, arg3 );
+			}
+		} );
+		LibraryBindings.bind( "split_string", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.split_string( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "split_string", new LibraryBinding( 2 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+			{
+				return RuntimeLibrary.split_string( interpreter, arg1, arg2 );
+			}
+		} );
+		LibraryBindings.bind( "to_lower_case", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.to_lower_case( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "to_upper_case", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.to_upper_case( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "print", new LibraryBinding( 1 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1 )
+			{
+				return RuntimeLibrary.print( interpreter, arg1 );
+			}
+		} );
+		LibraryBindings.bind( "print", new LibraryBinding( 2 )
+		{
+			@Override
+			public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+			{
+				return RuntimeLibrary.print( interpreter, arg1, arg2 );
+			}
+		} );
+	}
+}
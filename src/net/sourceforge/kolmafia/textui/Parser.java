@@ -41,6 +41,7 @@ import java.io.LineNumberReader;
 import java.io.PrintStream;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -137,6 +138,16 @@ public class Parser
 	private String fullLine;
 
 	private TreeMap<File, Long> imports;
+
+	// The shared parses of imported scripts which this parse used, by file
+	private HashMap<File, ImportedScript> sharedImports = new HashMap<File, ImportedScript>();
+
+	// When parsing an imported script on its own: its direct imports,
+	// whether it can be shared, and the warnings to show if it can
+	private ArrayList<ImportedScript> directImports = null;
+	private boolean sharable = true;
+	private ArrayList<String> warnings = null;
+
 	private Function mainMethod = null;
 	private String notifyRecipient = null;
 
@@ -378,18 +389,47 @@ public class Parser
 		}
 
 		File scriptFile = matches.get( 0 );
+		Scope result = this.importScript( scriptFile, scope );
 
+		if ( this.directImports != null )
+		{
+			ImportedScript shared = this.sharedImports.get( scriptFile );
+			if ( shared == null )
+			{
+				this.sharable = false;
+			}
+			else if ( !this.directImports.contains( shared ) )
+			{
+				this.directImports.add( shared );
+			}
+		}
+
+		return result;
+	}
+
+	private Scope importScript( final File scriptFile, final Scope scope )
+	{
 		if ( this.imports.containsKey( scriptFile ) )
 		{
 			return scope;
 		}
 
+		ImportedScript shared = ImportedScript.find( scriptFile );
+		if ( shared != null && this.addImportedScript( shared, scope ) )
+		{
+			return scope;
+		}
+
+		// Parse it into this scope instead, which will not be shared
+		this.sharable = false;
+
 		Scope result = scope;
 		Parser parser = null;
 
 		try
 		{
 			parser = new Parser( scriptFile, null, this.imports );
+			parser.sharedImports = this.sharedImports;
 			result = parser.parseScope( scope, null, null, scope.getParentScope(), false, false );
 			if ( parser.currentLine != null )
 			{
@@ -421,6 +461,105 @@ public class Parser
 		return result;
 	}
 
+	private boolean addImportedScript( final ImportedScript script, final Scope scope )
+	{
+		// The script refers to the declarations of exactly these
+		// scripts, so they must be imported first and not reparsed
+
+		for ( ImportedScript imported : script.getImports() )
+		{
+			this.importScript( imported.getFile(), scope );
+			if ( this.sharedImports.get( imported.getFile() ) != imported )
+			{
+				return false;
+			}
+		}
+
+		if ( !script.fitsInto( scope ) )
+		{
+			return false;
+		}
+
+		script.addTo( scope, this );
+		this.imports.put( script.getFile(), new Long( script.getModified() ) );
+		this.sharedImports.put( script.getFile(), script );
+		return true;
+	}
+
+	/**
+	 * Parses an imported script into a scope of its own, so that its parse
+	 * tree can be shared by every script which imports it.
+	 */
+
+	static ImportedScript parseImportedScript( final File scriptFile )
+	{
+		long modified = scriptFile.lastModified();
+		TreeMap<File, Long> files = new TreeMap<File, Long>();
+		Scope parentScope = Parser.getExistingFunctionScope();
+		Scope scope = new Scope( new VariableList(), parentScope );
+		Parser parser = null;
+
+		try
+		{
+			parser = new Parser( scriptFile, null, files );
+			parser.directImports = new ArrayList<ImportedScript>();
+			parser.warnings = new ArrayList<String>();
+			parser.parseScope( scope, null, null, parentScope, false, false );
+			if ( parser.currentLine != null )
+			{
+				parser.sharable = false;
+			}
+		}
+		catch ( ScriptException e )
+		{
+			// Report errors when it is parsed where it is imported
+			if ( parser != null )
+			{
+				parser.sharable = false;
+			}
+		}
+		finally
+		{
+			if ( parser != null && parser.commandStream != null )
+			{
+				parser.disconnect();
+			}
+		}
+
+		files.put( scriptFile, new Long( modified ) );
+
+		if ( parser == null || !parser.sharable )
+		{
+			return ImportedScript.unshared( scriptFile, modified, files );
+		}
+
+		if ( parser.mainMethod != null )
+		{
+			UserDefinedFunction f = new UserDefinedFunction(
+				parser.mainMethod.getName() + "@" +
+					parser.getScriptName().replace( ".ash", "" )
+						.replaceAll( "[^a-zA-Z0-9]", "_" ),
+				parser.mainMethod.getType(),
+				parser.mainMethod.getVariableReferences() );
+			f.setScope( ((UserDefinedFunction)parser.mainMethod).getScope() );
+			scope.addFunction( f );
+		}
+
+		ImportedScript script = ImportedScript.shared(
+			scriptFile, modified, files, parser.directImports, parser.sharedImports.values(), scope );
+		if ( script == null )
+		{
+			return ImportedScript.unshared( scriptFile, modified, files );
+		}
+
+		for ( String warning : parser.warnings )
+		{
+			RequestLogger.printLine( warning );
+		}
+
+		return script;
+	}
+
 	private Scope parseCommandOrDeclaration( final Scope result, final Type expectedType )
 	{
 		Type t = this.parseType( result, true, true );
@@ -2626,6 +2765,10 @@ public class Parser
 
 		List<Value> params = parseParameters( scope, null );
 
+		// The function is found at run time in the scope it is called
+		// from, so this script cannot be parsed on its own
+		this.sharable = false;
+
 		FunctionInvocation call = new FunctionInvocation( scope, type, name, params, this );
 
 		return parsePostCall( scope, call );
@@ -4453,7 +4596,14 @@ public class Parser
 
 	public final void warning( final String msg )
 	{
-		RequestLogger.printLine( "WARNING: " + msg + " " + this.getLineAndFile() );
+		String warning = "WARNING: " + msg + " " + this.getLineAndFile();
+		if ( this.warnings != null )
+		{
+			this.warnings.add( warning );
+			return;
+		}
+
+		RequestLogger.printLine( warning );
 	}
 
 	private static final void appendFunctionCall( final StringBuffer buffer, final String name, final List<Value> params )
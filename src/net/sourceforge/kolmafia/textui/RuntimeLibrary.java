@@ -229,6 +229,8 @@ import net.sourceforge.kolmafia.utilities.FileUtilities;
 import net.sourceforge.kolmafia.utilities.HTMLParserUtils;
 import net.sourceforge.kolmafia.utilities.InputFieldUtilities;
 import net.sourceforge.kolmafia.utilities.LogStream;
+import net.sourceforge.kolmafia.utilities.RequestStatistics;
+import net.sourceforge.kolmafia.utilities.RequestStatistics.PhaseTiming;
 import net.sourceforge.kolmafia.utilities.StringUtilities;
 
 import net.sourceforge.kolmafia.webui.RelayServer;
@@ -250,6 +252,11 @@ public abstract class RuntimeLibrary
 		new String[] { "url", "revision", "last_changed_author", "last_changed_rev", "last_changed_date"}, 
 		new Type[] { DataTypes.STRING_TYPE, DataTypes.INT_TYPE, DataTypes.STRING_TYPE, DataTypes.INT_TYPE, DataTypes.STRING_TYPE} );
 
+	private static final RecordType requestStatsRec = new RecordType(
+		"{int count; float total; float average; float max; float median; float p90;}",
+		new String[] { "count", "total", "average", "max", "median", "p90" },
+		new Type[] { DataTypes.INT_TYPE, DataTypes.FLOAT_TYPE, DataTypes.FLOAT_TYPE, DataTypes.FLOAT_TYPE, DataTypes.FLOAT_TYPE, DataTypes.FLOAT_TYPE } );
+
 	private static final AggregateType NumberologyType = new AggregateType( DataTypes.INT_TYPE, DataTypes.INT_TYPE );
 
 	public static final FunctionList functions = new FunctionList();
@@ -304,6 +311,10 @@ public abstract class RuntimeLibrary
 		params = new Type[] {};
 		functions.add( new LibraryFunction( "get_path_variables", DataTypes.STRING_TYPE, params ) );
 
+		params = new Type[] {};
+		functions.add( new LibraryFunction( "request_stats",
+			new AggregateType( new AggregateType( requestStatsRec, DataTypes.STRING_TYPE ), DataTypes.STRING_TYPE ), params ) );
+
 		params = new Type[] {};
 		functions.add( new LibraryFunction( "batch_open", DataTypes.VOID_TYPE, params ) );
 
@@ -2120,6 +2131,42 @@ public abstract class RuntimeLibrary
 		return quest == -1 ? DataTypes.STRING_INIT : new Value( value.substring( quest ) );
 	}
 
+	public static Value request_stats( Interpreter interpreter )
+	{
+		// Timings, in milliseconds, keyed by page and then by phase
+
+		AggregateType phaseType = new AggregateType( RuntimeLibrary.requestStatsRec, DataTypes.STRING_TYPE );
+		MapValue value = new MapValue( new AggregateType( phaseType, DataTypes.STRING_TYPE ) );
+
+		for ( String path : RequestStatistics.getPaths() )
+		{
+			MapValue phases = new MapValue( phaseType );
+
+			for ( int phase = 0; phase < RequestStatistics.PHASES; ++phase )
+			{
+				PhaseTiming timing = RequestStatistics.getTiming( path, phase );
+				if ( timing == null )
+				{
+					continue;
+				}
+
+				RecordValue rec = new RecordValue( RuntimeLibrary.requestStatsRec );
+				rec.aset( 0, new Value( timing.getCount() ), null );
+				rec.aset( 1, new Value( timing.getTotal() ), null );
+				rec.aset( 2, new Value( timing.getAverage() ), null );
+				rec.aset( 3, new Value( timing.getMaximum() ), null );
+				rec.aset( 4, new Value( timing.getPercentile( 0.5 ) ), null );
+				rec.aset( 5, new Value( timing.getPercentile( 0.9 ) ), null );
+
+				phases.aset( new Value( RequestStatistics.PHASE_NAMES[ phase ] ), rec );
+			}
+
+			value.aset( new Value( path ), phases );
+		}
+
+		return value;
+	}
+
 	public static Value batch_open( Interpreter interpreter )
 	{
 		if ( interpreter.batched == null )
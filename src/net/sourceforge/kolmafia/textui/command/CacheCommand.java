@@ -39,14 +39,18 @@ import net.sourceforge.kolmafia.preferences.Preferences;
 
 import net.sourceforge.kolmafia.request.RelayRequest;
 
+import net.sourceforge.kolmafia.session.ResponseCache;
+
 import net.sourceforge.kolmafia.utilities.StringUtilities;
 
+import net.sourceforge.kolmafia.webui.RelayFileCache;
+
 public class CacheCommand
 	extends AbstractCommand
 {
 	public CacheCommand()
 	{
-		this.usage = "[clear] - get image cache status or clear cache.";
+		this.usage = "[clear] - get image and page cache status or clear caches.";
 	}
 
 	@Override
@@ -66,12 +70,15 @@ public class CacheCommand
 			{
 				RequestLogger.printLine( "Image cache last cleared on " + StringUtilities.formatDate( date ) );
 			}
+			RequestLogger.printLine( RelayFileCache.getStatistics() );
+			RequestLogger.printLine( ResponseCache.getStatistics() );
 			return;
 		}
 
 		if ( command.equals( "clear" ) )
 		{
 			RelayRequest.clearImageCache();
+			ResponseCache.clear();
 		}
 	}
 }
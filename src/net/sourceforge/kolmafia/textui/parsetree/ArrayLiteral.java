@@ -77,7 +77,7 @@ public class ArrayLiteral
 	{
 		AggregateType type = (AggregateType)this.type;
 
-		this.aggr = (AggregateValue)this.type.initialValue();
+		AggregateValue aggr = (AggregateValue)this.type.initialValue();
 
 		int index = 0;
 		int size = type.getSize();
@@ -89,10 +89,11 @@ public class ArrayLiteral
 			}
 
 			Value key = DataTypes.makeIntValue( index++ );
-			this.aggr.aset( key, val.execute( interpreter ) );
+			aggr.aset( key, val.execute( interpreter ) );
 		}
 
-		return this.aggr;
+		this.aggr = aggr;
+		return aggr;
 	}
 
 	@Override
@@ -96,6 +96,11 @@ public abstract class BasicScope
 		return this.parentScope;
 	}
 
+	public TypeList getTypes()
+	{
+		return this.types;
+	}
+
 	public boolean addType( final Type t )
 	{
 		return this.types.add( t );
@@ -389,6 +394,11 @@ public abstract class BasicScope
 
 	@Override
 	public Value execute( final Interpreter interpreter )
+	{
+		return this.execute( interpreter, this.getCommands() );
+	}
+
+	protected Value execute( final Interpreter interpreter, final Iterator<ParseTreeNode> it )
 	{
 		// Yield control at the top of the scope to
 		// allow other tasks to run and keyboard input -
@@ -410,7 +420,6 @@ public abstract class BasicScope
 			Value result = DataTypes.VOID_VALUE;
 			interpreter.traceIndent();
 
-			Iterator<ParseTreeNode> it = this.getCommands();
 			while ( it.hasNext() )
 			{
 				ParseTreeNode current = it.next();
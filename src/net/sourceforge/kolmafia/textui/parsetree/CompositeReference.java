@@ -49,10 +49,6 @@ public class CompositeReference
 {
 	private final List<Value> indices;
 
-	// Derived from indices: Final slice and index into it
-	private CompositeValue slice;
-	private Value index;
-
 	// For runtime error messages
 	String fileName;
 	int lineNumber;
@@ -98,24 +94,25 @@ public class CompositeReference
 
 	// Evaluate all the indices and step through the slices.
 	//
-	// When done, this.slice has the final slice and this.index has
-	// the final evaluated index.
+	// Returns the final slice and the final evaluated index, or null if
+	// the script is exiting. They are not kept in this reference, since
+	// other interpreters, or a recursive call, may be evaluating it too.
 
-	private boolean getSlice( final Interpreter interpreter )
+	private Slice getSlice( final Interpreter interpreter )
 	{
 		if ( !KoLmafia.permitsContinue() )
 		{
 			interpreter.setState( Interpreter.STATE_EXIT );
-			return false;
+			return null;
 		}
 
-		this.slice = (CompositeValue) Value.asProxy( this.target.getValue( interpreter ) );
-		this.index = null;
+		CompositeValue slice = (CompositeValue) Value.asProxy( this.target.getValue( interpreter ) );
+		Value index = null;
 
 		interpreter.traceIndent();
 		if ( interpreter.isTracing() )
 		{
-			interpreter.trace( "AREF: " + this.slice.toString() );
+			interpreter.trace( "AREF: " + slice.toString() );
 		}
 
 		Iterator it = this.indices.iterator();
@@ -130,64 +127,65 @@ public class CompositeReference
 				interpreter.trace( "Key #" + ( i + 1 ) + ": " + exp.toQuotedString() );
 			}
 
-			this.index = exp.execute( interpreter );
-			interpreter.captureValue( this.index );
-			if ( this.index == null )
+			index = exp.execute( interpreter );
+			interpreter.captureValue( index );
+			if ( index == null )
 			{
-				this.index = DataTypes.VOID_VALUE;
+				index = DataTypes.VOID_VALUE;
 			}
 
 			if ( interpreter.isTracing() )
 			{
-				interpreter.trace( "[" + interpreter.getState() + "] <- " + this.index.toQuotedString() );
+				interpreter.trace( "[" + interpreter.getState() + "] <- " + index.toQuotedString() );
 			}
 			interpreter.traceUnindent();
 
 			if ( interpreter.getState() == Interpreter.STATE_EXIT )
 			{
 				interpreter.traceUnindent();
-				return false;
+				return null;
 			}
 
 			if ( it.hasNext() )
 			{
 				CompositeValue result = (CompositeValue) Value.asProxy(
-					this.slice.aref( this.index, interpreter ) );
+					slice.aref( index, interpreter ) );
 
 				// Create missing intermediate slices
 				if ( result == null )
 				{	// ...but don't actually save a proxy in the parent object
-					Value temp = this.slice.initialValue( this.index );
-					this.slice.aset( this.index, temp, interpreter );
+					Value temp = slice.initialValue( index );
+					slice.aset( index, temp, interpreter );
 					result = (CompositeValue) Value.asProxy( temp );
 				}
 
-				this.slice = result;
+				slice = result;
 
 				if ( interpreter.isTracing() )
 				{
-					interpreter.trace( "AREF <- " + this.slice.toString() );
+					interpreter.trace( "AREF <- " + slice.toString() );
 				}
 			}
 		}
 
 		interpreter.traceUnindent();
 
-		return true;
+		return new Slice( slice, index );
 	}
 
 	@Override
-	public synchronized Value getValue( final Interpreter interpreter )
+	public Value getValue( final Interpreter interpreter )
 	{
 		interpreter.setLineAndFile( this.fileName, this.lineNumber );
 		// Iterate through indices to final slice
-		if ( this.getSlice( interpreter ) )
+		Slice found = this.getSlice( interpreter );
+		if ( found != null )
 		{
-			Value result = this.slice.aref( this.index, interpreter );
+			Value result = found.slice.aref( found.index, interpreter );
 
 			if ( result == null )
 			{
-				result = this.slice.initialValue( this.index );
+				result = found.slice.initialValue( found.index );
 			}
 
 			interpreter.traceIndent();
@@ -204,11 +202,12 @@ public class CompositeReference
 	}
 
 	@Override
-	public synchronized Value setValue( Interpreter interpreter, final Value targetValue, final Operator oper )
+	public Value setValue( Interpreter interpreter, final Value targetValue, final Operator oper )
 	{
 		interpreter.setLineAndFile( this.fileName, this.lineNumber );
 		// Iterate through indices to final slice
-		if ( this.getSlice( interpreter ) )
+		Slice found = this.getSlice( interpreter );
+		if ( found != null )
 		{
 			Value newValue = targetValue;
 
@@ -216,12 +215,12 @@ public class CompositeReference
 
 			if ( oper != null )
 			{
-				Value currentValue = this.slice.aref( this.index, interpreter );
+				Value currentValue = found.slice.aref( found.index, interpreter );
 
 				if ( currentValue == null )
 				{
-					currentValue = this.slice.initialValue( this.index );
-					this.slice.aset( this.index, currentValue, interpreter );
+					currentValue = found.slice.initialValue( found.index );
+					found.slice.aset( found.index, currentValue, interpreter );
 				}
 
 				if ( interpreter.isTracing() )
@@ -232,7 +231,7 @@ public class CompositeReference
 				newValue = oper.applyTo( interpreter, currentValue, targetValue );
 			}
 
-			this.slice.aset( this.index, newValue, interpreter );
+			found.slice.aset( found.index, newValue, interpreter );
 
 			if ( interpreter.isTracing() )
 			{
@@ -247,16 +246,17 @@ public class CompositeReference
 		return null;
 	}
 
-	public synchronized Value removeKey( final Interpreter interpreter )
+	public Value removeKey( final Interpreter interpreter )
 	{
 		interpreter.setLineAndFile( this.fileName, this.lineNumber );
 		// Iterate through indices to final slice
-		if ( this.getSlice( interpreter ) )
+		Slice found = this.getSlice( interpreter );
+		if ( found != null )
 		{
-			Value result = this.slice.remove( this.index, interpreter );
+			Value result = found.slice.remove( found.index, interpreter );
 			if ( result == null )
 			{
-				result = this.slice.initialValue( this.index );
+				result = found.slice.initialValue( found.index );
 			}
 			interpreter.traceIndent();
 			if ( interpreter.isTracing() )
@@ -274,9 +274,10 @@ public class CompositeReference
 		interpreter.setLineAndFile( this.fileName, this.lineNumber );
 		boolean result = false;
 		// Iterate through indices to final slice
-		if ( this.getSlice( interpreter ) )
+		Slice found = this.getSlice( interpreter );
+		if ( found != null )
 		{
-			result = this.slice.aref( index, interpreter ) != null;
+			result = found.slice.aref( index, interpreter ) != null;
 		}
 		interpreter.traceIndent();
 		if ( interpreter.isTracing() )
@@ -293,6 +294,18 @@ public class CompositeReference
 		return this.target.getName() + "[]";
 	}
 
+	private static class Slice
+	{
+		public final CompositeValue slice;
+		public final Value index;
+
+		public Slice( final CompositeValue slice, final Value index )
+		{
+			this.slice = slice;
+			this.index = index;
+		}
+	}
+
 	@Override
 	public void print( final PrintStream stream, final int indent )
 	{
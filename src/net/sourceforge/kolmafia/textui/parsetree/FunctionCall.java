@@ -87,6 +87,15 @@ public class FunctionCall
 
 		interpreter.traceIndent();
 
+		if ( this.target instanceof LibraryFunction && interpreter.profiler == null )
+		{
+			LibraryFunction function = (LibraryFunction) this.target;
+			if ( function.getBinding() != null )
+			{
+				return this.executeBound( interpreter, function );
+			}
+		}
+
 		Object[] values = new Object[ params.size() + 1 ];
 		values[ 0 ] = interpreter;
 
@@ -94,24 +103,8 @@ public class FunctionCall
 
 		for ( Value paramValue : this.params )
 		{
-			if ( interpreter.isTracing() )
-			{
-				interpreter.trace( "Param #" + paramCount + ": " + paramValue.toQuotedString() );
-			}
-
-			Value value = paramValue.execute( interpreter );
-			interpreter.captureValue( value );
+			Value value = this.executeParam( interpreter, paramValue, paramCount );
 			if ( value == null )
-			{
-				value = DataTypes.VOID_VALUE;
-			}
-
-			if ( interpreter.isTracing() )
-			{
-				interpreter.trace( "[" + interpreter.getState() + "] <- " + value.toQuotedString() );
-			}
-
-			if ( interpreter.getState() == Interpreter.STATE_EXIT )
 			{
 				interpreter.traceUnindent();
 				return null;
@@ -151,6 +144,86 @@ public class FunctionCall
 			result = this.target.execute( interpreter, values );
 		}
 
+		return this.returned( interpreter, result );
+	}
+
+	/**
+	 * Calls a library function which has a direct binding, passing the
+	 * arguments without putting them in an array.
+	 */
+
+	private Value executeBound( final Interpreter interpreter, final LibraryFunction function )
+	{
+		Value arg1 = null, arg2 = null, arg3 = null;
+
+		int paramCount = 1;
+
+		for ( Value paramValue : this.params )
+		{
+			Value value = this.executeParam( interpreter, paramValue, paramCount );
+			if ( value == null )
+			{
+				interpreter.traceUnindent();
+				return null;
+			}
+
+			switch ( paramCount++ )
+			{
+			case 1:
+				arg1 = value;
+				break;
+			case 2:
+				arg2 = value;
+				break;
+			case 3:
+				arg3 = value;
+				break;
+			}
+		}
+
+		if ( Interpreter.isTracing() )
+		{
+			interpreter.trace( "Entering function " + function.getName() );
+		}
+
+		interpreter.setLineAndFile( this.fileName, this.lineNumber );
+
+		return this.returned( interpreter, function.execute( interpreter, arg1, arg2, arg3 ) );
+	}
+
+	/**
+	 * Evaluates one argument, returning null if the script is exiting.
+	 */
+
+	private Value executeParam( final Interpreter interpreter, final Value paramValue, final int paramCount )
+	{
+		if ( interpreter.isTracing() )
+		{
+			interpreter.trace( "Param #" + paramCount + ": " + paramValue.toQuotedString() );
+		}
+
+		Value value = paramValue.execute( interpreter );
+		interpreter.captureValue( value );
+		if ( value == null )
+		{
+			value = DataTypes.VOID_VALUE;
+		}
+
+		if ( interpreter.isTracing() )
+		{
+			interpreter.trace( "[" + interpreter.getState() + "] <- " + value.toQuotedString() );
+		}
+
+		if ( interpreter.getState() == Interpreter.STATE_EXIT )
+		{
+			return null;
+		}
+
+		return value;
+	}
+
+	private Value returned( final Interpreter interpreter, final Value result )
+	{
 		if ( interpreter.isTracing() )
 		{
 			interpreter.trace( "Function " + this.target.getName() + " returned: " + result );
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2005-2018, KoLmafia development team
+ * http://kolmafia.sourceforge.net/
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  [1] Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *  [2] Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in
+ *      the documentation and/or other materials provided with the
+ *      distribution.
+ *  [3] Neither the name "KoLmafia" nor the names of its contributors may
+ *      be used to endorse or promote products derived from this software
+ *      without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION ) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE ) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package net.sourceforge.kolmafia.textui.parsetree;
+
+import net.sourceforge.kolmafia.textui.Interpreter;
+
+/**
+ * Calls one <code>RuntimeLibrary</code> method directly. A binding takes a
+ * fixed number of arguments and overrides the <code>call</code> method
+ * which takes that many, so that calling it needs neither reflection nor an
+ * array of arguments.
+ */
+
+public abstract class LibraryBinding
+{
+	private final int arity;
+
+	public LibraryBinding( final int arity )
+	{
+		this.arity = arity;
+	}
+
+	public int getArity()
+	{
+		return this.arity;
+	}
+
+	public Value call( final Interpreter interpreter )
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	public Value call( final Interpreter interpreter, final Value arg1 )
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	public Value call( final Interpreter interpreter, final Value arg1, final Value arg2 )
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	public Value call( final Interpreter interpreter, final Value arg1, final Value arg2, final Value arg3 )
+	{
+		throw new UnsupportedOperationException();
+	}
+}
@@ -40,6 +40,7 @@ import net.sourceforge.kolmafia.KoLmafia;
 import net.sourceforge.kolmafia.StaticEntity;
 
 import net.sourceforge.kolmafia.textui.Interpreter;
+import net.sourceforge.kolmafia.textui.LibraryBindings;
 import net.sourceforge.kolmafia.textui.RuntimeLibrary;
 import net.sourceforge.kolmafia.textui.ScriptException;
 
@@ -47,6 +48,7 @@ public class LibraryFunction
 	extends Function
 {
 	private Method method;
+	private LibraryBinding binding;
 
 	public LibraryFunction( final String name, final Type type, final Type[] params )
 	{
@@ -76,6 +78,13 @@ public class LibraryFunction
 
 			StaticEntity.printStackTrace( e, "No method found for built-in function: " + name );
 		}
+
+		this.binding = LibraryBindings.find( name, params.length );
+	}
+
+	public LibraryBinding getBinding()
+	{
+		return this.binding;
 	}
 
 	@Override
@@ -93,6 +102,15 @@ public class LibraryFunction
 			return this.getType().initialValue();
 		}
 
+		if ( this.binding != null )
+		{
+			// The interpreter comes first, ahead of the arguments
+			return this.callBinding( interpreter,
+				LibraryFunction.argument( values, 1 ),
+				LibraryFunction.argument( values, 2 ),
+				LibraryFunction.argument( values, 3 ) );
+		}
+
 		if ( this.method == null )
 		{
 			throw interpreter.runtimeException( "Internal error: no method for " + this.getName() );
@@ -122,4 +140,69 @@ public class LibraryFunction
 			throw new ScriptException( e );
 		}
 	}
+
+	/**
+	 * Executes a function which has a direct binding, with up to three
+	 * arguments; those beyond the function's arity are ignored.
+	 */
+
+	public Value execute( final Interpreter interpreter, final Value arg1, final Value arg2, final Value arg3 )
+	{
+		if ( !KoLmafia.permitsContinue() )
+		{
+			interpreter.setState( Interpreter.STATE_EXIT );
+			return null;
+		}
+
+		if ( StaticEntity.isDisabled( this.getName() ) )
+		{
+			this.printDisabledMessage( interpreter );
+			return this.getType().initialValue();
+		}
+
+		return this.callBinding( interpreter, arg1, arg2, arg3 );
+	}
+
+	private static Value argument( final Object[] values, final int index )
+	{
+		return index < values.length ? (Value) values[ index ] : null;
+	}
+
+	/**
+	 * Calls the direct binding, reporting errors in the called method as
+	 * they would have been had it been invoked by reflection.
+	 */
+
+	private Value callBinding( final Interpreter interpreter, final Value arg1, final Value arg2, final Value arg3 )
+	{
+		try
+		{
+			switch ( this.binding.getArity() )
+			{
+			case 0:
+				return this.binding.call( interpreter );
+			case 1:
+				return this.binding.call( interpreter, arg1 );
+			case 2:
+				return this.binding.call( interpreter, arg1, arg2 );
+			default:
+				return this.binding.call( interpreter, arg1, arg2, arg3 );
+			}
+		}
+		catch ( ScriptException e )
+		{
+			// Pass up exceptions intentionally generated by library
+			throw e;
+		}
+		catch ( RuntimeException e )
+		{
+			// This is an error in the called method. Wrap it
+			// as reflection would, to print a stack trace.
+			throw new RuntimeException( e );
+		}
+		catch ( Error e )
+		{
+			throw new RuntimeException( e );
+		}
+	}
 }
@@ -55,7 +55,7 @@ public class MapLiteral
 	@Override
 	public Value execute( final Interpreter interpreter )
 	{
-		this.aggr = (AggregateValue)this.type.initialValue();
+		AggregateValue aggr = (AggregateValue)this.type.initialValue();
 
 		Iterator<Value> keyIterator = this.keys.iterator();
 		Iterator<Value> valIterator = this.values.iterator();
@@ -64,10 +64,11 @@ public class MapLiteral
 		{
 			Value key = keyIterator.next().execute( interpreter );
 			Value val = valIterator.next().execute( interpreter );
-			this.aggr.aset( key, val );
+			aggr.aset( key, val );
 		}
 
-		return this.aggr;
+		this.aggr = aggr;
+		return aggr;
 	}
 
 	@Override
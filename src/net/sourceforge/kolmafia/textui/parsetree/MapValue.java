@@ -33,9 +33,12 @@
 
 package net.sourceforge.kolmafia.textui.parsetree;
 
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.TreeMap;
 
@@ -47,22 +50,48 @@ public class MapValue
 {
 	public MapValue( final AggregateType type )
 	{
-		super( type );
-		this.content = new TreeMap<Value,Value>();
+		this( type, false );
 	}
 
 	public MapValue( final AggregateType type, boolean caseInsensitive )
 	{
 		super( type );
+
+		Type indexType = type.getIndexType();
 		this.content =
 			caseInsensitive ?
 			new TreeMap<Value,Value>( Value.ignoreCaseComparator ) :
+			MapValue.comparesByLong( indexType ) ?
+			new HashedContent( true ) :
+			indexType == DataTypes.STRING_TYPE ?
+			new HashedContent( false ) :
 			new TreeMap<Value,Value>();
 	}
 
+	// Keys of these types are equal exactly when their contentLong is
+
+	private static boolean comparesByLong( final Type indexType )
+	{
+		return  indexType == DataTypes.BOOLEAN_TYPE ||
+			indexType == DataTypes.INT_TYPE ||
+			indexType == DataTypes.ITEM_TYPE ||
+			indexType == DataTypes.EFFECT_TYPE ||
+			indexType == DataTypes.CLASS_TYPE ||
+			indexType == DataTypes.SKILL_TYPE ||
+			indexType == DataTypes.FAMILIAR_TYPE ||
+			indexType == DataTypes.SLOT_TYPE ||
+			indexType == DataTypes.THRALL_TYPE ||
+			indexType == DataTypes.SERVANT_TYPE;
+	}
+
 	@Override
 	public Value aref( final Value key, final Interpreter interpreter )
 	{
+		if ( this.content instanceof HashedContent )
+		{
+			return ( (HashedContent) this.content ).get( key );
+		}
+
 		Map<Value,Value> map = (Map<Value,Value>) this.content;
 		return map.get( key );
 	}
@@ -70,29 +99,27 @@ public class MapValue
 	@Override
 	public void aset( final Value key, Value val, final Interpreter interpreter )
 	{
-		Map<Value,Value> map = (Map<Value,Value>) this.content;
-
 		Type dataType = this.getDataType();
 		Type baseType = dataType.getBaseType();
 		Type valType = val.getType();
 
 		if ( baseType.equals( valType ) )
 		{
-			map.put( key, val );
+			this.put( key, val );
 		}
 		else if ( baseType.equals( DataTypes.TYPE_STRING ) )
 		{
-			map.put( key, val.toStringValue() );
+			this.put( key, val.toStringValue() );
 		}
 		else if ( baseType.equals( DataTypes.TYPE_INT ) &&
 			  valType.equals( DataTypes.TYPE_FLOAT ) )
 		{
-			map.put( key, val.toIntValue() );
+			this.put( key, val.toIntValue() );
 		}
 		else if ( baseType.equals( DataTypes.TYPE_FLOAT ) &&
 			  valType.equals( DataTypes.TYPE_INT ) )
 		{
-			map.put( key, val.toFloatValue() );
+			this.put( key, val.toFloatValue() );
 		}
 		else
 		{
@@ -100,6 +127,18 @@ public class MapValue
 		}
 	}
 
+	private void put( final Value key, final Value val )
+	{
+		if ( this.content instanceof HashedContent )
+		{
+			( (HashedContent) this.content ).put( key, val );
+			return;
+		}
+
+		Map<Value,Value> map = (Map<Value,Value>) this.content;
+		map.put( key, val );
+	}
+
 	@Override
 	public Value remove( final Value key, final Interpreter interpreter )
 	{
@@ -132,6 +171,11 @@ public class MapValue
 			return rv;
 		}
 		
+		if ( this.content instanceof HashedContent )
+		{
+			return ( (HashedContent) this.content ).remove( key );
+		}
+
 		Map<Value,Value> map = (Map<Value,Value>) this.content;
 		return map.remove( key );
 	}
@@ -139,6 +183,12 @@ public class MapValue
 	@Override
 	public void clear()
 	{
+		if ( this.content instanceof HashedContent )
+		{
+			( (HashedContent) this.content ).clear();
+			return;
+		}
+
 		Map<Value,Value> map = (Map<Value,Value>) this.content;
 		map.clear();
 	}
@@ -146,6 +196,11 @@ public class MapValue
 	@Override
 	public int count()
 	{
+		if ( this.content instanceof HashedContent )
+		{
+			return ( (HashedContent) this.content ).size;
+		}
+
 		Map<Value,Value> map = (Map<Value,Value>) this.content;
 		return map.size();
 	}
@@ -153,6 +208,11 @@ public class MapValue
 	@Override
 	public boolean contains( final Value key )
 	{
+		if ( this.content instanceof HashedContent )
+		{
+			return ( (HashedContent) this.content ).get( key ) != null;
+		}
+
 		Map<Value,Value> map = (Map<Value,Value>) this.content;
 		return map.containsKey( key );
 	}
@@ -160,6 +220,12 @@ public class MapValue
 	@Override
 	public Value[] keys()
 	{
+		if ( this.content instanceof HashedContent )
+		{
+			Value[] keys = ( (HashedContent) this.content ).sortedKeys();
+			return Arrays.copyOf( keys, keys.length );
+		}
+
 		Set set = ( (Map<Value,Value>) this.content ).keySet();
 		Value[] keys = new Value[ set.size() ];
 		set.toArray( keys );
@@ -169,7 +235,253 @@ public class MapValue
 	@Override
 	public Iterator iterator()
 	{
+		if ( this.content instanceof HashedContent )
+		{
+			return ( (HashedContent) this.content ).iterator();
+		}
+
 		Set set = ( (Map<Value,Value>) this.content ).keySet();
 		return set.iterator();
 	}
+
+	/**
+	 * The content of a map whose keys are equal exactly when their
+	 * contentLong is, or exactly when their contentString is. The keys
+	 * are hashed on that field into an open-addressed table, so that
+	 * reading and writing entries takes constant time. Iterating over the
+	 * keys visits them in the order a TreeMap would, using a sorted copy
+	 * which is made when first needed and kept until a key is added or
+	 * removed.
+	 */
+
+	private static class HashedContent
+	{
+		private final boolean byLong;
+
+		private Value[] keys = new Value[ 8 ];
+		private Value[] values = new Value[ 8 ];
+		private int size = 0;
+
+		// Counts additions and removals of keys, so that iterators can
+		// detect them as TreeMap iterators do
+		private int modCount = 0;
+		private Value[] sortedKeys = null;
+
+		public HashedContent( final boolean byLong )
+		{
+			this.byLong = byLong;
+		}
+
+		private int hash( final Value key )
+		{
+			int h;
+			if ( this.byLong )
+			{
+				h = (int) ( key.contentLong ^ ( key.contentLong >>> 32 ) );
+			}
+			else
+			{
+				h = key.contentString == null ? 0 : key.contentString.hashCode();
+			}
+
+			h *= 0x9E3779B9;
+			return h ^ ( h >>> 16 );
+		}
+
+		private boolean matches( final Value key, final Value other )
+		{
+			if ( this.byLong )
+			{
+				return key.contentLong == other.contentLong;
+			}
+
+			// Value.compareTo never finds a key without a string
+			// equal to anything
+			return key.contentString != null && key.contentString.equals( other.contentString );
+		}
+
+		// Returns the index of the key, or of the empty slot where it
+		// would go
+
+		private int indexOf( final Value key )
+		{
+			int mask = this.keys.length - 1;
+			int i = this.hash( key ) & mask;
+
+			while ( this.keys[ i ] != null && !this.matches( this.keys[ i ], key ) )
+			{
+				i = ( i + 1 ) & mask;
+			}
+
+			return i;
+		}
+
+		public Value get( final Value key )
+		{
+			return this.values[ this.indexOf( key ) ];
+		}
+
+		public void put( final Value key, final Value val )
+		{
+			int i = this.indexOf( key );
+			if ( this.keys[ i ] != null )
+			{
+				// Like TreeMap, keep the original key
+				this.values[ i ] = val;
+				return;
+			}
+
+			this.keys[ i ] = key;
+			this.values[ i ] = val;
+			++this.modCount;
+			this.sortedKeys = null;
+
+			if ( ++this.size * 4 > this.keys.length * 3 )
+			{
+				this.resize( this.keys.length * 2 );
+			}
+		}
+
+		public Value remove( final Value key )
+		{
+			int i = this.indexOf( key );
+			if ( this.keys[ i ] == null )
+			{
+				return null;
+			}
+
+			Value val = this.values[ i ];
+
+			// Shift later keys of the same run back into the hole
+			int mask = this.keys.length - 1;
+			int hole = i;
+			for ( int j = ( i + 1 ) & mask; this.keys[ j ] != null; j = ( j + 1 ) & mask )
+			{
+				int home = this.hash( this.keys[ j ] ) & mask;
+				if ( ( ( j - home ) & mask ) >= ( ( j - hole ) & mask ) )
+				{
+					this.keys[ hole ] = this.keys[ j ];
+					this.values[ hole ] = this.values[ j ];
+					hole = j;
+				}
+			}
+
+			this.keys[ hole ] = null;
+			this.values[ hole ] = null;
+			--this.size;
+			++this.modCount;
+			this.sortedKeys = null;
+
+			return val;
+		}
+
+		public void clear()
+		{
+			Arrays.fill( this.keys, null );
+			Arrays.fill( this.values, null );
+			this.size = 0;
+			++this.modCount;
+			this.sortedKeys = null;
+		}
+
+		private void resize( final int capacity )
+		{
+			Value[] oldKeys = this.keys;
+			Value[] oldValues = this.values;
+
+			this.keys = new Value[ capacity ];
+			this.values = new Value[ capacity ];
+
+			for ( int i = 0; i < oldKeys.length; ++i )
+			{
+				if ( oldKeys[ i ] != null )
+				{
+					int j = this.indexOf( oldKeys[ i ] );
+					this.keys[ j ] = oldKeys[ i ];
+					this.values[ j ] = oldValues[ i ];
+				}
+			}
+		}
+
+		public Value[] sortedKeys()
+		{
+			if ( this.sortedKeys == null )
+			{
+				Value[] sorted = new Value[ this.size ];
+				int count = 0;
+				for ( int i = 0; i < this.keys.length; ++i )
+				{
+					if ( this.keys[ i ] != null )
+					{
+						sorted[ count++ ] = this.keys[ i ];
+					}
+				}
+
+				Arrays.sort( sorted );
+				this.sortedKeys = sorted;
+			}
+
+			return this.sortedKeys;
+		}
+
+		public Iterator<Value> iterator()
+		{
+			return new KeyIterator( this );
+		}
+	}
+
+	private static class KeyIterator
+		implements Iterator<Value>
+	{
+		private final HashedContent content;
+		private final Value[] keys;
+		private int next = 0;
+		private Value current = null;
+		private int expectedModCount;
+
+		public KeyIterator( final HashedContent content )
+		{
+			this.content = content;
+			this.keys = content.sortedKeys();
+			this.expectedModCount = content.modCount;
+		}
+
+		public boolean hasNext()
+		{
+			return this.next < this.keys.length;
+		}
+
+		public Value next()
+		{
+			if ( this.content.modCount != this.expectedModCount )
+			{
+				throw new ConcurrentModificationException();
+			}
+
+			if ( this.next >= this.keys.length )
+			{
+				throw new NoSuchElementException();
+			}
+
+			this.current = this.keys[ this.next++ ];
+			return this.current;
+		}
+
+		public void remove()
+		{
+			if ( this.current == null )
+			{
+				throw new IllegalStateException();
+			}
+
+			if ( this.content.modCount != this.expectedModCount )
+			{
+				throw new ConcurrentModificationException();
+			}
+
+			this.content.remove( this.current );
+			this.current = null;
+			this.expectedModCount = this.content.modCount;
+		}
+	}
 }
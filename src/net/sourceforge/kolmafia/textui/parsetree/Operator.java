@@ -50,11 +50,80 @@ public class Operator
 	String fileName;
 	int lineNumber;
 
+	// Numeric operators, resolved once so that applying them to numbers
+	// need not compare strings
+	private static final int OP_OTHER = 0;
+	private static final int OP_ADD = 1;
+	private static final int OP_SUB = 2;
+	private static final int OP_MUL = 3;
+	private static final int OP_DIV = 4;
+	private static final int OP_MOD = 5;
+	private static final int OP_POW = 6;
+	private static final int OP_SHL = 7;
+	private static final int OP_SHR = 8;
+	private static final int OP_USHR = 9;
+	private static final int OP_AND = 10;
+	private static final int OP_OR = 11;
+	private static final int OP_XOR = 12;
+	private static final int OP_EQ = 13;
+	private static final int OP_NE = 14;
+	private static final int OP_LT = 15;
+	private static final int OP_GT = 16;
+	private static final int OP_LE = 17;
+	private static final int OP_GE = 18;
+	private static final int OP_NEGATE = 19;
+	private static final int OP_INCREMENT = 20;
+	private static final int OP_DECREMENT = 21;
+
+	private final int code;
+
+	// Whether the operands this operator is applied to are known to be
+	// numbers, decided when it is first applied while not tracing
+	private static final int OPERANDS_UNKNOWN = 0;
+	private static final int OPERANDS_NUMERIC = 1;
+	private static final int OPERANDS_OTHER = 2;
+
+	private int operands = Operator.OPERANDS_UNKNOWN;
+
 	public Operator( final String operator, final Parser parser )
 	{
 		this.operator = operator;
 		this.fileName = parser.getShortFileName();
 		this.lineNumber = parser.getLineNumber();
+		this.code = Operator.codeOf( operator );
+	}
+
+	private static int codeOf( final String operator )
+	{
+		if ( operator == Parser.PRE_INCREMENT || operator == Parser.POST_INCREMENT )
+		{
+			return Operator.OP_INCREMENT;
+		}
+
+		if ( operator == Parser.PRE_DECREMENT || operator == Parser.POST_DECREMENT )
+		{
+			return Operator.OP_DECREMENT;
+		}
+
+		return  operator.equals( "+" ) ? Operator.OP_ADD :
+			operator.equals( "-" ) ? Operator.OP_SUB :
+			operator.equals( "*" ) ? Operator.OP_MUL :
+			operator.equals( "/" ) ? Operator.OP_DIV :
+			operator.equals( "%" ) ? Operator.OP_MOD :
+			operator.equals( "**" ) ? Operator.OP_POW :
+			operator.equals( "<<" ) ? Operator.OP_SHL :
+			operator.equals( ">>" ) ? Operator.OP_SHR :
+			operator.equals( ">>>" ) ? Operator.OP_USHR :
+			operator.equals( "&" ) ? Operator.OP_AND :
+			operator.equals( "|" ) ? Operator.OP_OR :
+			operator.equals( "^" ) ? Operator.OP_XOR :
+			operator.equals( "==" ) || operator.equals( Parser.APPROX ) ? Operator.OP_EQ :
+			operator.equals( "!=" ) ? Operator.OP_NE :
+			operator.equals( "<" ) ? Operator.OP_LT :
+			operator.equals( ">" ) ? Operator.OP_GT :
+			operator.equals( "<=" ) ? Operator.OP_LE :
+			operator.equals( ">=" ) ? Operator.OP_GE :
+			Operator.OP_OTHER;
 	}
 
 	public boolean equals( final String op )
@@ -411,8 +480,184 @@ public class Operator
 		return result;
 	}
 
+	private static boolean isNumeric( final Type type )
+	{
+		return type.equals( DataTypes.TYPE_INT ) || type.equals( DataTypes.TYPE_FLOAT );
+	}
+
+	// Decides once whether operands of these types can take the numeric
+	// path. The parser has already checked that they may be combined.
+
+	private boolean hasNumericOperands( final Value lhs, final Value rhs )
+	{
+		if ( this.operands == Operator.OPERANDS_UNKNOWN )
+		{
+			boolean numeric =
+				this.code != Operator.OP_OTHER &&
+				Operator.isNumeric( lhs.getType() ) &&
+				( rhs == null ?
+				  this.code == Operator.OP_SUB || this.code == Operator.OP_INCREMENT || this.code == Operator.OP_DECREMENT :
+				  Operator.isNumeric( rhs.getType() ) );
+			this.operands = numeric ? Operator.OPERANDS_NUMERIC : Operator.OPERANDS_OTHER;
+		}
+
+		return this.operands == Operator.OPERANDS_NUMERIC;
+	}
+
+	// Evaluates an operand the way applyTo does, without tracing.
+	// Returns null if the script is exiting.
+
+	private static Value numericOperand( final Interpreter interpreter, final Value operand )
+	{
+		Value value = operand.execute( interpreter );
+		interpreter.captureValue( value );
+		if ( interpreter.getState() == Interpreter.STATE_EXIT )
+		{
+			return null;
+		}
+		return value;
+	}
+
+	// A shortcut through applyTo for numbers: the operands are still
+	// executed as tree nodes and the result is still a new Value, but
+	// the operator is chosen by its code rather than by comparing strings.
+
+	private Value applyNumeric( final Interpreter interpreter, final Value lhs )
+	{
+		Value leftValue = Operator.numericOperand( interpreter, lhs );
+		if ( leftValue == null )
+		{
+			return null;
+		}
+
+		int delta =
+			this.code == Operator.OP_INCREMENT ? 1 :
+			this.code == Operator.OP_DECREMENT ? -1 :
+			0;
+
+		if ( lhs.getType().equals( DataTypes.TYPE_INT ) )
+		{
+			return DataTypes.makeIntValue( delta == 0 ? 0 - leftValue.intValue() : leftValue.intValue() + delta );
+		}
+
+		return DataTypes.makeFloatValue( delta == 0 ? 0.0 - leftValue.floatValue() : leftValue.floatValue() + delta );
+	}
+
+	private Value applyNumeric( final Interpreter interpreter, final Value lhs, final Value rhs )
+	{
+		Value leftValue = Operator.numericOperand( interpreter, lhs );
+		if ( leftValue == null )
+		{
+			return null;
+		}
+
+		Value rightValue = Operator.numericOperand( interpreter, rhs );
+		if ( rightValue == null )
+		{
+			return null;
+		}
+
+		if ( leftValue.getType().equals( DataTypes.TYPE_FLOAT ) || rightValue.getType().equals( DataTypes.TYPE_FLOAT ) )
+		{
+			double lfloat = leftValue.floatValue();
+			double rfloat = rightValue.floatValue();
+
+			switch ( this.code )
+			{
+			case OP_EQ:
+				return DataTypes.makeBooleanValue( lfloat == rfloat );
+			case OP_NE:
+				return DataTypes.makeBooleanValue( lfloat != rfloat );
+			case OP_LT:
+				return DataTypes.makeBooleanValue( lfloat < rfloat );
+			case OP_GT:
+				return DataTypes.makeBooleanValue( lfloat > rfloat );
+			case OP_LE:
+				return DataTypes.makeBooleanValue( lfloat <= rfloat );
+			case OP_GE:
+				return DataTypes.makeBooleanValue( lfloat >= rfloat );
+			case OP_ADD:
+				return DataTypes.makeFloatValue( lfloat + rfloat );
+			case OP_SUB:
+				return DataTypes.makeFloatValue( lfloat - rfloat );
+			case OP_MUL:
+				return DataTypes.makeFloatValue( lfloat * rfloat );
+			case OP_DIV:
+			case OP_MOD:
+				if ( rfloat == 0.0 )
+				{
+					throw Interpreter.runtimeException( "Division by zero", this.fileName, this.lineNumber );
+				}
+				return DataTypes.makeFloatValue( this.code == Operator.OP_DIV ? lfloat / rfloat : lfloat % rfloat );
+			case OP_POW:
+				double val = Math.pow( lfloat, rfloat );
+				if ( Double.isNaN( val ) || Double.isInfinite( val ) )
+				{
+					throw Interpreter.runtimeException( "Invalid exponentiation: cannot take " + lfloat + " ** " + rfloat, this.fileName, this.lineNumber );
+				}
+				return DataTypes.makeFloatValue( val );
+			}
+
+			// Other operators on floats yield 0.0, as performArithmetic does
+			return DataTypes.makeFloatValue( 0.0 );
+		}
+
+		long lint = leftValue.intValue();
+		long rint = rightValue.intValue();
+
+		switch ( this.code )
+		{
+		case OP_EQ:
+			return DataTypes.makeBooleanValue( lint == rint );
+		case OP_NE:
+			return DataTypes.makeBooleanValue( lint != rint );
+		case OP_LT:
+			return DataTypes.makeBooleanValue( lint < rint );
+		case OP_GT:
+			return DataTypes.makeBooleanValue( lint > rint );
+		case OP_LE:
+			return DataTypes.makeBooleanValue( lint <= rint );
+		case OP_GE:
+			return DataTypes.makeBooleanValue( lint >= rint );
+		case OP_ADD:
+			return DataTypes.makeIntValue( lint + rint );
+		case OP_SUB:
+			return DataTypes.makeIntValue( lint - rint );
+		case OP_MUL:
+			return DataTypes.makeIntValue( lint * rint );
+		case OP_DIV:
+		case OP_MOD:
+			if ( rint == 0 )
+			{
+				throw Interpreter.runtimeException( "Division by zero", this.fileName, this.lineNumber );
+			}
+			return DataTypes.makeIntValue( this.code == Operator.OP_DIV ? lint / rint : lint % rint );
+		case OP_POW:
+			return DataTypes.makeIntValue( (long) Math.pow( lint, rint ) );
+		case OP_SHL:
+			return DataTypes.makeIntValue( lint << rint );
+		case OP_SHR:
+			return DataTypes.makeIntValue( lint >> rint );
+		case OP_USHR:
+			return DataTypes.makeIntValue( lint >>> rint );
+		case OP_AND:
+			return DataTypes.makeIntValue( lint & rint );
+		case OP_OR:
+			return DataTypes.makeIntValue( lint | rint );
+		case OP_XOR:
+			return DataTypes.makeIntValue( lint ^ rint );
+		}
+
+		return DataTypes.makeIntValue( 0 );
+	}
+
 	public Value applyTo( final Interpreter interpreter, final Value lhs )
 	{
+		if ( !Interpreter.isTracing() && this.hasNumericOperands( lhs, null ) )
+		{
+			return this.applyNumeric( interpreter, lhs );
+		}
+
 		interpreter.traceIndent();
 		if ( interpreter.isTracing() )
 		{
@@ -539,6 +784,11 @@ public class Operator
 
 	public Value applyTo( final Interpreter interpreter, final Value lhs, final Value rhs )
 	{
+		if ( !Interpreter.isTracing() && rhs != null && this.hasNumericOperands( lhs, rhs ) )
+		{
+			return this.applyNumeric( interpreter, lhs, rhs );
+		}
+
 		interpreter.traceIndent();
 		if ( interpreter.isTracing() )
 		{
@@ -46,7 +46,9 @@ import org.json.JSONException;
 public class PluralValue
 	extends AggregateValue
 {
-	private TreeSet<Value> lookup;
+	// Built on first use, and only then published, since a literal in a
+	// shared script may be looked up by several interpreters at once
+	private volatile TreeSet<Value> lookup;
 	
 	public PluralValue( final Type type, List<Value> values )
 	{
@@ -88,12 +90,14 @@ public class PluralValue
 	@Override
 	public boolean contains( final Value key )
 	{
-		if ( this.lookup == null )
+		TreeSet<Value> lookup = this.lookup;
+		if ( lookup == null )
 		{
-			this.lookup = new TreeSet<Value>();
-			this.lookup.addAll( Arrays.asList( (Value[]) this.content ) );
+			lookup = new TreeSet<Value>();
+			lookup.addAll( Arrays.asList( (Value[]) this.content ) );
+			this.lookup = lookup;
 		}
-		return this.lookup.contains( key );
+		return lookup.contains( key );
 	}
 
 	@Override
@@ -39,14 +39,30 @@ import net.sourceforge.kolmafia.textui.Interpreter;
 public class StaticScope
 	extends Scope
 {
+	// A static scope of a script whose parse tree is shared between
+	// interpreters is executed once by each of them.
+	private boolean shared = false;
+
 	public StaticScope( final BasicScope parentScope )
 	{
 		super( parentScope.variables, parentScope );
 	}
 
+	public void markShared()
+	{
+		this.shared = true;
+	}
+
 	@Override
 	public Value execute( final Interpreter interpreter )
 	{
+		if ( this.shared )
+		{
+			return  interpreter.markExecuted( this ) ?
+				super.execute( interpreter ) :
+				DataTypes.VOID_VALUE;
+		}
+
 		if ( !this.executed )
 		{
 			return super.execute( interpreter );
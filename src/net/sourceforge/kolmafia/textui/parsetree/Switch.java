@@ -152,8 +152,7 @@ public class Switch
 
 		if ( offset >= 0 && offset < this.scope.commandCount() )
 		{
-			this.scope.setOffset( offset );
-			Value result = this.scope.execute( interpreter );
+			Value result = this.scope.execute( interpreter, offset );
 
 			if ( interpreter.getState() == Interpreter.STATE_BREAK )
 			{
@@ -45,7 +45,6 @@ public class SwitchScope
 	extends BasicScope
 {
 	private ArrayList<ParseTreeNode> commands = new ArrayList<ParseTreeNode>();
-	private int offset = -1;
 	private int barrier = BasicScope.BARRIER_SEEN;
 	private boolean breakable = false;
 
@@ -83,7 +82,7 @@ public class SwitchScope
 	@Override
 	public Iterator<ParseTreeNode> getCommands()
 	{
-		return this.commands.listIterator( this.offset );
+		return this.commands.iterator();
 	}
 
 	public int commandCount()
@@ -91,9 +90,12 @@ public class SwitchScope
 		return this.commands.size();
 	}
 
-	public void setOffset( final int offset )
+	// Runs the commands from the given case onwards. The offset is not
+	// kept in the scope, since other interpreters may be running it.
+
+	public Value execute( final Interpreter interpreter, final int offset )
 	{
-		this.offset = offset;
+		return this.execute( interpreter, this.commands.listIterator( offset ) );
 	}
 
 	@Override
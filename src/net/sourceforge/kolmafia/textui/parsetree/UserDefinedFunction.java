@@ -37,7 +37,6 @@ import java.io.PrintStream;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
 
 import net.sourceforge.kolmafia.StaticEntity;
 
@@ -48,33 +47,33 @@ public class UserDefinedFunction
 	extends Function
 {
 	private Scope scope;
-	private final Stack<ArrayList<Value>> callStack;
+
+	// The initial values of the locals, by slot
+	private Value[] initialValues;
 
 	public UserDefinedFunction( final String name, final Type type, final List<VariableReference> variableReferences )
 	{
 		super( name, type, variableReferences );
 
 		this.scope = null;
-		this.callStack = new Stack<ArrayList<Value>>();
+		this.initialValues = null;
 	}
 
 	public void setScope( final Scope s )
 	{
 		this.scope = s;
+		this.bindSlots();
 	}
 
-	public Scope getScope()
-	{
-		return this.scope;
-	}
+	/**
+	 * Gives every local variable of the function, parameters included, a
+	 * slot in the frame which each invocation of the function allocates.
+	 * Only the function's own code refers to its locals, so they are
+	 * always found in the interpreter's current frame.
+	 */
 
-	private void saveBindings( Interpreter interpreter )
+	private void bindSlots()
 	{
-		if ( this.scope == null )
-		{
-			return;
-		}
-		
 		ArrayList<Value> values = new ArrayList<Value>();
 
 		for ( BasicScope next : this.scope.getScopes() )
@@ -83,34 +82,18 @@ public class UserDefinedFunction
 			{
 				if ( !current.isStatic() )
 				{
-					values.add( current.getValue( interpreter ) );
+					current.setSlot( values.size() );
+					values.add( current.content );
 				}
 			}
 		}
 
-		this.callStack.push( values );
+		this.initialValues = values.toArray( new Value[ values.size() ] );
 	}
 
-	private void restoreBindings( Interpreter interpreter )
+	public Scope getScope()
 	{
-		if ( this.scope == null )
-		{
-			return;
-		}
-
-		ArrayList<Value> values = this.callStack.pop();
-		int i = 0;
-
-		for ( BasicScope next : this.scope.getScopes() )
-		{
-			for ( Variable current : next.getVariables() )
-			{
-				if ( !current.isStatic() )
-				{
-					current.forceValue( values.get( i++ ) );
-				}
-			}
-		}
+		return this.scope;
 	}
 
 	@Override
@@ -127,22 +110,31 @@ public class UserDefinedFunction
 			throw interpreter.runtimeException( "Calling undefined user function: " + this.getName() );
 		}
 
-		// Save current variable bindings
-		this.saveBindings( interpreter );
+		// Give this invocation its own locals
+		Value[] frame = new Value[ this.initialValues.length ];
+		System.arraycopy( this.initialValues, 0, frame, 0, frame.length );
+		Value[] callerFrame = interpreter.setFrame( frame );
 
-		int paramCount = 1;
-		for ( VariableReference paramVarRef : this.variableReferences )
-		{
-			Value value = (Value)values[ paramCount++ ];
+		Value result;
 
-			// Bind parameter to new value
-			paramVarRef.setValue( interpreter, value );
-		}
+		try
+		{
+			int paramCount = 1;
+			for ( VariableReference paramVarRef : this.variableReferences )
+			{
+				Value value = (Value)values[ paramCount++ ];
 
-		Value result = this.scope.execute( interpreter );
+				// Bind parameter to new value
+				paramVarRef.setValue( interpreter, value );
+			}
 
-		// Restore initial variable bindings
-		this.restoreBindings( interpreter );
+			result = this.scope.execute( interpreter );
+		}
+		finally
+		{
+			// Return to the caller's locals
+			interpreter.setFrame( callerFrame );
+		}
 
 		if ( result.getType().equals( this.type.getBaseType() ) )
 		{
@@ -47,6 +47,14 @@ public class Variable
 	Value expression = null;
 	boolean isStatic = false;
 
+	// A local of a user-defined function keeps its value in this slot of
+	// the interpreter's current frame; content holds its initial value.
+	int slot = -1;
+
+	// Any other variable of a script whose parse tree is shared between
+	// interpreters keeps its value in each interpreter.
+	boolean shared = false;
+
 	public Variable( final Type type )
 	{
 		super( null );
@@ -85,12 +93,68 @@ public class Variable
 	{
 		if ( this.expression != null )
 		{
-			this.content = this.expression.execute( interpreter );
+			return this.expression.execute( interpreter );
+		}
+
+		if ( this.slot >= 0 && interpreter != null )
+		{
+			Value[] frame = interpreter.getFrame();
+			if ( frame != null )
+			{
+				return frame[ this.slot ];
+			}
+		}
+
+		if ( this.shared && interpreter != null )
+		{
+			Value value = interpreter.getSharedValue( this );
+			if ( value != null )
+			{
+				return value;
+			}
 		}
 
 		return this.content;
 	}
 
+	private void setContent( final Interpreter interpreter, final Value value )
+	{
+		this.expression = null;
+
+		if ( this.slot >= 0 && interpreter != null )
+		{
+			Value[] frame = interpreter.getFrame();
+			if ( frame != null )
+			{
+				frame[ this.slot ] = value;
+				return;
+			}
+		}
+
+		if ( this.shared && interpreter != null )
+		{
+			interpreter.setSharedValue( this, value );
+			return;
+		}
+
+		this.content = value;
+	}
+
+	public int getSlot()
+	{
+		return this.slot;
+	}
+
+	void setSlot( final int slot )
+	{
+		this.slot = slot;
+	}
+
+	public void markShared()
+	{
+		this.shared = true;
+	}
+
 	public Type getValueType( final Interpreter interpreter )
 	{
 		return this.getValue( interpreter ).getType();
@@ -131,23 +195,19 @@ public class Variable
 	{
 		if ( this.getBaseType().equals( DataTypes.ANY_TYPE ) || this.getBaseType().equals( targetValue.getType() ) )
 		{
-			this.content = targetValue;
-			this.expression = null;
+			this.setContent( interpreter, targetValue );
 		}
 		else if ( this.getBaseType().equals( DataTypes.TYPE_STRICT_STRING ) || this.getBaseType().equals( DataTypes.TYPE_STRING ) )
 		{
-			this.content = targetValue.toStringValue();
-			this.expression = null;
+			this.setContent( interpreter, targetValue.toStringValue() );
 		}
 		else if ( this.getBaseType().equals( DataTypes.TYPE_INT ) && targetValue.getType().equals( DataTypes.TYPE_FLOAT ) )
 		{
-			this.content = targetValue.toIntValue();
-			this.expression = null;
+			this.setContent( interpreter, targetValue.toIntValue() );
 		}
 		else if ( this.getBaseType().equals( DataTypes.TYPE_FLOAT ) && targetValue.getType().equals( DataTypes.TYPE_INT ) )
 		{
-			this.content = targetValue.toFloatValue();
-			this.expression = null;
+			this.setContent( interpreter, targetValue.toFloatValue() );
 		}
 		else
 		{
@@ -0,0 +1,385 @@
+/**
+ * Copyright (c) 2005-2018, KoLmafia development team
+ * http://kolmafia.sourceforge.net/
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  [1] Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *  [2] Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in
+ *      the documentation and/or other materials provided with the
+ *      distribution.
+ *  [3] Neither the name "KoLmafia" nor the names of its contributors may
+ *      be used to endorse or promote products derived from this software
+ *      without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION ) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE ) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.sourceforge.kolmafia.utilities;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.regex.Pattern;
+
+/**
+ * A <code>PrintStream</code> which hands everything written to it to a
+ * background thread, which writes it to another stream. Lines are kept in a
+ * bounded ring buffer; when the buffer is full, the writing thread waits for
+ * the writer to make room, so nothing is ever dropped. flush() and close()
+ * wait until everything written so far has reached the underlying stream.
+ */
+
+public class AsyncLogStream
+	extends PrintStream
+{
+	private static final int CAPACITY = 4096;
+	private static final long MAX_PENDING_CHARS = 8L * 1024 * 1024;
+
+	private static final String LINE_SEPARATOR = System.getProperty( "line.separator" );
+
+	private static final List<AsyncLogStream> openStreams = new ArrayList<AsyncLogStream>();
+
+	static
+	{
+		Runtime.getRuntime().addShutdownHook( new Thread( "AsyncLogStream shutdown" )
+		{
+			@Override
+			public void run()
+			{
+				AsyncLogStream.flushAll();
+			}
+		} );
+	}
+
+	private final PrintStream target;
+	private final Thread writer;
+
+	private final Object[] ring = new Object[ AsyncLogStream.CAPACITY ];
+	private int head = 0;
+	private int count = 0;
+	private long pendingChars = 0;
+
+	// Incremented as entries are queued and written, so that flush()
+	// can tell when everything queued before it has been written.
+	private long queued = 0;
+	private long written = 0;
+
+	private boolean closed = false;
+
+	public AsyncLogStream( final PrintStream target, final String name )
+	{
+		super( new QueueOutputStream(), false );
+
+		( (QueueOutputStream) this.out ).owner = this;
+		this.target = target;
+
+		this.writer = new Thread( new Writer(), name );
+		this.writer.setDaemon( true );
+		this.writer.start();
+
+		synchronized ( AsyncLogStream.openStreams )
+		{
+			AsyncLogStream.openStreams.add( this );
+		}
+	}
+
+	public static final void flushAll()
+	{
+		AsyncLogStream[] streams;
+
+		synchronized ( AsyncLogStream.openStreams )
+		{
+			streams = AsyncLogStream.openStreams.toArray( new AsyncLogStream[ AsyncLogStream.openStreams.size() ] );
+		}
+
+		for ( int i = 0; i < streams.length; ++i )
+		{
+			streams[ i ].flush();
+		}
+	}
+
+	/**
+	 * Queues text to be written once the given pattern has removed
+	 * everything it matches, so that the caller need not wait for it.
+	 */
+
+	public void printlnStripped( final String text, final Pattern pattern )
+	{
+		this.enqueue( new StrippedText( text, pattern ), text.length() );
+	}
+
+	@Override
+	public void print( final String s )
+	{
+		this.enqueue( s == null ? "null" : s, s == null ? 4 : s.length() );
+	}
+
+	@Override
+	public void print( final Object o )
+	{
+		this.print( String.valueOf( o ) );
+	}
+
+	@Override
+	public void println()
+	{
+		this.enqueue( AsyncLogStream.LINE_SEPARATOR, 1 );
+	}
+
+	@Override
+	public void println( final String s )
+	{
+		String line = ( s == null ? "null" : s ) + AsyncLogStream.LINE_SEPARATOR;
+		this.enqueue( line, line.length() );
+	}
+
+	@Override
+	public void println( final Object o )
+	{
+		this.println( String.valueOf( o ) );
+	}
+
+	@Override
+	public void flush()
+	{
+		long mark;
+
+		synchronized ( this )
+		{
+			if ( this.closed )
+			{
+				return;
+			}
+
+			mark = this.queued;
+		}
+
+		this.waitFor( mark );
+		this.target.flush();
+	}
+
+	@Override
+	public void close()
+	{
+		this.flush();
+
+		synchronized ( this )
+		{
+			this.closed = true;
+			this.notifyAll();
+		}
+
+		synchronized ( AsyncLogStream.openStreams )
+		{
+			AsyncLogStream.openStreams.remove( this );
+		}
+
+		this.target.close();
+	}
+
+	@Override
+	public boolean checkError()
+	{
+		return this.target.checkError();
+	}
+
+	private synchronized void enqueue( final Object entry, final long chars )
+	{
+		if ( this.closed )
+		{
+			return;
+		}
+
+		// When the buffer is full, wait for the writer rather than
+		// losing output. The writer never logs, so it cannot wait on
+		// itself, and a single oversized entry is always accepted.
+
+		while ( this.count == AsyncLogStream.CAPACITY ||
+			( this.count > 0 && this.pendingChars + chars > AsyncLogStream.MAX_PENDING_CHARS ) )
+		{
+			if ( !this.writer.isAlive() )
+			{
+				return;
+			}
+
+			try
+			{
+				this.wait();
+			}
+			catch ( InterruptedException e )
+			{
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+
+		this.ring[ ( this.head + this.count ) % AsyncLogStream.CAPACITY ] = entry;
+		++this.count;
+		++this.queued;
+		this.pendingChars += chars;
+
+		this.notifyAll();
+	}
+
+	private synchronized void waitFor( final long mark )
+	{
+		while ( this.written < mark && this.writer.isAlive() && Thread.currentThread() != this.writer )
+		{
+			try
+			{
+				this.wait();
+			}
+			catch ( InterruptedException e )
+			{
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private class Writer
+		implements Runnable
+	{
+		public void run()
+		{
+			AsyncLogStream stream = AsyncLogStream.this;
+			Object[] batch = new Object[ AsyncLogStream.CAPACITY ];
+
+			while ( true )
+			{
+				int size;
+
+				synchronized ( stream )
+				{
+					while ( stream.count == 0 && !stream.closed )
+					{
+						try
+						{
+							stream.wait();
+						}
+						catch ( InterruptedException e )
+						{
+						}
+					}
+
+					if ( stream.count == 0 )
+					{
+						return;
+					}
+
+					size = stream.count;
+					for ( int i = 0; i < size; ++i )
+					{
+						int index = ( stream.head + i ) % AsyncLogStream.CAPACITY;
+						batch[ i ] = stream.ring[ index ];
+						stream.ring[ index ] = null;
+					}
+				}
+
+				long chars = 0;
+
+				for ( int i = 0; i < size; ++i )
+				{
+					chars += this.write( batch[ i ] );
+					batch[ i ] = null;
+				}
+
+				stream.target.flush();
+
+				synchronized ( stream )
+				{
+					stream.head = ( stream.head + size ) % AsyncLogStream.CAPACITY;
+					stream.count -= size;
+					stream.pendingChars -= chars;
+					stream.written += size;
+					stream.notifyAll();
+				}
+			}
+		}
+
+		private long write( final Object entry )
+		{
+			if ( entry instanceof String )
+			{
+				String text = (String) entry;
+				AsyncLogStream.this.target.print( text );
+				return text.length();
+			}
+
+			if ( entry instanceof StrippedText )
+			{
+				StrippedText text = (StrippedText) entry;
+				AsyncLogStream.this.target.println( text.pattern.matcher( text.text ).replaceAll( "" ) );
+				return text.text.length();
+			}
+
+			byte[] bytes = (byte[]) entry;
+			AsyncLogStream.this.target.write( bytes, 0, bytes.length );
+			return bytes.length;
+		}
+	}
+
+	private static class StrippedText
+	{
+		private final String text;
+		private final Pattern pattern;
+
+		public StrippedText( final String text, final Pattern pattern )
+		{
+			this.text = text;
+			this.pattern = pattern;
+		}
+	}
+
+	/**
+	 * Receives whatever PrintStream writes as bytes, such as numbers
+	 * and characters, and queues it in order with everything else.
+	 */
+
+	private static class QueueOutputStream
+		extends OutputStream
+	{
+		private AsyncLogStream owner;
+
+		@Override
+		public void write( final int b )
+		{
+			this.write( new byte[] { (byte) b }, 0, 1 );
+		}
+
+		@Override
+		public void write( final byte[] b, final int off, final int len )
+		{
+			byte[] copy = new byte[ len ];
+			System.arraycopy( b, off, copy, 0, len );
+			this.owner.enqueue( copy, len );
+		}
+
+		@Override
+		public void flush()
+			throws IOException
+		{
+		}
+	}
+}
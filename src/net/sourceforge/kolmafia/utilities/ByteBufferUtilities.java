@@ -38,10 +38,15 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.Reader;
 
 import java.util.ArrayList;
 
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
 public class ByteBufferUtilities
 {
 	private static final byte[] EMPTY_BYTE_ARRAY = new byte[ 0 ];
@@ -52,6 +57,21 @@ public class ByteBufferUtilities
 	private static final ArrayList<ByteArrayOutputStream> BYTESTREAMS = new ArrayList<ByteArrayOutputStream>();
 	private static final ArrayList<Boolean> BYTESTREAMS_STATUS = new ArrayList<Boolean>();
 
+	private static final ArrayList<char[]> CHARARRAYS = new ArrayList<char[]>();
+	private static final ArrayList<StringBuilder> CHARSTREAMS = new ArrayList<StringBuilder>();
+
+	// Text buffers which grew beyond this many characters are discarded
+	// rather than pooled, so that one huge page does not pin its memory.
+	private static final int MAX_POOLED_CHARS = 1 << 21;
+
+	// Deflaters hold native memory, so only keep as many as the relay
+	// server can use at once and release the rest.
+	private static final ArrayList<Deflater> GZIP_DEFLATERS = new ArrayList<Deflater>();
+	private static final ArrayList<Deflater> ZLIB_DEFLATERS = new ArrayList<Deflater>();
+	private static final int MAX_POOLED_DEFLATERS = 8;
+
+	private static final byte[] GZIP_HEADER = { (byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+
 	public static byte[] read( File file )
 	{
 		try
@@ -81,6 +101,52 @@ public class ByteBufferUtilities
 		return data;
 	}
 
+	/**
+	 * Decodes the stream straight into a pooled character buffer, so
+	 * the text is copied exactly once (into the returned String) rather
+	 * than collected as bytes, copied into an array and then decoded.
+	 */
+
+	public static String readString( InputStream istream, String charset )
+		throws IOException
+	{
+		if ( istream == null )
+		{
+			return "";
+		}
+
+		Reader reader = new InputStreamReader( istream, charset );
+		StringBuilder text = ByteBufferUtilities.getStringBuilder();
+		char[] buffer = ByteBufferUtilities.getCharBuffer();
+
+		try
+		{
+			int availableChars;
+			while ( ( availableChars = reader.read( buffer ) ) != -1 )
+			{
+				text.append( buffer, 0, availableChars );
+			}
+		}
+		catch ( IOException e )
+		{
+		}
+
+		String result = text.toString();
+
+		ByteBufferUtilities.returnCharBuffer( buffer );
+		ByteBufferUtilities.returnStringBuilder( text );
+
+		try
+		{
+			reader.close();
+		}
+		catch ( IOException e )
+		{
+		}
+
+		return result;
+	}
+
 	public static void read( InputStream istream, OutputStream ostream )
 	{
 		if ( istream == null )
@@ -121,6 +187,100 @@ public class ByteBufferUtilities
 		}
 	}
 
+	/**
+	 * Compresses the data in the gzip format, for a "Content-Encoding:
+	 * gzip" response.
+	 */
+
+	public static byte[] gzip( byte[] data )
+	{
+		return ByteBufferUtilities.compress( data, true );
+	}
+
+	/**
+	 * Compresses the data in the zlib format, which is what HTTP calls
+	 * "deflate".
+	 */
+
+	public static byte[] deflate( byte[] data )
+	{
+		return ByteBufferUtilities.compress( data, false );
+	}
+
+	private static byte[] compress( byte[] data, boolean gzip )
+	{
+		Deflater deflater = ByteBufferUtilities.getDeflater( gzip );
+		ByteArrayOutputStream ostream = ByteBufferUtilities.getOutputStream();
+		byte[] buffer = ByteBufferUtilities.getBuffer();
+
+		if ( gzip )
+		{
+			ostream.write( ByteBufferUtilities.GZIP_HEADER, 0, ByteBufferUtilities.GZIP_HEADER.length );
+		}
+
+		deflater.setInput( data );
+		deflater.finish();
+
+		while ( !deflater.finished() )
+		{
+			int availableBytes = deflater.deflate( buffer );
+			ostream.write( buffer, 0, availableBytes );
+		}
+
+		if ( gzip )
+		{
+			CRC32 crc = new CRC32();
+			crc.update( data );
+			ByteBufferUtilities.writeInt( ostream, (int) crc.getValue() );
+			ByteBufferUtilities.writeInt( ostream, data.length );
+		}
+
+		byte[] result = ostream.toByteArray();
+
+		ByteBufferUtilities.returnBuffer( buffer );
+		ByteBufferUtilities.returnOutputStream( ostream );
+		ByteBufferUtilities.returnDeflater( deflater, gzip );
+
+		return result;
+	}
+
+	private static void writeInt( ByteArrayOutputStream ostream, int value )
+	{
+		// The gzip trailer is little-endian
+		ostream.write( value & 0xff );
+		ostream.write( ( value >> 8 ) & 0xff );
+		ostream.write( ( value >> 16 ) & 0xff );
+		ostream.write( ( value >> 24 ) & 0xff );
+	}
+
+	private synchronized static Deflater getDeflater( boolean gzip )
+	{
+		ArrayList<Deflater> pool = gzip ? ByteBufferUtilities.GZIP_DEFLATERS : ByteBufferUtilities.ZLIB_DEFLATERS;
+
+		int last = pool.size() - 1;
+		if ( last >= 0 )
+		{
+			return pool.remove( last );
+		}
+
+		// gzip supplies its own header and trailer around raw deflate data
+		return new Deflater( Deflater.DEFAULT_COMPRESSION, gzip );
+	}
+
+	private synchronized static void returnDeflater( Deflater deflater, boolean gzip )
+	{
+		ArrayList<Deflater> pool = gzip ? ByteBufferUtilities.GZIP_DEFLATERS : ByteBufferUtilities.ZLIB_DEFLATERS;
+
+		if ( pool.size() >= ByteBufferUtilities.MAX_POOLED_DEFLATERS )
+		{
+			deflater.end();
+			return;
+		}
+
+		deflater.reset();
+		pool.add( deflater );
+	}
+
 	private synchronized static byte[] getBuffer()
 	{
 		for ( int i = 0; i < ByteBufferUtilities.BYTEARRAYS_STATUS.size(); ++i )
@@ -185,4 +345,41 @@ public class ByteBufferUtilities
 		}
 	}
 
+	private synchronized static char[] getCharBuffer()
+	{
+		int last = ByteBufferUtilities.CHARARRAYS.size() - 1;
+		if ( last >= 0 )
+		{
+			return ByteBufferUtilities.CHARARRAYS.remove( last );
+		}
+
+		return new char[ 8192 ];
+	}
+
+	private synchronized static void returnCharBuffer( char[] buffer )
+	{
+		ByteBufferUtilities.CHARARRAYS.add( buffer );
+	}
+
+	private synchronized static StringBuilder getStringBuilder()
+	{
+		int last = ByteBufferUtilities.CHARSTREAMS.size() - 1;
+		if ( last >= 0 )
+		{
+			return ByteBufferUtilities.CHARSTREAMS.remove( last );
+		}
+
+		return new StringBuilder( 16384 );
+	}
+
+	private synchronized static void returnStringBuilder( StringBuilder text )
+	{
+		if ( text.capacity() > ByteBufferUtilities.MAX_POOLED_CHARS )
+		{
+			return;
+		}
+
+		text.setLength( 0 );
+		ByteBufferUtilities.CHARSTREAMS.add( text );
+	}
 }
@@ -0,0 +1,391 @@
+/**
+ * Copyright (c) 2005-2018, KoLmafia development team
+ * http://kolmafia.sourceforge.net/
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  [1] Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *  [2] Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in
+ *      the documentation and/or other materials provided with the
+ *      distribution.
+ *  [3] Neither the name "KoLmafia" nor the names of its contributors may
+ *      be used to endorse or promote products derived from this software
+ *      without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.sourceforge.kolmafia.utilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+
+import net.sourceforge.kolmafia.preferences.Preferences;
+
+/**
+ * Opens and releases the HTTP connections used by <code>GenericRequest</code>.
+ * The default engine keeps connections alive so that consecutive requests to
+ * the same host reuse the pooled socket (and its TLS session) instead of
+ * performing a new handshake; the legacy engine closes every connection once
+ * the response has been read.
+ */
+
+public abstract class ConnectionEngine
+{
+	public static final ConnectionEngine KEEP_ALIVE = new KeepAliveEngine();
+	public static final ConnectionEngine CLOSE = new CloseEngine();
+
+	private static ConnectionEngine engine = ConnectionEngine.KEEP_ALIVE;
+
+	private static final Map<String, PoolStatistics> statistics = new TreeMap<String, PoolStatistics>();
+
+	// The JDK creates sockets on the thread which connects, so a per-thread
+	// count tells us whether the current request needed a new connection.
+
+	private static final ThreadLocal<int[]> socketsCreated = new ThreadLocal<int[]>()
+	{
+		@Override
+		protected int[] initialValue()
+		{
+			return new int[ 1 ];
+		}
+	};
+
+	private static SSLSocketFactory countedFactory = null;
+	private static CountingSocketFactory countingFactory = null;
+
+	public static final ConnectionEngine getEngine()
+	{
+		return ConnectionEngine.engine;
+	}
+
+	public static final void setEngine( final ConnectionEngine engine )
+	{
+		ConnectionEngine.engine = engine == null ? ConnectionEngine.KEEP_ALIVE : engine;
+	}
+
+	/**
+	 * Selects the engine named by the user's settings and configures the
+	 * size of the keep-alive pool. Called whenever network settings change.
+	 */
+
+	public static final void applySettings()
+	{
+		boolean keepAlive = Preferences.getBoolean( "useKeepAliveConnections" );
+		int poolSize = Math.max( 1, Preferences.getInteger( "keepAliveConnectionLimit" ) );
+
+		System.setProperty( "http.keepAlive", String.valueOf( keepAlive ) );
+		System.setProperty( "http.maxConnections", String.valueOf( poolSize ) );
+
+		ConnectionEngine.setEngine( keepAlive ? ConnectionEngine.KEEP_ALIVE : ConnectionEngine.CLOSE );
+	}
+
+	public static final HttpURLConnection open( final URL url )
+		throws IOException
+	{
+		return ConnectionEngine.engine.openConnection( url );
+	}
+
+	public static final void release( final HttpURLConnection connection )
+	{
+		if ( connection != null )
+		{
+			ConnectionEngine.engine.releaseConnection( connection );
+		}
+	}
+
+	protected HttpURLConnection openConnection( final URL url )
+		throws IOException
+	{
+		ConnectionEngine.socketsCreated.get()[ 0 ] = 0;
+
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+
+		if ( connection instanceof HttpsURLConnection )
+		{
+			HttpsURLConnection secure = (HttpsURLConnection) connection;
+			secure.setSSLSocketFactory( ConnectionEngine.getCountingFactory( secure.getSSLSocketFactory() ) );
+		}
+
+		return connection;
+	}
+
+	protected void releaseConnection( final HttpURLConnection connection )
+	{
+		if ( !( connection instanceof HttpsURLConnection ) )
+		{
+			return;
+		}
+
+		int[] created = ConnectionEngine.socketsCreated.get();
+		ConnectionEngine.recordConnection( connection.getURL().getHost(), created[ 0 ] == 0 );
+		created[ 0 ] = 0;
+	}
+
+	private static final synchronized SSLSocketFactory getCountingFactory( final SSLSocketFactory factory )
+	{
+		// The keep-alive pool only hands a socket back to a connection
+		// which uses the same factory, so reuse the wrapper for as long
+		// as the underlying factory is unchanged.
+
+		if ( factory == ConnectionEngine.countingFactory )
+		{
+			return factory;
+		}
+
+		if ( factory != ConnectionEngine.countedFactory )
+		{
+			ConnectionEngine.countedFactory = factory;
+			ConnectionEngine.countingFactory = new CountingSocketFactory( factory );
+		}
+
+		return ConnectionEngine.countingFactory;
+	}
+
+	private static final void recordConnection( final String host, final boolean reused )
+	{
+		synchronized ( ConnectionEngine.statistics )
+		{
+			PoolStatistics stats = ConnectionEngine.statistics.get( host );
+			if ( stats == null )
+			{
+				stats = new PoolStatistics();
+				ConnectionEngine.statistics.put( host, stats );
+			}
+
+			if ( reused )
+			{
+				++stats.hits;
+			}
+			else
+			{
+				++stats.misses;
+			}
+		}
+	}
+
+	public static final void resetStatistics()
+	{
+		synchronized ( ConnectionEngine.statistics )
+		{
+			ConnectionEngine.statistics.clear();
+		}
+	}
+
+	public static final String getStatistics()
+	{
+		StringBuilder buffer = new StringBuilder();
+
+		buffer.append( "Connection engine: " );
+		buffer.append( ConnectionEngine.engine == ConnectionEngine.KEEP_ALIVE ? "keep-alive" : "close" );
+
+		synchronized ( ConnectionEngine.statistics )
+		{
+			if ( ConnectionEngine.statistics.isEmpty() )
+			{
+				buffer.append( "<br>No secure connections made yet." );
+			}
+
+			Iterator<Entry<String, PoolStatistics>> it = ConnectionEngine.statistics.entrySet().iterator();
+			while ( it.hasNext() )
+			{
+				Entry<String, PoolStatistics> entry = it.next();
+				PoolStatistics stats = entry.getValue();
+				int total = stats.hits + stats.misses;
+
+				buffer.append( "<br>" );
+				buffer.append( entry.getKey() );
+				buffer.append( ": " );
+				buffer.append( stats.hits );
+				buffer.append( " reused, " );
+				buffer.append( stats.misses );
+				buffer.append( " opened (" );
+				buffer.append( total == 0 ? 0 : ( stats.hits * 100 ) / total );
+				buffer.append( "% hit rate)" );
+			}
+		}
+
+		return buffer.toString();
+	}
+
+	/**
+	 * Reads whatever remains of a response so the socket can be returned
+	 * to the keep-alive pool rather than discarded.
+	 */
+
+	private static final void drain( final InputStream stream )
+	{
+		if ( stream == null )
+		{
+			return;
+		}
+
+		try
+		{
+			byte[] buffer = new byte[ 1024 ];
+			while ( stream.read( buffer ) != -1 )
+			{
+			}
+		}
+		catch ( IOException e )
+		{
+		}
+
+		try
+		{
+			stream.close();
+		}
+		catch ( IOException e )
+		{
+		}
+	}
+
+	private static class KeepAliveEngine
+		extends ConnectionEngine
+	{
+		@Override
+		protected HttpURLConnection openConnection( final URL url )
+			throws IOException
+		{
+			HttpURLConnection connection = super.openConnection( url );
+			connection.setRequestProperty( "Connection", "keep-alive" );
+			return connection;
+		}
+
+		@Override
+		protected void releaseConnection( final HttpURLConnection connection )
+		{
+			// Error responses leave their body unread, which would
+			// otherwise force the JDK to discard the socket.
+
+			ConnectionEngine.drain( connection.getErrorStream() );
+			super.releaseConnection( connection );
+		}
+	}
+
+	private static class CloseEngine
+		extends ConnectionEngine
+	{
+		@Override
+		protected HttpURLConnection openConnection( final URL url )
+			throws IOException
+		{
+			HttpURLConnection connection = super.openConnection( url );
+			connection.setRequestProperty( "Connection", "close" );
+			return connection;
+		}
+
+		@Override
+		protected void releaseConnection( final HttpURLConnection connection )
+		{
+			super.releaseConnection( connection );
+			connection.disconnect();
+		}
+	}
+
+	private static class PoolStatistics
+	{
+		public int hits = 0;
+		public int misses = 0;
+	}
+
+	private static class CountingSocketFactory
+		extends SSLSocketFactory
+	{
+		private final SSLSocketFactory delegate;
+
+		public CountingSocketFactory( final SSLSocketFactory delegate )
+		{
+			this.delegate = delegate;
+		}
+
+		private Socket count( final Socket socket )
+		{
+			++ConnectionEngine.socketsCreated.get()[ 0 ];
+			return socket;
+		}
+
+		@Override
+		public String[] getDefaultCipherSuites()
+		{
+			return this.delegate.getDefaultCipherSuites();
+		}
+
+		@Override
+		public String[] getSupportedCipherSuites()
+		{
+			return this.delegate.getSupportedCipherSuites();
+		}
+
+		@Override
+		public Socket createSocket()
+			throws IOException
+		{
+			return this.count( this.delegate.createSocket() );
+		}
+
+		@Override
+		public Socket createSocket( final Socket socket, final String host, final int port, final boolean autoClose )
+			throws IOException
+		{
+			return this.count( this.delegate.createSocket( socket, host, port, autoClose ) );
+		}
+
+		@Override
+		public Socket createSocket( final String host, final int port )
+			throws IOException
+		{
+			return this.count( this.delegate.createSocket( host, port ) );
+		}
+
+		@Override
+		public Socket createSocket( final String host, final int port, final InetAddress localHost, final int localPort )
+			throws IOException
+		{
+			return this.count( this.delegate.createSocket( host, port, localHost, localPort ) );
+		}
+
+		@Override
+		public Socket createSocket( final InetAddress host, final int port )
+			throws IOException
+		{
+			return this.count( this.delegate.createSocket( host, port ) );
+		}
+
+		@Override
+		public Socket createSocket( final InetAddress address, final int port, final InetAddress localAddress, final int localPort )
+			throws IOException
+		{
+			return this.count( this.delegate.createSocket( address, port, localAddress, localPort ) );
+		}
+	}
+}
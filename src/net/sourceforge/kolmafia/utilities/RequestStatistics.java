@@ -0,0 +1,349 @@
+/**
+ * Copyright (c) 2005-2018, KoLmafia development team
+ * http://kolmafia.sourceforge.net/
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  [1] Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *  [2] Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in
+ *      the documentation and/or other materials provided with the
+ *      distribution.
+ *  [3] Neither the name "KoLmafia" nor the names of its contributors may
+ *      be used to endorse or promote products derived from this software
+ *      without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION ) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE ) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.sourceforge.kolmafia.utilities;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import net.sourceforge.kolmafia.KoLConstants;
+
+/**
+ * Keeps a histogram, per page, of how long each phase of a request takes:
+ * waiting on the server, reading and decoding the reply, processing it, and
+ * so on. <code>GenericRequest</code> times its own phases and reports them
+ * here once the request is complete, so that slow turns can be blamed on
+ * either the server or KoLmafia's own parsing.
+ */
+
+public class RequestStatistics
+{
+	// Time spent connecting, sending the request and waiting for the
+	// response headers, including any redirects followed along the way.
+	public static final int NETWORK = 0;
+
+	// Time spent reading and decompressing the response body.
+	public static final int DECODE = 1;
+
+	// Time spent in processResponse, which includes RESULTS.
+	public static final int PROCESS = 2;
+
+	// Time spent in ResultProcessor on items, meat and stat gains.
+	public static final int RESULTS = 3;
+
+	// Time spent in QuestManager.handleQuestChange.
+	public static final int QUEST = 4;
+
+	// Time spent in formatResponse, which decorates relay pages.
+	public static final int DECORATE = 5;
+
+	// Time from the start of the request until it was complete.
+	public static final int TOTAL = 6;
+
+	public static final int PHASES = 7;
+
+	public static final String[] PHASE_NAMES =
+	{
+		"network",
+		"decode",
+		"process",
+		"results",
+		"quest",
+		"decorate",
+		"total",
+	};
+
+	// Upper bounds of the histogram buckets, in milliseconds. The last
+	// bucket holds everything slower than the last bound.
+
+	private static final long[] BUCKET_LIMITS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000 };
+
+	private static final Map<String, PhaseTiming[]> statistics = new TreeMap<String, PhaseTiming[]>();
+
+	/**
+	 * Adds the phase times, in nanoseconds, of one completed request for
+	 * the given page.
+	 */
+
+	public static final void record( final String path, final long[] phaseNanos )
+	{
+		if ( path == null )
+		{
+			return;
+		}
+
+		synchronized ( RequestStatistics.statistics )
+		{
+			PhaseTiming[] timings = RequestStatistics.statistics.get( path );
+			if ( timings == null )
+			{
+				timings = new PhaseTiming[ RequestStatistics.PHASES ];
+				for ( int i = 0; i < timings.length; ++i )
+				{
+					timings[ i ] = new PhaseTiming();
+				}
+				RequestStatistics.statistics.put( path, timings );
+			}
+
+			for ( int i = 0; i < RequestStatistics.PHASES; ++i )
+			{
+				timings[ i ].add( phaseNanos[ i ] );
+			}
+		}
+	}
+
+	public static final void reset()
+	{
+		synchronized ( RequestStatistics.statistics )
+		{
+			RequestStatistics.statistics.clear();
+		}
+	}
+
+	public static final List<String> getPaths()
+	{
+		synchronized ( RequestStatistics.statistics )
+		{
+			return new ArrayList<String>( RequestStatistics.statistics.keySet() );
+		}
+	}
+
+	/**
+	 * Returns a copy of the timings for one phase of the given page, or
+	 * null if no request for that page has completed.
+	 */
+
+	public static final PhaseTiming getTiming( final String path, final int phase )
+	{
+		synchronized ( RequestStatistics.statistics )
+		{
+			PhaseTiming[] timings = RequestStatistics.statistics.get( path );
+			return timings == null ? null : timings[ phase ].copy();
+		}
+	}
+
+	/**
+	 * Returns an HTML table with one row per page showing the count and
+	 * the average time of each phase. If a page is given, shows each
+	 * phase's histogram for that page instead.
+	 */
+
+	public static final String getStatistics( final String page )
+	{
+		StringBuilder buffer = new StringBuilder();
+
+		synchronized ( RequestStatistics.statistics )
+		{
+			if ( RequestStatistics.statistics.isEmpty() )
+			{
+				return "No requests have completed yet.";
+			}
+
+			if ( page.length() > 0 )
+			{
+				PhaseTiming[] timings = RequestStatistics.statistics.get( page );
+				if ( timings == null )
+				{
+					return "No requests for " + page + " have completed yet.";
+				}
+
+				RequestStatistics.appendHistograms( buffer, page, timings );
+				return buffer.toString();
+			}
+
+			buffer.append( "<table border=2 cols=" );
+			buffer.append( RequestStatistics.PHASES + 2 );
+			buffer.append( "><tr><th>page</th><th>count</th>" );
+
+			for ( int i = 0; i < RequestStatistics.PHASES; ++i )
+			{
+				buffer.append( "<th>" );
+				buffer.append( RequestStatistics.PHASE_NAMES[ i ] );
+				buffer.append( "</th>" );
+			}
+
+			buffer.append( "</tr>" );
+
+			Iterator<Entry<String, PhaseTiming[]>> it = RequestStatistics.statistics.entrySet().iterator();
+			while ( it.hasNext() )
+			{
+				Entry<String, PhaseTiming[]> entry = it.next();
+				PhaseTiming[] timings = entry.getValue();
+
+				buffer.append( "<tr><td>" );
+				buffer.append( entry.getKey() );
+				buffer.append( "</td><td>" );
+				buffer.append( timings[ RequestStatistics.TOTAL ].count );
+				buffer.append( "</td>" );
+
+				for ( int i = 0; i < RequestStatistics.PHASES; ++i )
+				{
+					buffer.append( "<td>" );
+					buffer.append( KoLConstants.FLOAT_FORMAT.format( timings[ i ].getAverage() ) );
+					buffer.append( "</td>" );
+				}
+
+				buffer.append( "</tr>" );
+			}
+
+			buffer.append( "</table>" );
+		}
+
+		buffer.append( "Average milliseconds per request." );
+		return buffer.toString();
+	}
+
+	private static void appendHistograms( final StringBuilder buffer, final String page, final PhaseTiming[] timings )
+	{
+		buffer.append( "<table border=2 cols=" );
+		buffer.append( RequestStatistics.BUCKET_LIMITS.length + 4 );
+		buffer.append( "><tr><th>" );
+		buffer.append( page );
+		buffer.append( "</th><th>avg</th><th>max</th>" );
+
+		for ( int i = 0; i < RequestStatistics.BUCKET_LIMITS.length; ++i )
+		{
+			buffer.append( "<th>&lt;" );
+			buffer.append( RequestStatistics.BUCKET_LIMITS[ i ] );
+			buffer.append( "</th>" );
+		}
+
+		buffer.append( "<th>more</th></tr>" );
+
+		for ( int i = 0; i < RequestStatistics.PHASES; ++i )
+		{
+			PhaseTiming timing = timings[ i ];
+
+			buffer.append( "<tr><td>" );
+			buffer.append( RequestStatistics.PHASE_NAMES[ i ] );
+			buffer.append( "</td><td>" );
+			buffer.append( KoLConstants.FLOAT_FORMAT.format( timing.getAverage() ) );
+			buffer.append( "</td><td>" );
+			buffer.append( KoLConstants.FLOAT_FORMAT.format( timing.getMaximum() ) );
+			buffer.append( "</td>" );
+
+			for ( int j = 0; j < timing.buckets.length; ++j )
+			{
+				buffer.append( "<td>" );
+				buffer.append( timing.buckets[ j ] );
+				buffer.append( "</td>" );
+			}
+
+			buffer.append( "</tr>" );
+		}
+
+		buffer.append( "</table>" );
+		buffer.append( "Milliseconds; the histogram counts requests by upper bound." );
+	}
+
+	public static class PhaseTiming
+	{
+		private int count = 0;
+		private long totalNanos = 0;
+		private long maxNanos = 0;
+		private final int[] buckets = new int[ RequestStatistics.BUCKET_LIMITS.length + 1 ];
+
+		private void add( final long nanos )
+		{
+			++this.count;
+			this.totalNanos += nanos;
+			this.maxNanos = Math.max( this.maxNanos, nanos );
+
+			long millis = nanos / 1000000L;
+			int bucket = 0;
+			while ( bucket < RequestStatistics.BUCKET_LIMITS.length && millis >= RequestStatistics.BUCKET_LIMITS[ bucket ] )
+			{
+				++bucket;
+			}
+
+			++this.buckets[ bucket ];
+		}
+
+		private PhaseTiming copy()
+		{
+			PhaseTiming copy = new PhaseTiming();
+			copy.count = this.count;
+			copy.totalNanos = this.totalNanos;
+			copy.maxNanos = this.maxNanos;
+			System.arraycopy( this.buckets, 0, copy.buckets, 0, this.buckets.length );
+			return copy;
+		}
+
+		public int getCount()
+		{
+			return this.count;
+		}
+
+		public double getTotal()
+		{
+			return this.totalNanos / 1000000.0;
+		}
+
+		public double getAverage()
+		{
+			return this.count == 0 ? 0.0 : this.getTotal() / this.count;
+		}
+
+		public double getMaximum()
+		{
+			return this.maxNanos / 1000000.0;
+		}
+
+		/**
+		 * Returns the upper bound, in milliseconds, of the bucket which
+		 * holds the given fraction of requests, or the maximum if that
+		 * is the last bucket.
+		 */
+
+		public double getPercentile( final double fraction )
+		{
+			int needed = (int) Math.ceil( this.count * fraction );
+			int seen = 0;
+
+			for ( int i = 0; i < RequestStatistics.BUCKET_LIMITS.length; ++i )
+			{
+				seen += this.buckets[ i ];
+				if ( seen >= needed )
+				{
+					return Math.min( RequestStatistics.BUCKET_LIMITS[ i ], this.getMaximum() );
+				}
+			}
+
+			return this.getMaximum();
+		}
+	}
+}
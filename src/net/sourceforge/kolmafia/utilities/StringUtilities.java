@@ -142,7 +142,10 @@ public class StringUtilities
 
 		if ( cache )
 		{
-			entityString = StringUtilities.entityEncodeCache.get( utf8String );
+			synchronized ( StringUtilities.entityEncodeCache )
+			{
+				entityString = StringUtilities.entityEncodeCache.get( utf8String );
+			}
 		}
 
 		if ( entityString == null )
@@ -166,7 +169,10 @@ public class StringUtilities
 
 			if ( cache && utf8String.length() < 100 )
 			{
-				StringUtilities.entityEncodeCache.put( utf8String, entityString );
+				synchronized ( StringUtilities.entityEncodeCache )
+				{
+					StringUtilities.entityEncodeCache.put( utf8String, entityString );
+				}
 			}
 		}
 
@@ -193,7 +199,10 @@ public class StringUtilities
 
 		if ( cache )
 		{
-			utf8String = StringUtilities.entityDecodeCache.get( entityString );
+			synchronized ( StringUtilities.entityDecodeCache )
+			{
+				utf8String = StringUtilities.entityDecodeCache.get( entityString );
+			}
 		}
 
 		if ( utf8String == null )
@@ -206,7 +215,10 @@ public class StringUtilities
 
 			if ( cache && entityString.length() < 100 )
 			{
-				StringUtilities.entityDecodeCache.put( entityString, utf8String );
+				synchronized ( StringUtilities.entityDecodeCache )
+				{
+					StringUtilities.entityDecodeCache.put( entityString, utf8String );
+				}
 			}
 		}
 
@@ -284,7 +296,11 @@ public class StringUtilities
 			return name;
 		}
 
-		String displayName = StringUtilities.displayNameCache.get( name );
+		String displayName;
+		synchronized ( StringUtilities.displayNameCache )
+		{
+			displayName = StringUtilities.displayNameCache.get( name );
+		}
 
 		if ( displayName == null )
 		{
@@ -293,7 +309,10 @@ public class StringUtilities
 			name = new String( name );
 
 			displayName = StringUtilities.getEntityDecode( name );
-			StringUtilities.displayNameCache.put( name, displayName );
+			synchronized ( StringUtilities.displayNameCache )
+			{
+				StringUtilities.displayNameCache.put( name, displayName );
+			}
 		}
 
 		return displayName;
@@ -310,7 +329,11 @@ public class StringUtilities
 			return null;
 		}
 
-		String canonicalName = StringUtilities.canonicalNameCache.get( name );
+		String canonicalName;
+		synchronized ( StringUtilities.canonicalNameCache )
+		{
+			canonicalName = StringUtilities.canonicalNameCache.get( name );
+		}
 
 		if ( canonicalName == null )
 		{
@@ -321,7 +344,10 @@ public class StringUtilities
 			canonicalName = StringUtilities.getEntityEncode( name ).toLowerCase();
 			if ( name.length() < 100 )
 			{
-				StringUtilities.canonicalNameCache.put( name, canonicalName );
+				synchronized ( StringUtilities.canonicalNameCache )
+				{
+					StringUtilities.canonicalNameCache.put( name, canonicalName );
+				}
 			}
 		}
 
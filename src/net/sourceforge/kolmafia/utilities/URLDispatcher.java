@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2005-2018, KoLmafia development team
+ * http://kolmafia.sourceforge.net/
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  [1] Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *  [2] Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in
+ *      the documentation and/or other materials provided with the
+ *      distribution.
+ *  [3] Neither the name "KoLmafia" nor the names of its contributors may
+ *      be used to endorse or promote products derived from this software
+ *      without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION ) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE ) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.sourceforge.kolmafia.utilities;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * An order-preserving index of handlers for KoL URLs. Each handler is
+ * registered with the paths (such as "shop.php") it can claim and, optionally,
+ * the prefix of a single field (such as whichshop=) which the URL must contain.
+ * getHandlers() returns, in registration order, only those handlers which
+ * could match a URL, so that callers need not offer every URL to every
+ * handler. Handlers registered without a path are offered every URL.
+ *
+ * Path matching is on the part of the URL before the "?"; field matching has
+ * the same meaning as urlString.contains( field + "=" + value ), which is how
+ * the handlers themselves check. Results are cached by path and field values.
+ */
+
+public class URLDispatcher<T>
+{
+	private static final int MAX_CACHED_KEYS = 512;
+
+	private final List<Entry<T>> entries = new ArrayList<Entry<T>>();
+	private final List<String> fields = new ArrayList<String>();
+	private final HashMap<String, List<T>> cache = new HashMap<String, List<T>>();
+
+	public void register( final T handler )
+	{
+		this.register( (String[]) null, null, null, handler );
+	}
+
+	public void register( final String path, final T handler )
+	{
+		this.register( new String[] { path }, null, null, handler );
+	}
+
+	public void register( final String[] paths, final T handler )
+	{
+		this.register( paths, null, null, handler );
+	}
+
+	public void register( final String path, final String field, final String value, final T handler )
+	{
+		this.register( path == null ? null : new String[] { path }, field, value, handler );
+	}
+
+	public synchronized void register( final String[] paths, final String field, final String value, final T handler )
+	{
+		this.entries.add( new Entry<T>( paths, field == null ? null : field + "=", value, handler ) );
+
+		if ( field != null && !this.fields.contains( field + "=" ) )
+		{
+			this.fields.add( field + "=" );
+		}
+
+		this.cache.clear();
+	}
+
+	/**
+	 * Returns the handlers which could claim this URL, in the order in
+	 * which they were registered. The returned list must not be modified.
+	 */
+
+	public List<T> getHandlers( final String urlString )
+	{
+		String path = URLDispatcher.getPath( urlString );
+		StringBuilder key = new StringBuilder( path );
+
+		for ( int i = 0; i < this.fields.size(); ++i )
+		{
+			String field = this.fields.get( i );
+			int index = urlString.indexOf( field );
+			if ( index == -1 )
+			{
+				continue;
+			}
+
+			// A field which appears more than once cannot be
+			// summarized by a single value.
+			if ( urlString.indexOf( field, index + 1 ) != -1 )
+			{
+				return this.match( path, urlString );
+			}
+
+			int start = index + field.length();
+			int end = urlString.indexOf( "&", start );
+
+			key.append( '&' );
+			key.append( field );
+			key.append( end == -1 ? urlString.substring( start ) : urlString.substring( start, end ) );
+		}
+
+		String cacheKey = key.toString();
+
+		synchronized ( this )
+		{
+			List<T> handlers = this.cache.get( cacheKey );
+			if ( handlers == null )
+			{
+				handlers = this.match( path, urlString );
+
+				if ( this.cache.size() >= URLDispatcher.MAX_CACHED_KEYS )
+				{
+					this.cache.clear();
+				}
+
+				this.cache.put( cacheKey, handlers );
+			}
+
+			return handlers;
+		}
+	}
+
+	private synchronized List<T> match( final String path, final String urlString )
+	{
+		List<T> handlers = new ArrayList<T>();
+
+		for ( int i = 0; i < this.entries.size(); ++i )
+		{
+			Entry<T> entry = this.entries.get( i );
+			if ( entry.matches( path, urlString ) )
+			{
+				handlers.add( entry.handler );
+			}
+		}
+
+		return handlers;
+	}
+
+	public static String getPath( final String urlString )
+	{
+		int index = urlString.indexOf( "?" );
+		return index == -1 ? urlString : urlString.substring( 0, index );
+	}
+
+	private static class Entry<T>
+	{
+		private final String[] paths;
+		private final String field;
+		private final String value;
+		private final T handler;
+
+		public Entry( final String[] paths, final String field, final String value, final T handler )
+		{
+			this.paths = paths;
+			this.field = field;
+			this.value = value;
+			this.handler = handler;
+		}
+
+		public boolean matches( final String path, final String urlString )
+		{
+			if ( this.paths != null )
+			{
+				boolean found = false;
+				for ( int i = 0; i < this.paths.length && !found; ++i )
+				{
+					found = this.paths[ i ].equals( path );
+				}
+
+				if ( !found )
+				{
+					return false;
+				}
+			}
+
+			return this.field == null || urlString.contains( this.field + this.value );
+		}
+	}
+}
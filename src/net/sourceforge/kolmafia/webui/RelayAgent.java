@@ -65,6 +65,7 @@ import net.sourceforge.kolmafia.session.ActionBarManager;
 import net.sourceforge.kolmafia.session.ChoiceManager;
 import net.sourceforge.kolmafia.session.LeafletManager;
 
+import net.sourceforge.kolmafia.utilities.ByteBufferUtilities;
 import net.sourceforge.kolmafia.utilities.PauseObject;
 import net.sourceforge.kolmafia.utilities.StringUtilities;
 
@@ -73,6 +74,10 @@ public class RelayAgent
 {
 	public static final RelayAutoCombatThread COMBAT_THREAD = new RelayAutoCombatThread();
 
+	// Responses smaller than this gain too little from compression to be
+	// worth the time it takes.
+	private static final int COMPRESSION_THRESHOLD = 1024;
+
 	private static GenericRequest errorRequest = null;
 	private static String errorRequestPath = null;
 
@@ -99,10 +104,14 @@ public class RelayAgent
 	private Socket socket = null;
 	private BufferedReader reader;
 	private PrintStream writer;
+	private boolean keepAlive;
 
 	private String path;
 	private String requestMethod;
 	private String isCheckingModified;
+	private String isCheckingETag;
+	private boolean acceptsGzip;
+	private boolean acceptsDeflate;
 	private final RelayRequest request;
 
 	public RelayAgent( final int id )
@@ -118,8 +127,14 @@ public class RelayAgent
 
 	public void setSocket( final Socket socket )
 	{
-		this.socket = socket;
-		this.pauser.unpause();
+		// Hold the pauser's lock so that a socket handed over while
+		// this agent is about to pause cannot be missed.
+
+		synchronized ( this.pauser )
+		{
+			this.socket = socket;
+			this.pauser.unpause();
+		}
 	}
 
 	@Override
@@ -127,9 +142,12 @@ public class RelayAgent
 	{
 		while ( true )
 		{
-			if ( this.socket == null )
+			synchronized ( this.pauser )
 			{
-				this.pauser.pause();
+				if ( this.socket == null )
+				{
+					this.pauser.pause();
+				}
 			}
 
 			try
@@ -139,6 +157,7 @@ public class RelayAgent
 			finally
 			{
 				this.closeRelay();
+				RelayServer.releaseAgent( this );
 			}
 		}
 	}
@@ -153,22 +172,34 @@ public class RelayAgent
 		this.path = null;
 		this.reader = null;
 		this.writer = null;
+		this.keepAlive = false;
 
 		try
 		{
-			if ( !this.readBrowserRequest() )
+			// Serve every request the browser has already sent on
+			// this connection; an idle connection goes back to the
+			// relay server to wait for the next one.
+
+			do
 			{
-				return;
-			}
+				if ( !this.readBrowserRequest() )
+				{
+					this.keepAlive = false;
+					return;
+				}
 
-			this.readServerResponse();
-			this.sendServerResponse();
+				this.readServerResponse();
+				this.sendServerResponse();
+			}
+			while ( this.keepAlive && this.reader.ready() );
 		}
 		catch ( IOException e )
 		{
+			this.keepAlive = false;
 		}
 		catch ( Exception e )
 		{
+			this.keepAlive = false;
 			StaticEntity.printStackTrace( e, "Horrible relay failure" );
 		}
 	}
@@ -179,7 +210,10 @@ public class RelayAgent
 		boolean debugging = RequestLogger.isDebugging() && Preferences.getBoolean( "logBrowserInteractions" );
 		boolean tracing = RequestLogger.isTracing();
 
-		this.reader = new BufferedReader( new InputStreamReader( this.socket.getInputStream() ) );
+		if ( this.reader == null )
+		{
+			this.reader = new BufferedReader( new InputStreamReader( this.socket.getInputStream() ) );
+		}
 
 		String requestLine = this.reader.readLine();
 
@@ -207,6 +241,11 @@ public class RelayAgent
 
 		int spaceIndex = requestLine.indexOf( " " );
 
+		// Browsers keep HTTP/1.1 connections open unless told otherwise,
+		// but only connections accepted through the relay server's
+		// selector can be handed back to it.
+		this.keepAlive = this.socket.getChannel() != null;
+
 		this.requestMethod = requestLine.substring( 0, spaceIndex );
 		boolean usePostMethod = this.requestMethod.equals( "POST" );
 		this.path = requestLine.substring( spaceIndex + 1, requestLine.lastIndexOf( " " ) );
@@ -222,6 +261,9 @@ public class RelayAgent
 		this.request.constructURLString( this.path, usePostMethod );
 		this.request.responseText = null;
 		this.isCheckingModified = null;
+		this.isCheckingETag = null;
+		this.acceptsGzip = false;
+		this.acceptsDeflate = false;
 
 		String currentLine;
 		int contentLength = 0;
@@ -237,6 +279,12 @@ public class RelayAgent
 				RequestLogger.updateDebugLog( currentLine );
 			}
 
+			if ( currentLine.regionMatches( true, 0, "Connection: ", 0, 12 ) )
+			{
+				this.keepAlive &= !currentLine.substring( 12 ).trim().equalsIgnoreCase( "close" );
+				continue;
+			}
+
 			if ( currentLine.startsWith( "Host: " ) )
 			{
 				host = currentLine.substring( 6 );
@@ -255,6 +303,18 @@ public class RelayAgent
 				continue;
 			}
 
+			if ( currentLine.startsWith( "If-None-Match: " ) )
+			{
+				this.isCheckingETag = currentLine.substring( 15 );
+				continue;
+			}
+
+			if ( currentLine.startsWith( "Accept-Encoding: " ) )
+			{
+				this.parseAcceptEncoding( currentLine.substring( 17 ) );
+				continue;
+			}
+
 			if ( currentLine.startsWith( "Content-Length" ) )
 			{
 				contentLength = StringUtilities.parseInt( currentLine.substring( 16 ) );
@@ -432,51 +492,116 @@ public class RelayAgent
 		}
 	}
 
-	private static boolean modifiedSince( String date, File file )
+	private void parseAcceptEncoding( final String encodings )
 	{
-		return	file != null &&
+		String[] split = encodings.split( "," );
+		for ( int i = 0; i < split.length; ++i )
+		{
+			String encoding = split[ i ].trim().toLowerCase();
+
+			// An encoding with a quality of zero is refused
+			int semi = encoding.indexOf( ";" );
+			if ( semi != -1 )
+			{
+				String quality = encoding.substring( semi + 1 ).replaceAll( "\\s", "" );
+				encoding = encoding.substring( 0, semi ).trim();
+				if ( quality.matches( "q=0(\\.0*)?" ) )
+				{
+					continue;
+				}
+			}
+
+			if ( encoding.equals( "gzip" ) || encoding.equals( "x-gzip" ) )
+			{
+				this.acceptsGzip = true;
+			}
+			else if ( encoding.equals( "deflate" ) )
+			{
+				this.acceptsDeflate = true;
+			}
+		}
+	}
+
+	private static boolean notModifiedSince( String date, File file )
+	{
+		// HTTP dates only have a resolution of one second
+		return	date != null &&
+			file != null &&
 			file.exists() &&
-			StringUtilities.parseDate( date ) < file.lastModified();
+			file.lastModified() / 1000 <= StringUtilities.parseDate( date ) / 1000;
 	}
 
 	private boolean shouldSendNotModified()
 	{
+		// If this request has arguments, don't check
+		if ( this.path.contains( "?" ) )
+		{
+			return false;
+		}
+
 		// Things in the "images" directory come from KoL's image server.
 		// We set the modification date to KoL's modification date.
-		if ( this.path.startsWith( "/images" ) )
+		boolean image = this.path.startsWith( "/images" );
+		File file =
+			image ?
+			RelayRequest.findLocalImage( this.path.substring( 1 ) ) :
+			RelayRequest.findRelayFile( this.path.substring( 1 ) );
+
+		// A matching ETag means the browser has exactly what we would
+		// send.  Only files served from the relay file cache have one.
+		if ( this.isCheckingETag != null )
 		{
-			return RelayAgent.modifiedSince( this.isCheckingModified, RelayRequest.findLocalImage( this.path.substring( 1 ) ) );
+			String etag = RelayFileCache.getETag( file );
+			return etag != null && this.isCheckingETag.contains( etag );
 		}
 
 		// Things in the "relay" directory are either KoLmafia builtin
-		// files or are provided by user scripts.
-		if ( !this.path.startsWith( "/relay" ) )
-		{
-			return false;
-		}
+		// files or are provided by user scripts.  Otherwise, look at
+		// the modification date of the file in the file system
+		return	( image || this.path.startsWith( "/relay" ) ) &&
+			RelayAgent.notModifiedSince( this.isCheckingModified, file );
+	}
 
-		// If this request has arguments, don't check
-		if ( this.path.contains( "?" ) )
+	/**
+	 * Rewrites links to KoL's image servers so that the browser fetches
+	 * them through the local image cache.
+	 */
+
+	public static String localizeImages( final String responseText )
+	{
+		StringBuffer responseBuffer = new StringBuffer();
+		Matcher matcher = RelayAgent.IMAGE_PATTERN.matcher( responseText );
+
+		while ( matcher.find() )
 		{
-			return false;
+			if ( matcher.group( 2 ) != null )
+			{
+				matcher.appendReplacement( responseBuffer, "$0" );
+			}
+			else
+			{
+				matcher.appendReplacement( responseBuffer, "/images" );
+			}
 		}
 
-		// Otherwise, look at the modification date of the file in the
-		// file system
-		return RelayAgent.modifiedSince( this.isCheckingModified, RelayRequest.findRelayFile( this.path.substring( 1 ) ) );
+		matcher.appendTail( responseBuffer );
+
+		return responseBuffer.toString();
 	}
 
 	private void readServerResponse()
 		throws IOException
 	{
 		// If sending a local page, check modification date of file
-		if ( this.isCheckingModified != null )
+		if ( this.isCheckingModified != null || this.isCheckingETag != null )
 		{
 			if ( this.shouldSendNotModified() )
 			{
 				this.request.pseudoResponse( "HTTP/1.1 304 Not Modified", "" );
 				this.request.responseCode = 304;
-				this.request.rawByteBuffer = this.request.responseText.getBytes( "UTF-8" );
+
+				// A 304 never has a body
+				this.request.rawByteBuffer = new byte[ 0 ];
 				return;
 			}
 
@@ -594,39 +719,46 @@ public class RelayAgent
 			if ( this.request.responseText == null )
 			{
 				// We did not make a request of KoL and did not
-				// create a pseudoResponse
+				// create a pseudoResponse. The browser gets no
+				// answer, so do not leave it waiting for one.
+				this.keepAlive = false;
 				return;
 			}
 
 			if ( Preferences.getBoolean( "useImageCache" ) )
 			{
-				StringBuffer responseBuffer = new StringBuffer();
-				Matcher matcher = RelayAgent.IMAGE_PATTERN.matcher( this.request.responseText );
-
-				while ( matcher.find() )
-				{
-					if ( matcher.group( 2 ) != null )
-					{
-						matcher.appendReplacement( responseBuffer, "$0" );
-					}
-					else
-					{
-						matcher.appendReplacement( responseBuffer, "/images" );
-					}
-				}
-
-				matcher.appendTail( responseBuffer );
-
-				this.request.responseText = responseBuffer.toString();
+				this.request.responseText = RelayAgent.localizeImages( this.request.responseText );
 			}
 
 			// Convert the responseText into a byte buffer
 			this.request.rawByteBuffer = this.request.responseText.getBytes( "UTF-8" );
 		}
 
-		this.writer = new PrintStream( this.socket.getOutputStream(), false );
+		if ( this.writer == null )
+		{
+			this.writer = new PrintStream( this.socket.getOutputStream(), false );
+		}
+
+		boolean compressible = this.isCompressible();
+		String encoding = compressible ? this.compressResponse() : null;
+
 		this.writer.println( this.request.statusLine );
 		this.request.printHeaders( this.writer );
+		if ( encoding != null )
+		{
+			this.writer.println( "Content-Encoding: " + encoding );
+		}
+		if ( compressible )
+		{
+			this.writer.println( "Vary: Accept-Encoding" );
+		}
+		// The browser can only tell where the body ends if it was
+		// told its length
+		if ( !this.request.sendsContentLength() )
+		{
+			this.keepAlive = false;
+		}
+		this.writer.println( this.keepAlive ? "Connection: keep-alive" : "Connection: close" );
 		this.writer.println();
 		this.writer.write( this.request.rawByteBuffer );
 		this.writer.flush();
@@ -667,12 +799,7 @@ public class RelayAgent
 
 		if ( Preferences.getBoolean( "logDecoratedResponses" ) )
 		{
-			String text = this.request.responseText;
-			if ( !Preferences.getBoolean( "logReadableHTML" ) )
-			{
-				text = KoLConstants.LINE_BREAK_PATTERN.matcher( text ).replaceAll( "" );
-			}
-			RequestLogger.updateDebugLog( text );
+			RequestLogger.updateDebugLogPage( this.request.responseText );
 		}
 
 		if ( interactions )
@@ -681,8 +808,64 @@ public class RelayAgent
 		}
 	}
 
+	private boolean isCompressible()
+	{
+		if ( !Preferences.getBoolean( "compressRelayResponses" ) )
+		{
+			return false;
+		}
+
+		// Cached files come with their own compressed copy
+		if ( this.request.gzippedByteBuffer != null )
+		{
+			return true;
+		}
+
+		return	this.request.responseCode == 200 &&
+			this.request.contentType != null &&
+			this.request.contentType.startsWith( "text" ) &&
+			this.request.rawByteBuffer.length >= RelayAgent.COMPRESSION_THRESHOLD;
+	}
+
+	/**
+	 * Replaces the response body with a compressed copy, if the browser
+	 * accepts one, and returns the name of the encoding used.
+	 */
+
+	private String compressResponse()
+	{
+		if ( this.acceptsGzip )
+		{
+			this.request.rawByteBuffer =
+				this.request.gzippedByteBuffer != null ?
+				this.request.gzippedByteBuffer :
+				ByteBufferUtilities.gzip( this.request.rawByteBuffer );
+			return "gzip";
+		}
+
+		if ( this.acceptsDeflate )
+		{
+			this.request.rawByteBuffer = ByteBufferUtilities.deflate( this.request.rawByteBuffer );
+			return "deflate";
+		}
+
+		return null;
+	}
+
 	private void closeRelay()
 	{
+		if ( this.keepAlive && this.socket != null && !this.socket.isClosed() )
+		{
+			// Leave the streams open; closing either would close
+			// the connection the browser wants to reuse.
+
+			RelayServer.resumeConnection( this.socket.getChannel() );
+			this.reader = null;
+			this.writer = null;
+			this.keepAlive = false;
+			return;
+		}
+
 		try
 		{
 			if ( this.reader != null )
@@ -708,7 +891,6 @@ public class RelayAgent
 			if ( this.socket != null )
 			{
 				this.socket.close();
-				this.socket = null;
 			}
 		}
 		catch ( IOException e )
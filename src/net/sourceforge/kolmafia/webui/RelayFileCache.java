@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) 2005-2018, KoLmafia development team
+ * http://kolmafia.sourceforge.net/
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  [1] Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *  [2] Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in
+ *      the documentation and/or other materials provided with the
+ *      distribution.
+ *  [3] Neither the name "KoLmafia" nor the names of its contributors may
+ *      be used to endorse or promote products derived from this software
+ *      without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.sourceforge.kolmafia.webui;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+
+import net.java.dev.spellcast.utilities.DataUtilities;
+
+import net.sourceforge.kolmafia.KoLConstants;
+
+import net.sourceforge.kolmafia.preferences.Preferences;
+
+import net.sourceforge.kolmafia.utilities.ByteBufferUtilities;
+import net.sourceforge.kolmafia.utilities.StringUtilities;
+
+/**
+ * A memory-bounded, least-recently-used cache of the static files the relay
+ * browser asks for: built-in and user relay files and the local image cache.
+ * Each entry keeps the bytes as they are sent to the browser, along with a
+ * precomputed ETag, Last-Modified date and (for text) gzipped variant. An
+ * entry is reloaded whenever its file's modification time or size changes.
+ */
+
+public class RelayFileCache
+{
+	private static final long MAX_CACHE_SIZE = 16L * 1024 * 1024;
+	private static final long MAX_ENTRY_SIZE = 1024L * 1024;
+
+	private static final LinkedHashMap<File, CachedFile> cache = new LinkedHashMap<File, CachedFile>( 64, 0.75f, true );
+	private static long cacheSize = 0;
+
+	private static int hits = 0;
+	private static int misses = 0;
+
+	/**
+	 * Returns the cached contents of an image or other binary file.
+	 */
+
+	public static CachedFile getBinary( final File file )
+	{
+		return RelayFileCache.get( file, false );
+	}
+
+	/**
+	 * Returns the cached contents of a relay text file, with its line
+	 * breaks normalized the same way relay files have always been read.
+	 */
+
+	public static CachedFile getText( final File file )
+	{
+		return RelayFileCache.get( file, true );
+	}
+
+	/**
+	 * Returns the ETag the cached copy of this file would be sent with, or
+	 * null if the file is not cached or has changed since it was cached.
+	 */
+
+	public static synchronized String getETag( final File file )
+	{
+		CachedFile cached = RelayFileCache.cache.get( file );
+		return cached != null && cached.isCurrent( file ) ? cached.etag : null;
+	}
+
+	public static synchronized void clear()
+	{
+		RelayFileCache.cache.clear();
+		RelayFileCache.cacheSize = 0;
+	}
+
+	public static synchronized String getStatistics()
+	{
+		return RelayFileCache.cache.size() + " relay files cached (" + RelayFileCache.cacheSize / 1024 + " KB), " +
+			RelayFileCache.hits + " hits, " + RelayFileCache.misses + " misses";
+	}
+
+	private static CachedFile get( final File file, final boolean text )
+	{
+		if ( file == null || !file.isFile() )
+		{
+			return null;
+		}
+
+		synchronized ( RelayFileCache.class )
+		{
+			CachedFile cached = RelayFileCache.cache.get( file );
+			if ( cached != null && cached.isCurrent( file ) )
+			{
+				++RelayFileCache.hits;
+				return cached;
+			}
+
+			++RelayFileCache.misses;
+		}
+
+		// Read the file without holding the lock, so that other
+		// agents can be served from the cache meanwhile.
+
+		CachedFile cached = new CachedFile( file, text );
+
+		if ( cached.size > RelayFileCache.MAX_ENTRY_SIZE )
+		{
+			return cached;
+		}
+
+		synchronized ( RelayFileCache.class )
+		{
+			CachedFile previous = RelayFileCache.cache.put( file, cached );
+			if ( previous != null )
+			{
+				RelayFileCache.cacheSize -= previous.size;
+			}
+
+			RelayFileCache.cacheSize += cached.size;
+
+			Iterator<Entry<File, CachedFile>> it = RelayFileCache.cache.entrySet().iterator();
+			while ( RelayFileCache.cacheSize > RelayFileCache.MAX_CACHE_SIZE && it.hasNext() )
+			{
+				CachedFile eldest = it.next().getValue();
+				if ( eldest == cached )
+				{
+					continue;
+				}
+
+				RelayFileCache.cacheSize -= eldest.size;
+				it.remove();
+			}
+		}
+
+		return cached;
+	}
+
+	private static String readText( final File file )
+	{
+		StringBuilder contentBuffer = new StringBuilder();
+		BufferedReader reader = DataUtilities.getReader( file );
+
+		try
+		{
+			String line;
+			while ( ( line = reader.readLine() ) != null )
+			{
+				contentBuffer.append( line );
+				contentBuffer.append( KoLConstants.LINE_BREAK );
+			}
+
+			reader.close();
+		}
+		catch ( IOException e )
+		{
+		}
+
+		return contentBuffer.toString();
+	}
+
+	private static byte[] getBytes( final String text )
+	{
+		try
+		{
+			return text.getBytes( "UTF-8" );
+		}
+		catch ( UnsupportedEncodingException e )
+		{
+			return text.getBytes();
+		}
+	}
+
+	public static class CachedFile
+	{
+		private final long lastModified;
+		private final long length;
+		private final boolean localImages;
+
+		public final String text;
+		public final byte[] bytes;
+		public final byte[] gzipped;
+		public final String etag;
+		public final String lastModifiedDate;
+
+		private final long size;
+
+		private CachedFile( final File file, final boolean text )
+		{
+			this.lastModified = file.lastModified();
+			this.length = file.length();
+
+			if ( text )
+			{
+				// Text is sent with its image links rewritten to
+				// the local image cache, so remember which way
+				// that preference was set.
+
+				this.localImages = Preferences.getBoolean( "useImageCache" );
+				this.text = RelayFileCache.readText( file );
+				this.bytes = RelayFileCache.getBytes( this.localImages ? RelayAgent.localizeImages( this.text ) : this.text );
+				this.gzipped = ByteBufferUtilities.gzip( this.bytes );
+			}
+			else
+			{
+				this.localImages = false;
+				this.text = null;
+				this.bytes = ByteBufferUtilities.read( file );
+				this.gzipped = null;
+			}
+
+			this.etag = "\"" + Long.toHexString( this.lastModified ) + "-" + Long.toHexString( this.length ) + ( this.localImages ? "-l" : "" ) + "\"";
+			this.lastModifiedDate = StringUtilities.formatDate( this.lastModified );
+
+			this.size =
+				this.bytes.length +
+				( this.gzipped == null ? 0 : this.gzipped.length ) +
+				( this.text == null ? 0 : this.text.length() * 2 );
+		}
+
+		private boolean isCurrent( final File file )
+		{
+			return file.lastModified() == this.lastModified &&
+				file.length() == this.length &&
+				( this.text == null || this.localImages == Preferences.getBoolean( "useImageCache" ) );
+		}
+	}
+}
@@ -34,13 +34,28 @@
 
 package net.sourceforge.kolmafia.webui;
 
+import java.io.IOException;
+
 import java.net.InetAddress;
-import java.net.ServerSocket;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
+
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 import net.sourceforge.kolmafia.KoLConstants;
 import net.sourceforge.kolmafia.KoLmafia;
 import net.sourceforge.kolmafia.StaticEntity;
@@ -58,7 +73,20 @@ public class RelayServer
 	private static long lastStatusMessage = 0;
 	private static Thread relayThread = null;
 
-	private ServerSocket serverSocket = null;
+	// Connections are accepted and watched by a selector; only a connection
+	// with a request waiting to be read is handed to a relay agent. Idle
+	// keep-alive connections therefore cost no thread at all.
+
+	private static final int MAX_AGENTS = 8;
+	private static final long KEEP_ALIVE_TIMEOUT = 15000;
+
+	private ServerSocketChannel serverChannel = null;
+	private Selector selector = null;
+	private long lastIdleCheck = 0;
+
+	private final LinkedList<Socket> pendingSockets = new LinkedList<Socket>();
+	private final ConcurrentLinkedQueue<SocketChannel> resumedChannels = new ConcurrentLinkedQueue<SocketChannel>();
+
 	private static int port = 60080;
 	private static boolean listening = false;
 	private static boolean updateStatus = false;
@@ -146,6 +174,12 @@ public class RelayServer
 	public static final void stop()
 	{
 		RelayServer.listening = false;
+
+		Selector selector = RelayServer.INSTANCE.selector;
+		if ( selector != null )
+		{
+			selector.wakeup();
+		}
 	}
 
 	public void run()
@@ -169,7 +203,7 @@ public class RelayServer
 		{
 			try
 			{
-				this.dispatchAgent( this.serverSocket.accept() );
+				this.selectConnections();
 			}
 			catch ( Exception e )
 			{
@@ -185,9 +219,18 @@ public class RelayServer
 
 		try
 		{
-			if ( this.serverSocket != null )
+			if ( this.selector != null )
 			{
-				this.serverSocket.close();
+				for ( SelectionKey key : this.selector.keys() )
+				{
+					RelayServer.closeChannel( key.channel() );
+				}
+				this.selector.close();
+			}
+
+			if ( this.serverChannel != null )
+			{
+				this.serverChannel.close();
 			}
 		}
 		catch ( Exception e )
@@ -197,7 +240,14 @@ public class RelayServer
 			// if it does, the socket closes.
 		}
 
-		this.serverSocket = null;
+		SocketChannel channel;
+		while ( ( channel = this.resumedChannels.poll() ) != null )
+		{
+			RelayServer.closeChannel( channel );
+		}
+
+		this.selector = null;
+		this.serverChannel = null;
 		RelayServer.relayThread = null;
 	}
 
@@ -205,23 +255,171 @@ public class RelayServer
 	{
 		try
 		{
+			this.serverChannel = ServerSocketChannel.open();
+
 			if ( Preferences.getBoolean( "relayAllowRemoteAccess" ) )
 			{
-				this.serverSocket = new ServerSocket( RelayServer.port, 25 );
+				this.serverChannel.socket().bind( new InetSocketAddress( RelayServer.port ), 25 );
 			}
 			else
 			{
-				this.serverSocket = new ServerSocket( RelayServer.port, 25, InetAddress.getByName( "127.0.0.1" ) );
+				this.serverChannel.socket().bind( new InetSocketAddress( InetAddress.getByName( "127.0.0.1" ), RelayServer.port ), 25 );
 			}
 
+			this.serverChannel.configureBlocking( false );
+			this.selector = Selector.open();
+			this.serverChannel.register( this.selector, SelectionKey.OP_ACCEPT );
+
 			return true;
 		}
 		catch ( Exception e )
 		{
+			RelayServer.closeChannel( this.serverChannel );
+			this.serverChannel = null;
 			return false;
 		}
 	}
 
+	private void selectConnections()
+		throws IOException
+	{
+		this.selector.select( 1000 );
+
+		long now = System.currentTimeMillis();
+
+		// Connections whose agents finished with them wait here for
+		// the browser's next request.
+
+		SocketChannel channel;
+		while ( ( channel = this.resumedChannels.poll() ) != null )
+		{
+			try
+			{
+				channel.configureBlocking( false );
+				channel.register( this.selector, SelectionKey.OP_READ, new long[] { now } );
+			}
+			catch ( IOException e )
+			{
+				RelayServer.closeChannel( channel );
+			}
+		}
+
+		List<SocketChannel> readyChannels = new ArrayList<SocketChannel>();
+		Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+
+		while ( keys.hasNext() )
+		{
+			SelectionKey key = keys.next();
+			keys.remove();
+
+			if ( !key.isValid() )
+			{
+				continue;
+			}
+
+			if ( key.isAcceptable() )
+			{
+				SocketChannel accepted = this.serverChannel.accept();
+				if ( accepted != null )
+				{
+					accepted.configureBlocking( false );
+					accepted.register( this.selector, SelectionKey.OP_READ, new long[] { now } );
+				}
+			}
+			else if ( key.isReadable() )
+			{
+				key.cancel();
+				readyChannels.add( (SocketChannel) key.channel() );
+			}
+		}
+
+		if ( !readyChannels.isEmpty() )
+		{
+			// Flush the cancelled keys so that the channels can be
+			// switched to the blocking mode that agents expect.
+
+			this.selector.selectNow();
+
+			for ( SocketChannel ready : readyChannels )
+			{
+				try
+				{
+					ready.configureBlocking( true );
+					this.dispatchAgent( ready.socket() );
+				}
+				catch ( IOException e )
+				{
+					RelayServer.closeChannel( ready );
+				}
+			}
+		}
+
+		if ( now - this.lastIdleCheck >= 1000 )
+		{
+			this.lastIdleCheck = now;
+			this.closeIdleConnections( now );
+		}
+	}
+
+	private void closeIdleConnections( final long now )
+	{
+		for ( SelectionKey key : this.selector.keys() )
+		{
+			Object attachment = key.attachment();
+			if ( key.isValid() && attachment instanceof long[] &&
+			     now - ( (long[]) attachment )[ 0 ] > RelayServer.KEEP_ALIVE_TIMEOUT )
+			{
+				key.cancel();
+				RelayServer.closeChannel( key.channel() );
+			}
+		}
+	}
+
+	private static void closeChannel( final Channel channel )
+	{
+		try
+		{
+			if ( channel != null )
+			{
+				channel.close();
+			}
+		}
+		catch ( IOException e )
+		{
+		}
+	}
+
+	/**
+	 * Returns a kept-alive connection to the selector once its agent has
+	 * answered every request the browser sent on it.
+	 */
+
+	public static final void resumeConnection( final SocketChannel channel )
+	{
+		Selector selector = RelayServer.INSTANCE.selector;
+		if ( channel == null || selector == null || !RelayServer.listening )
+		{
+			RelayServer.closeChannel( channel );
+			return;
+		}
+
+		RelayServer.INSTANCE.resumedChannels.add( channel );
+		selector.wakeup();
+	}
+
+	/**
+	 * Gives an agent which finished its connection the oldest connection
+	 * still waiting for an agent, or marks it as waiting if there is none.
+	 */
+
+	public static final void releaseAgent( final RelayAgent agent )
+	{
+		synchronized ( RelayServer.INSTANCE )
+		{
+			agent.setSocket( RelayServer.INSTANCE.pendingSockets.poll() );
+		}
+	}
+
 	private synchronized void closeAgents()
 	{
 		for ( RelayAgent agent : agentThreads )
@@ -229,6 +427,12 @@ public class RelayServer
 			agent.setSocket( null );
 		}
 		agentThreads.clear();
+
+		for ( Socket socket : this.pendingSockets )
+		{
+			RelayServer.closeChannel( socket.getChannel() );
+		}
+		this.pendingSockets.clear();
 	}
 
 	private synchronized void dispatchAgent( final Socket socket )
@@ -242,6 +446,12 @@ public class RelayServer
 			}
 		}
 
+		if ( RelayServer.agentThreads.size() >= RelayServer.MAX_AGENTS )
+		{
+			this.pendingSockets.add( socket );
+			return;
+		}
+
 		this.createAgent( socket );
 	}
 